@@ -0,0 +1,84 @@
+package just.inventory.benchmarks;
+
+import com.google.zxing.WriterException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.service.BarcodeService;
+import just.inventory.backend.service.GeminiCircuitBreaker;
+import just.inventory.backend.service.InventoryMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Label rendering: a single PNG label, a PDF sheet of {@code labelsPerPdf} labels and
+ * ESC/POS thermal printer commands.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class BarcodeBenchmark {
+
+    @Param({"10"})
+    public int officeCount;
+
+    @Param({"1000"})
+    public int instanceCount;
+
+    @Param({"1", "50"})
+    public int labelsPerPdf;
+
+    private SyntheticInventory data;
+    private BarcodeService barcodeService;
+    private int nextInstance;
+
+    @Setup
+    public void setUp() {
+        data = new SyntheticInventory(officeCount, instanceCount, 200, 100, 0, 42L);
+
+        ItemInstanceRepository itemInstanceRepository = Fakes.repository(ItemInstanceRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(data.instancesById.get((Long) args[0]))));
+
+        barcodeService = new BarcodeService();
+        Fakes.inject(barcodeService, "itemInstanceRepository", itemInstanceRepository);
+        Fakes.inject(barcodeService, "inventoryMetrics",
+                new InventoryMetrics(new SimpleMeterRegistry(), new GeminiCircuitBreaker()));
+    }
+
+    @Benchmark
+    public byte[] label() throws WriterException, IOException {
+        return barcodeService.generateBarcodeLabel(data.instance(nextInstance++).getId());
+    }
+
+    @Benchmark
+    public byte[] labelsPdf() throws WriterException, IOException {
+        List<Long> ids = new ArrayList<>(labelsPerPdf);
+        for (int i = 0; i < labelsPerPdf; i++) {
+            ids.add(data.instance(nextInstance++).getId());
+        }
+        return barcodeService.generateBarcodeLabelsPDF(ids);
+    }
+
+    @Benchmark
+    public byte[] escPos() throws WriterException, IOException {
+        return barcodeService.generateESCPOSCommands(data.instance(nextInstance++).getId());
+    }
+}
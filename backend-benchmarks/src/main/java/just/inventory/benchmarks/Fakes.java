@@ -0,0 +1,64 @@
+package just.inventory.benchmarks;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Wiring helpers that let services run against {@link SyntheticInventory} instead of a database.
+ */
+public final class Fakes {
+
+    private Fakes() {
+    }
+
+    /**
+     * A Spring Data repository whose methods are answered by {@code handlers}, keyed by method name.
+     * Calling any other repository method fails loudly so a benchmark never silently measures a stub.
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> R repository(Class<R> type, Map<String, Function<Object[], Object>> handlers) {
+        Map<String, Function<Object[], Object>> byName = new HashMap<>(handlers);
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "toString":
+                    return "Fake" + type.getSimpleName();
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    Function<Object[], Object> answer = byName.get(method.getName());
+                    if (answer == null) {
+                        throw new UnsupportedOperationException(
+                                type.getSimpleName() + "." + method.getName() + " is not faked");
+                    }
+                    return answer.apply(args == null ? new Object[0] : args);
+            }
+        };
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    /**
+     * Sets a (usually {@code @Autowired} or {@code @Value}) field, walking up the class hierarchy.
+     */
+    public static <T> T inject(T target, String fieldName, Object value) {
+        Class<?> type = target.getClass();
+        while (type != null) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return target;
+            } catch (NoSuchFieldException e) {
+                type = type.getSuperclass();
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Cannot set " + fieldName, e);
+            }
+        }
+        throw new IllegalArgumentException(target.getClass().getSimpleName() + " has no field " + fieldName);
+    }
+}
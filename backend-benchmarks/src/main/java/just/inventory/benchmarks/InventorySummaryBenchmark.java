@@ -0,0 +1,93 @@
+package just.inventory.benchmarks;
+
+import just.inventory.backend.dto.ItemInstanceView;
+import just.inventory.backend.model.Inventory;
+import just.inventory.backend.model.Item;
+import just.inventory.backend.model.ItemInstance;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.repository.InventoryRepository;
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.repository.OfficeRepository;
+import just.inventory.backend.service.InventoryService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Office inventory summary (the dashboard's per-office totals and breakdowns).
+ * Repositories answer from memory, so this measures the in-JVM aggregation only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventorySummaryBenchmark {
+
+    @Param({"10", "100"})
+    public int officeCount;
+
+    @Param({"10000", "100000"})
+    public int instanceCount;
+
+    private SyntheticInventory data;
+    private InventoryService inventoryService;
+    private int nextOffice;
+
+    @Setup
+    public void setUp() {
+        data = new SyntheticInventory(officeCount, instanceCount, 200, 100, 0, 42L);
+
+        OfficeRepository officeRepository = Fakes.repository(OfficeRepository.class, Map.of(
+                "findById", args -> Optional.ofNullable(data.officesById.get((Long) args[0]))));
+        InventoryRepository inventoryRepository = Fakes.repository(InventoryRepository.class, Map.of(
+                "findByOfficeId", args -> Optional.ofNullable(data.inventoriesByOfficeId.get((Long) args[0])),
+                "findIdByOfficeId", args -> Optional.ofNullable(data.inventoriesByOfficeId.get((Long) args[0]))
+                        .map(Inventory::getId)));
+        // The service reads constructor-expression views; build them once, as the query would
+        Map<Long, List<ItemInstanceView>> viewsByInventoryId = new HashMap<>();
+        data.instancesByInventoryId.forEach((inventoryId, instances) ->
+                viewsByInventoryId.put(inventoryId, instances.stream().map(InventorySummaryBenchmark::view).toList()));
+        ItemInstanceRepository itemInstanceRepository = Fakes.repository(ItemInstanceRepository.class, Map.of(
+                "findViewsByInventoryId", args -> viewsByInventoryId.getOrDefault((Long) args[0], List.of())));
+
+        inventoryService = new InventoryService();
+        Fakes.inject(inventoryService, "officeRepository", officeRepository);
+        Fakes.inject(inventoryService, "inventoryRepository", inventoryRepository);
+        Fakes.inject(inventoryService, "itemInstanceRepository", itemInstanceRepository);
+    }
+
+    @Benchmark
+    public Map<String, Object> inventorySummary() {
+        return inventoryService.getInventorySummaryByOfficeId(data.office(nextOffice++).getId());
+    }
+
+    private static ItemInstanceView view(ItemInstance instance) {
+        Item item = instance.getItem();
+        Office owner = instance.getOwnerOffice();
+        return new ItemInstanceView(instance.getId(), instance.getBarcode(), instance.getStatus(),
+                instance.getSerialNumber(), instance.getPurchaseDate(), instance.getPurchasePrice(),
+                instance.getWarrantyExpiry(), instance.getRemarks(), instance.getCreatedAt(),
+                item.getId(), item.getName(), item.getDescription(),
+                item.getCategory() != null ? item.getCategory().getId() : null,
+                item.getCategory() != null ? item.getCategory().getName() : null,
+                item.getUnit() != null ? item.getUnit().getId() : null,
+                item.getUnit() != null ? item.getUnit().getName() : null,
+                owner.getId(), owner.getName(), owner.getCode());
+    }
+}
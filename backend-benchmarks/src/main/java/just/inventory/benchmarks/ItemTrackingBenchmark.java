@@ -0,0 +1,73 @@
+package just.inventory.benchmarks;
+
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.repository.ItemTransactionRepository;
+import just.inventory.backend.repository.PurchaseRepository;
+import just.inventory.backend.service.ItemTrackingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Barcode tracking lookup. The purchase match scans every purchase, so purchaseCount
+ * is the parameter to watch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemTrackingBenchmark {
+
+    @Param({"10", "100"})
+    public int officeCount;
+
+    @Param({"10000"})
+    public int instanceCount;
+
+    @Param({"1000", "10000"})
+    public int purchaseCount;
+
+    @Param({"8"})
+    public int transactionsPerInstance;
+
+    private SyntheticInventory data;
+    private ItemTrackingService itemTrackingService;
+    private int nextInstance;
+
+    @Setup
+    public void setUp() {
+        data = new SyntheticInventory(officeCount, instanceCount, 200, purchaseCount, transactionsPerInstance, 42L);
+
+        ItemInstanceRepository itemInstanceRepository = Fakes.repository(ItemInstanceRepository.class, Map.of(
+                "findByBarcode", args -> Optional.ofNullable(data.instancesByBarcode.get((String) args[0]))));
+        ItemTransactionRepository itemTransactionRepository = Fakes.repository(ItemTransactionRepository.class, Map.of(
+                "findByItemInstanceId", args -> data.transactionsByInstanceId.getOrDefault((Long) args[0], List.of())));
+        PurchaseRepository purchaseRepository = Fakes.repository(PurchaseRepository.class, Map.of(
+                "findAll", args -> data.purchases));
+
+        itemTrackingService = new ItemTrackingService();
+        Fakes.inject(itemTrackingService, "itemInstanceRepository", itemInstanceRepository);
+        Fakes.inject(itemTrackingService, "itemTransactionRepository", itemTransactionRepository);
+        Fakes.inject(itemTrackingService, "purchaseRepository", purchaseRepository);
+    }
+
+    @Benchmark
+    public Map<String, Object> trackByBarcode() {
+        return itemTrackingService.trackItemByBarcode(data.instance(nextInstance++).getBarcode());
+    }
+}
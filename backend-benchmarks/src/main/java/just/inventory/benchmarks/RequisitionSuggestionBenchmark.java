@@ -0,0 +1,195 @@
+package just.inventory.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import just.inventory.backend.dto.CatalogItemName;
+import just.inventory.backend.dto.DemandForecastLine;
+import just.inventory.backend.dto.ItemDemandStats;
+import just.inventory.backend.dto.ItemStockCount;
+import just.inventory.backend.dto.RecentRequestLine;
+import just.inventory.backend.dto.RequisitionSuggestionResponse;
+import just.inventory.backend.model.Item;
+import just.inventory.backend.model.ItemInstance;
+import just.inventory.backend.model.ItemRequest;
+import just.inventory.backend.service.RequisitionSuggestionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The CPU side of requisition suggestions: building the Gemini prompt, mapping a model
+ * answer back onto the catalog (including fuzzy matches) and the forecast-only path.
+ * The provider call itself is out of scope.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequisitionSuggestionBenchmark {
+
+    @Param({"10", "100"})
+    public int officeCount;
+
+    @Param({"10000"})
+    public int instanceCount;
+
+    @Param({"200", "2000"})
+    public int itemCount;
+
+    private RequisitionSuggestionService service;
+    private MethodHandle buildPrompt;
+    private MethodHandle normalizeSuggestions;
+
+    private List<ItemStockCount> availableStock;
+    private List<DemandForecastLine> forecasts;
+    private List<ItemDemandStats> demandStats;
+    private List<RecentRequestLine> recentRequests;
+    private List<CatalogItemName> catalogItems;
+    private String modelContent;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        SyntheticInventory data = new SyntheticInventory(officeCount, instanceCount, itemCount, 100, 0, 42L);
+
+        service = new RequisitionSuggestionService();
+        Fakes.inject(service, "objectMapper", new ObjectMapper());
+        buildPrompt = privateMethod("buildPrompt", String.class, String.class, String.class,
+                List.class, List.class, List.class);
+        normalizeSuggestions = privateMethod("normalizeSuggestions", String.class, List.class);
+
+        // Stock of the parent office, the shape the controller hands over
+        // Entities hash through their relations, so group by id
+        Map<Long, Long> available = data.instances.stream()
+                .filter(i -> i.getOwnerOffice() == data.offices.get(0))
+                .filter(i -> i.getStatus() == ItemInstance.ItemStatus.AVAILABLE)
+                .collect(Collectors.groupingBy(i -> i.getItem().getId(), Collectors.counting()));
+        availableStock = available.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .map(e -> stockCount(data.items.get((int) (e.getKey() - 1)), e.getValue()))
+                .collect(Collectors.toList());
+
+        Long officeId = data.office(1).getId();
+        List<ItemRequest> officeRequests = data.requests.stream()
+                .filter(r -> r.getRequestingOffice().getId().equals(officeId))
+                .sorted(Comparator.comparing(ItemRequest::getRequestedDate).reversed())
+                .collect(Collectors.toList());
+        Map<Long, List<ItemRequest>> byItem = officeRequests.stream()
+                .collect(Collectors.groupingBy(r -> r.getItem().getId(), TreeMap::new, Collectors.toList()));
+
+        demandStats = new ArrayList<>();
+        forecasts = new ArrayList<>();
+        byItem.forEach((itemId, requests) -> {
+            Item item = requests.get(0).getItem();
+            double total = requests.stream().mapToDouble(ItemRequest::getRequestedQuantity).sum();
+            demandStats.add(demandStats(item.getId(), requests.size(), total));
+            forecasts.add(forecastLine(officeId, item, total / 12.0, Math.min(36, requests.size() * 3)));
+        });
+        forecasts.sort(Comparator.comparing(DemandForecastLine::getForecastQuantity).reversed());
+        recentRequests = officeRequests.stream().limit(20).map(this::recentRequest).collect(Collectors.toList());
+        catalogItems = data.items.stream().map(this::catalogItem).collect(Collectors.toList());
+
+        // A typical model answer: mostly exact names, a misspelling and an unknown item
+        StringBuilder json = new StringBuilder("Here you go:\n```json\n{\"suggestions\":[");
+        for (int i = 0; i < 8; i++) {
+            String name = data.items.get((i * 7) % data.items.size()).getName();
+            if (i == 5) name = name.substring(0, name.length() - 2) + name.charAt(name.length() - 1);
+            if (i == 7) name = "Quantum Flux Capacitor";
+            if (i > 0) json.append(',');
+            json.append("{\"itemName\":\"").append(name).append("\",\"quantity\":").append(1 + i)
+                    .append(",\"reason\":\"Matches recent usage\"}");
+        }
+        modelContent = json.append("]}\n```").toString();
+    }
+
+    @Benchmark
+    public Object buildPrompt() throws Throwable {
+        return buildPrompt.invoke(service, "Department of Synthetic Studies 2", "Department of Synthetic Studies 1",
+                "New semester lab setup", availableStock, forecasts, recentRequests);
+    }
+
+    @Benchmark
+    public Object normalizeSuggestions() throws Throwable {
+        return normalizeSuggestions.invoke(service, modelContent, catalogItems);
+    }
+
+    @Benchmark
+    public RequisitionSuggestionResponse suggestWithoutAi() {
+        return service.suggestWithoutAi(availableStock, forecasts, demandStats);
+    }
+
+    private static MethodHandle privateMethod(String name, Class<?>... parameterTypes)
+            throws ReflectiveOperationException {
+        Method method = RequisitionSuggestionService.class.getDeclaredMethod(name, parameterTypes);
+        method.setAccessible(true);
+        return MethodHandles.lookup().unreflect(method);
+    }
+
+    // -----------------------------------------------------------------------
+    // Projection stand-ins
+    // -----------------------------------------------------------------------
+
+    private ItemStockCount stockCount(Item item, Long count) {
+        return new ItemStockCount() {
+            public Long getItemId() { return item.getId(); }
+            public String getItemName() { return item.getName(); }
+            public Long getAvailableCount() { return count; }
+        };
+    }
+
+    private ItemDemandStats demandStats(Long itemId, long requestCount, double totalRequested) {
+        return new ItemDemandStats() {
+            public Long getItemId() { return itemId; }
+            public Long getRequestCount() { return requestCount; }
+            public Double getTotalRequested() { return totalRequested; }
+        };
+    }
+
+    private DemandForecastLine forecastLine(Long officeId, Item item, double quantity, int observedMonths) {
+        return new DemandForecastLine() {
+            public Long getOfficeId() { return officeId; }
+            public Long getItemId() { return item.getId(); }
+            public String getItemName() { return item.getName(); }
+            public Double getForecastQuantity() { return quantity; }
+            public Integer getObservedMonths() { return observedMonths; }
+        };
+    }
+
+    private RecentRequestLine recentRequest(ItemRequest request) {
+        return new RecentRequestLine() {
+            public LocalDateTime getRequestedDate() { return request.getRequestedDate(); }
+            public String getItemName() { return request.getItem().getName(); }
+            public Double getRequestedQuantity() { return request.getRequestedQuantity(); }
+            public Double getApprovedQuantity() { return request.getApprovedQuantity(); }
+            public ItemRequest.RequestStatus getStatus() { return request.getStatus(); }
+            public String getReason() { return request.getReason(); }
+        };
+    }
+
+    private CatalogItemName catalogItem(Item item) {
+        return new CatalogItemName() {
+            public Long getId() { return item.getId(); }
+            public String getName() { return item.getName(); }
+        };
+    }
+}
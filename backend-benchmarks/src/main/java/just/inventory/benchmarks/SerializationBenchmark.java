@@ -0,0 +1,78 @@
+package just.inventory.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import just.inventory.backend.model.ItemInstance;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writing an office item list ({@code rows} entity graphs, as returned by
+ * {@code /api/inventories/office/{id}/items}) in each negotiable encoding, with and without the
+ * gzip step Tomcat adds for clients that accept it. The encoded size is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"10000"})
+    public int rows;
+
+    @Param({"json", "smile", "cbor"})
+    public String encoding;
+
+    @Param({"false", "true"})
+    public boolean gzip;
+
+    private List<ItemInstance> instances;
+    private ObjectMapper mapper;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 24);
+
+    @Setup
+    public void setUp() throws IOException {
+        instances = new SyntheticInventory(10, rows, 200, 100, 0, 42L).instances;
+        // Same settings as the converters: Boot's builder defaults plus the encoding's factory
+        Jackson2ObjectMapperBuilder builder = new Jackson2ObjectMapperBuilder()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        mapper = switch (encoding) {
+            case "json" -> builder.build();
+            case "smile" -> builder.factory(new SmileFactory()
+                    .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)).build();
+            case "cbor" -> builder.factory(new CBORFactory()).build();
+            default -> throw new IllegalArgumentException(encoding);
+        };
+        System.out.printf("%n%s%s: %d bytes for %d rows%n", encoding, gzip ? "+gzip" : "", write(), rows);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        buffer.reset();
+        OutputStream out = gzip ? new GZIPOutputStream(buffer, 8192) : buffer;
+        mapper.writeValue(out, instances);
+        return buffer.size();
+    }
+}
@@ -0,0 +1,230 @@
+package just.inventory.benchmarks;
+
+import just.inventory.backend.model.Category;
+import just.inventory.backend.model.Inventory;
+import just.inventory.backend.model.Item;
+import just.inventory.backend.model.ItemInstance;
+import just.inventory.backend.model.ItemRequest;
+import just.inventory.backend.model.ItemTransaction;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.model.Purchase;
+import just.inventory.backend.model.PurchaseItem;
+import just.inventory.backend.model.Role;
+import just.inventory.backend.model.Unit;
+import just.inventory.backend.model.User;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic in-memory inventory used by the benchmarks in place of a database.
+ * The shape follows production data: a fixed catalog, a few users per office,
+ * instances spread across offices and a short movement history per instance.
+ */
+public class SyntheticInventory {
+
+    private static final String[] CATEGORY_NAMES = {
+            "Computer Hardware", "Networking", "Printers & Scanners", "Furniture",
+            "Laboratory Equipment", "Stationery", "Electrical", "Audio Visual"
+    };
+
+    private static final String[] ITEM_WORDS = {
+            "Desktop", "Laptop", "Server", "Router", "Switch", "Printer", "Scanner", "Projector",
+            "Chair", "Table", "Cabinet", "Microscope", "Oscilloscope", "Multimeter", "Bulb", "Cable"
+    };
+
+    private static final String[] BRANDS = {"Dell", "HP", "Cisco", "Canon", "Epson", "Hatil", "Walton", "Philips"};
+
+    private static final String[] SUPPLIERS = {"Star Tech", "Ryans", "Techland", "Global Brand", "Smart Technologies"};
+
+    public final List<Category> categories = new ArrayList<>();
+    public final List<Item> items = new ArrayList<>();
+    public final List<Office> offices = new ArrayList<>();
+    public final List<User> users = new ArrayList<>();
+    public final List<Purchase> purchases = new ArrayList<>();
+    public final List<ItemInstance> instances = new ArrayList<>();
+    public final List<ItemRequest> requests = new ArrayList<>();
+
+    public final Map<Long, Office> officesById = new HashMap<>();
+    public final Map<Long, Inventory> inventoriesByOfficeId = new HashMap<>();
+    public final Map<Long, List<ItemInstance>> instancesByInventoryId = new HashMap<>();
+    public final Map<Long, ItemInstance> instancesById = new HashMap<>();
+    public final Map<String, ItemInstance> instancesByBarcode = new HashMap<>();
+    public final Map<Long, List<ItemTransaction>> transactionsByInstanceId = new HashMap<>();
+
+    private final SplittableRandom random;
+
+    /**
+     * @param officeCount             offices, each with its own inventory and users
+     * @param instanceCount           item instances spread randomly across offices
+     * @param itemCount               catalog size
+     * @param purchaseCount           purchase records (scanned by barcode tracking)
+     * @param transactionsPerInstance movement history length of every instance
+     * @param seed                    same seed, same data
+     */
+    public SyntheticInventory(int officeCount, int instanceCount, int itemCount,
+                              int purchaseCount, int transactionsPerInstance, long seed) {
+        this.random = new SplittableRandom(seed);
+
+        Unit unit = new Unit();
+        unit.setId(1L);
+        unit.setName("Piece");
+
+        for (int i = 0; i < CATEGORY_NAMES.length; i++) {
+            Category category = new Category();
+            category.setId((long) i + 1);
+            category.setName(CATEGORY_NAMES[i]);
+            categories.add(category);
+        }
+
+        for (int i = 0; i < itemCount; i++) {
+            Item item = new Item();
+            item.setId((long) i + 1);
+            String brand = BRANDS[i % BRANDS.length];
+            String word = ITEM_WORDS[(i / BRANDS.length) % ITEM_WORDS.length];
+            item.setName(brand + " " + word + (i >= BRANDS.length * ITEM_WORDS.length ? " " + i : ""));
+            item.setDescription(brand + " " + word.toLowerCase() + " model " + (1000 + i));
+            item.setCategory(categories.get(i % categories.size()));
+            item.setUnit(unit);
+            items.add(item);
+        }
+
+        Role role = new Role();
+        role.setId(1L);
+        role.setName("USER");
+
+        for (int i = 0; i < officeCount; i++) {
+            Office office = new Office();
+            office.setId((long) i + 1);
+            office.setName("Department of Synthetic Studies " + (i + 1));
+            office.setNameBn("কৃত্রিম অধ্যয়ন বিভাগ " + (i + 1));
+            office.setCode("OFF" + (i + 1));
+            office.setType("DEPARTMENT");
+            if (i > 0) {
+                office.setParent(offices.get(0));
+            }
+            offices.add(office);
+            officesById.put(office.getId(), office);
+
+            Inventory inventory = new Inventory();
+            inventory.setId(office.getId());
+            inventory.setOffice(office);
+            office.setInventory(inventory);
+            inventoriesByOfficeId.put(office.getId(), inventory);
+            instancesByInventoryId.put(inventory.getId(), new ArrayList<>());
+
+            User user = new User();
+            user.setId(office.getId());
+            user.setUsername("user.off" + (i + 1));
+            user.setFullName("Synthetic User " + (i + 1));
+            user.setOffice(office);
+            user.setRole(role);
+            users.add(user);
+        }
+
+        LocalDateTime start = LocalDateTime.of(2023, 1, 1, 9, 0);
+        for (int i = 0; i < purchaseCount; i++) {
+            Purchase purchase = new Purchase();
+            purchase.setId((long) i + 1);
+            purchase.setOffice(pick(offices));
+            purchase.setPurchasedBy(users.get((int) (purchase.getOffice().getId() - 1)));
+            purchase.setSupplier(SUPPLIERS[i % SUPPLIERS.length]);
+            purchase.setInvoiceNumber("INV-" + (10000 + i));
+            purchase.setPurchasedDate(start.plusDays(random.nextInt(900)).plusMinutes(random.nextInt(600)));
+
+            int lines = 1 + random.nextInt(3);
+            for (int l = 0; l < lines; l++) {
+                PurchaseItem line = new PurchaseItem();
+                line.setId(purchase.getId() * 10 + l);
+                line.setPurchase(purchase);
+                line.setItem(pick(items));
+                line.setQuantity((double) (1 + random.nextInt(10)));
+                line.setUnitPrice(500.0 + random.nextInt(100_000));
+                purchase.getItems().add(line);
+            }
+            purchases.add(purchase);
+        }
+
+        ItemInstance.ItemStatus[] statuses = ItemInstance.ItemStatus.values();
+        ItemTransaction.TransactionType[] movementTypes = {
+                ItemTransaction.TransactionType.DISTRIBUTION, ItemTransaction.TransactionType.TRANSFER
+        };
+        ItemTransaction.TransactionStatus[] transactionStatuses = ItemTransaction.TransactionStatus.values();
+        long transactionId = 1;
+
+        for (int i = 0; i < instanceCount; i++) {
+            Purchase purchase = purchases.isEmpty() ? null : pick(purchases);
+            Office owner = pick(offices);
+            Item item = purchase == null ? pick(items) : purchase.getItems().get(0).getItem();
+
+            ItemInstance instance = new ItemInstance();
+            instance.setId((long) i + 1);
+            instance.setItem(item);
+            instance.setOwnerOffice(owner);
+            instance.setInventory(owner.getInventory());
+            instance.setStatus(statuses[random.nextInt(statuses.length)]);
+            instance.setBarcode(item.getName().substring(0, 3).toUpperCase()
+                    + "-" + owner.getCode() + "-" + (1_700_000_000_000L + i) + "-" + (i % 10));
+            instance.setSerialNumber("SN" + Long.toHexString(random.nextLong()));
+            instance.setPurchasePrice(500.0 + random.nextInt(100_000));
+            instance.setPurchaseDate(purchase == null ? start : purchase.getPurchasedDate());
+            instance.setWarrantyExpiry(instance.getPurchaseDate().plusYears(3));
+            instances.add(instance);
+            instancesById.put(instance.getId(), instance);
+            instancesByBarcode.put(instance.getBarcode(), instance);
+            instancesByInventoryId.get(owner.getInventory().getId()).add(instance);
+
+            List<ItemTransaction> history = new ArrayList<>(transactionsPerInstance);
+            for (int t = 0; t < transactionsPerInstance; t++) {
+                ItemTransaction transaction = new ItemTransaction();
+                transaction.setId(transactionId++);
+                transaction.setItemInstance(instance);
+                transaction.setFromOffice(pick(offices));
+                transaction.setToOffice(t == transactionsPerInstance - 1 ? owner : pick(offices));
+                transaction.setUser(pick(users));
+                transaction.setConfirmedBy(pick(users));
+                transaction.setConfirmedDate(instance.getPurchaseDate().plusDays(30L * t + 1));
+                transaction.setTransactionType(movementTypes[random.nextInt(movementTypes.length)]);
+                transaction.setStatus(transactionStatuses[random.nextInt(transactionStatuses.length)]);
+                transaction.setQuantity(1.0);
+                transaction.setTransactionDate(instance.getPurchaseDate().plusDays(30L * t));
+                history.add(transaction);
+            }
+            transactionsByInstanceId.put(instance.getId(), history);
+        }
+
+        ItemRequest.RequestStatus[] requestStatuses = ItemRequest.RequestStatus.values();
+        for (int i = 0; i < Math.max(50, officeCount * 10); i++) {
+            ItemRequest request = new ItemRequest();
+            request.setId((long) i + 1);
+            request.setItem(pick(items));
+            request.setRequestingOffice(pick(offices));
+            request.setParentOffice(offices.get(0));
+            request.setRequestedBy(pick(users));
+            request.setRequestedQuantity((double) (1 + random.nextInt(8)));
+            request.setStatus(requestStatuses[random.nextInt(requestStatuses.length)]);
+            if (request.getStatus() != ItemRequest.RequestStatus.PENDING) {
+                request.setApprovedQuantity(request.getRequestedQuantity());
+            }
+            request.setReason("Synthetic request " + i);
+            request.setRequestedDate(start.plusDays(random.nextInt(900)));
+            requests.add(request);
+        }
+    }
+
+    public ItemInstance instance(int index) {
+        return instances.get(Math.floorMod(index, instances.size()));
+    }
+
+    public Office office(int index) {
+        return offices.get(Math.floorMod(index, offices.size()));
+    }
+
+    private <T> T pick(List<T> values) {
+        return values.get(random.nextInt(values.size()));
+    }
+}
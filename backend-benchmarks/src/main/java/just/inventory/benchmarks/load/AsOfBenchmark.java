@@ -0,0 +1,138 @@
+package just.inventory.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Latency of point-in-time inventories ({@code /api/inventories/office/{id}/as-of}) for random
+ * offices and times, against a database filled by {@link DataGenerator} whose snapshots the
+ * backend has finished backfilling:
+ * <pre>
+ * java -cp target/benchmarks.jar just.inventory.benchmarks.load.AsOfBenchmark \
+ *     --base-url=http://localhost:8080 --requests=500 --history-years=3
+ * </pre>
+ * Requests are sequential, so the latencies are those of one query on an idle backend. Besides
+ * p50/p95/p99 it reports how many created and moved instances each query replayed on top of its
+ * snapshot, which the snapshot interval bounds, and compares the inventory after the last recorded
+ * movement with the current holdings of {@code --verify-offices} offices.
+ */
+public class AsOfBenchmark {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private String token;
+
+    AsOfBenchmark(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        AsOfBenchmark benchmark = new AsOfBenchmark(options.string("base-url", "BACKEND_URL", "http://localhost:8080"));
+        benchmark.login(options.string("username", "super.admin"),
+                options.string("password", "BENCHMARK_PASSWORD", "password123"));
+        benchmark.run(options.integer("requests", 500), options.integer("warmup", 50),
+                options.integer("history-years", 3) * 365, options.longValue("seed", 42),
+                options.integer("verify-offices", 10));
+    }
+
+    void login(String username, String password) throws Exception {
+        HttpResponse<byte[]> login = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        MAPPER.writeValueAsString(Map.of("username", username, "password", password))))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("login failed with status " + login.statusCode());
+        }
+        token = MAPPER.readTree(login.body()).path("token").asText();
+    }
+
+    void run(int requests, int warmup, int historyDays, long seed, int verifyOffices) throws Exception {
+        List<Long> officeIds = new ArrayList<>();
+        for (JsonNode office : get("/api/offices")) {
+            officeIds.add(office.path("id").asLong());
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        for (int i = 0; i < warmup; i++) {
+            asOf(officeIds.get(random.nextInt(officeIds.size())), now.minusMinutes(random.nextLong(historyDays * 1440L)));
+        }
+
+        long[] nanos = new long[requests];
+        int[] replayed = new int[requests];
+        long instances = 0;
+        int withoutSnapshot = 0;
+        for (int i = 0; i < requests; i++) {
+            long officeId = officeIds.get(random.nextInt(officeIds.size()));
+            LocalDateTime asOf = now.minusMinutes(random.nextLong(historyDays * 1440L));
+            long started = System.nanoTime();
+            JsonNode inventory = asOf(officeId, asOf);
+            nanos[i] = System.nanoTime() - started;
+            replayed[i] = inventory.path("replayedInstances").asInt();
+            instances += inventory.path("instanceCount").asLong();
+            if (inventory.path("snapshotTakenAt").isNull()) {
+                withoutSnapshot++;
+            }
+        }
+
+        Arrays.sort(nanos);
+        Arrays.sort(replayed);
+        System.out.printf("%d as-of queries over %d offices and %d days, %d without a snapshot%n",
+                requests, officeIds.size(), historyDays, withoutSnapshot);
+        System.out.printf("latency ms:  p50 %.1f  p95 %.1f  p99 %.1f  max %.1f%n",
+                percentile(nanos, 50) / 1e6, percentile(nanos, 95) / 1e6, percentile(nanos, 99) / 1e6,
+                nanos[requests - 1] / 1e6);
+        System.out.printf("replayed:    p50 %d  p95 %d  max %d;  instances held: mean %d%n",
+                replayed[(int) Math.ceil(0.50 * requests) - 1], replayed[(int) Math.ceil(0.95 * requests) - 1],
+                replayed[requests - 1], instances / requests);
+
+        int mismatches = 0;
+        for (long officeId : officeIds.subList(0, Math.min(verifyOffices, officeIds.size()))) {
+            long current = get("/api/inventories/office/" + officeId + "/summary").path("totalItems").asLong();
+            // Past every recorded movement, confirmation dates a little ahead of the clock included
+            long rebuilt = asOf(officeId, LocalDateTime.now().plusDays(30)).path("instanceCount").asLong();
+            if (current != rebuilt) {
+                System.out.printf("office %d: holds %d now, as-of query rebuilt %d%n", officeId, current, rebuilt);
+                mismatches++;
+            }
+        }
+        System.out.printf("after the last movement vs current holdings: %d of %d offices differ%n",
+                mismatches, Math.min(verifyOffices, officeIds.size()));
+    }
+
+    private JsonNode asOf(long officeId, LocalDateTime asOf) throws Exception {
+        return get("/api/inventories/office/" + officeId + "/as-of?ts=" + asOf);
+    }
+
+    private JsonNode get(String path) throws Exception {
+        HttpResponse<byte[]> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(60))
+                .build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(path + " returned " + response.statusCode());
+        }
+        return MAPPER.readTree(response.body());
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        return sorted[(int) Math.ceil(percentile / 100.0 * sorted.length) - 1];
+    }
+}
@@ -0,0 +1,67 @@
+package just.inventory.benchmarks.load;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Streams rows into one {@code COPY ... FROM STDIN} (text format) without buffering the table in memory.
+ */
+class CopyWriter implements AutoCloseable {
+
+    private final Writer out;
+    private boolean rowStarted;
+    private long rows;
+
+    CopyWriter(Connection connection, String table, String... columns) throws SQLException {
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN";
+        PGCopyOutputStream stream = new PGCopyOutputStream(connection.unwrap(PGConnection.class), sql, 1 << 16);
+        this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    CopyWriter value(Object value) throws IOException {
+        if (rowStarted) {
+            out.write('\t');
+        }
+        rowStarted = true;
+        if (value == null) {
+            out.write("\\N");
+            return this;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> out.write("\\\\");
+                case '\t' -> out.write("\\t");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                default -> out.write(c);
+            }
+        }
+        return this;
+    }
+
+    void endRow() throws IOException {
+        out.write('\n');
+        rowStarted = false;
+        rows++;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Closing the copy stream ends the COPY
+        out.close();
+    }
+}
@@ -0,0 +1,649 @@
+package just.inventory.benchmarks.load;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Fills a migrated inventory database with production-sized data using {@code COPY}.
+ * <p>
+ * Start the backend once against the target database so Liquibase creates and seeds the
+ * schema (offices, roles, catalog), then run:
+ * <pre>
+ * java -cp target/benchmarks.jar just.inventory.benchmarks.load.DataGenerator \
+ *     --url=jdbc:postgresql://localhost:5432/inventory --username=postgres --password=secret \
+ *     --instances=2_000_000 --requests=500_000 --transactions-per-instance=3
+ * </pre>
+ * The generator adds {@code --users-per-office} office users per office (named
+ * {@code load.off<officeId>.<n>}, password {@code --user-password}), purchases and their
+ * line items, one item instance per purchased unit, a movement history per instance that
+ * ends in the instance's current owner, and requisitions between offices and their parents.
+ * Everything is derived from {@code --seed}, so two runs with the same options produce the same data.
+ * Foreign keys of the generated tables are dropped during the load and re-added afterwards.
+ * <p>
+ * It refuses to touch a database that already has item instances unless {@code --truncate=true}
+ * is given, which empties the generated tables first. Point it at a dedicated database.
+ */
+public class DataGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static final List<String> GENERATED_TABLES =
+            List.of("purchases", "purchase_items", "item_instances", "item_requests", "item_transactions");
+
+    private static final String[] SUPPLIERS = {
+            "Star Tech", "Ryans Computers", "Techland BD", "Global Brand", "Smart Technologies",
+            "Computer Source", "Flora Limited", "Otobi", "Hatil Complex", "Walton Plaza"
+    };
+
+    private static final String[] ITEM_STATUSES = {
+            "AVAILABLE", "IN_USE", "UNDER_REPAIR", "DAMAGED", "LOST", "DISPOSED"
+    };
+    private static final int[] ITEM_STATUS_WEIGHTS = {55, 30, 5, 5, 2, 3};
+
+    private static final String[] REQUEST_STATUSES = {
+            "PENDING", "APPROVED", "REJECTED", "PARTIALLY_FULFILLED", "FULFILLED", "CONFIRMED", "CANCELLED"
+    };
+    private static final int[] REQUEST_STATUS_WEIGHTS = {10, 10, 8, 5, 12, 50, 5};
+
+    private static final String[] REQUEST_REASONS = {
+            "New semester lab setup", "Replacement for damaged equipment", "New faculty member joined",
+            "Examination hall preparation", "Office expansion", "Annual requirement", "Research project"
+    };
+
+    private final long seed;
+    private final int instanceCount;
+    private final int requestCount;
+    private final int transactionsPerInstance;
+    private final int usersPerOffice;
+    private final int historyDays;
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+
+    // Reference data, indexed densely
+    private long[] officeIds;
+    private String[] officeCodes;
+    private int[] parentOffice;
+    private int[][] childOffices;
+    private long[] inventoryIds;
+    private long[] itemIds;
+    private String[] barcodePrefixes;
+    private long[][] usersByOffice;
+
+    // Purchase p owns instance ids purchaseFirstInstance[p] + 1 .. purchaseFirstInstance[p + 1]
+    private int purchaseCount;
+    private long[] purchaseFirstInstance;
+    private long barcodeEpochMillis;
+
+    DataGenerator(Options options) {
+        this.seed = options.longValue("seed", 42L);
+        this.instanceCount = options.integer("instances", 1_000_000);
+        this.requestCount = options.integer("requests", instanceCount / 4);
+        this.transactionsPerInstance = options.integer("transactions-per-instance", 3);
+        this.usersPerOffice = options.integer("users-per-office", 2);
+        this.historyDays = options.integer("history-years", 3) * 365;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        String url = options.string("url", "DATABASE_URL", "jdbc:postgresql://localhost:5432/inventory");
+        String username = options.string("username", "DATABASE_USERNAME", "postgres");
+        String password = options.string("password", "DATABASE_PASSWORD", "");
+
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            connection.setAutoCommit(false);
+            new DataGenerator(options).run(connection, options.flag("truncate"),
+                    options.string("user-password", "password123"));
+        }
+    }
+
+    void run(Connection connection, boolean truncate, String userPassword) throws SQLException, IOException {
+        prepare(connection, truncate);
+        loadReferenceData(connection);
+        createUsers(connection, userPassword);
+        planPurchases();
+
+        List<String[]> foreignKeys = dropForeignKeys(connection);
+        try {
+            phase(connection, "purchases", this::copyPurchases);
+            phase(connection, "purchase_items", this::copyPurchaseItems);
+            phase(connection, "item_instances", this::copyInstances);
+            phase(connection, "item_requests", this::copyRequests);
+            phase(connection, "item_transactions", this::copyTransactions);
+        } catch (SQLException | IOException | RuntimeException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            restoreForeignKeys(connection, foreignKeys);
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            for (String table : GENERATED_TABLES) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                        + "(SELECT COALESCE(MAX(id), 0) + 1 FROM " + table + "), false)");
+            }
+            connection.commit();
+            connection.setAutoCommit(true);
+            long started = System.nanoTime();
+            statement.execute("ANALYZE");
+            log("analyze", 0, started);
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Setup
+    // -----------------------------------------------------------------------
+
+    private void prepare(Connection connection, boolean truncate) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (truncate) {
+                statement.execute("TRUNCATE stocktake_unknown_barcodes, stocktake_scans, stocktake_sessions, "
+                        + "demand_forecasts, inventory_snapshots, item_transactions, item_requests, "
+                        + "item_instances, purchase_items, purchases RESTART IDENTITY");
+            } else {
+                try (ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM item_instances)")) {
+                    rs.next();
+                    if (rs.getBoolean(1)) {
+                        throw new IllegalStateException(
+                                "item_instances is not empty; rerun with --truncate=true to replace the existing data");
+                    }
+                }
+            }
+            // Offices seeded without an inventory get one, as the first purchase would create it.
+            // The seeds insert explicit inventory ids, so move the sequence past them first.
+            statement.execute("SELECT setval(pg_get_serial_sequence('inventories', 'id'), "
+                    + "(SELECT COALESCE(MAX(id), 0) + 1 FROM inventories), false)");
+            statement.executeUpdate("INSERT INTO inventories (office_id) SELECT o.id FROM offices o "
+                    + "WHERE NOT EXISTS (SELECT 1 FROM inventories i WHERE i.office_id = o.id)");
+        }
+        connection.commit();
+        createMonthPartitions(connection);
+    }
+
+    /**
+     * Gives every month of the generated history its own partition when item_transactions is
+     * partitioned, named the way the backend's ItemTransactionPartitionService names them. Otherwise
+     * every movement would be copied into the default partition, for the backend to move out again
+     * month by month on its next start.
+     */
+    private void createMonthPartitions(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT EXISTS (SELECT 1 FROM pg_partitioned_table "
+                    + "WHERE partrelid = to_regclass('item_transactions'))")) {
+                rs.next();
+                if (!rs.getBoolean(1)) {
+                    return;
+                }
+            }
+            YearMonth last = YearMonth.from(now);
+            for (YearMonth month = YearMonth.from(now.minusDays(historyDays + 1L)); !month.isAfter(last);
+                 month = month.plusMonths(1)) {
+                Savepoint savepoint = connection.setSavepoint();
+                try {
+                    statement.execute(String.format(Locale.ROOT,
+                            "CREATE TABLE IF NOT EXISTS item_transactions_p%04d_%02d PARTITION OF item_transactions "
+                                    + "FOR VALUES FROM ('%s') TO ('%s')",
+                            month.getYear(), month.getMonthValue(), month.atDay(1), month.plusMonths(1).atDay(1)));
+                    connection.releaseSavepoint(savepoint);
+                } catch (SQLException e) {
+                    // 42P17: the month is already covered, e.g. by a yearly archive partition
+                    if (!"42P17".equals(e.getSQLState())) {
+                        throw e;
+                    }
+                    connection.rollback(savepoint);
+                }
+            }
+        }
+        connection.commit();
+    }
+
+    /**
+     * Per-row foreign key triggers cost far more than the COPY itself, so the constraints of the
+     * generated tables are dropped for the load and re-added (and validated in one pass) afterwards.
+     *
+     * @return table, constraint name and definition of every dropped constraint
+     */
+    private List<String[]> dropForeignKeys(Connection connection) throws SQLException {
+        List<String[]> foreignKeys = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("SELECT conrelid::regclass::text, conname, "
+                    + "pg_get_constraintdef(oid) FROM pg_constraint WHERE contype = 'f' "
+                    + "AND conrelid::regclass::text IN ('" + String.join("', '", GENERATED_TABLES) + "')")) {
+                while (rs.next()) {
+                    foreignKeys.add(new String[]{rs.getString(1), rs.getString(2), rs.getString(3)});
+                }
+            }
+            for (String[] foreignKey : foreignKeys) {
+                statement.execute("ALTER TABLE " + foreignKey[0] + " DROP CONSTRAINT " + foreignKey[1]);
+            }
+        }
+        connection.commit();
+        return foreignKeys;
+    }
+
+    private void restoreForeignKeys(Connection connection, List<String[]> foreignKeys) throws SQLException {
+        long started = System.nanoTime();
+        try (Statement statement = connection.createStatement()) {
+            for (String[] foreignKey : foreignKeys) {
+                statement.execute("ALTER TABLE " + foreignKey[0] + " ADD CONSTRAINT " + foreignKey[1] + " " + foreignKey[2]);
+            }
+        }
+        connection.commit();
+        log("foreign keys", 0, started);
+    }
+
+    private void loadReferenceData(Connection connection) throws SQLException {
+        List<long[]> offices = new ArrayList<>();
+        List<String> codes = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT o.id, o.code, COALESCE(o.parent_id, 0), i.id "
+                     + "FROM offices o JOIN inventories i ON i.office_id = o.id "
+                     + "WHERE o.is_active ORDER BY o.id")) {
+            while (rs.next()) {
+                offices.add(new long[]{rs.getLong(1), rs.getLong(3), rs.getLong(4)});
+                codes.add(rs.getString(2));
+            }
+        }
+        if (offices.isEmpty()) {
+            throw new IllegalStateException("No offices found; start the backend once so Liquibase seeds the database");
+        }
+
+        int officeCount = offices.size();
+        officeIds = new long[officeCount];
+        officeCodes = codes.toArray(new String[0]);
+        inventoryIds = new long[officeCount];
+        parentOffice = new int[officeCount];
+        Map<Long, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < officeCount; i++) {
+            officeIds[i] = offices.get(i)[0];
+            inventoryIds[i] = offices.get(i)[2];
+            indexById.put(officeIds[i], i);
+        }
+        List<List<Integer>> children = new ArrayList<>();
+        for (int i = 0; i < officeCount; i++) {
+            children.add(new ArrayList<>());
+        }
+        for (int i = 0; i < officeCount; i++) {
+            Integer parent = indexById.get(offices.get(i)[1]);
+            parentOffice[i] = parent == null ? -1 : parent;
+            if (parent != null) {
+                children.get(parent).add(i);
+            }
+        }
+        childOffices = children.stream()
+                .map(list -> list.stream().mapToInt(Integer::intValue).toArray())
+                .toArray(int[][]::new);
+
+        List<Long> ids = new ArrayList<>();
+        List<String> prefixes = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, name FROM items ORDER BY id")) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+                String name = (rs.getString(2) + "XXX").replace(" ", "");
+                prefixes.add(name.substring(0, 3).toUpperCase(Locale.ROOT));
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No items found; start the backend once so Liquibase seeds the catalog");
+        }
+        itemIds = ids.stream().mapToLong(Long::longValue).toArray();
+        barcodePrefixes = prefixes.toArray(new String[0]);
+
+        System.out.printf("Reference data: %d offices, %d catalog items%n", officeCount, itemIds.length);
+    }
+
+    private void createUsers(Connection connection, String userPassword) throws SQLException {
+        long userRoleId;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id FROM roles WHERE name = 'USER'")) {
+            if (!rs.next()) {
+                throw new IllegalStateException("Role USER is missing");
+            }
+            userRoleId = rs.getLong(1);
+        }
+
+        String hash = new BCryptPasswordEncoder().encode(userPassword);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (full_name, username, password, email, is_active, role_id, office_id) "
+                        + "VALUES (?, ?, ?, ?, true, ?, ?) ON CONFLICT (username) DO NOTHING")) {
+            for (int o = 0; o < officeIds.length; o++) {
+                for (int n = 1; n <= usersPerOffice; n++) {
+                    String username = loadUsername(officeIds[o], n);
+                    insert.setString(1, "Load User " + n + " (" + officeCodes[o] + ")");
+                    insert.setString(2, username);
+                    insert.setString(3, hash);
+                    insert.setString(4, username + "@load.test");
+                    insert.setLong(5, userRoleId);
+                    insert.setLong(6, officeIds[o]);
+                    insert.addBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+
+        usersByOffice = new long[officeIds.length][usersPerOffice];
+        try (PreparedStatement select = connection.prepareStatement("SELECT id FROM users WHERE username = ?")) {
+            for (int o = 0; o < officeIds.length; o++) {
+                for (int n = 1; n <= usersPerOffice; n++) {
+                    select.setString(1, loadUsername(officeIds[o], n));
+                    try (ResultSet rs = select.executeQuery()) {
+                        rs.next();
+                        usersByOffice[o][n - 1] = rs.getLong(1);
+                    }
+                }
+            }
+        }
+        connection.commit();
+    }
+
+    static String loadUsername(long officeId, int n) {
+        return "load.off" + officeId + "." + n;
+    }
+
+    // -----------------------------------------------------------------------
+    // Purchases and instances
+    // -----------------------------------------------------------------------
+
+    private record PurchaseLine(int item, int quantity, double unitPrice) {
+    }
+
+    private record PurchasePlan(int office, long userId, LocalDateTime date, String supplier, List<PurchaseLine> lines) {
+    }
+
+    private void planPurchases() {
+        List<Long> firstInstances = new ArrayList<>();
+        long instances = 0;
+        firstInstances.add(0L);
+        while (instances < instanceCount) {
+            int p = firstInstances.size() - 1;
+            instances += purchase(p, instanceCount - instances).lines().stream().mapToInt(PurchaseLine::quantity).sum();
+            firstInstances.add(instances);
+        }
+        purchaseCount = firstInstances.size() - 1;
+        purchaseFirstInstance = firstInstances.stream().mapToLong(Long::longValue).toArray();
+        barcodeEpochMillis = System.currentTimeMillis() - purchaseCount;
+    }
+
+    /**
+     * Purchase {@code p}, regenerated identically on every pass. At most {@code remaining} units are bought.
+     */
+    private PurchasePlan purchase(int p, long remaining) {
+        SplittableRandom random = random(1, p);
+        int office = random.nextInt(officeIds.length);
+        long userId = usersByOffice[office][random.nextInt(usersPerOffice)];
+        LocalDateTime date = now.minusDays(random.nextInt(historyDays) + 1L).plusMinutes(random.nextInt(600));
+
+        int lineCount = 1 + random.nextInt(3);
+        List<PurchaseLine> lines = new ArrayList<>(lineCount);
+        for (int l = 0; l < lineCount && remaining > 0; l++) {
+            int quantity = (int) Math.min(remaining, 1 + random.nextInt(random.nextInt(10) < 8 ? 5 : 40));
+            lines.add(new PurchaseLine(random.nextInt(itemIds.length), quantity, 500.0 + random.nextInt(150_000)));
+            remaining -= quantity;
+        }
+        return new PurchasePlan(office, userId, date, SUPPLIERS[random.nextInt(SUPPLIERS.length)], lines);
+    }
+
+    private PurchasePlan purchase(int p) {
+        return purchase(p, instanceCount - purchaseFirstInstance[p]);
+    }
+
+    private void copyPurchases(Connection connection) throws SQLException, IOException {
+        try (CopyWriter copy = new CopyWriter(connection, "purchases",
+                "id", "purchased_by_user_id", "office_id", "supplier", "invoice_number", "remarks", "purchased_date")) {
+            for (int p = 0; p < purchaseCount; p++) {
+                PurchasePlan purchase = purchase(p);
+                copy.value(p + 1).value(purchase.userId()).value(officeIds[purchase.office()])
+                        .value(purchase.supplier()).value("INV-" + (100000 + p)).value("Generated load-test purchase")
+                        .value(purchase.date()).endRow();
+            }
+        }
+    }
+
+    private void copyPurchaseItems(Connection connection) throws SQLException, IOException {
+        long id = 1;
+        try (CopyWriter copy = new CopyWriter(connection, "purchase_items",
+                "id", "purchase_id", "item_id", "quantity", "unit_price")) {
+            for (int p = 0; p < purchaseCount; p++) {
+                for (PurchaseLine line : purchase(p).lines()) {
+                    copy.value(id++).value(p + 1).value(itemIds[line.item()])
+                            .value((double) line.quantity()).value(line.unitPrice()).endRow();
+                }
+            }
+        }
+    }
+
+    private void copyInstances(Connection connection) throws SQLException, IOException {
+        try (CopyWriter copy = new CopyWriter(connection, "item_instances",
+                "id", "item_id", "barcode", "inventory_id", "owner_office_id", "status", "serial_number",
+                "purchase_date", "warranty_expiry", "purchase_price", "created_at")) {
+            for (int p = 0; p < purchaseCount; p++) {
+                PurchasePlan purchase = purchase(p);
+                long instanceId = purchaseFirstInstance[p];
+                for (PurchaseLine line : purchase.lines()) {
+                    for (int i = 0; i < line.quantity(); i++) {
+                        instanceId++;
+                        History history = history(instanceId, purchase);
+                        // PurchaseService format (item prefix, office code, creation millis, index), with the
+                        // index running across the whole purchase so repeated items stay unique
+                        String barcode = barcodePrefixes[line.item()] + "-" + officeCodes[purchase.office()]
+                                + "-" + (barcodeEpochMillis + p) + "-" + (instanceId - purchaseFirstInstance[p] - 1);
+                        copy.value(instanceId).value(itemIds[line.item()]).value(barcode)
+                                .value(inventoryIds[history.owner()]).value(officeIds[history.owner()])
+                                .value(history.status()).value(serialNumber(instanceId))
+                                .value(purchase.date()).value(purchase.date().plusYears(3))
+                                .value(line.unitPrice()).value(purchase.date()).endRow();
+                    }
+                }
+            }
+        }
+    }
+
+    private static String serialNumber(long instanceId) {
+        return "SN" + Long.toString(instanceId * 7919L + 104729L, 36).toUpperCase(Locale.ROOT);
+    }
+
+    // -----------------------------------------------------------------------
+    // Movement history
+    // -----------------------------------------------------------------------
+
+    private record Movement(int from, int to, String type, String status, LocalDateTime date, long userId,
+                            Long confirmedBy, LocalDateTime confirmedDate) {
+    }
+
+    private record History(int owner, String status, List<Movement> movements) {
+    }
+
+    /**
+     * Movements of one instance after its purchase; regenerated identically for the instance and
+     * transaction passes. Confirmed movements change the owner, each movement starts after the
+     * previous one was confirmed, and only the last movement can still be pending (the item is then
+     * reserved, i.e. IN_USE) or rejected.
+     */
+    private History history(long instanceId, PurchasePlan purchase) {
+        SplittableRandom random = random(2, instanceId);
+        int moves = transactionsPerInstance == 0 ? 0 : random.nextInt(2 * transactionsPerInstance + 1);
+        int owner = purchase.office();
+        LocalDateTime date = purchase.date();
+        List<Movement> movements = new ArrayList<>(moves);
+        String lastStatus = "CONFIRMED";
+
+        for (int m = 0; m < moves; m++) {
+            LocalDateTime next = date.plusDays(1 + random.nextInt(90)).plusMinutes(random.nextInt(480));
+            if (next.isAfter(now)) break;
+            date = next;
+
+            int to;
+            String type;
+            if (childOffices[owner].length > 0 && random.nextInt(3) > 0) {
+                to = childOffices[owner][random.nextInt(childOffices[owner].length)];
+                type = "DISTRIBUTION";
+            } else {
+                to = random.nextInt(officeIds.length);
+                if (to == owner) continue;
+                type = parentOffice[owner] == to ? "RETURN" : "TRANSFER";
+            }
+
+            boolean last = m == moves - 1;
+            int roll = random.nextInt(100);
+            String status = !last || roll >= 8 ? "CONFIRMED" : roll < 5 ? "PENDING" : "REJECTED";
+            long userId = usersByOffice[owner][random.nextInt(usersPerOffice)];
+            Long confirmedBy = status.equals("PENDING") ? null : usersByOffice[to][random.nextInt(usersPerOffice)];
+            LocalDateTime confirmedDate = confirmedBy == null ? null : date.plusHours(1 + random.nextInt(72));
+            if (confirmedDate != null && confirmedDate.isAfter(now)) {
+                confirmedDate = now;
+            }
+
+            movements.add(new Movement(owner, to, type, status, date, userId, confirmedBy, confirmedDate));
+            if (status.equals("CONFIRMED")) {
+                owner = to;
+                // The new owner can only send it on once the movement is confirmed
+                date = confirmedDate;
+            }
+            lastStatus = status;
+        }
+
+        String status = lastStatus.equals("PENDING") ? "IN_USE" : weighted(random, ITEM_STATUSES, ITEM_STATUS_WEIGHTS);
+        return new History(owner, status, movements);
+    }
+
+    private void copyTransactions(Connection connection) throws SQLException, IOException {
+        long id = 1;
+        try (CopyWriter copy = new CopyWriter(connection, "item_transactions",
+                "id", "item_instance_id", "from_office_id", "to_office_id", "user_id", "transaction_type",
+                "quantity", "remarks", "transaction_date", "status", "confirmed_by_user_id", "confirmed_date")) {
+            for (int p = 0; p < purchaseCount; p++) {
+                PurchasePlan purchase = purchase(p);
+                long instanceId = purchaseFirstInstance[p];
+                for (PurchaseLine line : purchase.lines()) {
+                    for (int i = 0; i < line.quantity(); i++) {
+                        instanceId++;
+                        for (Movement movement : history(instanceId, purchase).movements()) {
+                            copy.value(id++).value(instanceId).value(officeIds[movement.from()])
+                                    .value(officeIds[movement.to()]).value(movement.userId()).value(movement.type())
+                                    .value(1.0).value(null).value(movement.date()).value(movement.status())
+                                    .value(movement.confirmedBy()).value(movement.confirmedDate()).endRow();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Requisitions
+    // -----------------------------------------------------------------------
+
+    private void copyRequests(Connection connection) throws SQLException, IOException {
+        int[] requesters = IntStream.range(0, officeIds.length)
+                .filter(o -> parentOffice[o] >= 0)
+                .toArray();
+        if (requesters.length == 0) {
+            return;
+        }
+
+        try (CopyWriter copy = new CopyWriter(connection, "item_requests",
+                "id", "item_id", "requesting_office_id", "parent_office_id", "requested_by_user_id",
+                "approved_by_user_id", "requested_quantity", "approved_quantity", "status", "reason",
+                "requested_date", "approved_date", "rejected_date", "fulfilled_date", "fulfilled_quantity",
+                "confirmed_by_user_id", "confirmed_date")) {
+            for (int r = 0; r < requestCount; r++) {
+                SplittableRandom random = random(3, r);
+                int office = requesters[random.nextInt(requesters.length)];
+                int parent = parentOffice[office];
+                // Offices tend to order for the start of a term, which the demand forecasts pick up
+                LocalDateTime date = now.minusDays(random.nextInt(historyDays) + 1L).plusMinutes(random.nextInt(600));
+                if (random.nextInt(10) < 3) {
+                    date = date.withMonth(random.nextBoolean() ? 1 : 7);
+                    if (date.isAfter(now)) date = date.minusYears(1);
+                }
+                String status = weighted(random, REQUEST_STATUSES, REQUEST_STATUS_WEIGHTS);
+                double requested = 1 + random.nextInt(random.nextInt(10) < 8 ? 5 : 20);
+                boolean approved = !status.equals("PENDING") && !status.equals("REJECTED") && !status.equals("CANCELLED");
+                double approvedQuantity = approved ? Math.max(1, requested - random.nextInt((int) requested)) : 0;
+                double fulfilled = switch (status) {
+                    case "FULFILLED", "CONFIRMED" -> approvedQuantity;
+                    case "PARTIALLY_FULFILLED" -> Math.max(1, approvedQuantity - 1);
+                    default -> 0;
+                };
+                Long approver = approved || status.equals("REJECTED")
+                        ? usersByOffice[parent][random.nextInt(usersPerOffice)] : null;
+                LocalDateTime decided = date.plusHours(2 + random.nextInt(96));
+
+                copy.value(r + 1).value(itemIds[random.nextInt(itemIds.length)])
+                        .value(officeIds[office]).value(officeIds[parent])
+                        .value(usersByOffice[office][random.nextInt(usersPerOffice)]).value(approver)
+                        .value(requested).value(approved ? approvedQuantity : null).value(status)
+                        .value(REQUEST_REASONS[random.nextInt(REQUEST_REASONS.length)])
+                        .value(date).value(approved ? decided : null)
+                        .value(status.equals("REJECTED") ? decided : null)
+                        .value(fulfilled > 0 ? decided.plusDays(1) : null).value(fulfilled)
+                        .value(status.equals("CONFIRMED") ? usersByOffice[office][0] : null)
+                        .value(status.equals("CONFIRMED") ? decided.plusDays(2) : null)
+                        .endRow();
+            }
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Helpers
+    // -----------------------------------------------------------------------
+
+    @FunctionalInterface
+    private interface CopyPhase {
+        void copy(Connection connection) throws SQLException, IOException;
+    }
+
+    private void phase(Connection connection, String table, CopyPhase phase) throws SQLException, IOException {
+        long started = System.nanoTime();
+        phase.copy(connection);
+        connection.commit();
+        long rows;
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COUNT(*) FROM " + table)) {
+            rs.next();
+            rows = rs.getLong(1);
+        }
+        log(table, rows, started);
+    }
+
+    private static void log(String step, long rows, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / 1e9;
+        if (rows > 0) {
+            System.out.printf("%-18s %,12d rows %8.1f s %,12.0f rows/s%n", step, rows, seconds, rows / seconds);
+        } else {
+            System.out.printf("%-18s %8.1f s%n", step, seconds);
+        }
+    }
+
+    private SplittableRandom random(int stream, long index) {
+        return new SplittableRandom(seed + stream * 1_000_003L + index * GOLDEN_GAMMA);
+    }
+
+    private static String weighted(SplittableRandom random, String[] values, int[] weights) {
+        int total = 0;
+        for (int weight : weights) total += weight;
+        int roll = random.nextInt(total);
+        for (int i = 0; i < values.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) return values[i];
+        }
+        return values[values.length - 1];
+    }
+}
@@ -0,0 +1,358 @@
+package just.inventory.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Closed-loop HTTP load against a running backend, reporting throughput and p50/p95/p99 latency
+ * per endpoint.
+ * <p>
+ * Meant to run against a database filled by {@link DataGenerator}: every virtual user logs in as
+ * one of the generated office users and then keeps issuing requests from a weighted mix of the
+ * main read endpoints, without think time.
+ * <pre>
+ * java -cp target/benchmarks.jar just.inventory.benchmarks.load.LoadScenario \
+ *     --base-url=http://localhost:8080 --virtual-users=32 --warmup=15s --duration=60s
+ * </pre>
+ * {@code --mix=summary:20,tracking:20,...} overrides the endpoint weights; a weight of 0 disables one.
+ * <p>
+ * Two slow blocking paths are off by default: {@code suggest} asks for AI requisition suggestions
+ * with a fresh reason each time, so every call misses the cache and reaches the provider, and
+ * {@code print} sends a label to the raw-socket printer at {@code --printer=host:port}. Point the
+ * backend at a slow provider and printer stub and enable them, e.g.
+ * {@code --mix=suggest:5,print:5}, to see how blocked request threads affect the fast endpoints.
+ */
+public class LoadScenario {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String[] SEARCH_TERMS = {
+            "laptop", "printer", "chair", "desk", "projector", "monitor", "router", "cable",
+            "toner", "scanner", "lapotp", "prnter", "almirah", "table", "ups", "keyboard"
+    };
+
+    private record Session(String token, long officeId, List<String> barcodes) {
+    }
+
+    /**
+     * A GET when {@code body} is null, otherwise a POST of the JSON it returns.
+     */
+    private record Endpoint(String name, int weight, Function<RequestContext, String> path,
+                            Function<RequestContext, String> body) {
+        Endpoint(String name, int weight, Function<RequestContext, String> path) {
+            this(name, weight, path, null);
+        }
+    }
+
+    private record RequestContext(Session session, SplittableRandom random) {
+        String barcode() {
+            List<String> barcodes = session.barcodes();
+            return barcodes.get(random.nextInt(barcodes.size()));
+        }
+    }
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Duration timeout;
+
+    LoadScenario(String baseUrl, Duration timeout) {
+        this.baseUrl = baseUrl.replaceAll("/+$", "");
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        LoadScenario scenario = new LoadScenario(
+                options.string("base-url", "http://localhost:8080"),
+                options.duration("timeout", Duration.ofSeconds(30)));
+
+        List<Session> sessions = scenario.login(
+                options.integer("sessions", 20),
+                options.integer("users-per-office", 2),
+                options.string("user-password", "password123"));
+        List<Endpoint> mix = endpoints(options.string("mix", ""), options.string("printer", "127.0.0.1:9100"));
+
+        int virtualUsers = options.integer("virtual-users", 32);
+        Duration warmup = options.duration("warmup", Duration.ofSeconds(15));
+        Duration duration = options.duration("duration", Duration.ofSeconds(60));
+        System.out.printf("%d sessions, %d virtual users, warm-up %ss, measuring %ss%n",
+                sessions.size(), virtualUsers, warmup.toSeconds(), duration.toSeconds());
+
+        Map<String, Stats> stats = scenario.run(sessions, mix, virtualUsers, warmup, duration, options.longValue("seed", 7L));
+        report(stats, duration);
+    }
+
+    // -----------------------------------------------------------------------
+    // Scenario
+    // -----------------------------------------------------------------------
+
+    private static List<Endpoint> endpoints(String mixOverride, String printer) {
+        String[] printerHostAndPort = printer.split(":");
+        Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+        for (Endpoint endpoint : List.of(
+                new Endpoint("summary", 20, c -> "/api/inventories/my-office/summary"),
+                new Endpoint("tracking", 20, c -> "/api/tracking/barcode/" + encode(c.barcode())),
+                new Endpoint("search-items", 15, c -> "/api/search/items?q="
+                        + encode(SEARCH_TERMS[c.random().nextInt(SEARCH_TERMS.length)])),
+                new Endpoint("search-instances", 15, c -> "/api/search/instances?q="
+                        + encode(c.barcode().substring(0, 3 + c.random().nextInt(6)))),
+                new Endpoint("my-requests", 10, c -> "/api/item-requests/my-requests"),
+                new Endpoint("distributions", 10, c -> "/api/distributions/my-office/history"),
+                new Endpoint("items", 5, c -> "/api/items"),
+                new Endpoint("offices", 5, c -> "/api/offices"),
+                new Endpoint("suggest", 0, c -> "/api/item-requests/suggestions", c -> json(Map.of(
+                        "parentOfficeId", c.session().officeId(),
+                        "reason", "load test " + c.random().nextLong(),
+                        "useAi", true))),
+                new Endpoint("print", 0, c -> "/api/barcodes/print-network", c -> json(Map.of(
+                        "printerIP", printerHostAndPort[0],
+                        "printerPort", Integer.parseInt(printerHostAndPort[1]),
+                        "data", escPosLabel(c.barcode())))))) {
+            endpoints.put(endpoint.name(), endpoint);
+        }
+        if (!mixOverride.isBlank()) {
+            for (String part : mixOverride.split(",")) {
+                String[] nameAndWeight = part.split(":");
+                Endpoint endpoint = endpoints.get(nameAndWeight[0].trim());
+                if (endpoint == null) {
+                    throw new IllegalArgumentException("Unknown endpoint " + nameAndWeight[0] + "; known: " + endpoints.keySet());
+                }
+                endpoints.put(endpoint.name(), new Endpoint(endpoint.name(),
+                        Integer.parseInt(nameAndWeight[1].trim()), endpoint.path(), endpoint.body()));
+            }
+        }
+        return endpoints.values().stream().filter(e -> e.weight() > 0).toList();
+    }
+
+    /**
+     * A minimal ESC/POS job: initialize, the barcode as text, feed and cut.
+     */
+    private static List<Integer> escPosLabel(String barcode) {
+        List<Integer> data = new ArrayList<>(List.of(0x1B, 0x40));
+        for (byte b : barcode.getBytes(StandardCharsets.US_ASCII)) {
+            data.add((int) b);
+        }
+        data.addAll(List.of(0x0A, 0x1D, 0x56, 0x00));
+        return data;
+    }
+
+    /**
+     * Logs in as generated office users (one office after another) until {@code count} sessions
+     * with at least one barcode in their inventory exist.
+     */
+    List<Session> login(int count, int usersPerOffice, String password) throws IOException, InterruptedException {
+        String adminToken = token("super.admin", password);
+        if (adminToken == null) {
+            throw new IllegalStateException("Cannot log in as super.admin; check --base-url and --user-password");
+        }
+        JsonNode offices = MAPPER.readTree(get("/api/offices", adminToken).body());
+
+        List<Session> sessions = new ArrayList<>();
+        for (JsonNode office : offices) {
+            long officeId = office.path("id").asLong();
+            String code = office.path("code").asText();
+            for (int n = 1; n <= usersPerOffice && sessions.size() < count; n++) {
+                String token = token(DataGenerator.loadUsername(officeId, n), password);
+                if (token == null) continue;
+                // The office code matches every instance the office owns
+                JsonNode page = MAPPER.readTree(get("/api/search/instances?size=100&q=" + encode(code), token).body());
+                List<String> barcodes = new ArrayList<>();
+                for (JsonNode hit : page.path("results")) {
+                    barcodes.add(hit.path("barcode").asText());
+                }
+                if (!barcodes.isEmpty()) {
+                    sessions.add(new Session(token, officeId, barcodes));
+                }
+            }
+            if (sessions.size() >= count) break;
+        }
+        if (sessions.isEmpty()) {
+            throw new IllegalStateException("No generated office user could log in; run DataGenerator first");
+        }
+        return sessions;
+    }
+
+    Map<String, Stats> run(List<Session> sessions, List<Endpoint> mix, int virtualUsers,
+                           Duration warmup, Duration duration, long seed) throws InterruptedException {
+        int totalWeight = mix.stream().mapToInt(Endpoint::weight).sum();
+        long startNanos = System.nanoTime();
+        long measureFromNanos = startNanos + warmup.toNanos();
+        long endNanos = measureFromNanos + duration.toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(virtualUsers);
+        List<Future<Map<String, Stats>>> results = new ArrayList<>();
+        for (int u = 0; u < virtualUsers; u++) {
+            SplittableRandom random = new SplittableRandom(seed + u);
+            Session session = sessions.get(u % sessions.size());
+            results.add(workers.submit(() -> {
+                Map<String, Stats> local = new HashMap<>();
+                RequestContext context = new RequestContext(session, random);
+                while (System.nanoTime() < endNanos) {
+                    Endpoint endpoint = pick(mix, totalWeight, random);
+                    long sent = System.nanoTime();
+                    boolean ok;
+                    try {
+                        HttpResponse<byte[]> response = send(endpoint, context);
+                        ok = response.statusCode() < 400;
+                    } catch (IOException e) {
+                        ok = false;
+                    }
+                    long latency = System.nanoTime() - sent;
+                    if (sent >= measureFromNanos && sent < endNanos) {
+                        local.computeIfAbsent(endpoint.name(), name -> new Stats()).record(latency, ok);
+                    }
+                }
+                return local;
+            }));
+        }
+
+        Map<String, Stats> merged = new LinkedHashMap<>();
+        mix.forEach(endpoint -> merged.put(endpoint.name(), new Stats()));
+        for (Future<Map<String, Stats>> result : results) {
+            try {
+                result.get().forEach((name, stats) -> merged.get(name).merge(stats));
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Virtual user failed", e.getCause());
+            }
+        }
+        workers.shutdown();
+        return merged;
+    }
+
+    private static Endpoint pick(List<Endpoint> mix, int totalWeight, SplittableRandom random) {
+        int roll = random.nextInt(totalWeight);
+        for (Endpoint endpoint : mix) {
+            roll -= endpoint.weight();
+            if (roll < 0) return endpoint;
+        }
+        return mix.get(mix.size() - 1);
+    }
+
+    // -----------------------------------------------------------------------
+    // HTTP
+    // -----------------------------------------------------------------------
+
+    private String token(String username, String password) throws IOException, InterruptedException {
+        String body = MAPPER.writeValueAsString(Map.of("username", username, "password", password));
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() == 200 ? MAPPER.readTree(response.body()).path("token").asText() : null;
+    }
+
+    private HttpResponse<String> get(String path, String token) throws IOException, InterruptedException {
+        return client.send(request(path, token), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<byte[]> send(Endpoint endpoint, RequestContext context) throws IOException, InterruptedException {
+        HttpRequest.Builder request = requestBuilder(endpoint.path().apply(context), context.session().token());
+        if (endpoint.body() != null) {
+            request.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(endpoint.body().apply(context)));
+        }
+        // Read the whole body so the server-side serialization cost is part of the latency
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private HttpRequest request(String path, String token) {
+        return requestBuilder(path, token).build();
+    }
+
+    private HttpRequest.Builder requestBuilder(String path, String token) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json");
+    }
+
+    private static String json(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    // -----------------------------------------------------------------------
+    // Statistics
+    // -----------------------------------------------------------------------
+
+    static final class Stats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        void record(long latencyNanos, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!ok) errors++;
+        }
+
+        void merge(Stats other) {
+            for (int i = 0; i < other.count; i++) {
+                record(other.latencies[i], true);
+            }
+            errors += other.errors;
+        }
+
+        double percentileMillis(double percentile) {
+            if (count == 0) return 0.0;
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+            return sorted[Math.max(0, Math.min(count - 1, index))] / 1e6;
+        }
+    }
+
+    private static void report(Map<String, Stats> stats, Duration duration) {
+        double seconds = duration.toNanos() / 1e9;
+        System.out.printf("%n%-18s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        Stats total = new Stats();
+        stats.forEach((name, endpointStats) -> {
+            print(name, endpointStats, seconds);
+            total.merge(endpointStats);
+        });
+        print("total", total, seconds);
+    }
+
+    private static void print(String name, Stats stats, double seconds) {
+        System.out.printf("%-18s %10d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                name, stats.count, stats.errors, stats.count / seconds,
+                stats.percentileMillis(50), stats.percentileMillis(95), stats.percentileMillis(99),
+                stats.percentileMillis(100));
+    }
+}
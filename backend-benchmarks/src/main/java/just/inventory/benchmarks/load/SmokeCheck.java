@@ -0,0 +1,112 @@
+package just.inventory.benchmarks.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * One request through each code path that depends on reflection, resources or AWT, to check a
+ * build variant (notably the GraalVM native image) before benchmarking it:
+ * <pre>
+ * java -cp target/benchmarks.jar just.inventory.benchmarks.load.SmokeCheck \
+ *     --base-url=http://localhost:8080 --username=super.admin --password=... --query=laptop
+ * </pre>
+ * {@code --query} must match at least one item instance; the first hit is used for the label
+ * checks. Exits with status 1 if any check fails.
+ */
+public class SmokeCheck {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final String baseUrl;
+    private String token;
+    private int failures;
+
+    SmokeCheck(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        SmokeCheck check = new SmokeCheck(options.string("base-url", "BACKEND_URL", "http://localhost:8080"));
+        check.run(options.string("username", "super.admin"),
+                options.string("password", "SMOKE_PASSWORD", "password123"),
+                options.string("query", "a"));
+        System.exit(check.failures == 0 ? 0 : 1);
+    }
+
+    void run(String username, String password, String query) throws Exception {
+        // JWT signing and parsing (jjwt loads its implementation reflectively)
+        HttpResponse<byte[]> login = send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        MAPPER.writeValueAsString(Map.of("username", username, "password", password)))));
+        if (!expect("login", login, "application/json")) {
+            System.out.println("cannot continue without a token");
+            return;
+        }
+        token = MAPPER.readTree(login.body()).path("token").asText();
+
+        // Spring Data REST entity serialization, then the controller with Jackson DTOs
+        expect("data rest", send(authorized("/categories?size=5")), "application/json");
+        expect("offices", send(authorized("/api/offices")), "application/json");
+
+        // Repository interface projections
+        HttpResponse<byte[]> search = send(authorized("/api/search/instances?q="
+                + URLEncoder.encode(query, StandardCharsets.UTF_8)));
+        expect("search", search, "application/json");
+        JsonNode hit = search.statusCode() == 200 ? MAPPER.readTree(search.body()).path("results").path(0) : null;
+        if (hit == null || hit.isMissingNode()) {
+            System.out.println("no item instance matched '" + query + "', skipping the label checks");
+            failures++;
+            return;
+        }
+        long instanceId = hit.path("id").asLong();
+        String ids = "[" + instanceId + "]";
+
+        // ZXing + AWT rendering, ImageIO PNG encoding
+        expect("barcode png", send(authorized("/api/barcodes/generate/" + hit.path("barcode").asText())), "image/png");
+        expect("label png", send(authorized("/api/barcodes/label/" + instanceId)), "image/png");
+        // iText with its bundled font metrics
+        expect("labels pdf", send(authorized("/api/barcodes/labels-pdf")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(ids))), "application/pdf");
+        expect("escpos", send(authorized("/api/barcodes/escpos/" + instanceId)), "application/octet-stream");
+
+        System.out.println(failures == 0 ? "all checks passed" : failures + " check(s) failed");
+    }
+
+    private boolean expect(String name, HttpResponse<byte[]> response, String contentType) {
+        String actual = response.headers().firstValue("Content-Type").orElse("");
+        boolean ok = response.statusCode() == 200 && actual.startsWith(contentType) && response.body().length > 0;
+        System.out.printf("%-12s %s  %d %s, %d bytes%n", name, ok ? "ok  " : "FAIL",
+                response.statusCode(), actual, response.body().length);
+        if (!ok) {
+            failures++;
+        }
+        return ok;
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/json, */*");
+    }
+
+    private HttpResponse<byte[]> send(HttpRequest.Builder request) throws Exception {
+        return client.send(request.timeout(Duration.ofSeconds(30)).build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+}
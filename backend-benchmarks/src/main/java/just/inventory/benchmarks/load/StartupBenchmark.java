@@ -0,0 +1,109 @@
+package just.inventory.benchmarks.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to first request: starts the backend {@code --runs} times and measures from process launch
+ * until {@code --url} answers with any HTTP status, which covers JVM startup, Liquibase, the JPA
+ * and Spring Data REST setup and the first dispatch. On Linux it also reports the resident set
+ * size at that point.
+ * <pre>
+ * java -cp target/benchmarks.jar just.inventory.benchmarks.load.StartupBenchmark \
+ *     --command="java -jar ../backend/target/backend-0.0.1-SNAPSHOT-exec.jar" \
+ *     --url=http://localhost:8080/api/offices --runs=5
+ * </pre>
+ * The command inherits this process's environment, so set {@code DATABASE_URL}, {@code JWT_SECRET}
+ * and friends as for a normal start. Compare variants by changing the command, e.g. adding
+ * {@code -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true}.
+ */
+public class StartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        List<String> command = Arrays.asList(options.string("command", "").trim().split("\\s+"));
+        if (command.get(0).isEmpty()) {
+            throw new IllegalArgumentException("--command is required");
+        }
+        URI url = URI.create(options.string("url", "http://localhost:8080/api/offices"));
+        int runs = options.integer("runs", 5);
+        Duration timeout = options.duration("timeout", Duration.ofSeconds(180));
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        List<Double> seconds = new ArrayList<>();
+        List<Long> rssKb = new ArrayList<>();
+        for (int run = 1; run <= runs; run++) {
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            long started = System.nanoTime();
+            try {
+                int status = awaitFirstResponse(client, url, process, started + timeout.toNanos());
+                double elapsed = (System.nanoTime() - started) / 1e9;
+                long rss = residentKb(process.pid());
+                seconds.add(elapsed);
+                rssKb.add(rss);
+                System.out.printf("run %d: first response %d after %.2f s, RSS %s%n",
+                        run, status, elapsed, rss < 0 ? "n/a" : (rss / 1024) + " MB");
+            } finally {
+                stop(process);
+            }
+        }
+
+        seconds.sort(null);
+        rssKb.sort(null);
+        System.out.printf("%ntime to first request: median %.2f s, min %.2f s, max %.2f s%n",
+                seconds.get(seconds.size() / 2), seconds.get(0), seconds.get(seconds.size() - 1));
+        if (rssKb.get(0) >= 0) {
+            System.out.printf("RSS at first request: median %d MB%n", rssKb.get(rssKb.size() / 2) / 1024);
+        }
+    }
+
+    private static int awaitFirstResponse(HttpClient client, URI url, Process process, long deadlineNanos)
+            throws InterruptedException {
+        // Tomcat binds the port before it accepts, so an early attempt can hang; retry instead of waiting it out
+        HttpRequest request = HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(2)).GET().build();
+        while (System.nanoTime() < deadlineNanos) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Backend exited with status " + process.exitValue() + " before answering");
+            }
+            try {
+                return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (IOException notListeningYet) {
+                Thread.sleep(20);
+            }
+        }
+        throw new IllegalStateException("No response from " + url + " in time");
+    }
+
+    private static long residentKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | RuntimeException unsupported) {
+            // Not Linux
+        }
+        return -1;
+    }
+
+    private static void stop(Process process) throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(20, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+}
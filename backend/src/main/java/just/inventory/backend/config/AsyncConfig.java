@@ -0,0 +1,78 @@
+package just.inventory.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Bounded pool for outbound AI suggestion calls, so slow model responses
+     * wait here instead of holding Tomcat request threads.
+     * <p>
+     * With virtual threads on (Java 21 and {@code spring.threads.virtual.enabled}) the workers
+     * are virtual threads, but the pool keeps its size and queue: they cap how many calls reach
+     * the provider at once, and a full queue still rejects so callers fall back to forecasts.
+     */
+    @Bean(name = "suggestionExecutor")
+    public ThreadPoolTaskExecutor suggestionExecutor(
+            Environment environment,
+            @Value("${ai.requisition.executor.core-size:2}") int coreSize,
+            @Value("${ai.requisition.executor.max-size:8}") int maxSize,
+            @Value("${ai.requisition.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("ai-suggest-");
+        if (Threading.VIRTUAL.isActive(environment)) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("ai-suggest-").getVirtualThreadFactory());
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded pool for export jobs. Each running export holds one database connection for the
+     * length of its scroll, so the pool size also caps how many connections exports can take;
+     * a full queue rejects new jobs instead of piling them up.
+     */
+    @Bean(name = "exportExecutor")
+    public ThreadPoolTaskExecutor exportExecutor(
+            @Value("${exports.executor.threads:2}") int threads,
+            @Value("${exports.executor.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("export-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Bounded pool that writes office events to their SSE streams, so a client that stops
+     * reading blocks one of these threads instead of the request thread that committed the
+     * change or the scheduler. A full queue rejects, and the stream concerned is closed.
+     */
+    @Bean(name = "eventExecutor")
+    public ThreadPoolTaskExecutor eventExecutor(
+            @Value("${events.sse.sender-threads:4}") int threads,
+            @Value("${events.sse.sender-queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("sse-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,52 @@
+package just.inventory.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Puts a {@link ConcurrencyLimitedDataSource} in front of the Hikari pool. Enabled by
+ * {@code db.concurrency-limit.enabled}, which follows {@code VIRTUAL_THREADS} by default: with
+ * Tomcat's platform thread pool the 200 request threads already bound how many callers can
+ * queue for a connection.
+ */
+@Configuration
+@ConditionalOnProperty(name = "db.concurrency-limit.enabled", havingValue = "true")
+public class DbConcurrencyLimitConfig {
+
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSourcePostProcessor(
+            Environment environment, ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource) {
+                    return bean;
+                }
+                int permits = environment.getProperty("db.concurrency-limit.permits", Integer.class,
+                        environment.getProperty("spring.datasource.hikari.maximum-pool-size", Integer.class, 10));
+                ConcurrencyLimitedDataSource limited = new ConcurrencyLimitedDataSource(dataSource, permits,
+                        environment.getProperty("db.concurrency-limit.max-waiting", Integer.class, 1000),
+                        environment.getProperty("db.concurrency-limit.acquire-timeout", Duration.class, Duration.ofSeconds(10)));
+
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("inventory.db.limiter.available", limited, ConcurrencyLimitedDataSource::getAvailablePermits)
+                            .description("Connection slots not currently held")
+                            .register(registry);
+                    Gauge.builder("inventory.db.limiter.waiting", limited, ConcurrencyLimitedDataSource::getWaiting)
+                            .description("Callers queued for a connection slot")
+                            .register(registry);
+                });
+                return limited;
+            }
+        };
+    }
+}
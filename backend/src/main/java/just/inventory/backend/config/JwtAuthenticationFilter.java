@@ -4,6 +4,7 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import just.inventory.backend.service.InventoryMetrics;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -19,10 +20,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsService userDetailsService;
+    private final InventoryMetrics inventoryMetrics;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService,
+                                   InventoryMetrics inventoryMetrics) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.inventoryMetrics = inventoryMetrics;
     }
 
 @Override
@@ -34,6 +38,8 @@ protected void doFilterInternal(HttpServletRequest request, HttpServletResponse
         return;
     }
 
+    long started = System.nanoTime();
+    String outcome = "anonymous";
     final String authorizationHeader = request.getHeader("Authorization");
 
     String username = null;
@@ -45,6 +51,7 @@ protected void doFilterInternal(HttpServletRequest request, HttpServletResponse
             username = jwtUtil.extractUsername(jwt);
         } catch (Exception e) {
             // Invalid token - ignore
+            outcome = "invalid";
         }
     }
 
@@ -64,8 +71,12 @@ protected void doFilterInternal(HttpServletRequest request, HttpServletResponse
             );
 
             SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+            outcome = "authenticated";
+        } else {
+            outcome = "invalid";
         }
     }
+    inventoryMetrics.jwtFilter(System.nanoTime() - started, outcome);
 
     filterChain.doFilter(request, response);
 }
@@ -0,0 +1,91 @@
+package just.inventory.backend.config;
+
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.RegexPatternTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Reflection and resource hints for the GraalVM native image ({@code mvn -Pnative native:compile}).
+ * Spring AOT already covers the beans, the JPA entities as persistence types, repository
+ * projections and controller signatures; this adds what it cannot see. Only consulted at
+ * build time; the JVM build ignores it.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    // Looked up by name from jjwt-api (Classes.newInstance) and its ServiceLoader lookups
+    private static final List<String> JJWT_TYPES = List.of(
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer");
+
+    // ImageIO finds its PNG codecs through the service registry when labels are rendered
+    private static final List<String> IMAGEIO_TYPES = List.of(
+            "com.sun.imageio.plugins.png.PNGImageReaderSpi",
+            "com.sun.imageio.plugins.png.PNGImageWriterSpi");
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : JJWT_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+        hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+        for (String type : IMAGEIO_TYPES) {
+            hints.reflection().registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+        }
+
+        // Standard Type 1 font metrics used by the PDF label sheets
+        hints.resources().registerPattern("com/itextpdf/io/font/afm/*");
+        hints.resources().registerPattern("com/itextpdf/io/font/AdobeGlyphList.txt");
+
+        // ConcurrencyLimitedDataSource wraps pooled connections in a JDK proxy
+        hints.proxies().registerJdkProxy(Connection.class);
+
+        // Entities are serialized by Spring Data REST and the controllers, DTOs (Lombok
+        // accessors and projection interfaces) by Jackson
+        BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+        for (String packageName : List.of("just.inventory.backend.model", "just.inventory.backend.dto")) {
+            for (Class<?> type : typesIn(packageName, classLoader)) {
+                binding.registerReflectionHints(hints.reflection(), type);
+            }
+        }
+    }
+
+    private static List<Class<?>> typesIn(String packageName, ClassLoader classLoader) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+            @Override
+            protected boolean isCandidateComponent(AnnotatedBeanDefinition beanDefinition) {
+                // Interface projections and enums too, not just concrete classes
+                return beanDefinition.getMetadata().isIndependent();
+            }
+        };
+        scanner.addIncludeFilter(new RegexPatternTypeFilter(Pattern.compile(".*")));
+        return scanner.findCandidateComponents(packageName).stream()
+                .map(BeanDefinition::getBeanClassName)
+                .<Class<?>>map(name -> ClassUtils.resolveClassName(name, classLoader))
+                .toList();
+    }
+}
@@ -0,0 +1,18 @@
+package just.inventory.backend.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a controller endpoint may run per request, checked by
+ * {@link QueryBudgetFilter} when {@code query-budget.enabled} is set. On a class it applies to
+ * every handler method that does not declare its own budget.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
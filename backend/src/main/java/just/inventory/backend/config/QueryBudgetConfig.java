@@ -0,0 +1,73 @@
+package just.inventory.backend.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * Dev-mode SQL instrumentation: wraps the DataSource in a datasource-proxy that feeds
+ * {@link QueryStatistics}, and registers {@link QueryBudgetFilter} ahead of the security chain
+ * so the queries done while authenticating are counted too. Off unless
+ * {@code query-budget.enabled} is set; production keeps the plain Hikari DataSource.
+ */
+@Configuration
+@ConditionalOnProperty(name = "query-budget.enabled", havingValue = "true")
+public class QueryBudgetConfig {
+
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                return ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new QueryCountingListener())
+                        .build();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(
+            @Value("${query-budget.headers:true}") boolean headers,
+            @Value("${query-budget.fail-on-exceed:false}") boolean failOnExceed,
+            @Value("${query-budget.repeated-threshold:5}") int repeatedThreshold) {
+        FilterRegistrationBean<QueryBudgetFilter> registration =
+                new FilterRegistrationBean<>(new QueryBudgetFilter(headers, failOnExceed, repeatedThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private static class QueryCountingListener implements QueryExecutionListener {
+
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            QueryStatistics statistics = QueryStatistics.current();
+            if (statistics == null) {
+                return;
+            }
+            for (QueryInfo queryInfo : queryInfoList) {
+                statistics.record(queryInfo.getQuery());
+            }
+            statistics.addElapsed(execInfo.getElapsedTime());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package just.inventory.backend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Counts the SQL statements each request runs and checks them against the endpoint's
+ * {@link QueryBudget}. Every request over budget, or with a statement shape repeated at least
+ * {@code repeated-threshold} times (the usual N+1 signature), is logged with its worst shapes.
+ * <p>
+ * With {@code headers} on, responses carry {@code X-Query-Count}, {@code X-Query-Time-Ms},
+ * {@code X-Query-Repeated} and, when declared, {@code X-Query-Budget}. With
+ * {@code fail-on-exceed} on, a request over budget gets a 500 instead of its normal response,
+ * so an integration or load test run against the endpoint fails. Both need the response body
+ * buffered until the handler finishes, which is why this is meant for dev and test runs only.
+ */
+class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+    private static final int LOGGED_SHAPES = 3;
+
+    private final boolean headers;
+    private final boolean failOnExceed;
+    private final int repeatedThreshold;
+
+    QueryBudgetFilter(boolean headers, boolean failOnExceed, int repeatedThreshold) {
+        this.headers = headers;
+        this.failOnExceed = failOnExceed;
+        this.repeatedThreshold = repeatedThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // An event stream writes long after the handler returns, so it can never be buffered
+        boolean buffered = (headers || failOnExceed) && !isEventStream(request);
+        HttpServletResponse target = buffered ? new ContentCachingResponseWrapper(response) : response;
+        QueryStatistics statistics = QueryStatistics.start();
+        try {
+            filterChain.doFilter(request, target);
+        } finally {
+            QueryStatistics.clear();
+        }
+
+        Integer budget = budgetFor(request);
+        Map<String, Integer> repeated = statistics.repeated(repeatedThreshold);
+        boolean overBudget = budget != null && statistics.getQueries() > budget;
+
+        if (overBudget || !repeated.isEmpty()) {
+            StringBuilder message = new StringBuilder()
+                    .append(request.getMethod()).append(' ').append(request.getRequestURI())
+                    .append(": ").append(statistics.getQueries()).append(" queries in ")
+                    .append(statistics.getElapsedMillis()).append(" ms");
+            if (budget != null) {
+                message.append(" (budget ").append(budget).append(')');
+            }
+            repeated.entrySet().stream().limit(LOGGED_SHAPES).forEach(e ->
+                    message.append("\n  ").append(e.getValue()).append("x ").append(e.getKey()));
+            log.warn(message.toString());
+        }
+
+        if (!buffered) {
+            return;
+        }
+        ContentCachingResponseWrapper wrapper = (ContentCachingResponseWrapper) target;
+        if (request.isAsyncStarted()) {
+            // Async handlers finish on another thread; pass the body through untouched
+            wrapper.copyBodyToResponse();
+            return;
+        }
+        if (overBudget && failOnExceed) {
+            wrapper.resetBuffer();
+            wrapper.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            wrapper.setContentType("text/plain;charset=UTF-8");
+            wrapper.getOutputStream().write(("Query budget exceeded: " + statistics.getQueries()
+                    + " queries, budget " + budget).getBytes(StandardCharsets.UTF_8));
+        }
+        if (headers) {
+            wrapper.setHeader("X-Query-Count", String.valueOf(statistics.getQueries()));
+            wrapper.setHeader("X-Query-Time-Ms", String.valueOf(statistics.getElapsedMillis()));
+            wrapper.setHeader("X-Query-Repeated", String.valueOf(repeated.size()));
+            if (budget != null) {
+                wrapper.setHeader("X-Query-Budget", String.valueOf(budget));
+            }
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private static boolean isEventStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    private static Integer budgetFor(HttpServletRequest request) {
+        if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)) {
+            return null;
+        }
+        QueryBudget budget = AnnotatedElementUtils.findMergedAnnotation(handler.getMethod(), QueryBudget.class);
+        if (budget == null) {
+            budget = AnnotatedElementUtils.findMergedAnnotation(handler.getBeanType(), QueryBudget.class);
+        }
+        return budget == null ? null : budget.value();
+    }
+}
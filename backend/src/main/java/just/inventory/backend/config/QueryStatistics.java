@@ -0,0 +1,77 @@
+package just.inventory.backend.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * SQL statements run on the current request thread. Statements are grouped by shape (the SQL
+ * with literals and IN lists collapsed), so a query repeated once per row shows up as one shape
+ * with a high count.
+ */
+final class QueryStatistics {
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Map<String, Integer> shapes = new HashMap<>();
+    private int queries;
+    private long elapsedMillis;
+
+    static QueryStatistics start() {
+        QueryStatistics statistics = new QueryStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    void record(String sql) {
+        queries++;
+        shapes.merge(shape(sql), 1, Integer::sum);
+    }
+
+    void addElapsed(long millis) {
+        elapsedMillis += millis;
+    }
+
+    int getQueries() {
+        return queries;
+    }
+
+    long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Shapes executed at least {@code threshold} times, most frequent first.
+     */
+    Map<String, Integer> repeated(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        shapes.entrySet().stream()
+                .filter(e -> e.getValue() >= threshold)
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(e -> repeated.put(e.getKey(), e.getValue()));
+        return repeated;
+    }
+
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        shape = IN_LIST.matcher(shape).replaceAll("(?...)");
+        return shape.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,111 @@
+package just.inventory.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Sends read-only transactions to a streaming replica when {@code replica.datasource.url} is set;
+ * otherwise the {@link DataSource} is just the primary pool.
+ * <p>
+ * This configuration always replaces Spring Boot's pool and reads the url when the bean is
+ * created. A {@code @Conditional} on the url would be evaluated once at build time under Spring
+ * AOT (the Docker image), which would ignore a {@code REPLICA_DATABASE_URL} set at run time.
+ * <p>
+ * The one {@link DataSource} bean is a {@link LazyConnectionDataSourceProxy} over the primary
+ * pool. It only opens the physical connection at the first statement, after the transaction
+ * manager has marked the connection read-only, and takes read-only connections from
+ * {@link ReplicaRouting}'s choice of pool. Everything else, Liquibase included, uses the primary.
+ * Both pools take the {@code spring.datasource.hikari} settings; {@code replica.datasource.hikari}
+ * overrides them for the replica, which also defaults to the primary's credentials.
+ */
+@Configuration
+public class ReplicaDataSourceConfig implements DisposableBean {
+
+    private static final long REPLICA_CONNECTION_TIMEOUT_MS = 2000;
+
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 ReplicaRouting routing, MeterRegistry registry) {
+        Binder binder = Binder.get(environment);
+
+        primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        primary.setPoolName("primary");
+        primary.setMetricRegistry(registry);
+
+        String replicaUrl = environment.getProperty("replica.datasource.url", "");
+        if (replicaUrl.isEmpty()) {
+            return primary;
+        }
+
+        replica = new HikariDataSource();
+        replica.setDriverClassName(properties.determineDriverClassName());
+        replica.setJdbcUrl(replicaUrl);
+        replica.setUsername(environment.getProperty("replica.datasource.username", properties.determineUsername()));
+        replica.setPassword(environment.getProperty("replica.datasource.password", properties.determinePassword()));
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(replica));
+        // Fall back to the primary soon instead of waiting out the primary's timeout for a dead replica
+        replica.setConnectionTimeout(Math.min(replica.getConnectionTimeout(), REPLICA_CONNECTION_TIMEOUT_MS));
+        replica.setInitializationFailTimeout(-1);
+        binder.bind("replica.datasource.hikari", Bindable.ofInstance(replica));
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setMetricRegistry(registry);
+        routing.setReplica(replica);
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(new RoutingReadOnlyDataSource(primary, replica, routing));
+        return dataSource;
+    }
+
+    @Override
+    public void destroy() {
+        if (replica != null) {
+            replica.close();
+        }
+        if (primary != null) {
+            primary.close();
+        }
+    }
+
+    /** Read-only connections: from the replica while {@link ReplicaRouting} allows it. */
+    private static class RoutingReadOnlyDataSource extends DelegatingDataSource {
+
+        private final DataSource replica;
+        private final ReplicaRouting routing;
+
+        RoutingReadOnlyDataSource(DataSource primary, DataSource replica, ReplicaRouting routing) {
+            super(primary);
+            this.replica = replica;
+            this.routing = routing;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (routing.useReplica()) {
+                try {
+                    return replica.getConnection();
+                } catch (SQLException e) {
+                    routing.replicaFailed(e);
+                }
+            }
+            return obtainTargetDataSource().getConnection();
+        }
+    }
+}
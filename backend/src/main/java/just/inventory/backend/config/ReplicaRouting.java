@@ -0,0 +1,240 @@
+package just.inventory.backend.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.Cookie;
+import just.inventory.backend.service.TableVersions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.WebUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Decides whether a read-only transaction may read from the replica (see
+ * {@link ReplicaDataSourceConfig}); without a replica configured every answer is "primary".
+ * <p>
+ * The replica is used while its replay lag, checked every {@code replica.lag-check-interval},
+ * stays within {@code replica.max-lag}, and is dropped until the next check as soon as a
+ * connection to it fails. After a user commits a write, their reads stay on the primary for
+ * {@code replica.sticky-window}, so they always see their own changes; it is at least the
+ * staleness bound. This instance remembers the user, and the response carries the end of the
+ * window in the {@value #STICKY_COOKIE} cookie, so the user's next requests stay on the primary
+ * whichever instance serves them. The cookie holds wall-clock time, so instances must keep their
+ * clocks in sync to well within the window. Reads stored under {@link TableVersions} (ETags, cached reports) go through
+ * {@link #readVersioned}, which keeps them on the primary while one of their tables changed
+ * recently, so new versions are never filed with old rows.
+ */
+@Component
+public class ReplicaRouting implements TransactionExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouting.class);
+
+    // Reported while the lag cannot be measured
+    private static final double UNKNOWN_LAG = Double.NaN;
+
+    static final String STICKY_COOKIE = "primary-reads-until";
+
+    private final TableVersions tableVersions;
+
+    @Value("${replica.max-lag:1s}")
+    private Duration maxLag;
+
+    @Value("${replica.lag-check-interval:1s}")
+    private Duration lagCheckInterval;
+
+    @Value("${replica.sticky-window:5s}")
+    private Duration stickyWindow;
+
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final ThreadLocal<Boolean> primaryOnly = new ThreadLocal<>();
+
+    private volatile DataSource replica;
+    private volatile boolean replicaUsable;
+    private volatile double lagSeconds = UNKNOWN_LAG;
+
+    public ReplicaRouting(TableVersions tableVersions, MeterRegistry registry) {
+        this.tableVersions = tableVersions;
+        Gauge.builder("inventory.db.replica.lag", this, routing -> routing.replica == null ? 0 : routing.lagSeconds)
+                .description("Replay lag of the read replica in seconds, as of the last check")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("inventory.db.replica.usable", this, routing -> routing.replicaUsable ? 1 : 0)
+                .description("Whether read-only transactions currently go to the replica")
+                .register(registry);
+    }
+
+    void setReplica(DataSource replica) {
+        this.replica = replica;
+        checkLag();
+    }
+
+    /** Whether the read-only connection being opened now may come from the replica. */
+    boolean useReplica() {
+        if (replica == null || !replicaUsable || Boolean.TRUE.equals(primaryOnly.get())) {
+            return false;
+        }
+        String username = currentUsername();
+        if (username == null) {
+            return true;
+        }
+        if (stickyCookieUntil() > System.currentTimeMillis()) {
+            return false;
+        }
+        Long until = stickyUntil.get(username);
+        if (until == null) {
+            return true;
+        }
+        if (System.nanoTime() - until < 0) {
+            return false;
+        }
+        stickyUntil.remove(username, until);
+        return true;
+    }
+
+    void replicaFailed(SQLException e) {
+        if (replicaUsable) {
+            log.warn("Read replica unavailable, reading from the primary: {}", e.getMessage());
+        }
+        replicaUsable = false;
+    }
+
+    /** Runs {@code loader} with every connection it opens taken from the primary. */
+    public <T> T onPrimary(Supplier<T> loader) {
+        if (replica == null || Boolean.TRUE.equals(primaryOnly.get())) {
+            return loader.get();
+        }
+        primaryOnly.set(Boolean.TRUE);
+        try {
+            return loader.get();
+        } finally {
+            primaryOnly.remove();
+        }
+    }
+
+    /**
+     * Runs a load whose result is tagged with the versions of {@code tables}: on the primary if
+     * one of them changed within the replica's staleness bound, where it may read either.
+     */
+    public <T> T readVersioned(Supplier<T> loader, Class<?>... tables) {
+        if (replica != null && tableVersions.changedWithin(stalenessBound(), tables)) {
+            return onPrimary(loader);
+        }
+        return loader.get();
+    }
+
+    @Scheduled(fixedDelayString = "${replica.lag-check-interval:1s}")
+    public void checkLag() {
+        DataSource current = replica;
+        if (current == null) {
+            return;
+        }
+        // Replay lag is only meaningful while received WAL is outstanding; an idle replica is current.
+        // After a restart streaming resumes from the segment start, behind what was already replayed
+        String query = "select case when not pg_is_in_recovery() then null "
+                + "when pg_last_wal_receive_lsn() <= pg_last_wal_replay_lsn() then 0 "
+                + "else extract(epoch from now() - pg_last_xact_replay_timestamp()) end";
+        try (Connection connection = current.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(query)) {
+            result.next();
+            double lag = result.getDouble(1);
+            if (result.wasNull()) {
+                throw new SQLException("replica is not in recovery");
+            }
+            lagSeconds = lag;
+            boolean usable = lag <= maxLag.toMillis() / 1000.0;
+            if (usable != replicaUsable) {
+                log.info("Read replica {} (lag {} s)", usable ? "in use" : "lagging, reading from the primary", lag);
+            }
+            replicaUsable = usable;
+        } catch (SQLException e) {
+            lagSeconds = UNKNOWN_LAG;
+            replicaFailed(e);
+        }
+    }
+
+    @Override
+    public void afterCommit(TransactionExecution transaction, @Nullable Throwable commitFailure) {
+        if (replica == null || commitFailure != null || !transaction.isNewTransaction() || transaction.isReadOnly()) {
+            return;
+        }
+        String username = currentUsername();
+        if (username != null) {
+            Duration window = stickyWindow.compareTo(stalenessBound()) > 0 ? stickyWindow : stalenessBound();
+            stickyUntil.put(username, System.nanoTime() + window.toNanos());
+            setStickyCookie(window);
+        }
+    }
+
+    /** End of the sticky window the current request's cookie carries, in epoch milliseconds, or 0. */
+    private static long stickyCookieUntil() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return 0;
+        }
+        Cookie cookie = WebUtils.getCookie(attributes.getRequest(), STICKY_COOKIE);
+        if (cookie == null) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(cookie.getValue());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static void setStickyCookie(Duration window) {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)
+                || attributes.getResponse() == null) {
+            return;
+        }
+        // Ignored by the container once the response is committed, e.g. on an event stream
+        ResponseCookie cookie = ResponseCookie.from(STICKY_COOKIE, Long.toString(System.currentTimeMillis() + window.toMillis()))
+                .path("/")
+                .maxAge(window)
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build();
+        attributes.getResponse().addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+
+    /** Longest the replica may be behind while it is used: the lag limit until the next check. */
+    private Duration stalenessBound() {
+        return maxLag.plus(lagCheckInterval);
+    }
+
+    private static String currentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    @Scheduled(fixedDelayString = "${replica.sticky-window:5s}")
+    public void evictExpiredStickiness() {
+        long now = System.nanoTime();
+        stickyUntil.values().removeIf(until -> now - until >= 0);
+    }
+}
@@ -0,0 +1,12 @@
+package just.inventory.backend.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables {@code @Scheduled} batch jobs such as the nightly demand forecast.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -5,6 +5,7 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import just.inventory.backend.service.BarcodeService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -13,7 +14,9 @@ import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +28,10 @@ public class BarcodeController {
     @Autowired
     private BarcodeService barcodeService;
 
+    // An unreachable printer would otherwise hold the request until the OS gives up on the connect
+    @Value("${printer.connect-timeout:5s}")
+    private Duration printerConnectTimeout;
+
     @GetMapping("/generate/{barcodeText}")
     @Operation(summary = "Generate barcode image", description = "Generate a Code128 barcode image for the given text")
     public ResponseEntity<byte[]> generateBarcode(
@@ -198,8 +205,9 @@ public class BarcodeController {
             }
 
             // Send data to network printer via raw socket
-            try (Socket socket = new Socket(printerIP, printerPort);
-                 OutputStream out = socket.getOutputStream()) {
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress(printerIP, printerPort), (int) printerConnectTimeout.toMillis());
+                OutputStream out = socket.getOutputStream();
                 out.write(data);
                 out.flush();
             }
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 
@@ -18,20 +19,20 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
     @Operation(summary = "Get all categories")
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
-        return ResponseEntity.ok(categories);
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest request) {
+        return conditionalGet.respond(request, () -> ResponseEntity.ok(categoryService.getAllCategories()), Category.class);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get category by ID")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        return categoryService.getCategoryById(id)
+    public ResponseEntity<Category> getCategoryById(@PathVariable Long id, WebRequest request) {
+        return conditionalGet.respond(request, () -> categoryService.getCategoryById(id)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()), Category.class);
     }
 
     @PostMapping
@@ -0,0 +1,78 @@
+package just.inventory.backend.controller;
+
+import just.inventory.backend.config.ReplicaRouting;
+import just.inventory.backend.service.TableVersions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GET for read endpoints whose payload only depends on a few tables: the ETag is
+ * built from {@link TableVersions} before anything is loaded, so a client polling with
+ * {@code If-None-Match} gets a 304 for the price of comparing a few counters.
+ * <p>
+ * Responses are {@code private, no-cache}: browsers keep them but revalidate on every use, so
+ * a change is visible on the next poll, and shared caches never store per-user data.
+ */
+@Component
+@RequiredArgsConstructor
+public class ConditionalGet {
+
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+    private static final List<String> BINARY_ENCODINGS = List.of("cbor", "smile");
+
+    private final TableVersions tableVersions;
+    private final ReplicaRouting replicaRouting;
+
+    public <T> ResponseEntity<T> respond(WebRequest request, Supplier<ResponseEntity<T>> response,
+                                         Class<?>... tables) {
+        return respond(request, null, response, tables);
+    }
+
+    /**
+     * @param scope added to the ETag when the same URL serves different data per caller
+     */
+    public <T> ResponseEntity<T> respond(WebRequest request, Object scope, Supplier<ResponseEntity<T>> response,
+                                         Class<?>... tables) {
+        // Taken before loading: a write committing in between leaves an old tag on new data,
+        // which costs one extra download later but never serves stale data
+        String etag = tableVersions.etag(encoding(request, scope), tables);
+        if (request.checkNotModified(etag)) {
+            // checkNotModified has already set the ETag header
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(REVALIDATE)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        ResponseEntity<T> loaded = replicaRouting.readVersioned(response, tables);
+        if (!loaded.getStatusCode().is2xxSuccessful()) {
+            return loaded;
+        }
+        return ResponseEntity.status(loaded.getStatusCode())
+                .headers(loaded.getHeaders())
+                .eTag(etag)
+                .cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(loaded.getBody());
+    }
+
+    /**
+     * JSON, CBOR and Smile renderings of the same data must not validate each other's cache entries.
+     */
+    private static Object encoding(WebRequest request, Object scope) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        for (String binary : BINARY_ENCODINGS) {
+            if (accept != null && accept.contains(binary)) {
+                return scope == null ? binary : scope + "-" + binary;
+            }
+        }
+        return scope;
+    }
+}
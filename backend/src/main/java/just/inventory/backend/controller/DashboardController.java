@@ -0,0 +1,75 @@
+package just.inventory.backend.controller;
+
+import just.inventory.backend.model.User;
+import just.inventory.backend.repository.UserRepository;
+import just.inventory.backend.service.DashboardService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/dashboard")
+public class DashboardController {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Inventory, request, transaction and purchase counts of the current user's office together
+     * with its latest purchases, requests and transactions, in one response.
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<?> getSnapshot() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long officeId = userRepository.findOfficeIdByUsername(authentication.getName()).orElse(null);
+
+        if (officeId == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body("User is not assigned to an office");
+        }
+
+        return ResponseEntity.ok(dashboardService.getSnapshot(officeId));
+    }
+
+    /**
+     * Recounts the counters behind {@code /snapshot} for the given office (default: the current
+     * user's), after instances, requests, transactions or purchases were changed outside this
+     * API. Admins only.
+     */
+    @PostMapping("/rebuild")
+    public ResponseEntity<?> rebuildCounters(@RequestParam(required = false) Long officeId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        User currentUser = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        String roleName = currentUser.getRole() != null ? currentUser.getRole().getName() : "";
+        String normalizedRole = roleName.replaceFirst("^ROLE_", "").trim().toUpperCase();
+        if (!"ADMIN".equals(normalizedRole) && !"SUPER_ADMIN".equals(normalizedRole)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only admins can rebuild dashboard counters");
+        }
+        if (officeId == null) {
+            if (currentUser.getOffice() == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("User is not assigned to an office");
+            }
+            officeId = currentUser.getOffice().getId();
+        }
+
+        int counters = dashboardService.rebuildCounters(officeId);
+        return ResponseEntity.ok(Map.of("officeId", officeId, "counters", counters));
+    }
+}
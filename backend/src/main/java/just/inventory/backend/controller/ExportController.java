@@ -0,0 +1,125 @@
+package just.inventory.backend.controller;
+
+import just.inventory.backend.dto.ExportJobResponse;
+import just.inventory.backend.dto.ExportRequest;
+import just.inventory.backend.model.User;
+import just.inventory.backend.repository.UserRepository;
+import just.inventory.backend.service.ExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Background exports: submit a job, poll it for progress, then download the file from its
+ * {@code downloadUrl}. Jobs are only visible to the user who submitted them.
+ */
+@RestController
+@RequestMapping("/api/exports")
+public class ExportController {
+
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+    private static final MediaType XLSX =
+            MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PostMapping
+    public ResponseEntity<ExportJobResponse> submitExport(@RequestBody ExportRequest request) {
+        User currentUser = getCurrentUser();
+        Long officeId = resolveOffice(currentUser, request.getOfficeId());
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(exportService.submit(currentUser.getUsername(), officeId, request));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ExportJobResponse>> getExports() {
+        return ResponseEntity.ok(exportService.getJobs(getCurrentUsername()));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getExport(@PathVariable String jobId) {
+        return exportService.getJob(jobId, getCurrentUsername())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Export job not found"));
+    }
+
+    /**
+     * CSV exports are stored gzip'd: clients that accept gzip get the stored bytes with
+     * {@code Content-Encoding: gzip}, others get them decompressed on the fly.
+     */
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<Resource> downloadExport(@PathVariable String jobId,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+                                                   String acceptEncoding) throws IOException {
+        ExportService.ExportFile file = exportService.getFile(jobId, getCurrentUsername())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Export not found or not finished"));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.fileName()).build().toString());
+        if (!ExportService.FORMAT_CSV.equals(file.format())) {
+            return response.contentType(XLSX).body(new FileSystemResource(file.path()));
+        }
+        response.contentType(CSV).varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(new FileSystemResource(file.path()));
+        }
+        return response.body(new InputStreamResource(new GZIPInputStream(Files.newInputStream(file.path()), 64 * 1024)));
+    }
+
+    @DeleteMapping("/{jobId}")
+    public ResponseEntity<?> cancelExport(@PathVariable String jobId) {
+        if (!exportService.cancel(jobId, getCurrentUsername())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Export job not found");
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * The requested office if the caller may export it (admins: any office), otherwise
+     * the caller's own office.
+     */
+    private Long resolveOffice(User currentUser, Long officeId) {
+        Long ownOfficeId = currentUser.getOffice() != null ? currentUser.getOffice().getId() : null;
+        if (officeId == null || officeId.equals(ownOfficeId)) {
+            if (ownOfficeId == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not assigned to an office");
+            }
+            return ownOfficeId;
+        }
+        String roleName = currentUser.getRole() != null ? currentUser.getRole().getName() : "";
+        String normalizedRole = roleName.replaceFirst("^ROLE_", "").trim().toUpperCase();
+        if (!"ADMIN".equals(normalizedRole) && !"SUPER_ADMIN".equals(normalizedRole)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only export data of your own office");
+        }
+        return officeId;
+    }
+
+    private User getCurrentUser() {
+        return userRepository.findByUsername(getCurrentUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private String getCurrentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getName();
+    }
+}
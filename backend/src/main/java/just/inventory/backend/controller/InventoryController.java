@@ -1,18 +1,25 @@
 package just.inventory.backend.controller;
 
+import just.inventory.backend.dto.ItemInstanceView;
+import just.inventory.backend.model.Category;
 import just.inventory.backend.model.Inventory;
+import just.inventory.backend.model.Item;
 import just.inventory.backend.model.ItemInstance;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.model.Unit;
 import just.inventory.backend.model.User;
 import just.inventory.backend.repository.UserRepository;
+import just.inventory.backend.service.InventoryAsOfService;
 import just.inventory.backend.service.InventoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
-import java.util.List;
-import java.util.Map;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/inventories")
@@ -21,11 +28,22 @@ public class InventoryController {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private InventoryAsOfService inventoryAsOfService;
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ConditionalGet conditionalGet;
+
+    // Instances are serialized with their item (category, unit) and owner office; the ETag is
+    // only taken after the office access check
+    private static final Class<?>[] READS =
+            {Inventory.class, ItemInstance.class, Item.class, Category.class, Unit.class, Office.class};
+
     @GetMapping("/office/{officeId}")
-    public ResponseEntity<?> getInventoryByOffice(@PathVariable Long officeId) {
+    public ResponseEntity<?> getInventoryByOffice(@PathVariable Long officeId, WebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         User currentUser = userRepository.findByUsername(username)
@@ -37,12 +55,12 @@ public class InventoryController {
                 .body("You can only view inventory for your own office");
         }
         
-        Inventory inventory = inventoryService.getInventoryByOfficeId(officeId);
-        return ResponseEntity.ok(inventory);
+        return conditionalGet.respond(request,
+                () -> ResponseEntity.ok(inventoryService.getInventoryViewByOfficeId(officeId)), READS);
     }
 
     @GetMapping("/office/{officeId}/items")
-    public ResponseEntity<?> getItemInstancesByOffice(@PathVariable Long officeId) {
+    public ResponseEntity<?> getItemInstancesByOffice(@PathVariable Long officeId, WebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         User currentUser = userRepository.findByUsername(username)
@@ -54,12 +72,12 @@ public class InventoryController {
                 .body("You can only view inventory for your own office");
         }
         
-        List<ItemInstance> instances = inventoryService.getItemInstancesByOfficeId(officeId);
-        return ResponseEntity.ok(instances);
+        return conditionalGet.respond(request,
+                () -> ResponseEntity.ok(inventoryService.getItemInstancesByOfficeId(officeId)), READS);
     }
 
     @GetMapping("/office/{officeId}/summary")
-    public ResponseEntity<?> getInventorySummary(@PathVariable Long officeId) {
+    public ResponseEntity<?> getInventorySummary(@PathVariable Long officeId, WebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         User currentUser = userRepository.findByUsername(username)
@@ -71,8 +89,28 @@ public class InventoryController {
                 .body("You can only view inventory for your own office");
         }
         
-        Map<String, Object> summary = inventoryService.getInventorySummaryByOfficeId(officeId);
-        return ResponseEntity.ok(summary);
+        return conditionalGet.respond(request,
+                () -> ResponseEntity.ok(inventoryService.getInventorySummaryByOfficeId(officeId)), READS);
+    }
+
+    /**
+     * What the office held at {@code ts}, rebuilt from confirmed movements and inventory snapshots.
+     */
+    @GetMapping("/office/{officeId}/as-of")
+    public ResponseEntity<?> getInventoryAsOf(@PathVariable Long officeId,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ts) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        User currentUser = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // Check if user belongs to the same office or is admin/super-admin
+        if (!canAccessOffice(currentUser, officeId)) {
+            return ResponseEntity.status(403)
+                .body("You can only view inventory for your own office");
+        }
+
+        return ResponseEntity.ok(inventoryAsOfService.getInventoryAsOf(officeId, ts));
     }
 
     @GetMapping("/items/{id}")
@@ -82,10 +120,10 @@ public class InventoryController {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        ItemInstance instance = inventoryService.getItemInstanceById(id);
+        ItemInstanceView instance = inventoryService.getItemInstanceById(id);
         
         // Check if user belongs to the same office or is admin/super-admin
-        if (!canAccessOffice(currentUser, instance.getOwnerOffice().getId())) {
+        if (!canAccessOffice(currentUser, instance.ownerOffice() != null ? instance.ownerOffice().id() : null)) {
             return ResponseEntity.status(403)
                 .body("You can only view items for your own office");
         }
@@ -94,25 +132,27 @@ public class InventoryController {
     }
 
     @GetMapping("/my-office")
-    public ResponseEntity<?> getMyOfficeInventory() {
+    public ResponseEntity<?> getMyOfficeInventory(WebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<ItemInstance> instances = inventoryService.getItemInstancesByOfficeId(currentUser.getOffice().getId());
-        return ResponseEntity.ok(instances);
+        Long officeId = currentUser.getOffice().getId();
+        return conditionalGet.respond(request, officeId,
+                () -> ResponseEntity.ok(inventoryService.getItemInstancesByOfficeId(officeId)), READS);
     }
 
     @GetMapping("/my-office/summary")
-    public ResponseEntity<?> getMyOfficeInventorySummary() {
+    public ResponseEntity<?> getMyOfficeInventorySummary(WebRequest request) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        Map<String, Object> summary = inventoryService.getInventorySummaryByOfficeId(currentUser.getOffice().getId());
-        return ResponseEntity.ok(summary);
+        Long officeId = currentUser.getOffice().getId();
+        return conditionalGet.respond(request, officeId,
+                () -> ResponseEntity.ok(inventoryService.getInventorySummaryByOfficeId(officeId)), READS);
     }
 
     private boolean canAccessOffice(User user, Long officeId) {
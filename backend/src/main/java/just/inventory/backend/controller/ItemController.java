@@ -1,11 +1,14 @@
 package just.inventory.backend.controller;
 
+import just.inventory.backend.model.Category;
 import just.inventory.backend.model.Item;
+import just.inventory.backend.model.Unit;
 import just.inventory.backend.service.ItemService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 
@@ -17,21 +20,24 @@ import java.util.List;
 @Tag(name = "Item Management", description = "APIs for managing inventory items")
 public class ItemController {
 
+    // Items are serialized with their category and unit
+    private static final Class<?>[] READS = {Item.class, Category.class, Unit.class};
+
     private final ItemService itemService;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
     @Operation(summary = "Get all items")
-    public ResponseEntity<List<Item>> getAllItems() {
-        List<Item> items = itemService.getAllItems();
-        return ResponseEntity.ok(items);
+    public ResponseEntity<List<Item>> getAllItems(WebRequest request) {
+        return conditionalGet.respond(request, () -> ResponseEntity.ok(itemService.getAllItems()), READS);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get item by ID")
-    public ResponseEntity<Item> getItemById(@PathVariable Long id) {
-        return itemService.getItemById(id)
+    public ResponseEntity<Item> getItemById(@PathVariable Long id, WebRequest request) {
+        return conditionalGet.respond(request, () -> itemService.getItemById(id)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()), READS);
     }
 
     @PostMapping
@@ -1,5 +1,6 @@
 package just.inventory.backend.controller;
 
+import just.inventory.backend.dto.ItemTransactionView;
 import just.inventory.backend.model.ItemTransaction;
 import just.inventory.backend.model.User;
 import just.inventory.backend.repository.UserRepository;
@@ -73,13 +74,13 @@ public class ItemDistributionController {
                 .body("You can only view transaction history for your own office");
         }
         
-        List<ItemTransaction> history = distributionService.getTransactionHistory(officeId);
+        List<ItemTransactionView> history = distributionService.getTransactionHistory(officeId);
         return ResponseEntity.ok(history);
     }
 
     @GetMapping("/item/{itemInstanceId}/history")
     public ResponseEntity<?> getItemTransactionHistory(@PathVariable Long itemInstanceId) {
-        List<ItemTransaction> history = distributionService.getItemTransactionHistory(itemInstanceId);
+        List<ItemTransactionView> history = distributionService.getItemTransactionHistory(itemInstanceId);
         return ResponseEntity.ok(history);
     }
 
@@ -90,7 +91,7 @@ public class ItemDistributionController {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<ItemTransaction> history = distributionService.getTransactionHistory(currentUser.getOffice().getId());
+        List<ItemTransactionView> history = distributionService.getTransactionHistory(currentUser.getOffice().getId());
         return ResponseEntity.ok(history);
     }
 
@@ -101,7 +102,7 @@ public class ItemDistributionController {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<ItemTransaction> pending = distributionService.getPendingDistributions(currentUser.getOffice().getId());
+        List<ItemTransactionView> pending = distributionService.getPendingDistributions(currentUser.getOffice().getId());
         return ResponseEntity.ok(pending);
     }
 
@@ -1,5 +1,12 @@
 package just.inventory.backend.controller;
 
+import just.inventory.backend.dto.CatalogItemName;
+import just.inventory.backend.dto.DemandForecastLine;
+import just.inventory.backend.dto.ItemDemandStats;
+import just.inventory.backend.dto.ItemRequestView;
+import just.inventory.backend.dto.ItemStockCount;
+import just.inventory.backend.dto.RecentRequestLine;
+import just.inventory.backend.dto.RequisitionSuggestionJobResponse;
 import just.inventory.backend.dto.RequisitionSuggestionRequest;
 import just.inventory.backend.dto.RequisitionSuggestionResponse;
 import just.inventory.backend.model.ItemRequest;
@@ -7,7 +14,9 @@ import just.inventory.backend.model.Office;
 import just.inventory.backend.model.User;
 import just.inventory.backend.repository.OfficeRepository;
 import just.inventory.backend.repository.UserRepository;
+import just.inventory.backend.service.DemandForecastService;
 import just.inventory.backend.service.ItemRequestService;
+import just.inventory.backend.service.RequisitionSuggestionJobService;
 import just.inventory.backend.service.RequisitionSuggestionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -18,7 +27,10 @@ import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/item-requests")
@@ -36,6 +48,12 @@ public class ItemRequestController {
     @Autowired
     private RequisitionSuggestionService requisitionSuggestionService;
 
+    @Autowired
+    private RequisitionSuggestionJobService requisitionSuggestionJobService;
+
+    @Autowired
+    private DemandForecastService demandForecastService;
+
     @PostMapping
     public ResponseEntity<?> createItemRequest(@RequestBody ItemRequest itemRequest) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -69,13 +87,13 @@ public class ItemRequestController {
     }
 
     @GetMapping
-    public ResponseEntity<List<ItemRequest>> getAllItemRequests() {
+    public ResponseEntity<List<ItemRequestView>> getAllItemRequests() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<ItemRequest> requests = itemRequestService.getRequestsByOffice(currentUser.getOffice().getId());
+        List<ItemRequestView> requests = itemRequestService.getRequestsByOffice(currentUser.getOffice().getId());
         return ResponseEntity.ok(requests);
     }
 
@@ -86,10 +104,10 @@ public class ItemRequestController {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        ItemRequest request = itemRequestService.getItemRequestById(id);
+        ItemRequestView request = itemRequestService.getItemRequestViewById(id);
         
         // Check if user belongs to the requesting office
-        if (!currentUser.getOffice().getId().equals(request.getRequestingOffice().getId())) {
+        if (!currentUser.getOffice().getId().equals(request.requestingOffice().id())) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                 .body("You can only view requests for your own office");
         }
@@ -98,8 +116,8 @@ public class ItemRequestController {
     }
 
     @GetMapping("/office/{officeId}")
-    public ResponseEntity<List<ItemRequest>> getRequestsByOffice(@PathVariable Long officeId) {
-        List<ItemRequest> requests = itemRequestService.getRequestsByOffice(officeId);
+    public ResponseEntity<List<ItemRequestView>> getRequestsByOffice(@PathVariable Long officeId) {
+        List<ItemRequestView> requests = itemRequestService.getRequestsByOffice(officeId);
         return ResponseEntity.ok(requests);
     }
 
@@ -199,7 +217,7 @@ public class ItemRequestController {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<ItemRequest> requests = itemRequestService.getPendingRequestsForOffice(
+        List<ItemRequestView> requests = itemRequestService.getPendingRequestsForOffice(
             currentUser.getOffice().getId());
         return ResponseEntity.ok(requests);
     }
@@ -211,7 +229,7 @@ public class ItemRequestController {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<ItemRequest> requests = itemRequestService.getRequestsByOffice(
+        List<ItemRequestView> requests = itemRequestService.getRequestsByOffice(
             currentUser.getOffice().getId());
         return ResponseEntity.ok(requests);
     }
@@ -223,7 +241,7 @@ public class ItemRequestController {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<ItemRequest> requests = itemRequestService.getApprovedRequestsForOffice(
+        List<ItemRequestView> requests = itemRequestService.getApprovedRequestsForOffice(
             currentUser.getOffice().getId());
         return ResponseEntity.ok(requests);
     }
@@ -235,7 +253,7 @@ public class ItemRequestController {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<ItemRequest> requests = itemRequestService.getFulfilledRequestsForOffice(
+        List<ItemRequestView> requests = itemRequestService.getFulfilledRequestsForOffice(
             currentUser.getOffice().getId());
         return ResponseEntity.ok(requests);
     }
@@ -247,7 +265,7 @@ public class ItemRequestController {
         User currentUser = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<ItemRequest> requests = itemRequestService.getHistoryForOffice(
+        List<ItemRequestView> requests = itemRequestService.getHistoryForOffice(
             currentUser.getOffice().getId());
         return ResponseEntity.ok(requests);
     }
@@ -288,50 +306,133 @@ public class ItemRequestController {
     @PostMapping("/suggestions")
     public ResponseEntity<?> getRequisitionSuggestions(@RequestBody RequisitionSuggestionRequest request) {
         try {
-            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-            String username = authentication.getName();
-            User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-            if (request.getParentOfficeId() == null) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body("Parent office is required for suggestion");
-            }
-
-            Long parentOfficeId = request.getParentOfficeId();
-            Long userOfficeId = currentUser.getOffice().getId();
-            boolean isSameOffice = parentOfficeId.equals(userOfficeId);
-
-            boolean isParentOffice = currentUser.getOffice().getParent() != null && 
-                                     parentOfficeId.equals(currentUser.getOffice().getParent().getId());
-
-            // Allow regular users to get recommendations for their own office or from their parent office
-            // Only admins can get suggestions from other arbitrary offices
-            if (!isSameOffice && !isParentOffice && !hasRole(currentUser, "ADMIN") && !hasRole(currentUser, "SUPER_ADMIN")) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body("Only admins can request suggestions from other offices");
-            }
-
-            Office parentOffice = officeRepository.findById(parentOfficeId)
-                .orElseThrow(() -> new RuntimeException("Parent office not found"));
-
-            RequisitionSuggestionResponse response = requisitionSuggestionService.suggest(
-                currentUser.getOffice().getName(),
-                parentOffice.getName(),
-                request.getReason(),
-                itemRequestService.getAvailableInstancesForOffice(parentOfficeId),
-                itemRequestService.getRecentRequestsBetweenOffices(userOfficeId, parentOfficeId, 15),
-                itemRequestService.getCatalogItems()
-            );
-
+            User currentUser = getCurrentUser();
+            RequisitionSuggestionResponse response = startSuggestion(currentUser, request, true).join();
             return ResponseEntity.ok(response);
-        } catch (ResponseStatusException e) {
-            String reason = e.getReason() == null ? "Failed to fetch requisition suggestions" : e.getReason();
-            return ResponseEntity.status(e.getStatusCode()).body(reason);
+        } catch (CompletionException e) {
+            return toSuggestionErrorResponse(e.getCause() instanceof RuntimeException cause ? cause : e);
         } catch (RuntimeException e) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                .body(e.getMessage() == null ? "Failed to fetch requisition suggestions" : e.getMessage());
+            return toSuggestionErrorResponse(e);
+        }
+    }
+
+    /**
+     * Poll mode: returns 202 with a job id immediately and computes the suggestions in the background.
+     * Fetch the outcome from GET /suggestions/jobs/{jobId}.
+     */
+    @PostMapping("/suggestions/jobs")
+    public ResponseEntity<?> submitRequisitionSuggestionJob(@RequestBody RequisitionSuggestionRequest request) {
+        try {
+            User currentUser = getCurrentUser();
+            RequisitionSuggestionJobResponse job = requisitionSuggestionJobService.submit(
+                currentUser.getUsername(), startSuggestion(currentUser, request, false));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+        } catch (RuntimeException e) {
+            return toSuggestionErrorResponse(e);
+        }
+    }
+
+    @GetMapping("/suggestions/jobs/{jobId}")
+    public ResponseEntity<?> getRequisitionSuggestionJob(@PathVariable String jobId) {
+        User currentUser = getCurrentUser();
+        return requisitionSuggestionJobService.getJob(jobId, currentUser.getUsername())
+            .<ResponseEntity<?>>map(ResponseEntity::ok)
+            .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body("Suggestion job not found"));
+    }
+
+    @GetMapping("/suggestions/provider-health")
+    public ResponseEntity<?> getSuggestionProviderHealth() {
+        User currentUser = getCurrentUser();
+        if (!hasRole(currentUser, "ADMIN")) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only admins can view AI provider health");
+        }
+        return ResponseEntity.ok(requisitionSuggestionService.getProviderHealth());
+    }
+
+    /**
+     * Rebuilds the demand forecasts now instead of waiting for the nightly batch.
+     */
+    @PostMapping("/suggestions/forecasts/recompute")
+    public ResponseEntity<?> recomputeDemandForecasts() {
+        User currentUser = getCurrentUser();
+        if (!hasRole(currentUser, "ADMIN") && !hasRole(currentUser, "SUPER_ADMIN")) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only admins can recompute demand forecasts");
+        }
+        int forecasts = demandForecastService.recomputeForecasts();
+        return ResponseEntity.ok(Map.of("forecasts", forecasts));
+    }
+
+    /**
+     * Starts the suggestion for the current user. {@code waiting} callers hold a request thread,
+     * so they get the fallback once the AI latency budget is spent; poll-mode jobs wait for the model.
+     */
+    private CompletableFuture<RequisitionSuggestionResponse> startSuggestion(User currentUser, RequisitionSuggestionRequest request,
+                                                                             boolean waiting) {
+        if (request.getParentOfficeId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Parent office is required for suggestion");
         }
+
+        Long parentOfficeId = request.getParentOfficeId();
+        Long userOfficeId = currentUser.getOffice().getId();
+        boolean isSameOffice = parentOfficeId.equals(userOfficeId);
+
+        boolean isParentOffice = currentUser.getOffice().getParent() != null && 
+                                 parentOfficeId.equals(currentUser.getOffice().getParent().getId());
+
+        // Allow regular users to get recommendations for their own office or from their parent office
+        // Only admins can get suggestions from other arbitrary offices
+        if (!isSameOffice && !isParentOffice && !hasRole(currentUser, "ADMIN") && !hasRole(currentUser, "SUPER_ADMIN")) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Only admins can request suggestions from other offices");
+        }
+
+        Office parentOffice = officeRepository.findById(parentOfficeId)
+            .orElseThrow(() -> new RuntimeException("Parent office not found"));
+
+        List<ItemStockCount> availableStock = itemRequestService.getAvailableStockForOffice(parentOfficeId);
+        List<DemandForecastLine> forecasts = demandForecastService.getForecastsForOffice(userOfficeId);
+        List<ItemDemandStats> demandStats = itemRequestService.getDemandStatsBetweenOffices(userOfficeId, parentOfficeId, 15);
+
+        if (Boolean.FALSE.equals(request.getUseAi())) {
+            return CompletableFuture.completedFuture(
+                requisitionSuggestionService.suggestWithoutAi(availableStock, forecasts, demandStats));
+        }
+
+        List<RecentRequestLine> recentRequests =
+            itemRequestService.getRecentRequestLinesBetweenOffices(userOfficeId, parentOfficeId, 15);
+        List<CatalogItemName> catalogItems = itemRequestService.getCatalogItemNames();
+        if (waiting) {
+            return requisitionSuggestionService.suggestWithinBudget(currentUser.getOffice().getName(),
+                parentOffice.getName(), request.getReason(), availableStock, forecasts, demandStats,
+                recentRequests, catalogItems);
+        }
+        return requisitionSuggestionService.suggestAsync(
+            currentUser.getOffice().getName(),
+            parentOffice.getName(),
+            request.getReason(),
+            availableStock,
+            forecasts,
+            demandStats,
+            recentRequests,
+            catalogItems
+        );
+    }
+
+    private ResponseEntity<?> toSuggestionErrorResponse(RuntimeException e) {
+        if (e instanceof ResponseStatusException statusException) {
+            String reason = statusException.getReason() == null ? "Failed to fetch requisition suggestions" : statusException.getReason();
+            return ResponseEntity.status(statusException.getStatusCode()).body(reason);
+        }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+            .body(e.getMessage() == null ? "Failed to fetch requisition suggestions" : e.getMessage());
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
+            .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
     private boolean hasRole(User user, String roleName) {
@@ -1,5 +1,6 @@
 package just.inventory.backend.controller;
 
+import just.inventory.backend.config.QueryBudget;
 import just.inventory.backend.service.ItemTrackingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +17,7 @@ public class ItemTrackingController {
     private ItemTrackingService trackingService;
 
     @GetMapping("/barcode/{barcode}")
+    @QueryBudget(12)
     public ResponseEntity<?> trackByBarcode(@PathVariable String barcode) {
         try {
             Map<String, Object> trackingInfo = trackingService.trackItemByBarcode(barcode);
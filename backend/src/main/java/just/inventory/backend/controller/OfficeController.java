@@ -8,6 +8,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,27 +19,27 @@ import java.util.List;
 public class OfficeController {
 
     private final OfficeService officeService;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
     @Operation(summary = "Get all offices")
-    public ResponseEntity<List<Office>> getAllOffices() {
-        List<Office> offices = officeService.getAllOffices();
-        return ResponseEntity.ok(offices);
+    public ResponseEntity<List<Office>> getAllOffices(WebRequest request) {
+        return conditionalGet.respond(request, () -> ResponseEntity.ok(officeService.getAllOffices()), Office.class);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get office by ID")
-    public ResponseEntity<Office> getOfficeById(@PathVariable Long id) {
-        return officeService.getOfficeById(id)
+    public ResponseEntity<Office> getOfficeById(@PathVariable Long id, WebRequest request) {
+        return conditionalGet.respond(request, () -> officeService.getOfficeById(id)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()), Office.class);
     }
 
     @GetMapping("/children/{parentId}")
     @Operation(summary = "Get child offices by parent ID")
-    public ResponseEntity<List<Office>> getChildOffices(@PathVariable Long parentId) {
-        List<Office> childOffices = officeService.getChildOffices(parentId);
-        return ResponseEntity.ok(childOffices);
+    public ResponseEntity<List<Office>> getChildOffices(@PathVariable Long parentId, WebRequest request) {
+        return conditionalGet.respond(request,
+                () -> ResponseEntity.ok(officeService.getChildOffices(parentId)), Office.class);
     }
 
     @PostMapping
@@ -0,0 +1,43 @@
+package just.inventory.backend.controller;
+
+import just.inventory.backend.repository.UserRepository;
+import just.inventory.backend.service.OfficeEventService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+public class OfficeEventController {
+
+    @Autowired
+    private OfficeEventService officeEventService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    /**
+     * Server-Sent Events for the current user's office: {@code distributions.pending},
+     * {@code requests.incoming} and {@code requests.updated}, each with an {@code OfficeEvent}
+     * as data. Clients refetch the matching lists when one arrives instead of polling them.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        Long officeId = userRepository.findOfficeIdByUsername(authentication.getName())
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not assigned to an office"));
+
+        return ResponseEntity.ok()
+                // Tells nginx and similar proxies not to buffer the stream
+                .header("X-Accel-Buffering", "no")
+                .body(officeEventService.subscribe(officeId));
+    }
+}
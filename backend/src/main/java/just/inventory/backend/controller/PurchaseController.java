@@ -1,7 +1,9 @@
 package just.inventory.backend.controller;
 
+import just.inventory.backend.config.QueryBudget;
 import just.inventory.backend.dto.CreatePurchaseRequest;
 import just.inventory.backend.dto.PurchaseResponse;
+import just.inventory.backend.dto.PurchasedInstance;
 import just.inventory.backend.model.Item;
 import just.inventory.backend.model.Purchase;
 import just.inventory.backend.model.PurchaseItem;
@@ -17,6 +19,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @RestController
@@ -76,12 +79,14 @@ public class PurchaseController {
         }
         
         Purchase createdPurchase = purchaseService.createPurchase(purchase);
-        PurchaseResponse response = mapToResponse(createdPurchase);
+        PurchaseResponse response = mapToResponse(createdPurchase,
+                purchaseService.getPurchasedInstances(List.of(createdPurchase)));
         
         return new ResponseEntity<>(response, HttpStatus.CREATED);
     }
 
     @GetMapping
+    @QueryBudget(15)
     public ResponseEntity<List<PurchaseResponse>> getAllPurchases() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
@@ -89,14 +94,65 @@ public class PurchaseController {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         List<Purchase> purchases = purchaseService.getPurchasesByOffice(currentUser.getOffice().getId());
+        Map<List<Object>, List<PurchasedInstance>> instances = purchaseService.getPurchasedInstances(purchases);
         List<PurchaseResponse> responses = purchases.stream()
-                .map(this::mapToResponse)
+                .map(purchase -> mapToResponse(purchase, instances))
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(responses);
     }
 
+    /**
+     * Items the current user's office buys repeatedly, scored from its purchase history
+     * (suggestive requisitions). {@code limit} is capped at 50.
+     */
+    @GetMapping("/suggestions")
+    public ResponseEntity<?> getPurchaseSuggestions(@RequestParam(defaultValue = "6") int limit) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        User currentUser = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        if (currentUser.getOffice() == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body("User is not assigned to an office");
+        }
+
+        int cappedLimit = Math.max(1, Math.min(limit, 50));
+        return ResponseEntity.ok(purchaseService.getPurchaseSuggestions(currentUser.getOffice().getId(), cappedLimit));
+    }
+
+    /**
+     * Rebuilds the running totals behind {@code /suggestions} for the given office (default: the
+     * current user's), after purchases were changed outside this API. Admins only.
+     */
+    @PostMapping("/suggestions/rebuild")
+    public ResponseEntity<?> rebuildPurchaseSuggestions(@RequestParam(required = false) Long officeId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String username = authentication.getName();
+        User currentUser = userRepository.findByUsername(username)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        String roleName = currentUser.getRole() != null ? currentUser.getRole().getName() : "";
+        String normalizedRole = roleName.replaceFirst("^ROLE_", "").trim().toUpperCase();
+        if (!"ADMIN".equals(normalizedRole) && !"SUPER_ADMIN".equals(normalizedRole)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body("Only admins can rebuild purchase suggestions");
+        }
+        if (officeId == null) {
+            if (currentUser.getOffice() == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("User is not assigned to an office");
+            }
+            officeId = currentUser.getOffice().getId();
+        }
+
+        int items = purchaseService.rebuildItemStats(officeId);
+        return ResponseEntity.ok(Map.of("officeId", officeId, "items", items));
+    }
+
     @GetMapping("/{id}")
+    @QueryBudget(12)
     public ResponseEntity<?> getPurchaseById(@PathVariable Long id) {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String username = authentication.getName();
@@ -111,21 +167,23 @@ public class PurchaseController {
                 .body("You can only view purchases for your own office");
         }
         
-        PurchaseResponse response = mapToResponse(purchase);
+        PurchaseResponse response = mapToResponse(purchase, purchaseService.getPurchasedInstances(List.of(purchase)));
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/office/{officeId}")
+    @QueryBudget(15)
     public ResponseEntity<List<PurchaseResponse>> getPurchasesByOffice(@PathVariable Long officeId) {
         List<Purchase> purchases = purchaseService.getPurchasesByOffice(officeId);
+        Map<List<Object>, List<PurchasedInstance>> instances = purchaseService.getPurchasedInstances(purchases);
         List<PurchaseResponse> responses = purchases.stream()
-                .map(this::mapToResponse)
+                .map(purchase -> mapToResponse(purchase, instances))
                 .collect(Collectors.toList());
         
         return ResponseEntity.ok(responses);
     }
     
-    private PurchaseResponse mapToResponse(Purchase purchase) {
+    private PurchaseResponse mapToResponse(Purchase purchase, Map<List<Object>, List<PurchasedInstance>> instancesByLine) {
         PurchaseResponse response = new PurchaseResponse();
         response.setId(purchase.getId());
         response.setSupplier(purchase.getSupplier());
@@ -164,21 +222,17 @@ public class PurchaseController {
                     itemSummary.setName(item.getItem().getName());
                     itemResponse.setItem(itemSummary);
                     
-                    // Get item instances created for this purchase item
-                    List<just.inventory.backend.model.ItemInstance> instances = 
-                        purchaseService.getItemInstancesForPurchase(
-                            item.getItem().getId(), 
-                            purchase.getOffice().getId(), 
-                            purchase
-                        );
+                    // Item instances created for this purchase item
+                    List<PurchasedInstance> instances =
+                        instancesByLine.getOrDefault(PurchaseService.lineKey(purchase, item), List.of());
                     itemResponse.setItemInstanceIds(
                         instances.stream()
-                            .map(just.inventory.backend.model.ItemInstance::getId)
+                            .map(PurchasedInstance::getId)
                             .collect(Collectors.toList())
                     );
                     itemResponse.setItemBarcodes(
                         instances.stream()
-                            .map(just.inventory.backend.model.ItemInstance::getBarcode)
+                            .map(PurchasedInstance::getBarcode)
                             .collect(Collectors.toList())
                     );
                     
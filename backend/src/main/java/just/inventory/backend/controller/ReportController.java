@@ -0,0 +1,112 @@
+package just.inventory.backend.controller;
+
+import just.inventory.backend.model.User;
+import just.inventory.backend.repository.UserRepository;
+import just.inventory.backend.service.ReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated office reports. Every endpoint takes an optional {@code officeId} (default: the
+ * caller's office) and optional inclusive {@code from}/{@code to} days; the time series also take
+ * a {@code granularity} of day, week, month (default), quarter or year.
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ConditionalGet conditionalGet;
+
+    @GetMapping("/inventory-valuation")
+    public ResponseEntity<?> getInventoryValuation(
+            @RequestParam(required = false) Long officeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            WebRequest request) {
+        Long office = resolveOffice(officeId);
+        return conditionalGet.respond(request, office,
+                () -> ResponseEntity.ok(reportService.getInventoryValuation(office, from, to)),
+                ReportService.VALUATION_READS);
+    }
+
+    @GetMapping("/movements")
+    public ResponseEntity<?> getMovementVolume(
+            @RequestParam(required = false) Long officeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String granularity,
+            WebRequest request) {
+        Long office = resolveOffice(officeId);
+        return conditionalGet.respond(request, office,
+                () -> ResponseEntity.ok(reportService.getMovementVolume(office, from, to, granularity)),
+                ReportService.MOVEMENT_READS);
+    }
+
+    @GetMapping("/purchase-spend")
+    public ResponseEntity<?> getPurchaseSpend(
+            @RequestParam(required = false) Long officeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String granularity,
+            WebRequest request) {
+        Long office = resolveOffice(officeId);
+        return conditionalGet.respond(request, office,
+                () -> ResponseEntity.ok(reportService.getPurchaseSpend(office, from, to, granularity)),
+                ReportService.SPEND_READS);
+    }
+
+    @GetMapping("/request-turnaround")
+    public ResponseEntity<?> getRequestTurnaround(
+            @RequestParam(required = false) Long officeId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String granularity,
+            WebRequest request) {
+        Long office = resolveOffice(officeId);
+        return conditionalGet.respond(request, office,
+                () -> ResponseEntity.ok(reportService.getRequestTurnaround(office, from, to, granularity)),
+                ReportService.TURNAROUND_READS);
+    }
+
+    /**
+     * The requested office if the caller may report on it (admins: any office), otherwise
+     * the caller's own office.
+     */
+    private Long resolveOffice(Long officeId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        User currentUser = userRepository.findByUsername(authentication.getName())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Long ownOfficeId = currentUser.getOffice() != null ? currentUser.getOffice().getId() : null;
+        if (officeId == null || officeId.equals(ownOfficeId)) {
+            if (ownOfficeId == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not assigned to an office");
+            }
+            return ownOfficeId;
+        }
+        String roleName = currentUser.getRole() != null ? currentUser.getRole().getName() : "";
+        String normalizedRole = roleName.replaceFirst("^ROLE_", "").trim().toUpperCase();
+        if (!"ADMIN".equals(normalizedRole) && !"SUPER_ADMIN".equals(normalizedRole)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only view reports for your own office");
+        }
+        return officeId;
+    }
+}
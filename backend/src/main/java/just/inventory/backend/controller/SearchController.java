@@ -0,0 +1,73 @@
+package just.inventory.backend.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import just.inventory.backend.config.QueryBudget;
+import just.inventory.backend.dto.ItemInstanceSearchHit;
+import just.inventory.backend.dto.ItemSearchHit;
+import just.inventory.backend.dto.SearchPage;
+import just.inventory.backend.model.User;
+import just.inventory.backend.repository.UserRepository;
+import just.inventory.backend.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+@QueryBudget(10)
+@Tag(name = "Search", description = "Ranked, typo-tolerant search over the catalog and item instances")
+public class SearchController {
+
+    private final SearchService searchService;
+    private final UserRepository userRepository;
+
+    @GetMapping("/items")
+    @Operation(summary = "Search catalog items by name, description or category")
+    public ResponseEntity<SearchPage<ItemSearchHit>> searchItems(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(searchService.searchItems(query, page, size));
+    }
+
+    @GetMapping("/instances")
+    @Operation(summary = "Search item instances by barcode, serial number, item or office name")
+    public ResponseEntity<?> searchInstances(
+            @RequestParam("q") String query,
+            @RequestParam(required = false) Long officeId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        User currentUser = getCurrentUser();
+
+        // Regular users only search their own office's inventory
+        if (!isAdmin(currentUser)) {
+            Long userOfficeId = currentUser.getOffice() != null ? currentUser.getOffice().getId() : null;
+            if (userOfficeId == null || (officeId != null && !officeId.equals(userOfficeId))) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body("You can only search inventory for your own office");
+            }
+            officeId = userOfficeId;
+        }
+
+        SearchPage<ItemInstanceSearchHit> results = searchService.searchInstances(query, officeId, page, size);
+        return ResponseEntity.ok(results);
+    }
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return userRepository.findByUsername(authentication.getName())
+            .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private boolean isAdmin(User user) {
+        String roleName = user.getRole() != null && user.getRole().getName() != null
+            ? user.getRole().getName().replaceFirst("^ROLE_", "").trim().toUpperCase()
+            : "";
+        return "ADMIN".equals(roleName) || "SUPER_ADMIN".equals(roleName);
+    }
+}
@@ -0,0 +1,136 @@
+package just.inventory.backend.controller;
+
+import jakarta.servlet.http.HttpServletRequest;
+import just.inventory.backend.dto.StocktakeReconciliation;
+import just.inventory.backend.dto.StocktakeScanRequest;
+import just.inventory.backend.dto.StocktakeScanResult;
+import just.inventory.backend.dto.StocktakeSessionView;
+import just.inventory.backend.model.User;
+import just.inventory.backend.repository.UserRepository;
+import just.inventory.backend.service.StocktakeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stocktakes (physical audits): open a session for an office, upload scanned barcodes while
+ * counting, check the reconciliation as often as needed, then close the session. Users work on
+ * their own office's stocktakes, admins on any office's.
+ */
+@RestController
+@RequestMapping("/api/stocktakes")
+public class StocktakeController {
+
+    @Autowired
+    private StocktakeService stocktakeService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @PostMapping
+    public ResponseEntity<StocktakeSessionView> openStocktake(@RequestParam(required = false) Long officeId) {
+        User currentUser = getCurrentUser();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(stocktakeService.open(resolveOffice(currentUser, officeId), currentUser));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<StocktakeSessionView>> getStocktakes(@RequestParam(required = false) Long officeId) {
+        return ResponseEntity.ok(stocktakeService.getSessions(resolveOffice(getCurrentUser(), officeId)));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<StocktakeSessionView> getStocktake(@PathVariable Long id) {
+        checkAccess(getCurrentUser(), id);
+        return ResponseEntity.ok(stocktakeService.getSession(id));
+    }
+
+    /**
+     * Scanned barcodes as {@code {"barcodes": [...]}}. Barcodes the session has seen before are
+     * counted but not recorded again, so uploads can be retried.
+     */
+    @PostMapping(value = "/{id}/scans", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StocktakeScanResult> scan(@PathVariable Long id, @RequestBody StocktakeScanRequest request) {
+        User currentUser = checkAccess(getCurrentUser(), id);
+        List<String> barcodes = request.barcodes() != null ? request.barcodes() : List.of();
+        return ResponseEntity.ok(stocktakeService.scan(id, barcodes, currentUser));
+    }
+
+    /**
+     * Scanned barcodes as plain text, one per line, e.g. a scanner's dump. The body is read as it
+     * arrives and recorded in batches.
+     */
+    @PostMapping(value = "/{id}/scans", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StocktakeScanResult> scanLines(@PathVariable Long id, HttpServletRequest request)
+            throws IOException {
+        User currentUser = checkAccess(getCurrentUser(), id);
+        return ResponseEntity.ok(stocktakeService.scan(id, request.getReader(), currentUser));
+    }
+
+    /**
+     * Counts of found, missing, moved, unexpected, misplaced and unknown scans, listing at most
+     * {@code limit} ids or barcodes of each kind.
+     * Although a GET, this is not read-only: it locks the session for update and folds the scans
+     * logged since the last call into the stored bitmap, so concurrent calls for one session queue
+     * behind each other and behind scan uploads in flight. Repeating it is safe: a fold never
+     * records a scan twice.
+     */
+    @GetMapping("/{id}/reconciliation")
+    public ResponseEntity<StocktakeReconciliation> getReconciliation(@PathVariable Long id,
+                                                                     @RequestParam(defaultValue = "1000") int limit) {
+        if (limit < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must not be negative");
+        }
+        checkAccess(getCurrentUser(), id);
+        return ResponseEntity.ok(stocktakeService.reconcile(id, limit));
+    }
+
+    @PostMapping("/{id}/close")
+    public ResponseEntity<StocktakeSessionView> closeStocktake(@PathVariable Long id) {
+        User currentUser = checkAccess(getCurrentUser(), id);
+        return ResponseEntity.ok(stocktakeService.close(id, currentUser));
+    }
+
+    private User checkAccess(User currentUser, Long sessionId) {
+        resolveOffice(currentUser, stocktakeService.getOfficeId(sessionId));
+        return currentUser;
+    }
+
+    /**
+     * The office to work on: the caller's own office when none or that one is requested, any
+     * requested office for admins. Anyone else asking for another office gets 403.
+     */
+    private Long resolveOffice(User currentUser, Long officeId) {
+        Long ownOfficeId = currentUser.getOffice() != null ? currentUser.getOffice().getId() : null;
+        if (officeId == null || officeId.equals(ownOfficeId)) {
+            if (ownOfficeId == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "User is not assigned to an office");
+            }
+            return ownOfficeId;
+        }
+        String roleName = currentUser.getRole() != null ? currentUser.getRole().getName() : "";
+        String normalizedRole = roleName.replaceFirst("^ROLE_", "").trim().toUpperCase();
+        if (!"ADMIN".equals(normalizedRole) && !"SUPER_ADMIN".equals(normalizedRole)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "You can only audit your own office");
+        }
+        return officeId;
+    }
+
+    private User getCurrentUser() {
+        return userRepository.findByUsername(getCurrentUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    private String getCurrentUsername() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication.getName();
+    }
+}
@@ -6,6 +6,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.Operation;
 
@@ -18,20 +19,20 @@ import java.util.List;
 public class UnitController {
 
     private final UnitService unitService;
+    private final ConditionalGet conditionalGet;
 
     @GetMapping
     @Operation(summary = "Get all units")
-    public ResponseEntity<List<Unit>> getAllUnits() {
-        List<Unit> units = unitService.getAllUnits();
-        return ResponseEntity.ok(units);
+    public ResponseEntity<List<Unit>> getAllUnits(WebRequest request) {
+        return conditionalGet.respond(request, () -> ResponseEntity.ok(unitService.getAllUnits()), Unit.class);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Get unit by ID")
-    public ResponseEntity<Unit> getUnitById(@PathVariable Long id) {
-        return unitService.getUnitById(id)
+    public ResponseEntity<Unit> getUnitById(@PathVariable Long id, WebRequest request) {
+        return conditionalGet.respond(request, () -> unitService.getUnitById(id)
                 .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+                .orElse(ResponseEntity.notFound().build()), Unit.class);
     }
 
     @PostMapping
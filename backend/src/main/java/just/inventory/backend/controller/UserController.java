@@ -1,5 +1,6 @@
 package just.inventory.backend.controller;
 
+import just.inventory.backend.config.QueryBudget;
 import just.inventory.backend.model.User;
 import just.inventory.backend.model.Role;
 import just.inventory.backend.model.Office;
@@ -72,6 +73,7 @@ public class UserController {
     }
 
     @GetMapping("/admins")
+    @QueryBudget(15)
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
     public ResponseEntity<List<UserSummaryResponse>> getOfficeAdmins(Authentication authentication) {
         User currentUser = userRepository.findByUsername(authentication.getName())
@@ -90,6 +92,7 @@ public class UserController {
     }
 
     @GetMapping("/office-users")
+    @QueryBudget(15)
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
     public ResponseEntity<List<UserSummaryResponse>> getOfficeUsers(Authentication authentication) {
         User currentUser = userRepository.findByUsername(authentication.getName())
@@ -108,6 +111,7 @@ public class UserController {
     }
 
     @PatchMapping("/{id}/deactivate")
+    @QueryBudget(25)
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
     public ResponseEntity<?> deactivateUser(@PathVariable Long id, Authentication authentication) {
         User currentUser = userRepository.findByUsername(authentication.getName())
@@ -131,6 +135,7 @@ public class UserController {
     }
 
     @PatchMapping("/{id}/activate")
+    @QueryBudget(25)
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
     public ResponseEntity<?> activateUser(@PathVariable Long id, Authentication authentication) {
         User currentUser = userRepository.findByUsername(authentication.getName())
@@ -172,6 +177,7 @@ public class UserController {
     }
 
     @PostMapping("/admins")
+    @QueryBudget(15)
     @PreAuthorize("hasRole('SUPER_ADMIN')")
     public ResponseEntity<?> createOfficeAdmin(@RequestBody CreateOfficeAdminRequest request) {
         if (request.getUsername() == null || request.getUsername().isBlank()) {
@@ -221,6 +227,7 @@ public class UserController {
     }
 
     @PostMapping("/office-users")
+    @QueryBudget(15)
     @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
     public ResponseEntity<?> createOfficeUser(@RequestBody CreateOfficeUserRequest request, Authentication authentication) {
         if (request.getUsername() == null || request.getUsername().isBlank()) {
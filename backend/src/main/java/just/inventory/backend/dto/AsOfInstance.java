@@ -0,0 +1,11 @@
+package just.inventory.backend.dto;
+
+/**
+ * Barcode and catalog item of an instance listed in an as-of inventory.
+ */
+public interface AsOfInstance {
+    Long getInstanceId();
+    String getBarcode();
+    Long getItemId();
+    String getItemName();
+}
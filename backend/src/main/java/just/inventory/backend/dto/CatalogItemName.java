@@ -0,0 +1,6 @@
+package just.inventory.backend.dto;
+
+public interface CatalogItemName {
+    Long getId();
+    String getName();
+}
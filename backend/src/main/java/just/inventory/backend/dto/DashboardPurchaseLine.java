@@ -0,0 +1,15 @@
+package just.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A recent purchase as the dashboard lists it: its lines are only counted, totalled and named.
+ */
+public interface DashboardPurchaseLine {
+    Long getId();
+    String getSupplier();
+    LocalDateTime getPurchasedDate();
+    Long getTotalItems();
+    Double getTotalAmount();
+    String getItemNames();
+}
@@ -0,0 +1,16 @@
+package just.inventory.backend.dto;
+
+import just.inventory.backend.model.ItemRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * A recent item request as the dashboard lists it.
+ */
+public interface DashboardRequestLine {
+    Long getId();
+    LocalDateTime getRequestedDate();
+    String getItemName();
+    Double getRequestedQuantity();
+    ItemRequest.RequestStatus getStatus();
+}
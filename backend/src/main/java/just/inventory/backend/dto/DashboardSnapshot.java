@@ -0,0 +1,34 @@
+package just.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything the dashboard shows for one office. Counts come from running counters; the recent
+ * lists are the latest five of each.
+ *
+ * @param sentRequests          requests the office sent, by status
+ * @param receivedRequests      requests sent to the office for approval, by status
+ * @param incomingTransactions  instance movements into the office, by status
+ * @param outgoingTransactions  instance movements out of the office, by status
+ */
+public record DashboardSnapshot(
+        Long officeId,
+        long totalItems,
+        Map<String, Long> itemsByStatus,
+        List<ItemCounts> items,
+        Map<String, Long> sentRequests,
+        Map<String, Long> receivedRequests,
+        Map<String, Long> incomingTransactions,
+        Map<String, Long> outgoingTransactions,
+        long purchaseCount,
+        List<DashboardPurchaseLine> recentPurchases,
+        List<DashboardRequestLine> recentRequests,
+        List<DashboardTransactionLine> recentTransactions,
+        LocalDateTime generatedAt) {
+
+    /** Instances of one catalog item in the office's inventory, in total and by status. */
+    public record ItemCounts(Long itemId, String itemName, long quantity, Map<String, Long> statusBreakdown) {
+    }
+}
@@ -0,0 +1,20 @@
+package just.inventory.backend.dto;
+
+import just.inventory.backend.model.ItemTransaction;
+
+import java.time.LocalDateTime;
+
+/**
+ * A recent instance movement into or out of an office as the dashboard lists it.
+ */
+public interface DashboardTransactionLine {
+    Long getId();
+    LocalDateTime getTransactionDate();
+    ItemTransaction.TransactionType getTransactionType();
+    ItemTransaction.TransactionStatus getStatus();
+    String getItemName();
+    Long getFromOfficeId();
+    String getFromOfficeName();
+    Long getToOfficeId();
+    String getToOfficeName();
+}
@@ -0,0 +1,12 @@
+package just.inventory.backend.dto;
+
+/**
+ * A precomputed forecast as served to requisition suggestions.
+ */
+public interface DemandForecastLine {
+    Long getOfficeId();
+    Long getItemId();
+    String getItemName();
+    Double getForecastQuantity();
+    Integer getObservedMonths();
+}
@@ -0,0 +1,27 @@
+package just.inventory.backend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * State of an export job. {@code totalRows} is counted before writing starts, so
+ * {@code rowsWritten / totalRows} is the progress; {@code downloadUrl} is set once the file is
+ * complete.
+ */
+@Data
+public class ExportJobResponse {
+    private String jobId;
+    private String type;
+    private String format;
+    private Long officeId;
+    private String status;
+    private long rowsWritten;
+    private Long totalRows;
+    private String error;
+    private String fileName;
+    private Long sizeBytes;
+    private String downloadUrl;
+    private LocalDateTime submittedAt;
+    private LocalDateTime finishedAt;
+}
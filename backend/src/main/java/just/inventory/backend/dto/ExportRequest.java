@@ -0,0 +1,19 @@
+package just.inventory.backend.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * An export to run in the background. {@code type} is one of inventory, transactions, requests
+ * or purchases and {@code format} csv (gzip'd, the default) or xlsx. {@code officeId} defaults
+ * to the caller's office; {@code from} and {@code to} are inclusive days and optional.
+ */
+@Data
+public class ExportRequest {
+    private String type;
+    private String format;
+    private Long officeId;
+    private LocalDate from;
+    private LocalDate to;
+}
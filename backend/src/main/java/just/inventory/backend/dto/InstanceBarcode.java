@@ -0,0 +1,9 @@
+package just.inventory.backend.dto;
+
+/**
+ * An item instance matched by a scanned barcode.
+ */
+public interface InstanceBarcode {
+    Long getInstanceId();
+    String getBarcode();
+}
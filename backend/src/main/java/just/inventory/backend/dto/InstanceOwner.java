@@ -0,0 +1,9 @@
+package just.inventory.backend.dto;
+
+/**
+ * An item instance and the office it belongs to at the time a replay query asks about.
+ */
+public interface InstanceOwner {
+    Long getInstanceId();
+    Long getOfficeId();
+}
@@ -0,0 +1,27 @@
+package just.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The item instances an office held at {@code asOf}, grouped by catalog item.
+ *
+ * @param snapshotTakenAt    the snapshot the reconstruction started from, or null if it replayed
+ *                           the whole history
+ * @param replayedInstances  instances created or moved between the snapshot and {@code asOf}
+ */
+public record InventoryAsOf(
+        Long officeId,
+        LocalDateTime asOf,
+        LocalDateTime snapshotTakenAt,
+        int replayedInstances,
+        int instanceCount,
+        List<ItemHolding> items) {
+
+    /** Instances of one catalog item held at {@code asOf}. */
+    public record ItemHolding(Long itemId, String itemName, int quantity, List<HeldInstance> instances) {
+    }
+
+    public record HeldInstance(Long id, String barcode) {
+    }
+}
@@ -0,0 +1,9 @@
+package just.inventory.backend.dto;
+
+import java.util.List;
+
+/**
+ * An office inventory with its instances, shaped like the {@code Inventory} entity's JSON.
+ */
+public record InventoryView(Long id, List<ItemInstanceView> itemInstances) {
+}
@@ -0,0 +1,10 @@
+package just.inventory.backend.dto;
+
+/**
+ * How often, and how much of, one item an office has asked another office for.
+ */
+public interface ItemDemandStats {
+    Long getItemId();
+    Long getRequestCount();
+    Double getTotalRequested();
+}
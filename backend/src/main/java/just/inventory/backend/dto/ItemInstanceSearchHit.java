@@ -0,0 +1,17 @@
+package just.inventory.backend.dto;
+
+/**
+ * An item instance matched by the search endpoint, with its relevance score.
+ */
+public interface ItemInstanceSearchHit {
+    Long getId();
+    String getBarcode();
+    String getSerialNumber();
+    String getStatus();
+    Long getItemId();
+    String getItemName();
+    Long getOfficeId();
+    String getOfficeName();
+    String getOfficeNameBn();
+    Double getScore();
+}
@@ -0,0 +1,35 @@
+package just.inventory.backend.dto;
+
+import just.inventory.backend.model.ItemInstance.ItemStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read view of an item instance, selected column by column with a JPQL constructor expression
+ * (see {@code ItemInstanceRepository.VIEW}) instead of loading the entity and its eager graph.
+ * Serializes like the entity did, minus the owner office's parent chain.
+ */
+public record ItemInstanceView(
+        Long id,
+        ItemRef item,
+        String barcode,
+        OfficeRef ownerOffice,
+        ItemStatus status,
+        String serialNumber,
+        LocalDateTime purchaseDate,
+        Double purchasePrice,
+        LocalDateTime warrantyExpiry,
+        String remarks,
+        LocalDateTime createdAt) {
+
+    public ItemInstanceView(Long id, String barcode, ItemStatus status, String serialNumber,
+                            LocalDateTime purchaseDate, Double purchasePrice, LocalDateTime warrantyExpiry,
+                            String remarks, LocalDateTime createdAt,
+                            Long itemId, String itemName, String itemDescription,
+                            Long categoryId, String categoryName, Long unitId, String unitName,
+                            Long ownerOfficeId, String ownerOfficeName, String ownerOfficeCode) {
+        this(id, ItemRef.of(itemId, itemName, itemDescription, categoryId, categoryName, unitId, unitName),
+                barcode, OfficeRef.of(ownerOfficeId, ownerOfficeName, ownerOfficeCode),
+                status, serialNumber, purchaseDate, purchasePrice, warrantyExpiry, remarks, createdAt);
+    }
+}
@@ -0,0 +1,13 @@
+package just.inventory.backend.dto;
+
+/**
+ * A catalog item with its category and unit, as embedded in instance and transaction views.
+ */
+public record ItemRef(Long id, String name, String description, NamedRef category, NamedRef unit) {
+
+    public static ItemRef of(Long id, String name, String description,
+                             Long categoryId, String categoryName, Long unitId, String unitName) {
+        return id == null ? null : new ItemRef(id, name, description,
+                NamedRef.of(categoryId, categoryName), NamedRef.of(unitId, unitName));
+    }
+}
@@ -0,0 +1,53 @@
+package just.inventory.backend.dto;
+
+import just.inventory.backend.model.ItemRequest.RequestStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read view of an item request, selected with a JPQL constructor expression
+ * (see {@code ItemRequestRepository.VIEW}). The fulfilled instance is referenced by id only.
+ */
+public record ItemRequestView(
+        Long id,
+        NamedRef item,
+        Long fulfilledItemInstanceId,
+        OfficeRef requestingOffice,
+        OfficeRef parentOffice,
+        UserRef requestedBy,
+        UserRef approvedBy,
+        UserRef confirmedBy,
+        Double requestedQuantity,
+        Double approvedQuantity,
+        Double fulfilledQuantity,
+        RequestStatus status,
+        String reason,
+        String remarks,
+        String confirmationRemarks,
+        LocalDateTime requestedDate,
+        LocalDateTime approvedDate,
+        LocalDateTime rejectedDate,
+        LocalDateTime fulfilledDate,
+        LocalDateTime confirmedDate) {
+
+    public ItemRequestView(Long id, RequestStatus status,
+                           Double requestedQuantity, Double approvedQuantity, Double fulfilledQuantity,
+                           String reason, String remarks, String confirmationRemarks,
+                           LocalDateTime requestedDate, LocalDateTime approvedDate, LocalDateTime rejectedDate,
+                           LocalDateTime fulfilledDate, LocalDateTime confirmedDate,
+                           Long itemId, String itemName, Long fulfilledItemInstanceId,
+                           Long requestingOfficeId, String requestingOfficeName, String requestingOfficeCode,
+                           Long parentOfficeId, String parentOfficeName, String parentOfficeCode,
+                           Long requestedById, String requestedByUsername, String requestedByName, String requestedByAvatarUrl,
+                           Long approvedById, String approvedByUsername, String approvedByName, String approvedByAvatarUrl,
+                           Long confirmedById, String confirmedByUsername, String confirmedByName, String confirmedByAvatarUrl) {
+        this(id, NamedRef.of(itemId, itemName), fulfilledItemInstanceId,
+                OfficeRef.of(requestingOfficeId, requestingOfficeName, requestingOfficeCode),
+                OfficeRef.of(parentOfficeId, parentOfficeName, parentOfficeCode),
+                UserRef.of(requestedById, requestedByUsername, requestedByName, requestedByAvatarUrl),
+                UserRef.of(approvedById, approvedByUsername, approvedByName, approvedByAvatarUrl),
+                UserRef.of(confirmedById, confirmedByUsername, confirmedByName, confirmedByAvatarUrl),
+                requestedQuantity, approvedQuantity, fulfilledQuantity, status, reason, remarks, confirmationRemarks,
+                requestedDate, approvedDate, rejectedDate, fulfilledDate, confirmedDate);
+    }
+}
@@ -0,0 +1,13 @@
+package just.inventory.backend.dto;
+
+/**
+ * A catalog item matched by the search endpoint, with its relevance score.
+ */
+public interface ItemSearchHit {
+    Long getId();
+    String getName();
+    String getDescription();
+    String getCategoryName();
+    String getUnitName();
+    Double getScore();
+}
@@ -0,0 +1,10 @@
+package just.inventory.backend.dto;
+
+/**
+ * Number of instances of one catalog item held by an office in a given status.
+ */
+public interface ItemStockCount {
+    Long getItemId();
+    String getItemName();
+    Long getAvailableCount();
+}
@@ -0,0 +1,53 @@
+package just.inventory.backend.dto;
+
+import just.inventory.backend.model.ItemTransaction.TransactionStatus;
+import just.inventory.backend.model.ItemTransaction.TransactionType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read view of a distribution or other instance movement, selected with a JPQL constructor
+ * expression (see {@code ItemTransactionRepository.VIEW}). The originating request is
+ * referenced by id only.
+ */
+public record ItemTransactionView(
+        Long id,
+        InstanceRef itemInstance,
+        OfficeRef fromOffice,
+        OfficeRef toOffice,
+        Long itemRequestId,
+        UserRef user,
+        TransactionType transactionType,
+        TransactionStatus status,
+        Double quantity,
+        String remarks,
+        UserRef confirmedBy,
+        LocalDateTime confirmedDate,
+        LocalDateTime transactionDate) {
+
+    public record InstanceRef(Long id, String barcode, ItemRef item) {
+    }
+
+    public ItemTransactionView(Long id, TransactionType transactionType, TransactionStatus status, Double quantity,
+                               String remarks, LocalDateTime confirmedDate, LocalDateTime transactionDate,
+                               Long itemInstanceId, String barcode,
+                               Long itemId, String itemName, String itemDescription,
+                               Long categoryId, String categoryName, Long unitId, String unitName,
+                               Long fromOfficeId, String fromOfficeName, String fromOfficeCode,
+                               Long toOfficeId, String toOfficeName, String toOfficeCode,
+                               Long itemRequestId,
+                               Long userId, String username, String userName, String userAvatarUrl,
+                               Long confirmedById, String confirmedByUsername, String confirmedByName,
+                               String confirmedByAvatarUrl) {
+        this(id,
+                itemInstanceId == null ? null : new InstanceRef(itemInstanceId, barcode,
+                        ItemRef.of(itemId, itemName, itemDescription, categoryId, categoryName, unitId, unitName)),
+                OfficeRef.of(fromOfficeId, fromOfficeName, fromOfficeCode),
+                OfficeRef.of(toOfficeId, toOfficeName, toOfficeCode),
+                itemRequestId,
+                UserRef.of(userId, username, userName, userAvatarUrl),
+                transactionType, status, quantity, remarks,
+                UserRef.of(confirmedById, confirmedByUsername, confirmedByName, confirmedByAvatarUrl),
+                confirmedDate, transactionDate);
+    }
+}
@@ -0,0 +1,12 @@
+package just.inventory.backend.dto;
+
+/**
+ * Quantity of one item an office took in one calendar month.
+ * {@code monthIndex} is {@code year * 12 + month - 1}.
+ */
+public interface MonthlyDemand {
+    Long getOfficeId();
+    Long getItemId();
+    Integer getMonthIndex();
+    Double getQuantity();
+}
@@ -0,0 +1,16 @@
+package just.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Transactions of one type into ({@code IN}) or out of ({@code OUT}) an office in one period,
+ * with the quantity moved so far in the report for that type and direction.
+ */
+public interface MovementLine {
+    LocalDateTime getPeriod();
+    String getTransactionType();
+    String getDirection();
+    Long getTransactionCount();
+    Double getQuantity();
+    Double getCumulativeQuantity();
+}
@@ -0,0 +1,12 @@
+package just.inventory.backend.dto;
+
+/**
+ * A category, unit or other lookup row embedded in a read view.
+ */
+public record NamedRef(Long id, String name) {
+
+    /** {@code null} for an absent (left joined) reference, as the entity would serialize. */
+    public static NamedRef of(Long id, String name) {
+        return id == null ? null : new NamedRef(id, name);
+    }
+}
@@ -0,0 +1,9 @@
+package just.inventory.backend.dto;
+
+/**
+ * One named running counter of an office, such as {@code requests.sent.PENDING}.
+ */
+public interface OfficeActivityCount {
+    String getCounter();
+    Long getCounterValue();
+}
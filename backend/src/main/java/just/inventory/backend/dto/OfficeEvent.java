@@ -0,0 +1,22 @@
+package just.inventory.backend.dto;
+
+/**
+ * A change an office should look at, pushed to its event stream once the transaction that made
+ * it has committed. The client refetches the lists the {@code type} names instead of polling.
+ *
+ * @param type        what changed, one of the constants below; also the SSE event name
+ * @param officeId    the office the event is sent to
+ * @param referenceId the item request behind the change, if any
+ * @param count       how many item instances the change covers, 0 if not applicable
+ */
+public record OfficeEvent(String type, Long officeId, Long referenceId, int count) {
+
+    /** New instances were reserved for the office and wait for it to confirm or reject them. */
+    public static final String DISTRIBUTIONS_PENDING = "distributions.pending";
+
+    /** A request was sent to the office for approval. */
+    public static final String REQUESTS_INCOMING = "requests.incoming";
+
+    /** A request the office sent or received was approved, fulfilled or rejected. */
+    public static final String REQUESTS_UPDATED = "requests.updated";
+}
@@ -0,0 +1,12 @@
+package just.inventory.backend.dto;
+
+/**
+ * Instances of one catalog item in one status held in an office's inventory, from the running
+ * dashboard counters.
+ */
+public interface OfficeItemCount {
+    Long getItemId();
+    String getItemName();
+    String getStatus();
+    Long getItemCount();
+}
@@ -0,0 +1,11 @@
+package just.inventory.backend.dto;
+
+/**
+ * The office columns the client shows next to an instance, request or transaction.
+ */
+public record OfficeRef(Long id, String name, String code) {
+
+    public static OfficeRef of(Long id, String name, String code) {
+        return id == null ? null : new OfficeRef(id, name, code);
+    }
+}
@@ -0,0 +1,18 @@
+package just.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The purchase an instance came from, with who bought it for which office.
+ */
+public interface PurchaseOrigin {
+    Long getId();
+    String getSupplier();
+    String getRemarks();
+    LocalDateTime getPurchasedDate();
+    Long getOfficeId();
+    String getOfficeName();
+    Long getPurchasedById();
+    String getPurchasedByUsername();
+    String getPurchasedByName();
+}
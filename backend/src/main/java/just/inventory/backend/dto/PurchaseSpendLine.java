@@ -0,0 +1,15 @@
+package just.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * What an office bought in one period, with the spend so far in the report.
+ */
+public interface PurchaseSpendLine {
+    LocalDateTime getPeriod();
+    Long getPurchaseCount();
+    Long getSupplierCount();
+    Double getQuantity();
+    Double getSpend();
+    Double getCumulativeSpend();
+}
@@ -0,0 +1,17 @@
+package just.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * An item an office buys often or in bulk, scored by how much, how often and how recently it
+ * was bought, with the quantity to suggest for the next requisition.
+ */
+public interface PurchaseSuggestionLine {
+    Long getItemId();
+    String getItemName();
+    Long getQuantity();
+    Long getPurchaseCount();
+    Double getTotalQuantity();
+    LocalDateTime getLastPurchasedAt();
+    Double getScore();
+}
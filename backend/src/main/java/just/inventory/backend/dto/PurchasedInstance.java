@@ -0,0 +1,15 @@
+package just.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * An item instance as a purchase lists it: instances are tied to the purchase line that created
+ * them by owner office, item and purchase date.
+ */
+public interface PurchasedInstance {
+    Long getId();
+    String getBarcode();
+    Long getItemId();
+    Long getOfficeId();
+    LocalDateTime getPurchaseDate();
+}
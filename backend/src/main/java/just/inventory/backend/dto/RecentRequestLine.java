@@ -0,0 +1,17 @@
+package just.inventory.backend.dto;
+
+import just.inventory.backend.model.ItemRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a past item request that the suggestion prompt shows to the model.
+ */
+public interface RecentRequestLine {
+    LocalDateTime getRequestedDate();
+    String getItemName();
+    Double getRequestedQuantity();
+    Double getApprovedQuantity();
+    ItemRequest.RequestStatus getStatus();
+    String getReason();
+}
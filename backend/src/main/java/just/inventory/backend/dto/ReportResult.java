@@ -0,0 +1,14 @@
+package just.inventory.backend.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rows of one office report. {@code from} and {@code to} are inclusive days and null when
+ * open; {@code generatedAt} is when the rows were computed, which is earlier than the
+ * request when they come from the report cache.
+ */
+public record ReportResult<T>(String report, Long officeId, LocalDate from, LocalDate to,
+                              String granularity, LocalDateTime generatedAt, List<T> rows) {
+}
@@ -0,0 +1,11 @@
+package just.inventory.backend.dto;
+
+import lombok.Data;
+
+@Data
+public class RequisitionSuggestionJobResponse {
+    private String jobId;
+    private String status;
+    private String error;
+    private RequisitionSuggestionResponse result;
+}
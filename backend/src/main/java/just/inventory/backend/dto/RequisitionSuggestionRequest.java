@@ -6,4 +6,6 @@ import lombok.Data;
 public class RequisitionSuggestionRequest {
     private Long parentOfficeId;
     private String reason;
+    // false serves forecast-based suggestions only, without calling the AI provider
+    private Boolean useAi;
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package just.inventory.backend.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of ranked search results. There is no total count: counting every match
+ * would cost more than finding the page, so clients page on {@code hasNext}.
+ */
+@Data
+public class SearchPage<T> {
+    private String query;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private List<T> results;
+}
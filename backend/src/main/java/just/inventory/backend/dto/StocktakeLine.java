@@ -0,0 +1,14 @@
+package just.inventory.backend.dto;
+
+/**
+ * An instance listed in a stocktake reconciliation, with the office that currently owns it.
+ */
+public interface StocktakeLine {
+    Long getInstanceId();
+    String getBarcode();
+    Long getItemId();
+    String getItemName();
+    String getStatus();
+    Long getOfficeId();
+    String getOfficeName();
+}
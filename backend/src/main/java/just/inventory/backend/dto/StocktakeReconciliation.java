@@ -0,0 +1,40 @@
+package just.inventory.backend.dto;
+
+import just.inventory.backend.model.StocktakeSession.StocktakeStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expected against scanned instances of a stocktake, as of {@code reconciledAt} (the closing time
+ * of a closed session). Every expected instance is either found, missing or moved out; every
+ * scanned one is either found, unexpected or misplaced. The lists hold at most the requested
+ * number of lines each, the counts are complete.
+ *
+ * @param movedOutCount   expected, not scanned, and moved to another office by a movement
+ *                        confirmed since the session opened
+ * @param unexpected      scanned, not expected, but owned by the office: arrived or created since
+ *                        the session opened, or recorded as lost or disposed
+ * @param misplaced       scanned, but owned by another office
+ * @param computeMillis   time spent on the set operations, excluding the queries
+ */
+public record StocktakeReconciliation(
+        Long sessionId,
+        Long officeId,
+        StocktakeStatus status,
+        LocalDateTime openedAt,
+        LocalDateTime reconciledAt,
+        int expectedCount,
+        long scannedCount,
+        long foundCount,
+        long missingCount,
+        long movedOutCount,
+        long unexpectedCount,
+        long misplacedCount,
+        long unknownBarcodeCount,
+        List<StocktakeLine> missing,
+        List<StocktakeLine> unexpected,
+        List<StocktakeLine> misplaced,
+        List<String> unknownBarcodes,
+        double computeMillis) {
+}
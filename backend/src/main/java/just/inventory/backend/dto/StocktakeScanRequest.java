@@ -0,0 +1,9 @@
+package just.inventory.backend.dto;
+
+import java.util.List;
+
+/**
+ * Barcodes scanned in a stocktake, in the shape of the tracking API's barcode lists.
+ */
+public record StocktakeScanRequest(List<String> barcodes) {
+}
@@ -0,0 +1,21 @@
+package just.inventory.backend.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of one upload of scans.
+ *
+ * @param received        non-blank barcodes in the upload, repeats included
+ * @param newlyScanned    instances scanned for the first time in the session
+ * @param alreadyScanned  barcodes of instances the session had already seen, repeats within the upload included
+ * @param unknownBarcodes barcodes matching no instance, at most {@code stocktake.unknown-barcodes-listed};
+ *                        the reconciliation lists all of them
+ */
+public record StocktakeScanResult(
+        Long sessionId,
+        int received,
+        int newlyScanned,
+        int alreadyScanned,
+        int unknownCount,
+        List<String> unknownBarcodes) {
+}
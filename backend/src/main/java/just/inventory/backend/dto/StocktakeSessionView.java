@@ -0,0 +1,22 @@
+package just.inventory.backend.dto;
+
+import just.inventory.backend.model.StocktakeSession.StocktakeStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A stocktake session without its bitmaps. {@code scannedCount} counts every logged scan,
+ * folded into the session's bitmap or not.
+ */
+public record StocktakeSessionView(
+        Long id,
+        OfficeRef office,
+        StocktakeStatus status,
+        UserRef openedBy,
+        LocalDateTime openedAt,
+        UserRef closedBy,
+        LocalDateTime closedAt,
+        int expectedCount,
+        long scannedCount,
+        long unknownBarcodeCount) {
+}
@@ -0,0 +1,20 @@
+package just.inventory.backend.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * How fast requests an office sent ({@code SENT}) or received ({@code RECEIVED}) in one period
+ * were decided (approved or rejected) and fulfilled, in hours since they were made.
+ */
+public interface TurnaroundLine {
+    LocalDateTime getPeriod();
+    String getSide();
+    Long getRequestCount();
+    Long getDecidedCount();
+    Long getFulfilledCount();
+    Double getAvgHoursToDecision();
+    Double getMedianHoursToDecision();
+    Double getAvgHoursToFulfilment();
+    Double getMedianHoursToFulfilment();
+    Double getP90HoursToFulfilment();
+}
@@ -0,0 +1,12 @@
+package just.inventory.backend.dto;
+
+/**
+ * Who requested, approved or confirmed something. {@code name} is the full name, matching the
+ * {@code User} entity's JSON.
+ */
+public record UserRef(Long id, String username, String name, String avatarUrl) {
+
+    public static UserRef of(Long id, String username, String name, String avatarUrl) {
+        return id == null ? null : new UserRef(id, username, name, avatarUrl);
+    }
+}
@@ -0,0 +1,13 @@
+package just.inventory.backend.dto;
+
+/**
+ * Instances of one category in one status held by an office, their purchase value and that
+ * value's share of the office total in the report.
+ */
+public interface ValuationLine {
+    String getCategoryName();
+    String getStatus();
+    Long getInstanceCount();
+    Double getTotalValue();
+    Double getValueShare();
+}
@@ -0,0 +1,54 @@
+package just.inventory.backend.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Forecast monthly demand of one item by one office, written by the nightly forecast batch.
+ */
+@Entity
+@Table(name = "demand_forecasts")
+@Data
+@NoArgsConstructor
+public class DemandForecast {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(hidden = true)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "office_id", nullable = false)
+    private Office office;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id", nullable = false)
+    private Item item;
+
+    // First day of the month the forecast is for
+    @Column(nullable = false)
+    private LocalDate forecastMonth;
+
+    @Column(nullable = false)
+    private Double forecastQuantity;
+
+    @Column(nullable = false)
+    private Double smoothedLevel;
+
+    @Column(nullable = false)
+    private Double smoothedTrend;
+
+    // Academic-term effect applied to the forecast month
+    @Column(nullable = false)
+    private Double seasonalEffect;
+
+    @Column(nullable = false)
+    private Integer observedMonths;
+
+    @Column(nullable = false)
+    private LocalDateTime computedAt;
+}
@@ -0,0 +1,43 @@
+package just.inventory.backend.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * The item instances one office held at a snapshot boundary, written by the as-of snapshot batch.
+ */
+@Entity
+@Table(name = "inventory_snapshots")
+@Data
+@NoArgsConstructor
+public class InventorySnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(hidden = true)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "office_id", nullable = false)
+    private Office office;
+
+    @Column(nullable = false)
+    private LocalDateTime takenAt;
+
+    @Column(nullable = false)
+    private Integer instanceCount;
+
+    // Ascending instance ids as varint gaps, see InventoryAsOfService
+    @Column(nullable = false)
+    private byte[] instanceIds;
+
+    @Column(nullable = false)
+    private Integer createdCount;
+
+    // Instances created since the previous snapshot that started out in the office, encoded the same way
+    @Column(nullable = false)
+    private byte[] createdIds;
+}
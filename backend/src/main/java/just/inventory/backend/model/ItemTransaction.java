@@ -11,7 +11,12 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 public class ItemTransaction {
-    
+
+    // The table's primary key is (id, transaction_date), as partitioning requires (changelog 012),
+    // but ids alone are unique through one sequence and are what the API hands out, so the id is
+    // mapped alone. Loads and updates by id cannot be pruned to a partition and probe the key
+    // index of each: with 17 partitions about 27 buffers instead of 3, some 0.2 ms. Archiving
+    // folds closed months into yearly partitions, which keeps their number small.
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Schema(hidden = true)
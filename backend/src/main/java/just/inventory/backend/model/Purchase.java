@@ -21,6 +21,7 @@ public class Purchase {
     private Long id;
 
     @OneToMany(mappedBy = "purchase", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OrderBy("id")
     @JsonManagedReference
     private List<PurchaseItem> items = new ArrayList<>();
 
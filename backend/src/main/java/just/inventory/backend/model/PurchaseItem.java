@@ -4,7 +4,9 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Entity
 @Table(name = "purchase_items")
@@ -17,9 +19,13 @@ public class PurchaseItem {
     @Schema(hidden = true)
     private Long id;
 
+    // Hibernate hashes the lines when it checks the purchase's collection for changes on a second
+    // flush; through the purchase, its buyer and office that would never end
     @ManyToOne
     @JoinColumn(name = "purchase_id", nullable = false)
     @JsonBackReference
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     private Purchase purchase;
 
     @ManyToOne
@@ -0,0 +1,65 @@
+package just.inventory.backend.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * A physical audit of one office, see {@code StocktakeService}.
+ */
+@Entity
+@Table(name = "stocktake_sessions")
+@Data
+@NoArgsConstructor
+public class StocktakeSession {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Schema(hidden = true)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "office_id", nullable = false)
+    private Office office;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StocktakeStatus status;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "opened_by_user_id", nullable = false)
+    private User openedBy;
+
+    @Column(nullable = false)
+    private LocalDateTime openedAt;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "closed_by_user_id")
+    private User closedBy;
+
+    private LocalDateTime closedAt;
+
+    @Column(nullable = false)
+    private Integer expectedCount;
+
+    // Serialized Roaring64NavigableMap of the instances the office should hold
+    @Column(nullable = false)
+    private byte[] expectedIds;
+
+    @Column(nullable = false)
+    private Integer scannedCount = 0;
+
+    // Serialized Roaring64NavigableMap of the instances scanned up to scannedThrough, null before the first fold
+    private byte[] scannedIds;
+
+    // Id of the last stocktake_scans row folded into scannedIds
+    @Column(nullable = false)
+    private Long scannedThrough = 0L;
+
+    public enum StocktakeStatus {
+        OPEN,       // Accepting scans
+        CLOSED      // Final, reconciled up to closedAt
+    }
+}
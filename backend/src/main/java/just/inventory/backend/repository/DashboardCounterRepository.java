@@ -0,0 +1,108 @@
+package just.inventory.backend.repository;
+
+import jakarta.persistence.QueryHint;
+import just.inventory.backend.dto.OfficeActivityCount;
+import just.inventory.backend.dto.OfficeItemCount;
+import just.inventory.backend.model.Office;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Running per-office counters behind the dashboard snapshot. The counters are plain tables
+ * without entities, so this repository only declares queries. Writers add deltas in the same
+ * transaction as the change they count, and admins can recount an office from scratch. The query
+ * space hints tell Hibernate each delta only touches its counter table, so it neither flushes the
+ * session nor evicts unrelated state.
+ */
+public interface DashboardCounterRepository extends Repository<Office, Long> {
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "office_item_counts"))
+    @Query(value = "insert into office_item_counts (office_id, item_id, status, item_count) " +
+                   "values (:officeId, :itemId, :status, :delta) " +
+                   "on conflict (office_id, item_id, status) do update set " +
+                   "  item_count = office_item_counts.item_count + excluded.item_count",
+           nativeQuery = true)
+    void addToItemCount(@Param("officeId") Long officeId,
+                        @Param("itemId") Long itemId,
+                        @Param("status") String status,
+                        @Param("delta") long delta);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "office_activity_counts"))
+    @Query(value = "insert into office_activity_counts (office_id, counter, counter_value) " +
+                   "values (:officeId, :counter, :delta) " +
+                   "on conflict (office_id, counter) do update set " +
+                   "  counter_value = office_activity_counts.counter_value + excluded.counter_value",
+           nativeQuery = true)
+    void addToActivityCount(@Param("officeId") Long officeId,
+                            @Param("counter") String counter,
+                            @Param("delta") long delta);
+
+    /**
+     * Blocks counter updates until the transaction ends, and waits for the ones in progress to
+     * commit. Both tables in the order writers update them, so it cannot deadlock with one.
+     */
+    @Modifying
+    @Query(value = "lock table office_item_counts, office_activity_counts in share row exclusive mode",
+           nativeQuery = true)
+    void lockCounters();
+
+    @Modifying
+    @Query(value = "delete from office_item_counts where office_id = :officeId", nativeQuery = true)
+    int deleteItemCounts(@Param("officeId") Long officeId);
+
+    @Modifying
+    @Query(value = "delete from office_activity_counts where office_id = :officeId", nativeQuery = true)
+    int deleteActivityCounts(@Param("officeId") Long officeId);
+
+    /** Recounts the instances in the office's inventories; returns the counters written. */
+    @Modifying
+    @Query(value = "insert into office_item_counts (office_id, item_id, status, item_count) " +
+                   "select inv.office_id, ii.item_id, ii.status, count(*) " +
+                   "from item_instances ii join inventories inv on inv.id = ii.inventory_id " +
+                   "where inv.office_id = :officeId " +
+                   "group by inv.office_id, ii.item_id, ii.status",
+           nativeQuery = true)
+    int insertItemCounts(@Param("officeId") Long officeId);
+
+    /** Recounts the office's requests, transactions and purchases; returns the counters written. */
+    @Modifying
+    @Query(value = "insert into office_activity_counts (office_id, counter, counter_value) " +
+                   "select :officeId, 'requests.sent.' || status, count(*) " +
+                   "from item_requests where requesting_office_id = :officeId group by status " +
+                   "union all " +
+                   "select :officeId, 'requests.received.' || status, count(*) " +
+                   "from item_requests where parent_office_id = :officeId group by status " +
+                   "union all " +
+                   "select :officeId, 'transactions.incoming.' || status, count(*) " +
+                   "from item_transactions where to_office_id = :officeId group by status " +
+                   "union all " +
+                   "select :officeId, 'transactions.outgoing.' || status, count(*) " +
+                   "from item_transactions where from_office_id = :officeId group by status " +
+                   "union all " +
+                   "select :officeId, 'purchases', count(*) " +
+                   "from purchases where office_id = :officeId having count(*) > 0",
+           nativeQuery = true)
+    int insertActivityCounts(@Param("officeId") Long officeId);
+
+    @Query(value = "select c.item_id as \"itemId\", i.name as \"itemName\", c.status as \"status\", " +
+                   "c.item_count as \"itemCount\" " +
+                   "from office_item_counts c join items i on i.id = c.item_id " +
+                   "where c.office_id = :officeId and c.item_count <> 0 " +
+                   "order by i.name, c.item_id",
+           nativeQuery = true)
+    List<OfficeItemCount> findItemCounts(@Param("officeId") Long officeId);
+
+    @Query(value = "select c.counter as \"counter\", c.counter_value as \"counterValue\" " +
+                   "from office_activity_counts c " +
+                   "where c.office_id = :officeId and c.counter_value <> 0",
+           nativeQuery = true)
+    List<OfficeActivityCount> findActivityCounts(@Param("officeId") Long officeId);
+}
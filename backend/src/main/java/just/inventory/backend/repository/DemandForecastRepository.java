@@ -0,0 +1,48 @@
+package just.inventory.backend.repository;
+
+import just.inventory.backend.dto.DemandForecastLine;
+import just.inventory.backend.dto.MonthlyDemand;
+import just.inventory.backend.model.DemandForecast;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DemandForecastRepository extends JpaRepository<DemandForecast, Long> {
+
+    @Query("select f.office.id as officeId, i.id as itemId, i.name as itemName, " +
+           "f.forecastQuantity as forecastQuantity, f.observedMonths as observedMonths " +
+           "from DemandForecast f join f.item i " +
+           "order by f.forecastQuantity desc")
+    List<DemandForecastLine> findAllLines();
+
+    /**
+     * Monthly demand per office and item since {@code since}: quantities asked for in requests
+     * that were not rejected or cancelled, plus confirmed distributions and transfers made
+     * without a request (those made for a request are already counted by the request).
+     */
+    @Query(value = "select d.office_id as \"officeId\", d.item_id as \"itemId\", " +
+                   "d.month_index as \"monthIndex\", sum(d.quantity) as \"quantity\" " +
+                   "from (" +
+                   "  select r.requesting_office_id as office_id, r.item_id as item_id, " +
+                   "         cast(extract(year from r.requested_date) as integer) * 12 " +
+                   "           + cast(extract(month from r.requested_date) as integer) - 1 as month_index, " +
+                   "         r.requested_quantity as quantity " +
+                   "  from item_requests r " +
+                   "  where r.status not in ('REJECTED', 'CANCELLED') and r.requested_date >= :since " +
+                   "  union all " +
+                   "  select t.to_office_id, ii.item_id, " +
+                   "         cast(extract(year from t.transaction_date) as integer) * 12 " +
+                   "           + cast(extract(month from t.transaction_date) as integer) - 1, " +
+                   "         t.quantity " +
+                   "  from item_transactions t join item_instances ii on ii.id = t.item_instance_id " +
+                   "  where t.item_request_id is null and t.to_office_id is not null " +
+                   "    and t.status = 'CONFIRMED' and t.transaction_type in ('DISTRIBUTION', 'TRANSFER') " +
+                   "    and t.transaction_date >= :since" +
+                   ") d " +
+                   "group by d.office_id, d.item_id, d.month_index",
+           nativeQuery = true)
+    List<MonthlyDemand> findMonthlyDemandSince(@Param("since") LocalDateTime since);
+}
@@ -2,6 +2,8 @@ package just.inventory.backend.repository;
 
 import just.inventory.backend.model.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import java.util.Optional;
 
@@ -9,5 +11,8 @@ import java.util.Optional;
 public interface InventoryRepository extends JpaRepository<Inventory, Long> {
     
     Optional<Inventory> findByOfficeId(Long officeId);
+
+    @Query("select i.id from Inventory i where i.office.id = :officeId")
+    Optional<Long> findIdByOfficeId(@Param("officeId") Long officeId);
     
 }
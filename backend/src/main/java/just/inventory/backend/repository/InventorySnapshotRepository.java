@@ -0,0 +1,27 @@
+package just.inventory.backend.repository;
+
+import just.inventory.backend.model.InventorySnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface InventorySnapshotRepository extends JpaRepository<InventorySnapshot, Long> {
+
+    /** The office's latest snapshot taken at or before {@code at}. */
+    Optional<InventorySnapshot> findFirstByOfficeIdAndTakenAtLessThanEqualOrderByTakenAtDesc(Long officeId,
+                                                                                            LocalDateTime at);
+
+    /** The office's first snapshot taken after {@code at}. */
+    Optional<InventorySnapshot> findFirstByOfficeIdAndTakenAtGreaterThanOrderByTakenAt(Long officeId,
+                                                                                      LocalDateTime at);
+
+    @Query("select max(s.takenAt) from InventorySnapshot s")
+    Optional<LocalDateTime> findLatestTakenAt();
+
+    List<InventorySnapshot> findByTakenAt(LocalDateTime takenAt);
+
+    boolean existsByTakenAt(LocalDateTime takenAt);
+}
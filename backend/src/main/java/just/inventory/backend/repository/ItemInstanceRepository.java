@@ -1,14 +1,41 @@
 package just.inventory.backend.repository;
 
+import just.inventory.backend.dto.AsOfInstance;
+import just.inventory.backend.dto.InstanceBarcode;
+import just.inventory.backend.dto.InstanceOwner;
+import just.inventory.backend.dto.ItemInstanceSearchHit;
+import just.inventory.backend.dto.ItemInstanceView;
+import just.inventory.backend.dto.ItemStockCount;
+import just.inventory.backend.dto.PurchasedInstance;
+import just.inventory.backend.dto.StocktakeLine;
+import just.inventory.backend.dto.ValuationLine;
 import just.inventory.backend.model.ItemInstance;
 import just.inventory.backend.model.ItemInstance.ItemStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @RepositoryRestResource
 public interface ItemInstanceRepository extends JpaRepository<ItemInstance, Long> {
+
+    /** Select list and joins for {@link ItemInstanceView}; append the where clause. */
+    String VIEW = "select new just.inventory.backend.dto.ItemInstanceView(" +
+                  "i.id, i.barcode, i.status, i.serialNumber, i.purchaseDate, i.purchasePrice, " +
+                  "i.warrantyExpiry, i.remarks, i.createdAt, " +
+                  "it.id, it.name, it.description, c.id, c.name, u.id, u.name, o.id, o.name, o.code) " +
+                  "from ItemInstance i join i.item it left join it.category c left join it.unit u " +
+                  "left join i.ownerOffice o ";
+
+    @Query(VIEW + "where i.inventory.id = :inventoryId order by i.id")
+    List<ItemInstanceView> findViewsByInventoryId(@Param("inventoryId") Long inventoryId);
+
+    @Query(VIEW + "where i.id = :id")
+    Optional<ItemInstanceView> findViewById(@Param("id") Long id);
     
     Optional<ItemInstance> findByBarcode(String barcode);
     
@@ -28,9 +55,182 @@ public interface ItemInstanceRepository extends JpaRepository<ItemInstance, Long
     
     List<ItemInstance> findByItemIdAndOwnerOfficeId(Long itemId, Long officeId);
     
+    /**
+     * Instances owned by one of {@code officeIds} with a purchase date in {@code [from, to]}, to
+     * be matched to the purchase lines that created them.
+     */
+    @Query("select i.id as id, i.barcode as barcode, i.item.id as itemId, i.ownerOffice.id as officeId, " +
+           "i.purchaseDate as purchaseDate " +
+           "from ItemInstance i " +
+           "where i.ownerOffice.id in :officeIds and i.purchaseDate >= :from and i.purchaseDate <= :to " +
+           "order by i.id")
+    List<PurchasedInstance> findPurchasedInstances(@Param("officeIds") Collection<Long> officeIds,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to);
+
     Long countByInventoryIdAndStatus(Long inventoryId, ItemStatus status);
     
     Long countByItemIdAndInventoryId(Long itemId, Long inventoryId);
     
     Long countByOwnerOfficeIdAndStatus(Long officeId, ItemStatus status);
+
+    @Query("select i.item.id as itemId, i.item.name as itemName, count(i) as availableCount " +
+           "from ItemInstance i " +
+           "where i.ownerOffice.id = :officeId and i.status = :status " +
+           "group by i.item.id, i.item.name " +
+           "order by count(i) desc")
+    List<ItemStockCount> countByItemForOfficeAndStatus(@Param("officeId") Long officeId,
+                                                       @Param("status") ItemStatus status);
+
+    /**
+     * Ranked instance search (PostgreSQL only, see changelogs 008 and 015).
+     * Candidates come from three bounded sources so the cost does not grow with the table:
+     * barcode/serial prefix hits, the newest instances of the best matching catalog items,
+     * and the newest instances of the best matching offices (English or Bangla name, or code).
+     * Each source contributes at most {@code window} rows, which must cover offset + limit.
+     * An exact barcode ranks first, then barcode/serial prefix hits, then name matches by similarity.
+     * Typo-tolerant name matches use {@code <%}, so set the threshold with
+     * {@link ItemRepository#setWordSimilarityThreshold} in the same transaction.
+     */
+    @Query(value = "with matched_items as (" +
+                   "  select i.id, greatest(ts_rank(i.search_vector, to_tsquery('simple', :tsQuery)), " +
+                   "                        word_similarity(:query, i.name)) as score " +
+                   "  from items i " +
+                   "  where i.search_vector @@ to_tsquery('simple', :tsQuery) " +
+                   "     or :query <% i.name " +
+                   "  order by score desc limit 20" +
+                   "), matched_offices as (" +
+                   "  select o.id, case when upper(o.code) = upper(:query) then 1.0 " +
+                   "                    else greatest(word_similarity(:query, o.name), " +
+                   "                                  word_similarity(:query, coalesce(o.name_bn, ''))) end as score " +
+                   "  from offices o " +
+                   "  where upper(o.code) = upper(:query) or o.name ilike :pattern or o.name_bn ilike :pattern " +
+                   "     or :query <% o.name or :query <% o.name_bn " +
+                   "  order by score desc limit 10" +
+                   "), candidates as (" +
+                   "  select b.id, case when upper(b.barcode) = upper(:query) then 3.0 else 2.0 end as score " +
+                   "  from ((select ii.id, ii.barcode from item_instances ii " +
+                   "         where upper(ii.barcode) like :prefixPattern " +
+                   "           and (cast(:officeId as bigint) is null or ii.owner_office_id = cast(:officeId as bigint)) " +
+                   "         order by upper(ii.barcode) limit :window) " +
+                   "        union all " +
+                   "        (select ii.id, ii.barcode from item_instances ii " +
+                   "         where upper(ii.serial_number) like :prefixPattern " +
+                   "           and (cast(:officeId as bigint) is null or ii.owner_office_id = cast(:officeId as bigint)) " +
+                   "         order by upper(ii.serial_number) limit :window)) b " +
+                   "  union all " +
+                   "  select x.id, m.score from matched_items m cross join lateral (" +
+                   "    select ii.id from item_instances ii " +
+                   "    where ii.item_id = m.id " +
+                   "      and (cast(:officeId as bigint) is null or ii.owner_office_id = cast(:officeId as bigint)) " +
+                   "    order by ii.id desc limit :window) x " +
+                   "  union all " +
+                   "  select x.id, m.score from matched_offices m cross join lateral (" +
+                   "    select ii.id from item_instances ii " +
+                   "    where ii.owner_office_id = m.id " +
+                   "      and (cast(:officeId as bigint) is null or ii.owner_office_id = cast(:officeId as bigint)) " +
+                   "    order by ii.id desc limit :window) x " +
+                   "), ranked as (" +
+                   "  select id, max(score) as score from candidates group by id" +
+                   ") " +
+                   "select ii.id as \"id\", ii.barcode as \"barcode\", ii.serial_number as \"serialNumber\", " +
+                   "ii.status as \"status\", i.id as \"itemId\", i.name as \"itemName\", " +
+                   "o.id as \"officeId\", o.name as \"officeName\", o.name_bn as \"officeNameBn\", " +
+                   "r.score as \"score\" " +
+                   "from ranked r " +
+                   "join item_instances ii on ii.id = r.id " +
+                   "join items i on i.id = ii.item_id " +
+                   "join offices o on o.id = ii.owner_office_id " +
+                   "order by r.score desc, ii.id desc " +
+                   "offset :offset limit :limit",
+           nativeQuery = true)
+    List<ItemInstanceSearchHit> search(@Param("query") String query,
+                                       @Param("tsQuery") String tsQuery,
+                                       @Param("pattern") String pattern,
+                                       @Param("prefixPattern") String prefixPattern,
+                                       @Param("officeId") Long officeId,
+                                       @Param("window") int window,
+                                       @Param("offset") int offset,
+                                       @Param("limit") int limit);
+
+    /**
+     * Purchase value of the instances an office holds per category and status, counting instances
+     * bought (or, without a purchase date, recorded) in {@code [from, to)}.
+     */
+    @Query(value = "select c.name as \"categoryName\", ii.status as \"status\", count(*) as \"instanceCount\", " +
+                   "coalesce(sum(ii.purchase_price), 0) as \"totalValue\", " +
+                   "coalesce(sum(ii.purchase_price), 0) / nullif(sum(sum(ii.purchase_price)) over (), 0) as \"valueShare\" " +
+                   "from item_instances ii join items i on i.id = ii.item_id " +
+                   "left join categories c on c.id = i.category_id " +
+                   "where ii.owner_office_id = :officeId " +
+                   "  and coalesce(ii.purchase_date, ii.created_at) >= :from " +
+                   "  and coalesce(ii.purchase_date, ii.created_at) < :to " +
+                   "group by c.name, ii.status " +
+                   "order by \"totalValue\" desc, c.name, ii.status",
+           nativeQuery = true)
+    List<ValuationLine> findValuation(@Param("officeId") Long officeId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    /**
+     * The office an instance started out in: the source of its first confirmed movement, or its
+     * current owner if it never moved. Append to a select over {@code item_instances i}; movements
+     * are never older than their instance, which spares the partitions before it.
+     */
+    String ORIGIN_OFFICE = "coalesce((select t.from_office_id from item_transactions t " +
+                           "  where t.item_instance_id = i.id and t.status = 'CONFIRMED' " +
+                           "    and t.transaction_date >= i.created_at " +
+                           "  order by t.confirmed_date, t.id limit 1), i.owner_office_id)";
+
+    /** Instances created in {@code (from, to]} with the office each started out in. */
+    @Query(value = "select i.id as \"instanceId\", " + ORIGIN_OFFICE + " as \"officeId\" from item_instances i " +
+                   "where i.created_at > :from and i.created_at <= :to",
+           nativeQuery = true)
+    List<InstanceOwner> findOriginsCreatedBetween(@Param("from") LocalDateTime from,
+                                                  @Param("to") LocalDateTime to);
+
+    /** Instances created in {@code (from, to]} that started out in the office. */
+    @Query(value = "select i.id from item_instances i " +
+                   "where i.created_at > :from and i.created_at <= :to and " + ORIGIN_OFFICE + " = :officeId",
+           nativeQuery = true)
+    List<Long> findIdsCreatedInOffice(@Param("officeId") Long officeId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to);
+
+    @Query(value = "select i.id from item_instances i where i.id = any(:ids) and i.created_at <= :to",
+           nativeQuery = true)
+    List<Long> findIdsCreatedUpTo(@Param("ids") Long[] ids, @Param("to") LocalDateTime to);
+
+    @Query("select min(i.createdAt) from ItemInstance i")
+    Optional<LocalDateTime> findEarliestCreatedAt();
+
+    /** Barcode and item of the given instances, by item name. */
+    @Query(value = "select i.id as \"instanceId\", i.barcode as \"barcode\", it.id as \"itemId\", " +
+                   "it.name as \"itemName\" from item_instances i join items it on it.id = i.item_id " +
+                   "where i.id = any(:ids) order by it.name, it.id, i.id",
+           nativeQuery = true)
+    List<AsOfInstance> findAsOfInstances(@Param("ids") Long[] ids);
+
+    /** Instances the office holds, in any of {@code statuses}. */
+    @Query("select i.id from ItemInstance i where i.ownerOffice.id = :officeId and i.status in :statuses")
+    List<Long> findIdsByOwnerOfficeAndStatusIn(@Param("officeId") Long officeId,
+                                               @Param("statuses") Collection<ItemInstance.ItemStatus> statuses);
+
+    @Query(value = "select i.id as \"instanceId\", i.barcode as \"barcode\" from item_instances i " +
+                   "where i.barcode = any(:barcodes)",
+           nativeQuery = true)
+    List<InstanceBarcode> findByBarcodeIn(@Param("barcodes") String[] barcodes);
+
+    @Query(value = "select i.id as \"instanceId\", i.owner_office_id as \"officeId\" from item_instances i " +
+                   "where i.id = any(:ids)",
+           nativeQuery = true)
+    List<InstanceOwner> findOwners(@Param("ids") Long[] ids);
+
+    /** Barcode, item, status and owner of the given instances, by item name. */
+    @Query(value = "select i.id as \"instanceId\", i.barcode as \"barcode\", it.id as \"itemId\", " +
+                   "it.name as \"itemName\", i.status as \"status\", o.id as \"officeId\", o.name as \"officeName\" " +
+                   "from item_instances i join items it on it.id = i.item_id join offices o on o.id = i.owner_office_id " +
+                   "where i.id = any(:ids) order by it.name, it.id, i.id",
+           nativeQuery = true)
+    List<StocktakeLine> findStocktakeLines(@Param("ids") Long[] ids);
 }
@@ -1,11 +1,57 @@
 package just.inventory.backend.repository;
 
+import just.inventory.backend.dto.CatalogItemName;
+import just.inventory.backend.dto.ItemSearchHit;
 import just.inventory.backend.model.Item;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+
+import java.util.List;
 
 @RepositoryRestResource
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    
-}
\ No newline at end of file
+    @Query("select i.id as id, i.name as name from Item i")
+    List<CatalogItemName> findAllNames();
+
+    /**
+     * Ranked catalog search (PostgreSQL only, see changelogs 008 and 015).
+     * {@code tsQuery} is a prefix tsquery built from {@code query}; {@code pattern} is an ILIKE
+     * substring pattern. Full-text hits, typo-tolerant name matches and items of matching
+     * categories are combined into one score. Typo-tolerant means pg_trgm word similarity of at
+     * least {@code pg_trgm.word_similarity_threshold}, tested with {@code <%} so the trigram
+     * indexes apply; set it with {@link #setWordSimilarityThreshold} in the same transaction.
+     */
+    @Query(value = "select i.id as \"id\", i.name as \"name\", i.description as \"description\", " +
+                   "c.name as \"categoryName\", u.name as \"unitName\", " +
+                   "(ts_rank(i.search_vector, to_tsquery('simple', :tsQuery)) " +
+                   "  + word_similarity(:query, i.name) " +
+                   "  + 0.5 * word_similarity(:query, coalesce(c.name, ''))) as \"score\" " +
+                   "from items i " +
+                   "left join categories c on c.id = i.category_id " +
+                   "left join units u on u.id = i.unit_id " +
+                   "where i.search_vector @@ to_tsquery('simple', :tsQuery) " +
+                   "   or i.name ilike :pattern or :query <% i.name " +
+                   "   or i.category_id = any(array(" +
+                   "        select mc.id from categories mc where mc.name ilike :pattern or :query <% mc.name)) " +
+                   "order by \"score\" desc, i.name " +
+                   "offset :offset limit :limit",
+           nativeQuery = true)
+    List<ItemSearchHit> search(@Param("query") String query,
+                               @Param("tsQuery") String tsQuery,
+                               @Param("pattern") String pattern,
+                               @Param("offset") int offset,
+                               @Param("limit") int limit);
+
+    /**
+     * Sets the word similarity {@code <%} requires, for the rest of the current transaction.
+     * Outside a transaction it would only last for this statement.
+     */
+    @RestResource(exported = false)
+    @Query(value = "select set_config('pg_trgm.word_similarity_threshold', cast(:threshold as text), true)",
+           nativeQuery = true)
+    String setWordSimilarityThreshold(@Param("threshold") double threshold);
+}
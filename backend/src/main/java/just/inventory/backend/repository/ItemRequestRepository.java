@@ -1,13 +1,56 @@
 package just.inventory.backend.repository;
 
+import just.inventory.backend.dto.DashboardRequestLine;
+import just.inventory.backend.dto.ItemDemandStats;
+import just.inventory.backend.dto.ItemRequestView;
+import just.inventory.backend.dto.RecentRequestLine;
+import just.inventory.backend.dto.TurnaroundLine;
 import just.inventory.backend.model.ItemRequest;
 import just.inventory.backend.model.ItemRequest.RequestStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @RepositoryRestResource
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
+
+    /** Select list and joins for {@link ItemRequestView}; append the where clause. */
+    String VIEW = "select new just.inventory.backend.dto.ItemRequestView(" +
+                  "r.id, r.status, r.requestedQuantity, r.approvedQuantity, r.fulfilledQuantity, " +
+                  "r.reason, r.remarks, r.confirmationRemarks, " +
+                  "r.requestedDate, r.approvedDate, r.rejectedDate, r.fulfilledDate, r.confirmedDate, " +
+                  "i.id, i.name, fi.id, " +
+                  "ro.id, ro.name, ro.code, po.id, po.name, po.code, " +
+                  "rb.id, rb.username, rb.fullName, rb.avatarUrl, " +
+                  "ab.id, ab.username, ab.fullName, ab.avatarUrl, " +
+                  "cb.id, cb.username, cb.fullName, cb.avatarUrl) " +
+                  "from ItemRequest r left join r.item i left join r.fulfilledItemInstance fi " +
+                  "left join r.requestingOffice ro left join r.parentOffice po " +
+                  "left join r.requestedBy rb left join r.approvedBy ab left join r.confirmedBy cb ";
+
+    @Query(VIEW + "where r.id = :id")
+    Optional<ItemRequestView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW + "where ro.id = :officeId order by r.id")
+    List<ItemRequestView> findViewsByRequestingOfficeId(@Param("officeId") Long officeId);
+
+    @Query(VIEW + "where ro.id = :officeId and r.status in :statuses order by r.id")
+    List<ItemRequestView> findViewsByRequestingOfficeIdAndStatusIn(@Param("officeId") Long officeId,
+                                                                  @Param("statuses") Collection<RequestStatus> statuses);
+
+    @Query(VIEW + "where po.id = :officeId and r.status = :status order by r.id")
+    List<ItemRequestView> findViewsByParentOfficeIdAndStatus(@Param("officeId") Long officeId,
+                                                            @Param("status") RequestStatus status);
+
+    /** Requests the office sent or received, newest first. */
+    @Query(VIEW + "where ro.id = :officeId or po.id = :officeId order by r.requestedDate desc")
+    List<ItemRequestView> findHistoryViews(@Param("officeId") Long officeId);
     
     List<ItemRequest> findByRequestingOfficeId(Long officeId);
     
@@ -20,4 +63,70 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
     List<ItemRequest> findByParentOfficeIdAndStatus(Long officeId, RequestStatus status);
     
     List<ItemRequest> findByRequestingOfficeIdAndStatus(Long officeId, RequestStatus status);
+
+    @Query("select r.requestedDate as requestedDate, i.name as itemName, " +
+           "r.requestedQuantity as requestedQuantity, r.approvedQuantity as approvedQuantity, " +
+           "r.status as status, r.reason as reason " +
+           "from ItemRequest r join r.item i " +
+           "where r.requestingOffice.id = :requestingOfficeId and r.parentOffice.id = :parentOfficeId " +
+           "order by r.requestedDate desc")
+    List<RecentRequestLine> findRecentRequestLines(@Param("requestingOfficeId") Long requestingOfficeId,
+                                                   @Param("parentOfficeId") Long parentOfficeId,
+                                                   Pageable pageable);
+
+    /** The latest requests the office sent (dashboard). */
+    @Query("select r.id as id, r.requestedDate as requestedDate, i.name as itemName, " +
+           "r.requestedQuantity as requestedQuantity, r.status as status " +
+           "from ItemRequest r join r.item i " +
+           "where r.requestingOffice.id = :officeId " +
+           "order by r.requestedDate desc, r.id desc")
+    List<DashboardRequestLine> findDashboardLines(@Param("officeId") Long officeId, Pageable pageable);
+
+    /**
+     * Per-item request count and requested total over the latest {@code limit} requests
+     * one office sent to another.
+     */
+    @Query(value = "select r.item_id as \"itemId\", count(*) as \"requestCount\", " +
+                   "sum(r.requested_quantity) as \"totalRequested\" " +
+                   "from (select item_id, requested_quantity from item_requests " +
+                   "      where requesting_office_id = :requestingOfficeId and parent_office_id = :parentOfficeId " +
+                   "      order by requested_date desc limit :limit) r " +
+                   "group by r.item_id",
+           nativeQuery = true)
+    List<ItemDemandStats> findDemandStats(@Param("requestingOfficeId") Long requestingOfficeId,
+                                          @Param("parentOfficeId") Long parentOfficeId,
+                                          @Param("limit") int limit);
+
+    /**
+     * Decision and fulfilment times of the requests an office sent or received in
+     * {@code [from, to)} per {@code date_trunc} period of the request date. Times are averaged
+     * and their percentiles taken over the requests that reached that step.
+     */
+    @Query(value = "select date_trunc(:granularity, r.requested_date) as \"period\", " +
+                   "case when r.requesting_office_id = :officeId then 'SENT' else 'RECEIVED' end as \"side\", " +
+                   "count(*) as \"requestCount\", " +
+                   "count(coalesce(r.approved_date, r.rejected_date)) as \"decidedCount\", " +
+                   "count(r.fulfilled_date) as \"fulfilledCount\", " +
+                   "avg(r.decision_hours) as \"avgHoursToDecision\", " +
+                   "percentile_cont(0.5) within group (order by r.decision_hours) as \"medianHoursToDecision\", " +
+                   "avg(r.fulfilment_hours) as \"avgHoursToFulfilment\", " +
+                   "percentile_cont(0.5) within group (order by r.fulfilment_hours) as \"medianHoursToFulfilment\", " +
+                   "percentile_cont(0.9) within group (order by r.fulfilment_hours) as \"p90HoursToFulfilment\" " +
+                   "from (" +
+                   "  select r.*, " +
+                   "         cast(extract(epoch from coalesce(r.approved_date, r.rejected_date) - r.requested_date) " +
+                   "              as double precision) / 3600 as decision_hours, " +
+                   "         cast(extract(epoch from r.fulfilled_date - r.requested_date) as double precision) / 3600 " +
+                   "           as fulfilment_hours " +
+                   "  from item_requests r " +
+                   "  where (r.requesting_office_id = :officeId or r.parent_office_id = :officeId) " +
+                   "    and r.requested_date >= :from and r.requested_date < :to" +
+                   ") r " +
+                   "group by 1, 2 " +
+                   "order by 1, 2",
+           nativeQuery = true)
+    List<TurnaroundLine> findTurnaround(@Param("officeId") Long officeId,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to,
+                                        @Param("granularity") String granularity);
 }
@@ -1,12 +1,45 @@
 package just.inventory.backend.repository;
 
+import just.inventory.backend.dto.DashboardTransactionLine;
+import just.inventory.backend.dto.InstanceOwner;
+import just.inventory.backend.dto.ItemTransactionView;
+import just.inventory.backend.dto.MovementLine;
 import just.inventory.backend.model.ItemTransaction;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RepositoryRestResource
 public interface ItemTransactionRepository extends JpaRepository<ItemTransaction, Long> {
+
+    /** Select list and joins for {@link ItemTransactionView}; append the where clause. */
+    String VIEW = "select new just.inventory.backend.dto.ItemTransactionView(" +
+                  "t.id, t.transactionType, t.status, t.quantity, t.remarks, t.confirmedDate, t.transactionDate, " +
+                  "ii.id, ii.barcode, it.id, it.name, it.description, c.id, c.name, u.id, u.name, " +
+                  "fo.id, fo.name, fo.code, tof.id, tof.name, tof.code, ir.id, " +
+                  "us.id, us.username, us.fullName, us.avatarUrl, " +
+                  "cb.id, cb.username, cb.fullName, cb.avatarUrl) " +
+                  "from ItemTransaction t left join t.itemInstance ii left join ii.item it " +
+                  "left join it.category c left join it.unit u " +
+                  "left join t.fromOffice fo left join t.toOffice tof left join t.itemRequest ir " +
+                  "left join t.user us left join t.confirmedBy cb ";
+
+    @Query(VIEW + "where ii.id = :itemInstanceId order by t.id")
+    List<ItemTransactionView> findViewsByItemInstanceId(@Param("itemInstanceId") Long itemInstanceId);
+
+    @Query(VIEW + "where fo.id = :officeId order by t.id")
+    List<ItemTransactionView> findViewsByFromOfficeId(@Param("officeId") Long officeId);
+
+    @Query(VIEW + "where tof.id = :officeId order by t.id")
+    List<ItemTransactionView> findViewsByToOfficeId(@Param("officeId") Long officeId);
+
+    @Query(VIEW + "where tof.id = :officeId and t.status = :status order by t.id")
+    List<ItemTransactionView> findViewsByToOfficeIdAndStatus(@Param("officeId") Long officeId,
+                                                            @Param("status") ItemTransaction.TransactionStatus status);
     
     List<ItemTransaction> findByItemInstanceId(Long itemInstanceId);
     
@@ -25,4 +58,65 @@ public interface ItemTransactionRepository extends JpaRepository<ItemTransaction
     List<ItemTransaction> findByFromOfficeIdAndStatus(Long fromOfficeId, ItemTransaction.TransactionStatus status);
     
     List<ItemTransaction> findByItemRequestId(Long itemRequestId);
+
+    /** Select list and joins for {@link DashboardTransactionLine}; append the where clause. */
+    String DASHBOARD_LINE = "select t.id as id, t.transactionDate as transactionDate, " +
+                            "t.transactionType as transactionType, t.status as status, it.name as itemName, " +
+                            "fo.id as fromOfficeId, fo.name as fromOfficeName, " +
+                            "tof.id as toOfficeId, tof.name as toOfficeName " +
+                            "from ItemTransaction t left join t.itemInstance ii left join ii.item it " +
+                            "left join t.fromOffice fo left join t.toOffice tof ";
+
+    /** The latest transactions out of the office (dashboard). */
+    @Query(DASHBOARD_LINE + "where t.fromOffice.id = :officeId order by t.transactionDate desc, t.id desc")
+    List<DashboardTransactionLine> findOutgoingDashboardLines(@Param("officeId") Long officeId, Pageable pageable);
+
+    /** The latest transactions into the office (dashboard). */
+    @Query(DASHBOARD_LINE + "where t.toOffice.id = :officeId order by t.transactionDate desc, t.id desc")
+    List<DashboardTransactionLine> findIncomingDashboardLines(@Param("officeId") Long officeId, Pageable pageable);
+
+    /**
+     * Transactions into and out of an office in {@code [from, to)} per {@code date_trunc} period,
+     * type and direction. A transfer within the office counts as {@code IN}.
+     */
+    @Query(value = "select m.period as \"period\", m.transaction_type as \"transactionType\", " +
+                   "m.direction as \"direction\", m.transaction_count as \"transactionCount\", " +
+                   "m.quantity as \"quantity\", " +
+                   "sum(m.quantity) over (partition by m.transaction_type, m.direction order by m.period) " +
+                   "  as \"cumulativeQuantity\" " +
+                   "from (" +
+                   "  select date_trunc(:granularity, t.transaction_date) as period, t.transaction_type, " +
+                   "         case when t.to_office_id = :officeId then 'IN' else 'OUT' end as direction, " +
+                   "         count(*) as transaction_count, coalesce(sum(t.quantity), 0) as quantity " +
+                   "  from item_transactions t " +
+                   "  where (t.from_office_id = :officeId or t.to_office_id = :officeId) " +
+                   "    and t.transaction_date >= :from and t.transaction_date < :to " +
+                   "  group by 1, 2, 3" +
+                   ") m " +
+                   "order by m.period, m.transaction_type, m.direction",
+           nativeQuery = true)
+    List<MovementLine> findMovementVolume(@Param("officeId") Long officeId,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("granularity") String granularity);
+
+    /**
+     * Instances with a confirmed movement into or out of the office in {@code (from, to]}, each with
+     * the destination of its last movement confirmed by {@code to}. A movement is created before it
+     * is confirmed, so {@code transaction_date <= to} only prunes partitions.
+     */
+    @Query(value = "select m.item_instance_id as \"instanceId\", l.to_office_id as \"officeId\" from (" +
+                   "  select distinct t.item_instance_id from item_transactions t " +
+                   "  where t.status = 'CONFIRMED' and (t.from_office_id = :officeId or t.to_office_id = :officeId) " +
+                   "    and t.confirmed_date > :from and t.confirmed_date <= :to and t.transaction_date <= :to" +
+                   ") m cross join lateral (" +
+                   "  select t.to_office_id from item_transactions t " +
+                   "  where t.item_instance_id = m.item_instance_id and t.status = 'CONFIRMED' " +
+                   "    and t.confirmed_date <= :to and t.transaction_date <= :to " +
+                   "  order by t.confirmed_date desc, t.id desc limit 1" +
+                   ") l",
+           nativeQuery = true)
+    List<InstanceOwner> findLastConfirmedOwners(@Param("officeId") Long officeId,
+                                                @Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to);
 }
@@ -2,8 +2,11 @@ package just.inventory.backend.repository;
 
 import just.inventory.backend.model.PurchaseItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
 
+/** Not exported, like {@link PurchaseRepository}: purchase lines feed the running purchase totals. */
 @Repository
+@RepositoryRestResource(exported = false)
 public interface PurchaseItemRepository extends JpaRepository<PurchaseItem, Long> {
 }
@@ -1,12 +1,170 @@
 package just.inventory.backend.repository;
 
+import just.inventory.backend.dto.PurchaseSpendLine;
+import just.inventory.backend.dto.PurchaseSuggestionLine;
+import just.inventory.backend.dto.DashboardPurchaseLine;
+import just.inventory.backend.dto.PurchaseOrigin;
+import jakarta.persistence.QueryHint;
 import just.inventory.backend.model.Purchase;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Never exported through Spring Data REST: {@code office_item_purchase_stats} only follows
+ * purchases recorded by {@link just.inventory.backend.service.PurchaseService#createPurchase}, so
+ * a generic edit or delete would leave it wrong. Changes made to purchases directly in the
+ * database need {@link just.inventory.backend.service.PurchaseService#rebuildItemStats}.
+ */
 @Repository
+@RepositoryRestResource(exported = false)
 public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
+    /** The office's purchases with their lines and items, in one query however many there are. */
+    @EntityGraph(attributePaths = {"items", "items.item", "office", "purchasedBy"}, type = EntityGraph.EntityGraphType.LOAD)
     List<Purchase> findByOfficeId(Long officeId);
-}
\ No newline at end of file
+
+    /** Purchases made in {@code [from, to)} with a line for the item, oldest first. */
+    @Query("select p.id as id, p.supplier as supplier, p.remarks as remarks, p.purchasedDate as purchasedDate, " +
+           "o.id as officeId, o.name as officeName, " +
+           "u.id as purchasedById, u.username as purchasedByUsername, u.fullName as purchasedByName " +
+           "from Purchase p join p.office o join p.purchasedBy u " +
+           "where p.purchasedDate >= :from and p.purchasedDate < :to " +
+           "and exists (select 1 from PurchaseItem pi where pi.purchase = p and pi.item.id = :itemId) " +
+           "order by p.id")
+    List<PurchaseOrigin> findOrigins(@Param("itemId") Long itemId,
+                                     @Param("from") LocalDateTime from,
+                                     @Param("to") LocalDateTime to,
+                                     Pageable pageable);
+
+    /** The office's latest purchases with their lines counted, totalled and named. */
+    @Query(value = "select p.id as \"id\", p.supplier as \"supplier\", p.purchased_date as \"purchasedDate\", " +
+                   "count(pi.id) as \"totalItems\", " +
+                   "coalesce(sum(pi.quantity * pi.unit_price), 0) as \"totalAmount\", " +
+                   "string_agg(i.name, ', ' order by pi.id) as \"itemNames\" " +
+                   "from (" +
+                   "  select id, supplier, purchased_date from purchases where office_id = :officeId " +
+                   "  order by purchased_date desc, id desc limit :limit" +
+                   ") p " +
+                   "left join purchase_items pi on pi.purchase_id = p.id " +
+                   "left join items i on i.id = pi.item_id " +
+                   "group by p.id, p.supplier, p.purchased_date " +
+                   "order by p.purchased_date desc, p.id desc",
+           nativeQuery = true)
+    List<DashboardPurchaseLine> findRecentLines(@Param("officeId") Long officeId, @Param("limit") int limit);
+
+    /**
+     * Spend of an office on purchases made in {@code [from, to)} per {@code date_trunc} period.
+     */
+    @Query(value = "select s.period as \"period\", s.purchase_count as \"purchaseCount\", " +
+                   "s.supplier_count as \"supplierCount\", s.quantity as \"quantity\", s.spend as \"spend\", " +
+                   "sum(s.spend) over (order by s.period) as \"cumulativeSpend\" " +
+                   "from (" +
+                   "  select date_trunc(:granularity, p.purchased_date) as period, " +
+                   "         count(distinct p.id) as purchase_count, count(distinct p.supplier) as supplier_count, " +
+                   "         coalesce(sum(pi.quantity), 0) as quantity, " +
+                   "         coalesce(sum(pi.quantity * pi.unit_price), 0) as spend " +
+                   "  from purchases p left join purchase_items pi on pi.purchase_id = p.id " +
+                   "  where p.office_id = :officeId and p.purchased_date >= :from and p.purchased_date < :to " +
+                   "  group by 1" +
+                   ") s " +
+                   "order by s.period",
+           nativeQuery = true)
+    List<PurchaseSpendLine> findSpend(@Param("officeId") Long officeId,
+                                      @Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("granularity") String granularity);
+
+    /**
+     * Adds one purchase line to the office's running totals for its item. The query space hint
+     * tells Hibernate this statement only touches the stats table, so it neither flushes the
+     * purchase being saved nor evicts unrelated cached state.
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "office_item_purchase_stats"))
+    @Query(value = "insert into office_item_purchase_stats " +
+                   "  (office_id, item_id, line_count, total_quantity, last_purchased_at) " +
+                   "values (:officeId, :itemId, 1, :quantity, :purchasedAt) " +
+                   "on conflict (office_id, item_id) do update set " +
+                   "  line_count = office_item_purchase_stats.line_count + 1, " +
+                   "  total_quantity = office_item_purchase_stats.total_quantity + excluded.total_quantity, " +
+                   "  last_purchased_at = greatest(office_item_purchase_stats.last_purchased_at, " +
+                   "                               excluded.last_purchased_at)",
+           nativeQuery = true)
+    void addToItemStats(@Param("officeId") Long officeId,
+                        @Param("itemId") Long itemId,
+                        @Param("quantity") double quantity,
+                        @Param("purchasedAt") LocalDateTime purchasedAt);
+
+    /**
+     * Blocks purchases from updating the running totals until the transaction ends, and waits for
+     * the ones updating them now to commit.
+     */
+    @Modifying
+    @Query(value = "lock table office_item_purchase_stats in share row exclusive mode", nativeQuery = true)
+    void lockItemStats();
+
+    @Modifying
+    @Query(value = "delete from office_item_purchase_stats where office_id = :officeId", nativeQuery = true)
+    int deleteItemStats(@Param("officeId") Long officeId);
+
+    /** Recomputes the office's running totals from its purchase lines; returns the items counted. */
+    @Modifying
+    @Query(value = "insert into office_item_purchase_stats " +
+                   "  (office_id, item_id, line_count, total_quantity, last_purchased_at) " +
+                   "select p.office_id, pi.item_id, count(*), coalesce(sum(pi.quantity), 0), max(p.purchased_date) " +
+                   "from purchases p join purchase_items pi on pi.purchase_id = p.id " +
+                   "where p.office_id = :officeId " +
+                   "group by p.office_id, pi.item_id",
+           nativeQuery = true)
+    int insertItemStats(@Param("officeId") Long officeId);
+
+    /**
+     * Items an office bought at least twice or at least 10 units of, best first. A purchase line
+     * weighs {@code max(0.35, 1 - age in days / 180)}; every line counts 0.35 through the running
+     * totals, and only lines younger than 117 days, where the weight is higher, are read again
+     * from {@code purchases} to add the rest. score = 2 * weighted quantity + 1.5 * lines +
+     * weight of the latest purchase; quantity = average line quantity scaled up by up to 15% for
+     * recently bought items.
+     */
+    @Query(value = "with recent as (" +
+                   "  select pi.item_id, sum(pi.quantity * (least(1.0, 1 - cast(extract(epoch from " +
+                   "         cast(:now as timestamp) - p.purchased_date) as double precision) / 86400 / 180) - 0.35)) " +
+                   "         as extra_weight " +
+                   "  from purchases p join purchase_items pi on pi.purchase_id = p.id " +
+                   "  where p.office_id = :officeId and p.purchased_date > :recentSince " +
+                   "  group by pi.item_id" +
+                   "), weighted as (" +
+                   "  select s.item_id, i.name as item_name, s.line_count, s.total_quantity, s.last_purchased_at, " +
+                   "         0.35 * s.total_quantity + coalesce(r.extra_weight, 0) as weighted_quantity, " +
+                   "         greatest(0.35, least(1.0, 1 - cast(extract(epoch from " +
+                   "           cast(:now as timestamp) - s.last_purchased_at) as double precision) / 86400 / 180)) " +
+                   "           as last_weight " +
+                   "  from office_item_purchase_stats s join items i on i.id = s.item_id " +
+                   "  left join recent r on r.item_id = s.item_id " +
+                   "  where s.office_id = :officeId and (s.line_count >= 2 or s.total_quantity >= 10)" +
+                   ") " +
+                   "select w.item_id as \"itemId\", w.item_name as \"itemName\", " +
+                   "cast(greatest(1, floor(w.total_quantity / w.line_count * (1 + w.last_weight * 0.15) + 0.5)) " +
+                   "  as bigint) as \"quantity\", " +
+                   "w.line_count as \"purchaseCount\", w.total_quantity as \"totalQuantity\", " +
+                   "w.last_purchased_at as \"lastPurchasedAt\", " +
+                   "w.weighted_quantity * 2 + w.line_count * 1.5 + w.last_weight as \"score\" " +
+                   "from weighted w " +
+                   "order by \"score\" desc, w.item_id " +
+                   "limit :limit",
+           nativeQuery = true)
+    List<PurchaseSuggestionLine> findPurchaseSuggestions(@Param("officeId") Long officeId,
+                                                         @Param("now") LocalDateTime now,
+                                                         @Param("recentSince") LocalDateTime recentSince,
+                                                         @Param("limit") int limit);
+}
@@ -0,0 +1,83 @@
+package just.inventory.backend.repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import just.inventory.backend.model.StocktakeSession;
+import just.inventory.backend.model.StocktakeSession.StocktakeStatus;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stocktake sessions, and the scan log and unknown barcodes they own, which are plain tables
+ * without entities. Scans lock their session for share and fold it for update (see
+ * {@code StocktakeService}), so a fold waits for the scans in flight and never skips one.
+ */
+public interface StocktakeSessionRepository extends JpaRepository<StocktakeSession, Long> {
+
+    List<StocktakeSession> findByOfficeIdOrderByOpenedAtDesc(Long officeId);
+
+    boolean existsByOfficeIdAndStatus(Long officeId, StocktakeStatus status);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("select s from StocktakeSession s where s.id = :id")
+    Optional<StocktakeSession> findByIdForScan(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from StocktakeSession s where s.id = :id")
+    Optional<StocktakeSession> findByIdForUpdate(@Param("id") Long id);
+
+    /** Logs the instances not scanned in the session before; returns how many that were. */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stocktake_scans"))
+    @Query(value = "insert into stocktake_scans (session_id, item_instance_id, scanned_by_user_id, scanned_at) " +
+                   "select :sessionId, s.id, :userId, :scannedAt from unnest(cast(:instanceIds as bigint[])) s(id) " +
+                   "on conflict (session_id, item_instance_id) do nothing",
+           nativeQuery = true)
+    int insertScans(@Param("sessionId") Long sessionId,
+                    @Param("instanceIds") Long[] instanceIds,
+                    @Param("userId") Long userId,
+                    @Param("scannedAt") LocalDateTime scannedAt);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "stocktake_unknown_barcodes"))
+    @Query(value = "insert into stocktake_unknown_barcodes (session_id, barcode, scanned_by_user_id, scanned_at) " +
+                   "select :sessionId, b.barcode, :userId, :scannedAt from unnest(cast(:barcodes as varchar[])) b(barcode) " +
+                   "on conflict (session_id, barcode) do nothing",
+           nativeQuery = true)
+    int insertUnknownBarcodes(@Param("sessionId") Long sessionId,
+                              @Param("barcodes") String[] barcodes,
+                              @Param("userId") Long userId,
+                              @Param("scannedAt") LocalDateTime scannedAt);
+
+    @Query(value = "select max(c.id) from stocktake_scans c where c.session_id = :sessionId", nativeQuery = true)
+    Optional<Long> findLastScanId(@Param("sessionId") Long sessionId);
+
+    /** Instances of the scans in {@code (after, through]}, the ones a fold adds to the bitmap. */
+    @Query(value = "select c.item_instance_id from stocktake_scans c " +
+                   "where c.session_id = :sessionId and c.id > :after and c.id <= :through",
+           nativeQuery = true)
+    List<Long> findScannedInstanceIds(@Param("sessionId") Long sessionId,
+                                      @Param("after") Long after,
+                                      @Param("through") Long through);
+
+    @Query(value = "select count(*) from stocktake_scans c where c.session_id = :sessionId", nativeQuery = true)
+    long countScans(@Param("sessionId") Long sessionId);
+
+    @Query(value = "select count(*) from stocktake_unknown_barcodes u where u.session_id = :sessionId",
+           nativeQuery = true)
+    long countUnknownBarcodes(@Param("sessionId") Long sessionId);
+
+    @Query(value = "select u.barcode from stocktake_unknown_barcodes u where u.session_id = :sessionId " +
+                   "order by u.barcode limit :limit",
+           nativeQuery = true)
+    List<String> findUnknownBarcodes(@Param("sessionId") Long sessionId, @Param("limit") int limit);
+}
@@ -2,6 +2,8 @@ package just.inventory.backend.repository;
 
 import just.inventory.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
 
 import java.util.Optional;
@@ -10,4 +12,8 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    /** The user's office id without loading the user's entity graph; empty if there is none. */
+    @Query("select o.id from User u join u.office o where u.username = :username")
+    Optional<Long> findOfficeIdByUsername(@Param("username") String username);
 }
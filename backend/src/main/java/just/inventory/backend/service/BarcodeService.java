@@ -14,6 +14,7 @@ import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Image;
+import io.micrometer.core.annotation.Timed;
 import just.inventory.backend.model.ItemInstance;
 import just.inventory.backend.repository.ItemInstanceRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,9 +34,13 @@ public class BarcodeService {
     @Autowired
     private ItemInstanceRepository itemInstanceRepository;
 
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+
     /**
      * Generate a Code128 barcode image for the given barcode text
      */
+    @Timed(value = InventoryMetrics.BARCODE_RENDER, extraTags = {"format", "code128"})
     public byte[] generateBarcodeImage(String barcodeText, int width, int height) throws WriterException, IOException {
         Code128Writer barcodeWriter = new Code128Writer();
         BitMatrix bitMatrix = barcodeWriter.encode(barcodeText, BarcodeFormat.CODE_128, width, height);
@@ -50,6 +55,7 @@ public class BarcodeService {
     /**
      * Generate a QR code image for the given barcode text
      */
+    @Timed(value = InventoryMetrics.BARCODE_RENDER, extraTags = {"format", "qr"})
     public byte[] generateQRCode(String barcodeText, int width, int height) throws WriterException, IOException {
         Map<EncodeHintType, Object> hints = new HashMap<>();
         hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
@@ -69,6 +75,7 @@ public class BarcodeService {
      * Generate a simplified vertical barcode label (6x4 inches / 600x400 pixels at 100 DPI)
      * Optimized for thermal printers with minimal info: item name, office, purchase date
      */
+    @Timed(value = InventoryMetrics.BARCODE_RENDER, extraTags = {"format", "simple_png"})
     public byte[] generateSimpleBarcodeLabel(Long itemInstanceId) throws WriterException, IOException {
         ItemInstance itemInstance = itemInstanceRepository.findById(itemInstanceId)
                 .orElseThrow(() -> new RuntimeException("Item instance not found"));
@@ -157,6 +164,7 @@ public class BarcodeService {
      * Generate a complete barcode label with item information
      * This creates a printable image with barcode and text
      */
+    @Timed(value = InventoryMetrics.BARCODE_RENDER, extraTags = {"format", "png"})
     public byte[] generateBarcodeLabel(Long itemInstanceId) throws WriterException, IOException {
         ItemInstance itemInstance = itemInstanceRepository.findById(itemInstanceId)
                 .orElseThrow(() -> new RuntimeException("Item instance not found"));
@@ -249,7 +257,9 @@ public class BarcodeService {
     /**
      * Generate barcode labels for multiple item instances
      */
+    @Timed(value = InventoryMetrics.BARCODE_RENDER, extraTags = {"format", "png_sheet"})
     public byte[] generateBarcodeLabels(java.util.List<Long> itemInstanceIds) throws WriterException, IOException {
+        inventoryMetrics.labelsRendered("png_sheet", itemInstanceIds.size());
         // For multiple labels, create a sheet with multiple labels
         int labelsPerRow = 2;
         int labelWidth = 400;
@@ -287,6 +297,7 @@ public class BarcodeService {
      * Generate ESC/POS commands for direct thermal printer printing
      * Suitable for XPrinter TT62B and similar thermal printers
      */
+    @Timed(value = InventoryMetrics.BARCODE_RENDER, extraTags = {"format", "escpos"})
     public byte[] generateESCPOSCommands(Long itemInstanceId) throws WriterException, IOException {
         ItemInstance itemInstance = itemInstanceRepository.findById(itemInstanceId)
                 .orElseThrow(() -> new RuntimeException("Item instance not found"));
@@ -353,7 +364,9 @@ public class BarcodeService {
      * Generate ESC/POS commands for multiple labels
      * Suitable for XPrinter and similar thermal printers
      */
+    @Timed(value = InventoryMetrics.BARCODE_RENDER, extraTags = {"format", "escpos_batch"})
     public byte[] generateESCPOSCommandsMultiple(java.util.List<Long> itemInstanceIds) throws WriterException, IOException {
+        inventoryMetrics.labelsRendered("escpos_batch", itemInstanceIds.size());
         ByteArrayOutputStream escpos = new ByteArrayOutputStream();
         
         for (Long itemInstanceId : itemInstanceIds) {
@@ -382,7 +395,9 @@ public class BarcodeService {
      * Generate PDF with multiple barcode labels (vertical layout, 6x4 inches per label)
      * Optimized for printing on thermal barcode printers
      */
+    @Timed(value = InventoryMetrics.BARCODE_RENDER, extraTags = {"format", "pdf"})
     public byte[] generateBarcodeLabelsPDF(java.util.List<Long> itemInstanceIds) throws WriterException, IOException {
+        inventoryMetrics.labelsRendered("pdf", itemInstanceIds.size());
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
         
         // Create PDF with 6x4 inch page size (432x288 points)
@@ -419,7 +434,9 @@ public class BarcodeService {
     /**
      * Generate simplified barcode labels for multiple item instances as PNG sheet
      */
+    @Timed(value = InventoryMetrics.BARCODE_RENDER, extraTags = {"format", "simple_png_sheet"})
     public byte[] generateSimpleBarcodeLabels(java.util.List<Long> itemInstanceIds) throws WriterException, IOException {
+        inventoryMetrics.labelsRendered("simple_png_sheet", itemInstanceIds.size());
         // For multiple labels, create vertical stack
         int labelWidth = 600;
         int labelHeight = 400;
@@ -0,0 +1,218 @@
+package just.inventory.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+/**
+ * Keeps in-process caches of several backend instances coherent through PostgreSQL
+ * {@code LISTEN/NOTIFY}, without any infrastructure beyond the database they already share.
+ * <p>
+ * A cache publishes an invalidation key such as {@code table:just.inventory.backend.model.Item}
+ * after a committed change; every other instance hands the part after the colon to the handler
+ * subscribed to the key's prefix. Keys are coalesced and sent, and notifications received, by one
+ * thread on one dedicated connection outside the pool, every {@code cache-bus.poll-interval} at
+ * the latest, so another instance sees a change within about two poll intervals plus a round trip.
+ * <p>
+ * Other instance-local state that has to follow committed changes, such as the office event
+ * streams, rides the same channel under its own prefix. Handlers run on the bus thread, so they
+ * must hand any slow work elsewhere.
+ * <p>
+ * Notifications sent while an instance is disconnected are lost to it, so after reconnecting it
+ * treats every key as changed. Outside PostgreSQL, or with {@code cache-bus.enabled} off, the bus
+ * does nothing and every instance only sees its own writes.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    // NOTIFY payloads must stay under 8000 bytes
+    private static final int MAX_PAYLOAD = 7000;
+    private static final Duration MAX_RECONNECT_DELAY = Duration.ofSeconds(30);
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${cache-bus.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache-bus.channel:inventory_cache}")
+    private String channel;
+
+    @Value("${cache-bus.poll-interval:100ms}")
+    private Duration pollInterval;
+
+    private final String nodeId = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * Routes keys {@code prefix:value} published by other instances to {@code onInvalidate}, and
+     * calls {@code onGap} whenever notifications may have been missed.
+     */
+    public void subscribe(String prefix, Consumer<String> onInvalidate, Runnable onGap) {
+        subscriptions.put(prefix, new Subscription(onInvalidate, onGap));
+    }
+
+    /** Queues {@code prefix:value} for the other instances; call it after the change committed. */
+    public void publish(String prefix, String value) {
+        if (running) {
+            pending.add(prefix + ':' + value);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        String url = dataSourceProperties.determineUrl();
+        if (!enabled || url == null || !url.startsWith("jdbc:postgresql:")) {
+            log.info("Cache invalidation bus is off; caches only see this instance's writes");
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "cache-bus");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+            worker.join(pollInterval.toMillis() * 10);
+        }
+    }
+
+    private void run() {
+        long reconnectDelay = pollInterval.toMillis();
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    connectionProperties())) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    log.info("Cache invalidation bus reconnected; invalidating everything");
+                    subscriptions.values().forEach(subscription -> subscription.onGap().run());
+                }
+                connectedBefore = true;
+                reconnectDelay = pollInterval.toMillis();
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    send(connection);
+                    receive(pgConnection.getNotifications((int) pollInterval.toMillis()));
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation bus lost its connection, retrying in {} ms: {}",
+                        reconnectDelay, e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY.toMillis());
+            }
+        }
+    }
+
+    private Properties connectionProperties() {
+        Properties properties = new Properties();
+        if (dataSourceProperties.determineUsername() != null) {
+            properties.setProperty("user", dataSourceProperties.determineUsername());
+        }
+        if (dataSourceProperties.determinePassword() != null) {
+            properties.setProperty("password", dataSourceProperties.determinePassword());
+        }
+        // Tells this instance's listener apart in pg_stat_activity
+        properties.setProperty("ApplicationName", applicationName());
+        return properties;
+    }
+
+    /** {@code application_name} of this instance's bus connection. */
+    String applicationName() {
+        return "cache-bus " + nodeId;
+    }
+
+    private void send(Connection connection) throws SQLException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(pending);
+        pending.removeAll(keys);
+        try (PreparedStatement statement = connection.prepareStatement("select pg_notify(?, ?)")) {
+            StringBuilder payload = new StringBuilder(nodeId);
+            for (String key : keys) {
+                if (payload.length() + key.length() + 1 > MAX_PAYLOAD) {
+                    sendPayload(statement, payload);
+                    payload.setLength(0);
+                    payload.append(nodeId);
+                }
+                payload.append('\n').append(key);
+            }
+            sendPayload(statement, payload);
+        } catch (SQLException e) {
+            // Sent again once reconnected
+            pending.addAll(keys);
+            throw e;
+        }
+    }
+
+    private void sendPayload(PreparedStatement statement, CharSequence payload) throws SQLException {
+        statement.setString(1, channel);
+        statement.setString(2, payload.toString());
+        statement.execute();
+    }
+
+    private void receive(PGNotification[] notifications) {
+        if (notifications == null) {
+            return;
+        }
+        for (PGNotification notification : notifications) {
+            String[] lines = notification.getParameter().split("\n");
+            if (lines[0].equals(nodeId)) {
+                continue;
+            }
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                Subscription subscription = colon < 0 ? null : subscriptions.get(lines[i].substring(0, colon));
+                if (subscription != null) {
+                    subscription.onInvalidate().accept(lines[i].substring(colon + 1));
+                }
+            }
+        }
+    }
+
+    private record Subscription(Consumer<String> onInvalidate, Runnable onGap) {
+    }
+}
@@ -0,0 +1,301 @@
+package just.inventory.backend.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import just.inventory.backend.dto.DashboardSnapshot;
+import just.inventory.backend.dto.DashboardTransactionLine;
+import just.inventory.backend.dto.OfficeActivityCount;
+import just.inventory.backend.dto.OfficeItemCount;
+import just.inventory.backend.model.Inventory;
+import just.inventory.backend.model.ItemInstance;
+import just.inventory.backend.model.ItemRequest;
+import just.inventory.backend.model.ItemTransaction;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.repository.DashboardCounterRepository;
+import just.inventory.backend.repository.ItemRequestRepository;
+import just.inventory.backend.repository.ItemTransactionRepository;
+import just.inventory.backend.repository.PurchaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The dashboard snapshot of an office and the running counters behind it.
+ * <p>
+ * Instead of counting instances, requests and transactions on every dashboard load, the
+ * purchase, request and distribution services report each change through the methods below,
+ * inside their own transactions, and the counters are updated by deltas. Changes made around
+ * those services, such as through Spring Data REST, are not counted until an admin recounts the
+ * office with {@link #rebuildCounters}.
+ * <p>
+ * A transaction's deltas are summed and only written just before it commits, after its entity
+ * changes were flushed, in one order for everyone: item counters by office, item and status,
+ * then activity counters by office and counter. Each counter row stays locked until commit, so
+ * writing them as they came up let two transactions touching the same offices in opposite order
+ * deadlock.
+ * <p>
+ * A snapshot is cached per office for {@code dashboard.cache.ttl}, so repeated loads within
+ * that window do not touch the database and may lag that much behind.
+ */
+@Service
+public class DashboardService {
+
+    private static final int RECENT_LIMIT = 5;
+
+    private static final String SENT_REQUESTS = "requests.sent.";
+    private static final String RECEIVED_REQUESTS = "requests.received.";
+    private static final String INCOMING_TRANSACTIONS = "transactions.incoming.";
+    private static final String OUTGOING_TRANSACTIONS = "transactions.outgoing.";
+    private static final String PURCHASES = "purchases";
+
+    private static final Comparator<ItemCountKey> ITEM_COUNT_ORDER = Comparator.comparing(ItemCountKey::officeId)
+            .thenComparing(ItemCountKey::itemId)
+            .thenComparing(ItemCountKey::status);
+
+    private static final Comparator<ActivityCountKey> ACTIVITY_COUNT_ORDER = Comparator.comparing(ActivityCountKey::officeId)
+            .thenComparing(ActivityCountKey::counter);
+
+    @Autowired
+    private DashboardCounterRepository dashboardCounterRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private ItemTransactionRepository itemTransactionRepository;
+
+    @Value("${dashboard.cache.ttl:5s}")
+    private Duration ttl;
+
+    private final Map<Long, CachedSnapshot> cache = new ConcurrentHashMap<>();
+
+    @Transactional(readOnly = true)
+    public DashboardSnapshot getSnapshot(Long officeId) {
+        long now = System.nanoTime();
+        CachedSnapshot cached = cache.get(officeId);
+        if (cached != null && now - cached.loadedAt() < ttl.toNanos()) {
+            return cached.snapshot();
+        }
+        DashboardSnapshot snapshot = loadSnapshot(officeId);
+        cache.put(officeId, new CachedSnapshot(snapshot, now));
+        return snapshot;
+    }
+
+    /**
+     * Recounts the office's counters from its instances, requests, transactions and purchases, for
+     * when those were changed around the services that report them. Counter updates of every
+     * office wait for the rebuild to finish. Returns the number of counters written.
+     */
+    @Transactional
+    public int rebuildCounters(Long officeId) {
+        dashboardCounterRepository.lockCounters();
+        dashboardCounterRepository.deleteItemCounts(officeId);
+        dashboardCounterRepository.deleteActivityCounts(officeId);
+        int counters = dashboardCounterRepository.insertItemCounts(officeId)
+                + dashboardCounterRepository.insertActivityCounts(officeId);
+        cache.remove(officeId);
+        return counters;
+    }
+
+    /** {@code delta} instances of an item entered (or, if negative, left) a status in an inventory. */
+    public void itemsChanged(Inventory inventory, Long itemId, ItemInstance.ItemStatus status, long delta) {
+        Long officeId = inventory != null ? officeId(inventory.getOffice()) : null;
+        if (officeId != null && delta != 0) {
+            ItemCountKey key = new ItemCountKey(officeId, itemId, status.name());
+            PendingCounters pending = pendingCounters();
+            if (pending != null) {
+                pending.itemCounts.merge(key, delta, Long::sum);
+            } else {
+                write(key, delta);
+            }
+        }
+    }
+
+    /** An item request changing status. {@code from} is null for newly created requests. */
+    public void requestTransition(ItemRequest request, ItemRequest.RequestStatus from, ItemRequest.RequestStatus to) {
+        transition(officeId(request.getRequestingOffice()), SENT_REQUESTS, from, to, 1);
+        transition(officeId(request.getParentOffice()), RECEIVED_REQUESTS, from, to, 1);
+    }
+
+    /**
+     * {@code count} transactions from one office to another changing status. {@code from} is null
+     * for newly created transactions.
+     */
+    public void transactionTransition(Office fromOffice, Office toOffice, ItemTransaction.TransactionStatus from,
+                                      ItemTransaction.TransactionStatus to, long count) {
+        transition(officeId(fromOffice), OUTGOING_TRANSACTIONS, from, to, count);
+        transition(officeId(toOffice), INCOMING_TRANSACTIONS, from, to, count);
+    }
+
+    public void purchaseRecorded(Long officeId) {
+        addToActivityCount(officeId, PURCHASES, 1);
+    }
+
+    private void transition(Long officeId, String prefix, Enum<?> from, Enum<?> to, long count) {
+        if (officeId == null || from == to || count == 0) {
+            return;
+        }
+        if (from != null) {
+            addToActivityCount(officeId, prefix + from.name(), -count);
+        }
+        if (to != null) {
+            addToActivityCount(officeId, prefix + to.name(), count);
+        }
+    }
+
+    private void addToActivityCount(Long officeId, String counter, long delta) {
+        ActivityCountKey key = new ActivityCountKey(officeId, counter);
+        PendingCounters pending = pendingCounters();
+        if (pending != null) {
+            pending.activityCounts.merge(key, delta, Long::sum);
+        } else {
+            write(key, delta);
+        }
+    }
+
+    private void write(ItemCountKey key, long delta) {
+        if (delta != 0) {
+            dashboardCounterRepository.addToItemCount(key.officeId(), key.itemId(), key.status(), delta);
+        }
+    }
+
+    private void write(ActivityCountKey key, long delta) {
+        if (delta != 0) {
+            dashboardCounterRepository.addToActivityCount(key.officeId(), key.counter(), delta);
+        }
+    }
+
+    /** The current transaction's deltas, or null outside a transaction, where they are written at once. */
+    private PendingCounters pendingCounters() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        // Looked up among the synchronizations rather than bound as a resource, so a suspended
+        // outer transaction keeps its own deltas
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingCounters pending) {
+                return pending;
+            }
+        }
+        PendingCounters pending = new PendingCounters();
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return pending;
+    }
+
+    private static Long officeId(Office office) {
+        return office != null ? office.getId() : null;
+    }
+
+    private DashboardSnapshot loadSnapshot(Long officeId) {
+        long totalItems = 0;
+        Map<String, Long> itemsByStatus = new TreeMap<>();
+        Map<Long, List<OfficeItemCount>> countsByItem = new LinkedHashMap<>();
+        for (OfficeItemCount count : dashboardCounterRepository.findItemCounts(officeId)) {
+            totalItems += count.getItemCount();
+            itemsByStatus.merge(count.getStatus(), count.getItemCount(), Long::sum);
+            countsByItem.computeIfAbsent(count.getItemId(), itemId -> new ArrayList<>()).add(count);
+        }
+        List<DashboardSnapshot.ItemCounts> items = countsByItem.values().stream()
+                .map(DashboardService::toItemCounts)
+                .toList();
+
+        Map<String, Long> sentRequests = new TreeMap<>();
+        Map<String, Long> receivedRequests = new TreeMap<>();
+        Map<String, Long> incomingTransactions = new TreeMap<>();
+        Map<String, Long> outgoingTransactions = new TreeMap<>();
+        long purchaseCount = 0;
+        for (OfficeActivityCount count : dashboardCounterRepository.findActivityCounts(officeId)) {
+            String counter = count.getCounter();
+            long value = count.getCounterValue();
+            if (counter.startsWith(SENT_REQUESTS)) {
+                sentRequests.put(counter.substring(SENT_REQUESTS.length()), value);
+            } else if (counter.startsWith(RECEIVED_REQUESTS)) {
+                receivedRequests.put(counter.substring(RECEIVED_REQUESTS.length()), value);
+            } else if (counter.startsWith(INCOMING_TRANSACTIONS)) {
+                incomingTransactions.put(counter.substring(INCOMING_TRANSACTIONS.length()), value);
+            } else if (counter.startsWith(OUTGOING_TRANSACTIONS)) {
+                outgoingTransactions.put(counter.substring(OUTGOING_TRANSACTIONS.length()), value);
+            } else if (PURCHASES.equals(counter)) {
+                purchaseCount = value;
+            }
+        }
+
+        PageRequest recent = PageRequest.of(0, RECENT_LIMIT);
+        return new DashboardSnapshot(officeId, totalItems, itemsByStatus, items,
+                sentRequests, receivedRequests, incomingTransactions, outgoingTransactions, purchaseCount,
+                purchaseRepository.findRecentLines(officeId, RECENT_LIMIT),
+                itemRequestRepository.findDashboardLines(officeId, recent),
+                recentTransactions(officeId, recent),
+                LocalDateTime.now());
+    }
+
+    private static DashboardSnapshot.ItemCounts toItemCounts(List<OfficeItemCount> counts) {
+        Map<String, Long> statusBreakdown = new TreeMap<>();
+        long quantity = 0;
+        for (OfficeItemCount count : counts) {
+            statusBreakdown.put(count.getStatus(), count.getItemCount());
+            quantity += count.getItemCount();
+        }
+        OfficeItemCount first = counts.get(0);
+        return new DashboardSnapshot.ItemCounts(first.getItemId(), first.getItemName(), quantity, statusBreakdown);
+    }
+
+    /** The latest transactions into or out of the office: the newest of the latest of each. */
+    private List<DashboardTransactionLine> recentTransactions(Long officeId, PageRequest recent) {
+        List<DashboardTransactionLine> transactions = new ArrayList<>(
+                itemTransactionRepository.findOutgoingDashboardLines(officeId, recent));
+        transactions.addAll(itemTransactionRepository.findIncomingDashboardLines(officeId, recent));
+        return transactions.stream()
+                .sorted(Comparator.comparing(DashboardTransactionLine::getTransactionDate,
+                                Comparator.nullsLast(Comparator.reverseOrder()))
+                        .thenComparing(DashboardTransactionLine::getId, Comparator.reverseOrder()))
+                .limit(RECENT_LIMIT)
+                .toList();
+    }
+
+    private record CachedSnapshot(DashboardSnapshot snapshot, long loadedAt) {
+    }
+
+    private record ItemCountKey(Long officeId, Long itemId, String status) {
+    }
+
+    private record ActivityCountKey(Long officeId, String counter) {
+    }
+
+    private final class PendingCounters implements TransactionSynchronization {
+
+        private final Map<ItemCountKey, Long> itemCounts = new TreeMap<>(ITEM_COUNT_ORDER);
+        private final Map<ActivityCountKey, Long> activityCounts = new TreeMap<>(ACTIVITY_COUNT_ORDER);
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                // Row locks of the entity changes come first, so no counter lock is held while
+                // waiting for one
+                entityManager.flush();
+            }
+            itemCounts.forEach(DashboardService.this::write);
+            activityCounts.forEach(DashboardService.this::write);
+        }
+    }
+}
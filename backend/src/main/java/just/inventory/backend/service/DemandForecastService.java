@@ -0,0 +1,306 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.DemandForecastLine;
+import just.inventory.backend.dto.MonthlyDemand;
+import just.inventory.backend.model.DemandForecast;
+import just.inventory.backend.repository.DemandForecastRepository;
+import just.inventory.backend.repository.ItemRepository;
+import just.inventory.backend.repository.OfficeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-process demand forecasting for requisition suggestions.
+ * <p>
+ * A nightly batch turns the monthly demand history of every office and item into a
+ * Holt-Winters forecast (additive level, trend and academic-term seasonality) and stores
+ * it in {@code demand_forecasts}. Readers are served from an in-memory snapshot of that
+ * table, so a suggestion request costs a map lookup instead of a model call.
+ * <p>
+ * Recomputes take a transaction-level advisory lock, so instances sharing the database never
+ * rewrite the table at the same time; the nightly run is skipped on every instance but the one
+ * that got the lock. The instance that recomputed announces it on the
+ * {@link CacheInvalidationBus}, and every instance drops its snapshot on that or on a gap in the
+ * bus, to reload it on the next read.
+ */
+@Service
+public class DemandForecastService {
+
+    private static final Logger log = LoggerFactory.getLogger(DemandForecastService.class);
+
+    private static final int MONTHS_PER_YEAR = 12;
+
+    private static final String RECOMPUTE_LOCK = "demand_forecasts recompute";
+
+    private static final String BUS_PREFIX = "forecast";
+
+    @Autowired
+    private DemandForecastRepository demandForecastRepository;
+
+    @Autowired
+    private OfficeRepository officeRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Value("${forecast.enabled:true}")
+    private boolean enabled;
+
+    @Value("${forecast.history-months:36}")
+    private int historyMonths;
+
+    @Value("${forecast.level-smoothing:0.4}")
+    private double alpha;
+
+    @Value("${forecast.trend-smoothing:0.1}")
+    private double beta;
+
+    @Value("${forecast.seasonal-smoothing:0.3}")
+    private double gamma;
+
+    /**
+     * Months (1-12) in which an academic term starts. Every month belongs to the term
+     * that started most recently, so "1,7" gives a January and a July semester.
+     * List them in calendar order.
+     */
+    @Value("${forecast.term-start-months:1,7}")
+    private List<Integer> termStartMonths;
+
+    @Value("${forecast.minimum-quantity:0.05}")
+    private double minimumQuantity;
+
+    private volatile Map<Long, List<DemandForecastLine>> snapshot;
+
+    // Not synchronized: a virtual thread loading the snapshot would pin its carrier for the query
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    @PostConstruct
+    void subscribe() {
+        cacheInvalidationBus.subscribe(BUS_PREFIX, table -> invalidateSnapshot(), this::invalidateSnapshot);
+    }
+
+    // -----------------------------------------------------------------------
+    // Serving
+    // -----------------------------------------------------------------------
+
+    /**
+     * Forecasts for one office, largest expected demand first.
+     */
+    public List<DemandForecastLine> getForecastsForOffice(Long officeId) {
+        Map<Long, List<DemandForecastLine>> current = snapshot;
+        if (current == null) {
+            current = loadSnapshot();
+        }
+        return current.getOrDefault(officeId, List.of());
+    }
+
+    private Map<Long, List<DemandForecastLine>> loadSnapshot() {
+        snapshotLock.lock();
+        try {
+            if (snapshot == null) {
+                // Lines arrive ordered by quantity, so each office's list stays sorted
+                snapshot = demandForecastRepository.findAllLines().stream()
+                        .collect(Collectors.groupingBy(DemandForecastLine::getOfficeId,
+                                LinkedHashMap::new, Collectors.toList()));
+            }
+            return snapshot;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void invalidateSnapshot() {
+        snapshotLock.lock();
+        try {
+            snapshot = null;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    // -----------------------------------------------------------------------
+    // Batch
+    // -----------------------------------------------------------------------
+
+    @Scheduled(cron = "${forecast.cron:0 30 2 * * *}")
+    @Transactional
+    public void scheduledRecompute() {
+        if (!enabled) {
+            return;
+        }
+        if (!jdbcTemplate.queryForObject("select pg_try_advisory_xact_lock(hashtext(?))", Boolean.class,
+                RECOMPUTE_LOCK)) {
+            log.info("Skipping demand forecast recompute, another instance is running it");
+            return;
+        }
+        recompute();
+    }
+
+    /**
+     * Rebuilds every forecast from the last {@code forecast.history-months} of demand, after
+     * waiting for a recompute running elsewhere.
+     *
+     * @return number of forecasts written
+     */
+    @Transactional
+    public int recomputeForecasts() {
+        jdbcTemplate.queryForObject("select pg_advisory_xact_lock(hashtext(?))", Object.class, RECOMPUTE_LOCK);
+        return recompute();
+    }
+
+    private int recompute() {
+        YearMonth currentMonth = YearMonth.now();
+        int currentMonthIndex = monthIndex(currentMonth);
+        LocalDateTime since = currentMonth.minusMonths(historyMonths).atDay(1).atStartOfDay();
+
+        Map<List<Long>, TreeMap<Integer, Double>> seriesByOfficeItem = new HashMap<>();
+        for (MonthlyDemand demand : demandForecastRepository.findMonthlyDemandSince(since)) {
+            if (demand.getQuantity() == null || demand.getMonthIndex() == null) continue;
+            seriesByOfficeItem
+                    .computeIfAbsent(List.of(demand.getOfficeId(), demand.getItemId()), key -> new TreeMap<>())
+                    .merge(demand.getMonthIndex(), demand.getQuantity(), Double::sum);
+        }
+
+        LocalDate forecastMonth = currentMonth.atDay(1);
+        LocalDateTime computedAt = LocalDateTime.now();
+        List<DemandForecast> forecasts = new ArrayList<>();
+        seriesByOfficeItem.forEach((key, monthly) -> {
+            // Only whole months go into the model; the current month is the one being forecast
+            int firstMonth = monthly.firstKey();
+            int months = currentMonthIndex - firstMonth;
+            if (months <= 0) return;
+
+            double[] series = new double[months];
+            monthly.headMap(currentMonthIndex).forEach((month, quantity) -> series[month - firstMonth] = quantity);
+
+            HoltWinters model = fit(series, firstMonth);
+            double seasonalEffect = model.seasonalEffect(termOf(currentMonthIndex));
+            double quantity = Math.max(0.0, model.level() + model.trend() + seasonalEffect);
+            if (quantity < minimumQuantity) return;
+
+            DemandForecast forecast = new DemandForecast();
+            forecast.setOffice(officeRepository.getReferenceById(key.get(0)));
+            forecast.setItem(itemRepository.getReferenceById(key.get(1)));
+            forecast.setForecastMonth(forecastMonth);
+            forecast.setForecastQuantity(quantity);
+            forecast.setSmoothedLevel(model.level());
+            forecast.setSmoothedTrend(model.trend());
+            forecast.setSeasonalEffect(seasonalEffect);
+            forecast.setObservedMonths(months);
+            forecast.setComputedAt(computedAt);
+            forecasts.add(forecast);
+        });
+
+        demandForecastRepository.deleteAllInBatch();
+        demandForecastRepository.saveAll(forecasts);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    forecastsChanged();
+                }
+            });
+        } else {
+            forecastsChanged();
+        }
+        return forecasts.size();
+    }
+
+    private void forecastsChanged() {
+        invalidateSnapshot();
+        cacheInvalidationBus.publish(BUS_PREFIX, "demand_forecasts");
+    }
+
+    // -----------------------------------------------------------------------
+    // Holt-Winters (additive), monthly steps, one seasonal effect per academic term
+    // -----------------------------------------------------------------------
+
+    private HoltWinters fit(double[] series, int firstMonthIndex) {
+        int terms = termStartMonths.size();
+        double[] seasonal = new double[terms];
+        // A term effect is only meaningful once every term has been seen at least once
+        boolean seasonalEnabled = terms > 1 && series.length >= MONTHS_PER_YEAR;
+
+        int warmUp = Math.min(series.length, MONTHS_PER_YEAR);
+        double level = 0.0;
+        for (int t = 0; t < warmUp; t++) {
+            level += series[t];
+        }
+        level /= warmUp;
+
+        if (seasonalEnabled) {
+            double[] termTotals = new double[terms];
+            int[] termMonths = new int[terms];
+            for (int t = 0; t < warmUp; t++) {
+                int term = termOf(firstMonthIndex + t);
+                termTotals[term] += series[t];
+                termMonths[term]++;
+            }
+            for (int term = 0; term < terms; term++) {
+                seasonal[term] = termMonths[term] == 0 ? 0.0 : termTotals[term] / termMonths[term] - level;
+            }
+        }
+
+        double trend = 0.0;
+        for (int t = 0; t < series.length; t++) {
+            int term = termOf(firstMonthIndex + t);
+            double effect = seasonalEnabled ? seasonal[term] : 0.0;
+            double previousLevel = level;
+            level = alpha * (series[t] - effect) + (1 - alpha) * (level + trend);
+            trend = beta * (level - previousLevel) + (1 - beta) * trend;
+            if (seasonalEnabled) {
+                seasonal[term] = gamma * (series[t] - level) + (1 - gamma) * effect;
+            }
+        }
+        return new HoltWinters(level, trend, seasonalEnabled ? seasonal : new double[terms]);
+    }
+
+    private int termOf(int monthIndex) {
+        int month = Math.floorMod(monthIndex, MONTHS_PER_YEAR) + 1;
+        int term = termStartMonths.size() - 1;
+        for (int i = 0; i < termStartMonths.size(); i++) {
+            if (termStartMonths.get(i) <= month) {
+                term = i;
+            }
+        }
+        return term;
+    }
+
+    private static int monthIndex(YearMonth month) {
+        return month.getYear() * MONTHS_PER_YEAR + month.getMonthValue() - 1;
+    }
+
+    private record HoltWinters(double level, double trend, double[] seasonal) {
+        double seasonalEffect(int term) {
+            return seasonal[term];
+        }
+    }
+}
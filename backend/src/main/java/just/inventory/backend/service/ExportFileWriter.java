@@ -0,0 +1,200 @@
+package just.inventory.backend.service;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes export rows to a file as they are scrolled, holding at most a small window of rows in
+ * memory whatever the size of the export.
+ */
+public interface ExportFileWriter extends Closeable {
+
+    void writeRow(Object[] values) throws IOException;
+
+    /** Flushes everything written so far to the file; the writer must be closed afterwards. */
+    void finish() throws IOException;
+
+    static ExportFileWriter open(String format, Path file, List<String> headers) throws IOException {
+        return switch (format) {
+            case ExportService.FORMAT_CSV -> new GzipCsvWriter(file, headers);
+            case ExportService.FORMAT_XLSX -> new XlsxWriter(file, headers);
+            default -> throw new IllegalArgumentException("Unknown export format: " + format);
+        };
+    }
+
+    /**
+     * RFC 4180 CSV with a UTF-8 byte order mark (so spreadsheet programs read Bangla names
+     * correctly), gzip'd on the way to disk.
+     */
+    final class GzipCsvWriter implements ExportFileWriter {
+
+        private final Writer out;
+
+        GzipCsvWriter(Path file, List<String> headers) throws IOException {
+            OutputStream gzip = new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024);
+            this.out = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), 64 * 1024);
+            out.write('\uFEFF');
+            writeRow(headers.toArray());
+        }
+
+        @Override
+        public void writeRow(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeCell(values[i]);
+            }
+            out.write("\r\n");
+        }
+
+        private void writeCell(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value instanceof Double number) {
+                out.write(BigDecimal.valueOf(number).stripTrailingZeros().toPlainString());
+            } else if (value instanceof Number number) {
+                out.write(number.toString());
+            } else if (value instanceof LocalDateTime dateTime) {
+                out.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(dateTime));
+            } else {
+                writeText(value instanceof Enum<?> constant ? constant.name() : value.toString());
+            }
+        }
+
+        private void writeText(String text) throws IOException {
+            // A leading formula character would make a spreadsheet evaluate user-entered text
+            boolean formula = !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0;
+            boolean quote = formula || text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                    || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+            if (!quote) {
+                out.write(text);
+                return;
+            }
+            out.write('"');
+            if (formula) {
+                out.write('\'');
+            }
+            out.write(text.replace("\"", "\"\""));
+            out.write('"');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Streaming XLSX: rows beyond a small window are flushed to compressed temporary sheet files,
+     * which are zipped into the workbook on {@link #finish()}. A sheet holds at most 1,048,576
+     * rows, so longer exports continue on further sheets, each with its own header row.
+     */
+    final class XlsxWriter implements ExportFileWriter {
+
+        private static final int ROW_WINDOW = 200;
+        private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+        private final Path file;
+        private final List<String> headers;
+        private final int maxRows;
+        private final SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        private final CellStyle headerStyle;
+        private final CellStyle dateStyle;
+        private SXSSFSheet sheet;
+        private int rowIndex;
+
+        XlsxWriter(Path file, List<String> headers) {
+            this(file, headers, MAX_ROWS);
+        }
+
+        /** With sheets of at most {@code maxRows} rows, header included. */
+        XlsxWriter(Path file, List<String> headers, int maxRows) {
+            this.file = file;
+            this.headers = headers;
+            this.maxRows = maxRows;
+            workbook.setCompressTempFiles(true);
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(bold);
+            dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+            newSheet();
+        }
+
+        private void newSheet() {
+            sheet = workbook.createSheet("Export " + (workbook.getNumberOfSheets() + 1));
+            rowIndex = 0;
+            Row header = sheet.createRow(rowIndex++);
+            for (int i = 0; i < headers.size(); i++) {
+                Cell cell = header.createCell(i);
+                cell.setCellValue(headers.get(i));
+                cell.setCellStyle(headerStyle);
+            }
+        }
+
+        @Override
+        public void writeRow(Object[] values) {
+            if (rowIndex == maxRows) {
+                newSheet();
+            }
+            Row row = sheet.createRow(rowIndex++);
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                if (value == null) {
+                    continue;
+                }
+                Cell cell = row.createCell(i);
+                if (value instanceof Number number) {
+                    cell.setCellValue(number.doubleValue());
+                } else if (value instanceof LocalDateTime dateTime) {
+                    cell.setCellValue(dateTime);
+                    cell.setCellStyle(dateStyle);
+                } else {
+                    cell.setCellValue(value instanceof Enum<?> constant ? constant.name() : value.toString());
+                }
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+                workbook.write(out);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Also deletes the temporary sheet files
+            workbook.close();
+        }
+    }
+}
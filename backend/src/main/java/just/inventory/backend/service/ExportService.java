@@ -0,0 +1,339 @@
+package just.inventory.backend.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import just.inventory.backend.dto.ExportJobResponse;
+import just.inventory.backend.dto.ExportRequest;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.SelectionQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Background exports of office data to gzip'd CSV or XLSX files on local disk.
+ * <p>
+ * A job scrolls its rows forward-only through a {@link StatelessSession}, so nothing is kept
+ * in a persistence context, and the PostgreSQL driver fetches them {@value #FETCH_SIZE} at a time
+ * inside a read-only transaction instead of loading the whole result. Rows go straight to an
+ * {@link ExportFileWriter}, which keeps memory flat however many rows an export has.
+ * <p>
+ * Jobs are held in memory, like suggestion jobs, and are dropped together with their files once
+ * they have been finished for longer than the retention window. Files left from a previous run
+ * are removed at startup.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportService.class);
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_XLSX = "xlsx";
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+
+    private static final int FETCH_SIZE = 1000;
+    private static final String PART_SUFFIX = ".part";
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    @Qualifier("exportExecutor")
+    private TaskExecutor exportExecutor;
+
+    @Value("${exports.directory:${java.io.tmpdir}/inventory-exports}")
+    private String directoryName;
+
+    @Value("${exports.retention:1h}")
+    private Duration retention;
+
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    private Path directory;
+
+    @PostConstruct
+    void prepareDirectory() throws IOException {
+        directory = Files.createDirectories(Path.of(directoryName));
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(directory,
+                "*-*-*-*-*.{csv.gz,xlsx,csv.gz.part,xlsx.part}")) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+            }
+        }
+    }
+
+    public ExportJobResponse submit(String username, Long officeId, ExportRequest request) {
+        ExportType type = type(request.getType());
+        String format = format(request.getFormat());
+        if (request.getFrom() != null && request.getTo() != null && request.getFrom().isAfter(request.getTo())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+        evictExpiredJobs();
+
+        String jobId = UUID.randomUUID().toString();
+        ExportJob job = new ExportJob(jobId, username, type, format, officeId, request.getFrom(), request.getTo(),
+                directory.resolve(jobId + (FORMAT_CSV.equals(format) ? ".csv.gz" : ".xlsx")));
+        jobs.put(jobId, job);
+        try {
+            exportExecutor.execute(() -> run(job));
+        } catch (TaskRejectedException e) {
+            jobs.remove(jobId);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many exports are queued, try again later");
+        }
+        return toResponse(job);
+    }
+
+    public Optional<ExportJobResponse> getJob(String jobId, String username) {
+        return findJob(jobId, username).map(this::toResponse);
+    }
+
+    public List<ExportJobResponse> getJobs(String username) {
+        return jobs.values().stream()
+                .filter(job -> job.username.equals(username))
+                .sorted(Comparator.comparing((ExportJob job) -> job.submittedAt).reversed())
+                .map(this::toResponse)
+                .toList();
+    }
+
+    /** The finished file of a completed job, for download. */
+    public Optional<ExportFile> getFile(String jobId, String username) {
+        return findJob(jobId, username)
+                .filter(job -> STATUS_COMPLETED.equals(job.status))
+                .map(job -> new ExportFile(job.file, job.format, fileName(job)));
+    }
+
+    /** Stops a queued or running job and deletes its file; a finished job is just deleted. */
+    public boolean cancel(String jobId, String username) {
+        Optional<ExportJob> found = findJob(jobId, username);
+        found.ifPresent(job -> {
+            jobs.remove(jobId);
+            // Under the job's lock so a running job cannot publish its file in between
+            synchronized (job) {
+                job.cancelled = true;
+                if (!STATUS_RUNNING.equals(job.status)) {
+                    deleteFiles(job);
+                }
+            }
+        });
+        return found.isPresent();
+    }
+
+    @Scheduled(fixedDelayString = "${exports.cleanup-interval:10m}")
+    public void evictExpiredJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            boolean expired = job.finishedAt != null && job.finishedAt.isBefore(cutoff);
+            if (expired) {
+                deleteFiles(job);
+            }
+            return expired;
+        });
+    }
+
+    private void run(ExportJob job) {
+        synchronized (job) {
+            if (job.cancelled) {
+                return;
+            }
+            job.status = STATUS_RUNNING;
+        }
+        Path part = job.file.resolveSibling(job.file.getFileName() + PART_SUFFIX);
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        try (StatelessSession session = sessionFactory.openStatelessSession()) {
+            // The driver only streams with a fetch size inside a transaction
+            session.beginTransaction();
+            session.doWork(connection -> connection.setReadOnly(true));
+            try {
+                job.totalRows = bind(job, session.createSelectionQuery(
+                        job.type.countQuery(job.from != null, job.to != null), Long.class)).getSingleResult();
+                SelectionQuery<Object[]> rows = bind(job, session.createSelectionQuery(
+                        job.type.rowQuery(job.from != null, job.to != null), Object[].class))
+                        .setFetchSize(FETCH_SIZE);
+                try (ExportFileWriter writer = ExportFileWriter.open(job.format, part, job.type.headers());
+                     ScrollableResults<Object[]> results = rows.scroll(ScrollMode.FORWARD_ONLY)) {
+                    long written = 0;
+                    while (!job.cancelled && results.next()) {
+                        writer.writeRow(results.get());
+                        if (++written % FETCH_SIZE == 0) {
+                            job.rowsWritten = written;
+                        }
+                    }
+                    job.rowsWritten = written;
+                    if (!job.cancelled) {
+                        writer.finish();
+                    }
+                }
+            } finally {
+                session.getTransaction().rollback();
+            }
+            // A cancel either lands before the move and discards the part file, or after the job
+            // completed and deletes the finished file
+            synchronized (job) {
+                if (job.cancelled) {
+                    job.status = STATUS_CANCELLED;
+                    deleteFiles(job);
+                } else {
+                    Files.move(part, job.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    job.sizeBytes = Files.size(job.file);
+                    job.status = STATUS_COMPLETED;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Export {} ({} for office {}) failed", job.id, job.type, job.officeId, e);
+            job.error = e.getMessage() == null ? "Export failed" : e.getMessage();
+            job.status = STATUS_FAILED;
+            deleteFiles(job);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private static <Q extends SelectionQuery<?>> Q bind(ExportJob job, Q query) {
+        query.setParameter("officeId", job.officeId);
+        if (job.from != null) {
+            query.setParameter("from", job.from.atStartOfDay());
+        }
+        if (job.to != null) {
+            // Ranges are inclusive of their last day
+            query.setParameter("to", job.to.plusDays(1).atStartOfDay());
+        }
+        return query;
+    }
+
+    private Optional<ExportJob> findJob(String jobId, String username) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null || !job.username.equals(username)) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    private void deleteFiles(ExportJob job) {
+        try {
+            Files.deleteIfExists(job.file);
+            Files.deleteIfExists(job.file.resolveSibling(job.file.getFileName() + PART_SUFFIX));
+        } catch (IOException e) {
+            log.warn("Could not delete export file {}", job.file, e);
+        }
+    }
+
+    private ExportJobResponse toResponse(ExportJob job) {
+        ExportJobResponse response = new ExportJobResponse();
+        response.setJobId(job.id);
+        response.setType(job.type.name().toLowerCase(Locale.ROOT));
+        response.setFormat(job.format);
+        response.setOfficeId(job.officeId);
+        response.setStatus(job.status);
+        response.setRowsWritten(job.rowsWritten);
+        response.setTotalRows(job.totalRows);
+        response.setError(job.error);
+        response.setFileName(fileName(job));
+        response.setSubmittedAt(job.submittedAt);
+        response.setFinishedAt(job.finishedAt);
+        if (STATUS_COMPLETED.equals(job.status)) {
+            response.setSizeBytes(job.sizeBytes);
+            response.setDownloadUrl("/api/exports/" + job.id + "/download");
+        }
+        return response;
+    }
+
+    /** Name the file is downloaded as; a CSV is sent decompressed or with gzip content encoding. */
+    private static String fileName(ExportJob job) {
+        StringBuilder name = new StringBuilder(job.type.name().toLowerCase(Locale.ROOT))
+                .append("-office-").append(job.officeId);
+        if (job.from != null) {
+            name.append("-from-").append(job.from);
+        }
+        if (job.to != null) {
+            name.append("-to-").append(job.to);
+        }
+        return name.append('.').append(job.format).toString();
+    }
+
+    private static ExportType type(String type) {
+        if (type != null) {
+            for (ExportType candidate : ExportType.values()) {
+                if (candidate.name().equalsIgnoreCase(type.trim())) {
+                    return candidate;
+                }
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "type must be one of inventory, transactions, requests, purchases");
+    }
+
+    private static String format(String format) {
+        String normalized = format == null ? FORMAT_CSV : format.trim().toLowerCase(Locale.ROOT);
+        if (!FORMAT_CSV.equals(normalized) && !FORMAT_XLSX.equals(normalized)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "format must be csv or xlsx");
+        }
+        return normalized;
+    }
+
+    /** A completed export on disk; CSV files are stored gzip'd. */
+    public record ExportFile(Path path, String format, String fileName) {
+    }
+
+    private static class ExportJob {
+        private final String id;
+        private final String username;
+        private final ExportType type;
+        private final String format;
+        private final Long officeId;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final Path file;
+        private final LocalDateTime submittedAt = LocalDateTime.now();
+        private volatile String status = STATUS_PENDING;
+        private volatile long rowsWritten;
+        private volatile Long totalRows;
+        private volatile Long sizeBytes;
+        private volatile String error;
+        private volatile LocalDateTime finishedAt;
+        private volatile boolean cancelled;
+
+        private ExportJob(String id, String username, ExportType type, String format, Long officeId,
+                          LocalDate from, LocalDate to, Path file) {
+            this.id = id;
+            this.username = username;
+            this.type = type;
+            this.format = format;
+            this.officeId = officeId;
+            this.from = from;
+            this.to = to;
+            this.file = file;
+        }
+    }
+}
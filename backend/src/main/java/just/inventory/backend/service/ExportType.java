@@ -0,0 +1,101 @@
+package just.inventory.backend.service;
+
+import java.util.List;
+
+/**
+ * What each export contains: the column headers and the HQL the rows are scrolled from.
+ * The office and date filters only use paths on the root entity, so the same where clause
+ * also counts the rows without the joins.
+ */
+public enum ExportType {
+
+    INVENTORY(
+            List.of("ID", "Barcode", "Item", "Category", "Unit", "Status", "Serial Number", "Purchase Date",
+                    "Purchase Price", "Warranty Expiry", "Created At", "Remarks"),
+            "select i.id, i.barcode, it.name, c.name, u.name, i.status, i.serialNumber, i.purchaseDate, " +
+            "i.purchasePrice, i.warrantyExpiry, i.createdAt, i.remarks",
+            "from ItemInstance i join i.item it left join it.category c left join it.unit u",
+            "from ItemInstance i",
+            "i.ownerOffice.id = :officeId",
+            "coalesce(i.purchaseDate, i.createdAt)",
+            "i.id"),
+
+    TRANSACTIONS(
+            List.of("ID", "Date", "Type", "Status", "Barcode", "Item", "From Office", "To Office", "Quantity",
+                    "User", "Confirmed Date", "Remarks"),
+            "select t.id, t.transactionDate, t.transactionType, t.status, ii.barcode, it.name, fo.name, tof.name, " +
+            "t.quantity, us.username, t.confirmedDate, t.remarks",
+            "from ItemTransaction t join t.itemInstance ii join ii.item it left join t.fromOffice fo " +
+            "left join t.toOffice tof left join t.user us",
+            "from ItemTransaction t",
+            "(t.fromOffice.id = :officeId or t.toOffice.id = :officeId)",
+            "t.transactionDate",
+            "t.transactionDate, t.id"),
+
+    REQUESTS(
+            List.of("ID", "Requested Date", "Item", "Requesting Office", "Parent Office", "Status", "Requested",
+                    "Approved", "Fulfilled", "Requested By", "Approved Date", "Fulfilled Date", "Reason"),
+            "select r.id, r.requestedDate, it.name, ro.name, po.name, r.status, r.requestedQuantity, " +
+            "r.approvedQuantity, r.fulfilledQuantity, rb.username, r.approvedDate, r.fulfilledDate, r.reason",
+            "from ItemRequest r join r.item it join r.requestingOffice ro join r.parentOffice po " +
+            "left join r.requestedBy rb",
+            "from ItemRequest r",
+            "(r.requestingOffice.id = :officeId or r.parentOffice.id = :officeId)",
+            "r.requestedDate",
+            "r.requestedDate, r.id"),
+
+    // One row per purchase line
+    PURCHASES(
+            List.of("Purchase ID", "Date", "Supplier", "Invoice", "Item", "Quantity", "Unit Price", "Total",
+                    "Purchased By"),
+            "select p.id, p.purchasedDate, p.supplier, p.invoiceNumber, it.name, pi.quantity, pi.unitPrice, " +
+            "pi.quantity * pi.unitPrice, pb.username",
+            "from PurchaseItem pi join pi.purchase p join pi.item it left join p.purchasedBy pb",
+            "from PurchaseItem pi join pi.purchase p",
+            "p.office.id = :officeId",
+            "p.purchasedDate",
+            "p.purchasedDate, p.id, pi.id");
+
+    private final List<String> headers;
+    private final String select;
+    private final String from;
+    private final String countFrom;
+    private final String officeFilter;
+    private final String dateExpression;
+    private final String orderBy;
+
+    ExportType(List<String> headers, String select, String from, String countFrom, String officeFilter,
+               String dateExpression, String orderBy) {
+        this.headers = headers;
+        this.select = select;
+        this.from = from;
+        this.countFrom = countFrom;
+        this.officeFilter = officeFilter;
+        this.dateExpression = dateExpression;
+        this.orderBy = orderBy;
+    }
+
+    public List<String> headers() {
+        return headers;
+    }
+
+    /** Rows of one office, optionally bounded by {@code :from} (inclusive) and {@code :to} (exclusive). */
+    public String rowQuery(boolean hasFrom, boolean hasTo) {
+        return select + " " + from + where(hasFrom, hasTo) + " order by " + orderBy;
+    }
+
+    public String countQuery(boolean hasFrom, boolean hasTo) {
+        return "select count(*) " + countFrom + where(hasFrom, hasTo);
+    }
+
+    private String where(boolean hasFrom, boolean hasTo) {
+        StringBuilder where = new StringBuilder(" where ").append(officeFilter);
+        if (hasFrom) {
+            where.append(" and ").append(dateExpression).append(" >= :from");
+        }
+        if (hasTo) {
+            where.append(" and ").append(dateExpression).append(" < :to");
+        }
+        return where.toString();
+    }
+}
@@ -0,0 +1,216 @@
+package just.inventory.backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Health tracker for the Gemini provider.
+ * Keeps a rolling window of the most recent call outcomes and opens the circuit when
+ * too many of them failed or were slow. While open, callers skip the provider entirely;
+ * after the cool-down a single probe call is let through (half-open) to decide whether
+ * to close again.
+ * <p>
+ * Every admitted call holds a {@link Permit} and reports its outcome with it. A permit only
+ * counts in the closed or open period it was issued in, and in half-open state only the probe's
+ * permit decides the state: a slow call admitted before the circuit opened can neither close it
+ * nor release the probe slot when it finally returns.
+ */
+@Component
+public class GeminiCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /** Permission for one provider call; hand it back through exactly one of the reporting methods. */
+    public static final class Permit {
+
+        private final long generation;
+        private final boolean probe;
+
+        private Permit(long generation, boolean probe) {
+            this.generation = generation;
+            this.probe = probe;
+        }
+    }
+
+    @Value("${ai.requisition.breaker.window-size:20}")
+    private int windowSize;
+
+    @Value("${ai.requisition.breaker.minimum-calls:5}")
+    private int minimumCalls;
+
+    @Value("${ai.requisition.breaker.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${ai.requisition.breaker.slow-call-threshold:10s}")
+    private Duration slowCallThreshold;
+
+    @Value("${ai.requisition.breaker.slow-call-rate-threshold:0.8}")
+    private double slowCallRateThreshold;
+
+    @Value("${ai.requisition.breaker.open-duration:30s}")
+    private Duration openDuration;
+
+    private State state = State.CLOSED;
+    private boolean[] failures;
+    private long[] latenciesNanos;
+    private int recorded;
+    private int nextSlot;
+    private long openedAtNanos;
+    private LocalDateTime lastOpenedAt;
+    private boolean probeInFlight;
+    // Bumped on every state change, so permits of an earlier period are recognized
+    private long generation;
+    private long rejectedCalls;
+
+    /**
+     * @return the permit for a provider call now, or null if the call must be skipped. In
+     * half-open state only one probe is admitted.
+     */
+    public synchronized Permit tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openDuration.toNanos()) {
+                rejectedCalls++;
+                return null;
+            }
+            state = State.HALF_OPEN;
+            generation++;
+            probeInFlight = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probeInFlight) {
+                rejectedCalls++;
+                return null;
+            }
+            probeInFlight = true;
+            return new Permit(generation, true);
+        }
+        return new Permit(generation, false);
+    }
+
+    /**
+     * Returns a permit that was acquired but never used for a provider call.
+     */
+    public synchronized void releasePermission(Permit permit) {
+        if (isCurrentProbe(permit)) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized void onSuccess(Permit permit, long latencyNanos) {
+        if (isCurrentProbe(permit)) {
+            transitionTo(State.CLOSED);
+        } else if (isCurrent(permit)) {
+            record(false, latencyNanos);
+        }
+    }
+
+    public synchronized void onFailure(Permit permit, long latencyNanos) {
+        if (isCurrentProbe(permit)) {
+            transitionTo(State.OPEN);
+        } else if (isCurrent(permit)) {
+            record(true, latencyNanos);
+        }
+    }
+
+    public synchronized State getState() {
+        // Report an expired open window as half-open so readers see when a probe is allowed
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDuration.toNanos()) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    public synchronized long getRejectedCalls() {
+        return rejectedCalls;
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("state", getState().name());
+        snapshot.put("windowCalls", recorded);
+        snapshot.put("failureRate", failureRate());
+        snapshot.put("slowCallRate", slowCallRate());
+        snapshot.put("averageLatencyMs", averageLatencyNanos() / 1_000_000);
+        snapshot.put("rejectedCalls", rejectedCalls);
+        snapshot.put("lastOpenedAt", lastOpenedAt);
+        return snapshot;
+    }
+
+    private boolean isCurrent(Permit permit) {
+        return permit.generation == generation && !permit.probe;
+    }
+
+    private boolean isCurrentProbe(Permit permit) {
+        return permit.generation == generation && permit.probe && state == State.HALF_OPEN;
+    }
+
+    private void record(boolean failed, long latencyNanos) {
+        ensureWindow();
+        failures[nextSlot] = failed;
+        latenciesNanos[nextSlot] = latencyNanos;
+        nextSlot = (nextSlot + 1) % windowSize;
+        recorded = Math.min(recorded + 1, windowSize);
+
+        if (state == State.CLOSED && recorded >= minimumCalls
+                && (failureRate() >= failureRateThreshold || slowCallRate() >= slowCallRateThreshold)) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        generation++;
+        probeInFlight = false;
+        if (newState == State.OPEN) {
+            openedAtNanos = System.nanoTime();
+            lastOpenedAt = LocalDateTime.now();
+        }
+        // Start every closed or open period with a fresh window
+        recorded = 0;
+        nextSlot = 0;
+    }
+
+    private void ensureWindow() {
+        if (failures == null) {
+            failures = new boolean[windowSize];
+            latenciesNanos = new long[windowSize];
+        }
+    }
+
+    private double failureRate() {
+        if (recorded == 0) return 0.0;
+        int failed = 0;
+        for (int i = 0; i < recorded; i++) {
+            if (failures[i]) failed++;
+        }
+        return failed / (double) recorded;
+    }
+
+    private double slowCallRate() {
+        if (recorded == 0) return 0.0;
+        long slowNanos = slowCallThreshold.toNanos();
+        int slow = 0;
+        for (int i = 0; i < recorded; i++) {
+            if (latenciesNanos[i] >= slowNanos) slow++;
+        }
+        return slow / (double) recorded;
+    }
+
+    private long averageLatencyNanos() {
+        if (recorded == 0) return 0L;
+        long total = 0L;
+        for (int i = 0; i < recorded; i++) {
+            total += latenciesNanos[i];
+        }
+        return total / recorded;
+    }
+}
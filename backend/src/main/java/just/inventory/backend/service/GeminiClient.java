@@ -0,0 +1,212 @@
+package just.inventory.backend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Thin transport for the Gemini generateContent API.
+ * One HttpClient is shared for the lifetime of the application so connections
+ * (and the TLS handshake) are reused across suggestion calls.
+ */
+@Component
+public class GeminiClient {
+
+    private static final String DEFAULT_API_URL = "https://generativelanguage.googleapis.com/v1beta";
+    private static final String DEFAULT_MODEL = "gemini-2.0-flash";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ai.requisition.enabled:true}")
+    private boolean aiEnabled;
+
+    /**
+     * Base URL of the models API. Leave blank for Google's endpoint; tests point it at
+     * the local stub server in src/test (support.StubGeminiServer).
+     */
+    @Value("${ai.requisition.api-url:}")
+    private String apiUrl;
+
+    /**
+     * Default model: gemini-2.0-flash (fast and cost-effective).
+     * Override via application.properties: ai.requisition.model=gemini-1.5-pro
+     */
+    @Value("${ai.requisition.model:gemini-2.0-flash}")
+    private String aiModel;
+
+    /**
+     * Injected from the secret stored in the environment / secret manager.
+     * In Spring Boot, expose the secret as the env-var GEMINI_API_KEY and add
+     *   ai.requisition.api-key=${GEMINI_API_KEY}
+     * to application.properties (or application.yml).
+     */
+    @Value("${ai.requisition.api-key:}")
+    private String geminiApiKey;
+
+    @Value("${ai.requisition.request-timeout:35s}")
+    private Duration requestTimeout;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    public boolean isConfigured() {
+        return aiEnabled && geminiApiKey != null && !geminiApiKey.isBlank();
+    }
+
+    public String getModel() {
+        // application.yaml maps an unset AI_REQUISITION_MODEL to an empty string
+        return aiModel == null || aiModel.isBlank() ? DEFAULT_MODEL : aiModel.trim();
+    }
+
+    // -----------------------------------------------------------------------
+    // Gemini REST call
+    // Endpoint: POST {api-url}/models/{model}:generateContent?key={apiKey}
+    // -----------------------------------------------------------------------
+
+    public String generate(String prompt) {
+        try {
+            /*
+             * Gemini request body:
+             * {
+             *   "system_instruction": { "parts": [{ "text": "..." }] },
+             *   "contents": [{ "parts": [{ "text": "..." }] }],
+             *   "generationConfig": { "temperature": 0.2, "responseMimeType": "application/json" }
+             * }
+             *
+             * responseMimeType = "application/json" tells Gemini to return pure JSON —
+             * no markdown fences. Supported on gemini-1.5-* and gemini-2.0-*.
+             */
+            Map<String, Object> systemInstruction = Map.of(
+                    "parts", List.of(Map.of("text", "You return only valid JSON. Do not wrap output in markdown code fences."))
+            );
+
+            Map<String, Object> userContent = Map.of(
+                    "parts", List.of(Map.of("text", prompt))
+            );
+
+            Map<String, Object> generationConfig = new HashMap<>();
+            generationConfig.put("temperature", 0.2);
+            generationConfig.put("responseMimeType", "application/json");
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("system_instruction", systemInstruction);
+            body.put("contents", List.of(userContent));
+            body.put("generationConfig", generationConfig);
+
+            String payload = objectMapper.writeValueAsString(body);
+
+            String url = String.format(
+                    "%s/models/%s:generateContent?key=%s",
+                    resolveApiUrl(), getModel(), geminiApiKey
+            );
+
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .timeout(requestTimeout)
+                    .POST(HttpRequest.BodyPublishers.ofString(payload))
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+            if (response.statusCode() >= 400) {
+                String providerMessage = extractProviderErrorMessage(response.body());
+                String reason = "Gemini API error " + response.statusCode();
+                if (!providerMessage.isBlank()) {
+                    reason += ": " + providerMessage;
+                }
+
+                // 429 → quota / rate limit
+                if (response.statusCode() == 429) {
+                    throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, reason);
+                }
+
+                // 400 with INVALID_API_KEY or similar → treat as service-unavailable so fallback kicks in
+                if (response.statusCode() == 400 || response.statusCode() == 403) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                            "Gemini API key or request invalid (" + response.statusCode() + "). " + providerMessage);
+                }
+
+                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, reason);
+            }
+
+            /*
+             * Gemini success response shape:
+             * {
+             *   "candidates": [{
+             *     "content": {
+             *       "parts": [{ "text": "..." }]
+             *     }
+             *   }]
+             * }
+             */
+            JsonNode root = objectMapper.readTree(response.body());
+            JsonNode textNode = root
+                    .path("candidates").path(0)
+                    .path("content").path("parts").path(0)
+                    .path("text");
+
+            String content = textNode.asText("").trim();
+            if (content.isBlank()) {
+                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                        "Gemini returned empty content");
+            }
+            return content;
+
+        } catch (ResponseStatusException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Gemini call interrupted", e);
+        } catch (Exception e) {
+            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
+                    "Failed to fetch Gemini suggestions", e);
+        }
+    }
+
+    private String resolveApiUrl() {
+        if (apiUrl == null || apiUrl.isBlank()) {
+            return DEFAULT_API_URL;
+        }
+        String trimmed = apiUrl.trim();
+        return trimmed.endsWith("/") ? trimmed.substring(0, trimmed.length() - 1) : trimmed;
+    }
+
+    // -----------------------------------------------------------------------
+    // Error message extractor (handles Gemini error envelope too)
+    // -----------------------------------------------------------------------
+
+    private String extractProviderErrorMessage(String responseBody) {
+        if (responseBody == null || responseBody.isBlank()) return "";
+        try {
+            JsonNode root = objectMapper.readTree(responseBody);
+
+            // Gemini error shape: { "error": { "message": "..." } }
+            String message = root.path("error").path("message").asText("").trim();
+            if (!message.isBlank()) return message;
+
+            message = root.path("message").asText("").trim();
+            if (!message.isBlank()) return message;
+        } catch (Exception ignored) {
+            // fall through to raw snippet
+        }
+        String compact = responseBody.replaceAll("\\s+", " ").trim();
+        return compact.length() > 200 ? compact.substring(0, 200) + "..." : compact;
+    }
+}
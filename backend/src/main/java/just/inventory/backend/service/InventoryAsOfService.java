@@ -0,0 +1,308 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.AsOfInstance;
+import just.inventory.backend.dto.InstanceOwner;
+import just.inventory.backend.dto.InventoryAsOf;
+import just.inventory.backend.model.InventorySnapshot;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.repository.InventorySnapshotRepository;
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.repository.ItemTransactionRepository;
+import just.inventory.backend.repository.OfficeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * What an office held at any past moment, rebuilt from confirmed movements.
+ * <p>
+ * {@code item_instances} only records where each instance is now. At a time t an instance belongs
+ * to the destination of its last movement confirmed by t; before its first confirmed movement it
+ * belongs to that movement's source, and if it never moved, to its current owner. Each
+ * {@code as-of.snapshots.interval} the holdings of every office are stored as an
+ * {@link InventorySnapshot}; a query starts from the office's latest snapshot at or before t and
+ * only replays the instances created and moved since, so it never replays more than one interval.
+ * Which of the instances created in between started out in the office is stored with the next
+ * snapshot; only after the latest snapshot is it looked up per instance.
+ * <p>
+ * Only ownership is rebuilt: status changes leave no history. Owner changes made around the
+ * movement log, such as editing an instance directly, are not seen either.
+ */
+@Service
+public class InventoryAsOfService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryAsOfService.class);
+
+    // Snapshot boundaries are whole intervals from here, the same on every instance
+    private static final LocalDateTime BOUNDARY_ORIGIN = LocalDateTime.of(2000, 1, 1, 0, 0);
+    // Replays start here while an office has no snapshot yet
+    private static final LocalDateTime BEGINNING = LocalDateTime.of(1900, 1, 1, 0, 0);
+
+    @Autowired
+    private InventorySnapshotRepository snapshotRepository;
+
+    @Autowired
+    private ItemInstanceRepository itemInstanceRepository;
+
+    @Autowired
+    private ItemTransactionRepository itemTransactionRepository;
+
+    @Autowired
+    private OfficeRepository officeRepository;
+
+    @Autowired
+    private ItemTransactionPartitionService partitionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${as-of.snapshots.enabled:true}")
+    private boolean snapshotsEnabled;
+
+    @Value("${as-of.snapshots.interval:30d}")
+    private Duration interval;
+
+    @Value("${as-of.snapshots.settle-time:1h}")
+    private Duration settleTime;
+
+    @Transactional(readOnly = true)
+    public InventoryAsOf getInventoryAsOf(Long officeId, LocalDateTime asOf) {
+        if (!officeRepository.existsById(officeId)) {
+            throw new RuntimeException("Office not found");
+        }
+        Optional<InventorySnapshot> snapshot =
+                snapshotRepository.findFirstByOfficeIdAndTakenAtLessThanEqualOrderByTakenAtDesc(officeId, asOf);
+        LocalDateTime from = snapshot.map(InventorySnapshot::getTakenAt).orElse(BEGINNING);
+        // The next snapshot knows which instances created since started out here
+        List<Long> created = snapshotRepository.findFirstByOfficeIdAndTakenAtGreaterThanOrderByTakenAt(officeId, from)
+                .map(next -> next.getCreatedCount() == 0 ? List.<Long>of()
+                        : itemInstanceRepository.findIdsCreatedUpTo(
+                                boxed(decode(next.getCreatedIds(), next.getCreatedCount())), asOf))
+                .orElseGet(() -> itemInstanceRepository.findIdsCreatedInOffice(officeId, from, asOf));
+        Replay replay = replay(officeId, snapshot.map(InventoryAsOfService::instanceIds).orElse(new long[0]),
+                created, from, asOf);
+
+        Map<Long, List<AsOfInstance>> byItem = new LinkedHashMap<>();
+        if (replay.instanceIds().length > 0) {
+            for (AsOfInstance instance : itemInstanceRepository.findAsOfInstances(boxed(replay.instanceIds()))) {
+                byItem.computeIfAbsent(instance.getItemId(), itemId -> new ArrayList<>()).add(instance);
+            }
+        }
+        List<InventoryAsOf.ItemHolding> items = byItem.values().stream()
+                .map(instances -> new InventoryAsOf.ItemHolding(
+                        instances.get(0).getItemId(),
+                        instances.get(0).getItemName(),
+                        instances.size(),
+                        instances.stream()
+                                .map(instance -> new InventoryAsOf.HeldInstance(instance.getInstanceId(),
+                                        instance.getBarcode()))
+                                .toList()))
+                .toList();
+        return new InventoryAsOf(officeId, asOf, snapshot.map(InventorySnapshot::getTakenAt).orElse(null),
+                replay.replayed(), replay.instanceIds().length, items);
+    }
+
+    @Scheduled(initialDelayString = "${as-of.snapshots.initial-delay:1m}",
+               fixedDelayString = "${as-of.snapshots.check-interval:1h}")
+    public void scheduledSnapshots() {
+        if (!snapshotsEnabled) {
+            return;
+        }
+        try {
+            takeDueSnapshots(LocalDateTime.now());
+        } catch (DataIntegrityViolationException e) {
+            log.info("Inventory snapshots are being taken by another instance");
+        }
+    }
+
+    /**
+     * Snapshots every boundary passed by {@code now} that has no snapshot yet, oldest first. The
+     * first snapshot goes at the boundary before the first instance was created. A boundary is
+     * only taken once {@code as-of.snapshots.settle-time} has passed, by when movements confirmed
+     * before it have committed.
+     *
+     * @return how many boundaries were snapshotted
+     */
+    public int takeDueSnapshots(LocalDateTime now) {
+        LocalDateTime last = boundaryAtOrBefore(now.minus(settleTime));
+        LocalDateTime next = snapshotRepository.findLatestTakenAt()
+                .map(latest -> latest.plus(interval))
+                .orElseGet(() -> itemInstanceRepository.findEarliestCreatedAt()
+                        .map(this::boundaryAtOrBefore)
+                        .orElse(last));
+        int taken = 0;
+        for (LocalDateTime boundary = next; !boundary.isAfter(last); boundary = boundary.plus(interval)) {
+            takeSnapshot(boundary);
+            taken++;
+        }
+        return taken;
+    }
+
+    /**
+     * Stores the holdings of every office at {@code boundary}, replayed from the previous snapshot.
+     * Unlike a query, which only sees the movements into and out of its office, this replays every
+     * moved instance into its last destination and out of all other offices, so each instance is
+     * held by exactly one office at every boundary.
+     */
+    private void takeSnapshot(LocalDateTime boundary) {
+        long started = System.nanoTime();
+        int instances = transactionTemplate.execute(status -> {
+            if (snapshotRepository.existsByTakenAt(boundary)) {
+                return 0;
+            }
+            partitionService.holdOffMaintenance();
+            List<Office> offices = officeRepository.findAll();
+            List<InventorySnapshot> previous = snapshotRepository.findByTakenAt(
+                    snapshotRepository.findLatestTakenAt().orElse(null));
+            LocalDateTime from = previous.isEmpty() ? BEGINNING : previous.get(0).getTakenAt();
+
+            Map<Long, Set<Long>> held = new HashMap<>();
+            for (Office office : offices) {
+                held.put(office.getId(), new HashSet<>());
+            }
+            for (InventorySnapshot snapshot : previous) {
+                for (long id : instanceIds(snapshot)) {
+                    held.get(snapshot.getOffice().getId()).add(id);
+                }
+            }
+            // One pass over the new instances for all offices instead of one per office
+            Map<Long, List<Long>> created = new HashMap<>();
+            for (InstanceOwner origin : itemInstanceRepository.findOriginsCreatedBetween(from, boundary)) {
+                created.computeIfAbsent(origin.getOfficeId(), officeId -> new ArrayList<>())
+                        .add(origin.getInstanceId());
+                held.get(origin.getOfficeId()).add(origin.getInstanceId());
+            }
+            Map<Long, Long> movedTo = new HashMap<>();
+            for (Office office : offices) {
+                for (InstanceOwner owner : itemTransactionRepository.findLastConfirmedOwners(office.getId(),
+                        from, boundary)) {
+                    movedTo.put(owner.getInstanceId(), owner.getOfficeId());
+                }
+            }
+            for (Set<Long> ids : held.values()) {
+                ids.removeAll(movedTo.keySet());
+            }
+            movedTo.forEach((id, officeId) -> held.get(officeId).add(id));
+
+            List<InventorySnapshot> snapshots = new ArrayList<>();
+            int total = 0;
+            for (Office office : offices) {
+                long[] ids = held.get(office.getId()).stream().mapToLong(Long::longValue).sorted().toArray();
+                InventorySnapshot snapshot = new InventorySnapshot();
+                snapshot.setOffice(office);
+                snapshot.setTakenAt(boundary);
+                snapshot.setInstanceCount(ids.length);
+                snapshot.setInstanceIds(encode(ids));
+                long[] createdIds = created.getOrDefault(office.getId(), List.of()).stream()
+                        .mapToLong(Long::longValue).sorted().toArray();
+                snapshot.setCreatedCount(createdIds.length);
+                snapshot.setCreatedIds(encode(createdIds));
+                snapshots.add(snapshot);
+                total += ids.length;
+            }
+            snapshotRepository.saveAll(snapshots);
+            return total;
+        });
+        log.info("Took inventory snapshots at {} ({} instances) in {} ms", boundary, instances,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * The office's holdings at {@code to}, from those at {@code from} plus the instances created in
+     * {@code (from, to]} that started out there, with the instances moved in that window placed
+     * at their last destination.
+     */
+    private Replay replay(Long officeId, long[] held, Collection<Long> created,
+                         LocalDateTime from, LocalDateTime to) {
+        Set<Long> ids = new HashSet<>(held.length + created.size());
+        for (long id : held) {
+            ids.add(id);
+        }
+        ids.addAll(created);
+        List<InstanceOwner> moved = itemTransactionRepository.findLastConfirmedOwners(officeId, from, to);
+        for (InstanceOwner owner : moved) {
+            if (officeId.equals(owner.getOfficeId())) {
+                ids.add(owner.getInstanceId());
+            } else {
+                ids.remove(owner.getInstanceId());
+            }
+        }
+        long[] sorted = ids.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new Replay(sorted, created.size() + moved.size());
+    }
+
+    private LocalDateTime boundaryAtOrBefore(LocalDateTime time) {
+        long seconds = Duration.between(BOUNDARY_ORIGIN, time).toSeconds();
+        return BOUNDARY_ORIGIN.plusSeconds(Math.floorDiv(seconds, interval.toSeconds()) * interval.toSeconds());
+    }
+
+    private static long[] instanceIds(InventorySnapshot snapshot) {
+        return decode(snapshot.getInstanceIds(), snapshot.getInstanceCount());
+    }
+
+    private static Long[] boxed(long[] ids) {
+        Long[] boxed = new Long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            boxed[i] = ids[i];
+        }
+        return boxed;
+    }
+
+    /** Ascending ids as the unsigned LEB128 varint of each one's gap to the previous one. */
+    static byte[] encode(long[] ids) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ids.length * 2);
+        long previous = 0;
+        for (long id : ids) {
+            long gap = id - previous;
+            while ((gap & ~0x7FL) != 0) {
+                out.write((int) (gap & 0x7F) | 0x80);
+                gap >>>= 7;
+            }
+            out.write((int) gap);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    static long[] decode(byte[] bytes, int count) {
+        long[] ids = new long[count];
+        long previous = 0;
+        int position = 0;
+        for (int i = 0; i < count; i++) {
+            long gap = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes[position++];
+                gap |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            previous += gap;
+            ids[i] = previous;
+        }
+        return ids;
+    }
+
+    /** The ids held after a replay, ascending, and how many created and moved instances it went through. */
+    private record Replay(long[] instanceIds, int replayed) {
+    }
+}
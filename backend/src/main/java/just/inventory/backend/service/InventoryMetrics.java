@@ -0,0 +1,116 @@
+package just.inventory.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import just.inventory.backend.model.ItemRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Business meters for the inventory workflows, published on {@code /actuator/prometheus}.
+ * <p>
+ * Method latencies are recorded with {@code @Timed} on the services themselves; this class
+ * holds the counters that need a value from inside the method (units purchased, labels
+ * rendered, request state changes) and the meters around the Gemini provider and the JWT filter.
+ * All meter names start with {@code inventory.}.
+ */
+@Component
+public class InventoryMetrics {
+
+    public static final String PURCHASES = "inventory.purchases";
+    public static final String DISTRIBUTIONS = "inventory.distributions";
+    public static final String BARCODE_RENDER = "inventory.barcode.render";
+
+    private final MeterRegistry registry;
+
+    public InventoryMetrics(MeterRegistry registry, GeminiCircuitBreaker circuitBreaker) {
+        this.registry = registry;
+
+        for (GeminiCircuitBreaker.State state : GeminiCircuitBreaker.State.values()) {
+            Gauge.builder("inventory.ai.gemini.breaker.state", circuitBreaker, b -> b.getState() == state ? 1 : 0)
+                    .description("1 for the current circuit breaker state, 0 otherwise")
+                    .tag("state", state.name())
+                    .register(registry);
+        }
+        FunctionCounter.builder("inventory.ai.gemini.breaker.rejected", circuitBreaker,
+                        GeminiCircuitBreaker::getRejectedCalls)
+                .description("Provider calls skipped because the circuit was open")
+                .register(registry);
+    }
+
+    /**
+     * Units turned into item instances by a purchase; {@code rate()} of this is units per second.
+     */
+    public void unitsPurchased(long units) {
+        Counter.builder("inventory.purchase.units").register(registry).increment(units);
+    }
+
+    /**
+     * Item instances moved by a distribution operation ({@code reserve}, {@code confirm} or {@code reject}).
+     */
+    public void itemsDistributed(String operation, long items) {
+        Counter.builder("inventory.distribution.items")
+                .tag("operation", operation)
+                .register(registry)
+                .increment(items);
+    }
+
+    /**
+     * An item request changing status. {@code from} is null for newly created requests.
+     */
+    public void requestTransition(ItemRequest.RequestStatus from, ItemRequest.RequestStatus to) {
+        Counter.builder("inventory.item_requests.transitions")
+                .tag("from", from == null ? "NEW" : from.name())
+                .tag("to", to.name())
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Labels requested from a batch rendering call. Single-label formats render one label per
+     * call, so their timer already is the time per label; for batch formats it is
+     * {@code inventory_barcode_render_seconds_sum / inventory_barcode_labels_total}.
+     */
+    public void labelsRendered(String format, long labels) {
+        Counter.builder("inventory.barcode.labels")
+                .tag("format", format)
+                .register(registry)
+                .increment(labels);
+    }
+
+    /**
+     * One Gemini HTTP call, successful or not.
+     */
+    public void geminiCall(long latencyNanos, String outcome) {
+        Timer.builder("inventory.ai.gemini.calls")
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Where an AI suggestion came from: {@code cache}, {@code coalesced} (joined an identical
+     * in-flight call), {@code provider}, or why the provider was skipped ({@code breaker_open},
+     * {@code saturated}).
+     */
+    public void suggestionSource(String source) {
+        Counter.builder("inventory.ai.suggestions")
+                .tag("source", source)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Time spent authenticating a request in the JWT filter, excluding the rest of the chain.
+     */
+    public void jwtFilter(long latencyNanos, String outcome) {
+        Timer.builder("inventory.security.jwt.filter")
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(latencyNanos, TimeUnit.NANOSECONDS);
+    }
+}
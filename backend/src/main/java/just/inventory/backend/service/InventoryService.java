@@ -1,5 +1,7 @@
 package just.inventory.backend.service;
 
+import just.inventory.backend.dto.InventoryView;
+import just.inventory.backend.dto.ItemInstanceView;
 import just.inventory.backend.model.*;
 import just.inventory.backend.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -37,13 +39,23 @@ public class InventoryService {
         return inventory;
     }
 
-    public List<ItemInstance> getItemInstancesByOfficeId(Long officeId) {
-        Inventory inventory = getInventoryByOfficeId(officeId);
-        return itemInstanceRepository.findByInventoryId(inventory.getId());
+    public InventoryView getInventoryViewByOfficeId(Long officeId) {
+        Long inventoryId = getInventoryIdByOfficeId(officeId);
+        return new InventoryView(inventoryId, itemInstanceRepository.findViewsByInventoryId(inventoryId));
+    }
+
+    public List<ItemInstanceView> getItemInstancesByOfficeId(Long officeId) {
+        return itemInstanceRepository.findViewsByInventoryId(getInventoryIdByOfficeId(officeId));
+    }
+
+    private Long getInventoryIdByOfficeId(Long officeId) {
+        // Only load the entity graph when the inventory has to be created
+        return inventoryRepository.findIdByOfficeId(officeId)
+                .orElseGet(() -> getInventoryByOfficeId(officeId).getId());
     }
 
     public Map<String, Object> getInventorySummaryByOfficeId(Long officeId) {
-        List<ItemInstance> instances = getItemInstancesByOfficeId(officeId);
+        List<ItemInstanceView> instances = getItemInstancesByOfficeId(officeId);
         
         Map<String, Object> summary = new HashMap<>();
         summary.put("officeId", officeId);
@@ -51,42 +63,42 @@ public class InventoryService {
         
         // Calculate total value
         double totalValue = instances.stream()
-                .filter(i -> i.getPurchasePrice() != null)
-                .mapToDouble(ItemInstance::getPurchasePrice)
+                .filter(i -> i.purchasePrice() != null)
+                .mapToDouble(ItemInstanceView::purchasePrice)
                 .sum();
         summary.put("totalValue", totalValue);
         
         // Group by category
         Map<String, Long> byCategory = instances.stream()
-                .filter(i -> i.getItem() != null && i.getItem().getCategory() != null)
-                .collect(Collectors.groupingBy(i -> i.getItem().getCategory().getName(), Collectors.counting()));
+                .filter(i -> i.item() != null && i.item().category() != null)
+                .collect(Collectors.groupingBy(i -> i.item().category().name(), Collectors.counting()));
         summary.put("itemsByCategory", byCategory);
         
         // Group by status
         Map<String, Long> byStatus = instances.stream()
-                .collect(Collectors.groupingBy(i -> i.getStatus().name(), Collectors.counting()));
+                .collect(Collectors.groupingBy(i -> i.status().name(), Collectors.counting()));
         summary.put("itemsByStatus", byStatus);
         
         // Group by item for detailed breakdown
-        Map<String, List<ItemInstance>> byItem = instances.stream()
-                .collect(Collectors.groupingBy(i -> i.getItem().getName()));
+        Map<String, List<ItemInstanceView>> byItem = instances.stream()
+                .collect(Collectors.groupingBy(i -> i.item().name()));
         
         List<Map<String, Object>> itemSummaries = byItem.entrySet().stream()
                 .map(entry -> {
                     Map<String, Object> itemSummary = new HashMap<>();
                     itemSummary.put("itemName", entry.getKey());
-                    itemSummary.put("itemId", entry.getValue().get(0).getItem().getId());
+                    itemSummary.put("itemId", entry.getValue().get(0).item().id());
                     itemSummary.put("quantity", entry.getValue().size());
                     
                     double itemTotalValue = entry.getValue().stream()
-                            .filter(i -> i.getPurchasePrice() != null)
-                            .mapToDouble(ItemInstance::getPurchasePrice)
+                            .filter(i -> i.purchasePrice() != null)
+                            .mapToDouble(ItemInstanceView::purchasePrice)
                             .sum();
                     itemSummary.put("totalValue", itemTotalValue);
                     
                     // Group by status
                     Map<ItemInstance.ItemStatus, Long> statusCount = entry.getValue().stream()
-                            .collect(Collectors.groupingBy(ItemInstance::getStatus, Collectors.counting()));
+                            .collect(Collectors.groupingBy(ItemInstanceView::status, Collectors.counting()));
                     itemSummary.put("statusBreakdown", statusCount);
                     
                     return itemSummary;
@@ -98,8 +110,8 @@ public class InventoryService {
         return summary;
     }
 
-    public ItemInstance getItemInstanceById(Long id) {
-        return itemInstanceRepository.findById(id)
+    public ItemInstanceView getItemInstanceById(Long id) {
+        return itemInstanceRepository.findViewById(id)
                 .orElseThrow(() -> new RuntimeException("Item instance not found"));
     }
 }
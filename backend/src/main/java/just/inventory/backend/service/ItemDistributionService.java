@@ -1,5 +1,8 @@
 package just.inventory.backend.service;
 
+import io.micrometer.core.annotation.Timed;
+import just.inventory.backend.dto.ItemTransactionView;
+import just.inventory.backend.dto.OfficeEvent;
 import just.inventory.backend.model.*;
 import just.inventory.backend.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,13 +25,24 @@ public class ItemDistributionService {
     @Autowired
     private ItemTransactionRepository itemTransactionRepository;
 
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private OfficeEventService officeEventService;
+
     @Transactional
+    @Timed(value = InventoryMetrics.DISTRIBUTIONS, extraTags = {"operation", "reserve"})
     public List<ItemTransaction> distributeItems(Long fromOfficeId, Long toOfficeId, Long itemId, 
                                                    int quantity, User distributedBy, String remarks) {
         return distributeItems(fromOfficeId, toOfficeId, itemId, quantity, distributedBy, remarks, null);
     }
 
     @Transactional
+    @Timed(value = InventoryMetrics.DISTRIBUTIONS, extraTags = {"operation", "reserve"})
     public List<ItemTransaction> distributeItems(Long fromOfficeId, Long toOfficeId, Long itemId, 
                                                    int quantity, User distributedBy, String remarks, ItemRequest itemRequest) {
         // Validate offices
@@ -88,11 +102,19 @@ public class ItemDistributionService {
             
             transactions.add(itemTransactionRepository.save(transaction));
         }
-        
+
+        dashboardService.itemsChanged(fromInventory, itemId, ItemInstance.ItemStatus.AVAILABLE, -transactions.size());
+        dashboardService.itemsChanged(fromInventory, itemId, ItemInstance.ItemStatus.IN_USE, transactions.size());
+        dashboardService.transactionTransition(fromOffice, toOffice, null,
+                ItemTransaction.TransactionStatus.PENDING, transactions.size());
+        officeEventService.publish(OfficeEvent.DISTRIBUTIONS_PENDING,
+                itemRequest != null ? itemRequest.getId() : null, transactions.size(), toOffice);
+        inventoryMetrics.itemsDistributed("reserve", transactions.size());
         return transactions;
     }
 
     @Transactional
+    @Timed(value = InventoryMetrics.DISTRIBUTIONS, extraTags = {"operation", "confirm"})
     public ItemTransaction confirmDistribution(Long transactionId, User confirmedBy) {
         ItemTransaction transaction = itemTransactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
@@ -104,6 +126,8 @@ public class ItemDistributionService {
         // Transfer the item
         ItemInstance item = transaction.getItemInstance();
         Inventory toInventory = transaction.getToOffice().getInventory();
+        dashboardService.itemsChanged(item.getInventory(), item.getItem().getId(), item.getStatus(), -1);
+        dashboardService.itemsChanged(toInventory, item.getItem().getId(), ItemInstance.ItemStatus.AVAILABLE, 1);
         
         item.setInventory(toInventory);
         item.setOwnerOffice(transaction.getToOffice());
@@ -114,11 +138,15 @@ public class ItemDistributionService {
         transaction.setStatus(ItemTransaction.TransactionStatus.CONFIRMED);
         transaction.setConfirmedBy(confirmedBy);
         transaction.setConfirmedDate(LocalDateTime.now());
-        
+        dashboardService.transactionTransition(transaction.getFromOffice(), transaction.getToOffice(),
+                ItemTransaction.TransactionStatus.PENDING, ItemTransaction.TransactionStatus.CONFIRMED, 1);
+
+        inventoryMetrics.itemsDistributed("confirm", 1);
         return itemTransactionRepository.save(transaction);
     }
 
     @Transactional
+    @Timed(value = InventoryMetrics.DISTRIBUTIONS, extraTags = {"operation", "reject"})
     public ItemTransaction rejectDistribution(Long transactionId, User rejectedBy, String reason) {
         ItemTransaction transaction = itemTransactionRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found"));
@@ -129,6 +157,8 @@ public class ItemDistributionService {
         
         // Return item to available status in original inventory
         ItemInstance item = transaction.getItemInstance();
+        dashboardService.itemsChanged(item.getInventory(), item.getItem().getId(), item.getStatus(), -1);
+        dashboardService.itemsChanged(item.getInventory(), item.getItem().getId(), ItemInstance.ItemStatus.AVAILABLE, 1);
         item.setStatus(ItemInstance.ItemStatus.AVAILABLE);
         itemInstanceRepository.save(item);
         
@@ -137,31 +167,39 @@ public class ItemDistributionService {
         transaction.setConfirmedBy(rejectedBy);
         transaction.setConfirmedDate(LocalDateTime.now());
         transaction.setRemarks(transaction.getRemarks() + " | REJECTED: " + reason);
+        dashboardService.transactionTransition(transaction.getFromOffice(), transaction.getToOffice(),
+                ItemTransaction.TransactionStatus.PENDING, ItemTransaction.TransactionStatus.REJECTED, 1);
+
+        inventoryMetrics.itemsDistributed("reject", 1);
         
         return itemTransactionRepository.save(transaction);
     }
 
-    public List<ItemTransaction> getPendingDistributions(Long officeId) {
-        return itemTransactionRepository.findByToOfficeIdAndStatus(
+    @Transactional(readOnly = true)
+    public List<ItemTransactionView> getPendingDistributions(Long officeId) {
+        return itemTransactionRepository.findViewsByToOfficeIdAndStatus(
             officeId, ItemTransaction.TransactionStatus.PENDING);
     }
 
-    public List<ItemTransaction> getTransactionHistory(Long officeId) {
-        List<ItemTransaction> sent = itemTransactionRepository.findByFromOfficeId(officeId);
-        List<ItemTransaction> received = itemTransactionRepository.findByToOfficeId(officeId);
+    @Transactional(readOnly = true)
+    public List<ItemTransactionView> getTransactionHistory(Long officeId) {
+        List<ItemTransactionView> sent = itemTransactionRepository.findViewsByFromOfficeId(officeId);
+        List<ItemTransactionView> received = itemTransactionRepository.findViewsByToOfficeId(officeId);
         
-        List<ItemTransaction> all = new ArrayList<>();
+        List<ItemTransactionView> all = new ArrayList<>();
         all.addAll(sent);
         all.addAll(received);
         
         return all;
     }
 
-    public List<ItemTransaction> getItemTransactionHistory(Long itemInstanceId) {
-        return itemTransactionRepository.findByItemInstanceId(itemInstanceId);
+    @Transactional(readOnly = true)
+    public List<ItemTransactionView> getItemTransactionHistory(Long itemInstanceId) {
+        return itemTransactionRepository.findViewsByItemInstanceId(itemInstanceId);
     }
 
     @Transactional
+    @Timed(value = InventoryMetrics.DISTRIBUTIONS, extraTags = {"operation", "confirm_request"})
     public List<ItemTransaction> confirmDistributionsForRequest(Long itemRequestId, User confirmedBy) {
         List<ItemTransaction> transactions = itemTransactionRepository.findByItemRequestId(itemRequestId);
         List<ItemTransaction> confirmed = new ArrayList<>();
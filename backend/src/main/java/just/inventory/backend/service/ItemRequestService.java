@@ -1,15 +1,20 @@
 package just.inventory.backend.service;
 
+import just.inventory.backend.dto.CatalogItemName;
+import just.inventory.backend.dto.ItemDemandStats;
+import just.inventory.backend.dto.ItemRequestView;
+import just.inventory.backend.dto.ItemStockCount;
+import just.inventory.backend.dto.OfficeEvent;
+import just.inventory.backend.dto.RecentRequestLine;
 import just.inventory.backend.model.*;
 import just.inventory.backend.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ItemRequestService {
@@ -35,6 +40,15 @@ public class ItemRequestService {
     @Autowired
     private ItemDistributionService itemDistributionService;
 
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private OfficeEventService officeEventService;
+
     @Transactional
     public ItemRequest createItemRequest(ItemRequest itemRequest) {
         // Validate and set default values
@@ -66,8 +80,12 @@ public class ItemRequestService {
                     .orElseThrow(() -> new RuntimeException("User not found"));
             itemRequest.setRequestedBy(user);
         }
-        
-        return itemRequestRepository.save(itemRequest);
+
+        ItemRequest saved = itemRequestRepository.save(itemRequest);
+        inventoryMetrics.requestTransition(null, saved.getStatus());
+        dashboardService.requestTransition(saved, null, saved.getStatus());
+        officeEventService.publish(OfficeEvent.REQUESTS_INCOMING, saved.getId(), 0, saved.getParentOffice());
+        return saved;
     }
 
     public List<ItemRequest> getAllItemRequests() {
@@ -79,8 +97,14 @@ public class ItemRequestService {
                 .orElseThrow(() -> new RuntimeException("Item request not found"));
     }
 
-    public List<ItemRequest> getRequestsByOffice(Long officeId) {
-        return itemRequestRepository.findByRequestingOfficeId(officeId);
+    public ItemRequestView getItemRequestViewById(Long id) {
+        return itemRequestRepository.findViewById(id)
+                .orElseThrow(() -> new RuntimeException("Item request not found"));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ItemRequestView> getRequestsByOffice(Long officeId) {
+        return itemRequestRepository.findViewsByRequestingOfficeId(officeId);
     }
 
     @Transactional
@@ -89,6 +113,10 @@ public class ItemRequestService {
         User approver = userRepository.findById(approvedByUserId)
                 .orElseThrow(() -> new RuntimeException("Approver not found"));
         
+        inventoryMetrics.requestTransition(request.getStatus(), ItemRequest.RequestStatus.APPROVED);
+        dashboardService.requestTransition(request, request.getStatus(), ItemRequest.RequestStatus.APPROVED);
+        officeEventService.publish(OfficeEvent.REQUESTS_UPDATED, request.getId(), 0,
+                request.getRequestingOffice(), request.getParentOffice());
         request.setStatus(ItemRequest.RequestStatus.APPROVED);
         request.setApprovedBy(approver);
         request.setApprovedQuantity(approvedQuantity);
@@ -138,11 +166,16 @@ public class ItemRequestService {
         request.setFulfilledQuantity(newFulfilledQuantity);
         
         // Update status based on fulfillment progress
+        ItemRequest.RequestStatus previousStatus = request.getStatus();
         if (newFulfilledQuantity >= request.getApprovedQuantity()) {
             request.setStatus(ItemRequest.RequestStatus.FULFILLED);
         } else {
             request.setStatus(ItemRequest.RequestStatus.PARTIALLY_FULFILLED);
         }
+        inventoryMetrics.requestTransition(previousStatus, request.getStatus());
+        dashboardService.requestTransition(request, previousStatus, request.getStatus());
+        officeEventService.publish(OfficeEvent.REQUESTS_UPDATED, request.getId(), quantity,
+                request.getRequestingOffice(), request.getParentOffice());
         
         request.setFulfilledDate(LocalDateTime.now());
         
@@ -155,6 +188,10 @@ public class ItemRequestService {
         User approver = userRepository.findById(approvedByUserId)
                 .orElseThrow(() -> new RuntimeException("Approver not found"));
         
+        inventoryMetrics.requestTransition(request.getStatus(), ItemRequest.RequestStatus.REJECTED);
+        dashboardService.requestTransition(request, request.getStatus(), ItemRequest.RequestStatus.REJECTED);
+        officeEventService.publish(OfficeEvent.REQUESTS_UPDATED, request.getId(), 0,
+                request.getRequestingOffice(), request.getParentOffice());
         request.setStatus(ItemRequest.RequestStatus.REJECTED);
         request.setApprovedBy(approver);
         request.setRemarks(remarks);
@@ -163,19 +200,20 @@ public class ItemRequestService {
         return itemRequestRepository.save(request);
     }
 
-    public List<ItemRequest> getPendingRequestsForOffice(Long officeId) {
-        return itemRequestRepository.findByParentOfficeIdAndStatus(officeId, ItemRequest.RequestStatus.PENDING);
+    @Transactional(readOnly = true)
+    public List<ItemRequestView> getPendingRequestsForOffice(Long officeId) {
+        return itemRequestRepository.findViewsByParentOfficeIdAndStatus(officeId, ItemRequest.RequestStatus.PENDING);
     }
 
-    public List<ItemRequest> getApprovedRequestsForOffice(Long officeId) {
-        return itemRequestRepository.findByParentOfficeIdAndStatus(officeId, ItemRequest.RequestStatus.APPROVED);
+    @Transactional(readOnly = true)
+    public List<ItemRequestView> getApprovedRequestsForOffice(Long officeId) {
+        return itemRequestRepository.findViewsByParentOfficeIdAndStatus(officeId, ItemRequest.RequestStatus.APPROVED);
     }
 
-    public List<ItemRequest> getFulfilledRequestsForOffice(Long officeId) {
-        return itemRequestRepository.findByRequestingOfficeId(officeId).stream()
-                .filter(request -> request.getStatus() == ItemRequest.RequestStatus.FULFILLED ||
-                                   request.getStatus() == ItemRequest.RequestStatus.PARTIALLY_FULFILLED)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ItemRequestView> getFulfilledRequestsForOffice(Long officeId) {
+        return itemRequestRepository.findViewsByRequestingOfficeIdAndStatusIn(officeId,
+                List.of(ItemRequest.RequestStatus.FULFILLED, ItemRequest.RequestStatus.PARTIALLY_FULFILLED));
     }
 
     @Transactional
@@ -200,6 +238,8 @@ public class ItemRequestService {
         }
         
         // Update request with confirmation details
+        inventoryMetrics.requestTransition(request.getStatus(), ItemRequest.RequestStatus.CONFIRMED);
+        dashboardService.requestTransition(request, request.getStatus(), ItemRequest.RequestStatus.CONFIRMED);
         request.setStatus(ItemRequest.RequestStatus.CONFIRMED);
         request.setConfirmedBy(confirmer);
         request.setConfirmedDate(LocalDateTime.now());
@@ -208,41 +248,29 @@ public class ItemRequestService {
         return itemRequestRepository.save(request);
     }
 
-    public List<ItemRequest> getHistoryForOffice(Long officeId) {
-        // Get all requests where office is either requesting or parent office
-        List<ItemRequest> requestingHistory = itemRequestRepository.findByRequestingOfficeId(officeId);
-        List<ItemRequest> parentHistory = itemRequestRepository.findByParentOfficeId(officeId);
-        
-        // Combine both lists and remove duplicates (shouldn't happen, but just in case)
-        List<ItemRequest> allHistory = new ArrayList<>();
-        allHistory.addAll(requestingHistory);
-        
-        // Add parent office requests that aren't already in the list
-        for (ItemRequest request : parentHistory) {
-            if (!requestingHistory.contains(request)) {
-                allHistory.add(request);
-            }
-        }
-        
-        // Sort by requested date, most recent first
-        allHistory.sort((r1, r2) -> r2.getRequestedDate().compareTo(r1.getRequestedDate()));
-        
-        return allHistory;
+    @Transactional(readOnly = true)
+    public List<ItemRequestView> getHistoryForOffice(Long officeId) {
+        // Requests where the office is either the requesting or the parent office, most recent first
+        return itemRequestRepository.findHistoryViews(officeId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecentRequestLine> getRecentRequestLinesBetweenOffices(Long requestingOfficeId, Long parentOfficeId, int limit) {
+        return itemRequestRepository.findRecentRequestLines(
+                requestingOfficeId, parentOfficeId, PageRequest.of(0, Math.max(1, limit)));
     }
 
-    public List<ItemRequest> getRecentRequestsBetweenOffices(Long requestingOfficeId, Long parentOfficeId, int limit) {
-        return itemRequestRepository.findByRequestingOfficeId(requestingOfficeId).stream()
-                .filter(r -> r.getParentOffice() != null && parentOfficeId.equals(r.getParentOffice().getId()))
-                .sorted((a, b) -> b.getRequestedDate().compareTo(a.getRequestedDate()))
-                .limit(Math.max(1, limit))
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public List<ItemDemandStats> getDemandStatsBetweenOffices(Long requestingOfficeId, Long parentOfficeId, int limit) {
+        return itemRequestRepository.findDemandStats(requestingOfficeId, parentOfficeId, Math.max(1, limit));
     }
 
-    public List<ItemInstance> getAvailableInstancesForOffice(Long officeId) {
-        return itemInstanceRepository.findByOwnerOfficeIdAndStatus(officeId, ItemInstance.ItemStatus.AVAILABLE);
+    @Transactional(readOnly = true)
+    public List<ItemStockCount> getAvailableStockForOffice(Long officeId) {
+        return itemInstanceRepository.countByItemForOfficeAndStatus(officeId, ItemInstance.ItemStatus.AVAILABLE);
     }
 
-    public List<Item> getCatalogItems() {
-        return itemRepository.findAll();
+    public List<CatalogItemName> getCatalogItemNames() {
+        return itemRepository.findAllNames();
     }
 }
@@ -1,10 +1,15 @@
 package just.inventory.backend.service;
 
+import just.inventory.backend.dto.ItemTransactionView;
+import just.inventory.backend.dto.PurchaseOrigin;
 import just.inventory.backend.model.*;
 import just.inventory.backend.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 @Service
@@ -19,6 +24,7 @@ public class ItemTrackingService {
     @Autowired
     private PurchaseRepository purchaseRepository;
 
+    @Transactional(readOnly = true)
     public Map<String, Object> trackItemByBarcode(String barcode) {
         // Find the item instance
         ItemInstance itemInstance = itemInstanceRepository.findByBarcode(barcode)
@@ -45,65 +51,68 @@ public class ItemTrackingService {
         trackingInfo.put("unitPrice", itemInstance.getPurchasePrice());
         
         // Find purchase information by matching purchase date and item
-        Purchase purchase = purchaseRepository.findAll().stream()
-                .filter(p -> p.getPurchasedDate().toLocalDate().equals(itemInstance.getPurchaseDate().toLocalDate()) &&
-                            p.getItems().stream().anyMatch(item -> 
-                                item.getItem().getId().equals(itemInstance.getItem().getId())))
-                .findFirst()
-                .orElse(null);
+        PurchaseOrigin purchase = null;
+        if (itemInstance.getPurchaseDate() != null) {
+            LocalDateTime purchaseDay = itemInstance.getPurchaseDate().toLocalDate().atStartOfDay();
+            purchase = purchaseRepository.findOrigins(itemInstance.getItem().getId(), purchaseDay,
+                            purchaseDay.plusDays(1), PageRequest.of(0, 1))
+                    .stream()
+                    .findFirst()
+                    .orElse(null);
+        }
         
         if (purchase != null) {
             Map<String, Object> purchaseInfo = new LinkedHashMap<>();
             purchaseInfo.put("purchaseId", purchase.getId());
             purchaseInfo.put("unitPrice", itemInstance.getPurchasePrice());
             purchaseInfo.put("supplier", purchase.getSupplier());
-            purchaseInfo.put("purchasedBy", purchase.getPurchasedBy().getFullName());
-            purchaseInfo.put("purchasedById", purchase.getPurchasedBy().getId());
-            purchaseInfo.put("purchasedByUsername", purchase.getPurchasedBy().getUsername());
-            purchaseInfo.put("purchasedForOffice", purchase.getOffice().getName());
-            purchaseInfo.put("purchasedForOfficeId", purchase.getOffice().getId());
+            purchaseInfo.put("purchasedBy", purchase.getPurchasedByName());
+            purchaseInfo.put("purchasedById", purchase.getPurchasedById());
+            purchaseInfo.put("purchasedByUsername", purchase.getPurchasedByUsername());
+            purchaseInfo.put("purchasedForOffice", purchase.getOfficeName());
+            purchaseInfo.put("purchasedForOfficeId", purchase.getOfficeId());
             purchaseInfo.put("purchaseDate", purchase.getPurchasedDate());
             purchaseInfo.put("remarks", purchase.getRemarks());
             trackingInfo.put("purchaseInformation", purchaseInfo);
         }
         
-        // Get all transactions for this item (movements)
-        List<ItemTransaction> transactions = itemTransactionRepository
-                .findByItemInstanceId(itemInstance.getId());
+        // Get all transactions for this item (movements), offices and users included
+        List<ItemTransactionView> transactions = itemTransactionRepository
+                .findViewsByItemInstanceId(itemInstance.getId());
         
         List<Map<String, Object>> movementHistory = new ArrayList<>();
-        for (ItemTransaction transaction : transactions) {
+        for (ItemTransactionView transaction : transactions) {
             Map<String, Object> movement = new LinkedHashMap<>();
-            movement.put("transactionId", transaction.getId());
-            movement.put("transactionType", transaction.getTransactionType());
-            movement.put("status", transaction.getStatus());
-            movement.put("date", transaction.getTransactionDate());
+            movement.put("transactionId", transaction.id());
+            movement.put("transactionType", transaction.transactionType());
+            movement.put("status", transaction.status());
+            movement.put("date", transaction.transactionDate());
             
-            if (transaction.getFromOffice() != null) {
-                movement.put("fromOffice", transaction.getFromOffice().getName());
-                movement.put("fromOfficeId", transaction.getFromOffice().getId());
-                movement.put("fromOfficeCode", transaction.getFromOffice().getCode());
+            if (transaction.fromOffice() != null) {
+                movement.put("fromOffice", transaction.fromOffice().name());
+                movement.put("fromOfficeId", transaction.fromOffice().id());
+                movement.put("fromOfficeCode", transaction.fromOffice().code());
             }
             
-            if (transaction.getToOffice() != null) {
-                movement.put("toOffice", transaction.getToOffice().getName());
-                movement.put("toOfficeId", transaction.getToOffice().getId());
-                movement.put("toOfficeCode", transaction.getToOffice().getCode());
+            if (transaction.toOffice() != null) {
+                movement.put("toOffice", transaction.toOffice().name());
+                movement.put("toOfficeId", transaction.toOffice().id());
+                movement.put("toOfficeCode", transaction.toOffice().code());
             }
             
-            movement.put("initiatedBy", transaction.getUser().getFullName());
-            movement.put("initiatedById", transaction.getUser().getId());
-            movement.put("initiatedByUsername", transaction.getUser().getUsername());
+            movement.put("initiatedBy", transaction.user().name());
+            movement.put("initiatedById", transaction.user().id());
+            movement.put("initiatedByUsername", transaction.user().username());
             
-            if (transaction.getConfirmedBy() != null) {
-                movement.put("confirmedBy", transaction.getConfirmedBy().getFullName());
-                movement.put("confirmedById", transaction.getConfirmedBy().getId());
-                movement.put("confirmedByUsername", transaction.getConfirmedBy().getUsername());
-                movement.put("confirmedDate", transaction.getConfirmedDate());
+            if (transaction.confirmedBy() != null) {
+                movement.put("confirmedBy", transaction.confirmedBy().name());
+                movement.put("confirmedById", transaction.confirmedBy().id());
+                movement.put("confirmedByUsername", transaction.confirmedBy().username());
+                movement.put("confirmedDate", transaction.confirmedDate());
             }
             
-            movement.put("quantity", transaction.getQuantity());
-            movement.put("remarks", transaction.getRemarks());
+            movement.put("quantity", transaction.quantity());
+            movement.put("remarks", transaction.remarks());
             
             movementHistory.add(movement);
         }
@@ -114,17 +123,17 @@ public class ItemTrackingService {
         // Movement summary
         Map<String, Object> summary = new LinkedHashMap<>();
         summary.put("totalTransfers", transactions.stream()
-                .filter(t -> t.getTransactionType() == ItemTransaction.TransactionType.DISTRIBUTION ||
-                            t.getTransactionType() == ItemTransaction.TransactionType.TRANSFER)
+                .filter(t -> t.transactionType() == ItemTransaction.TransactionType.DISTRIBUTION ||
+                            t.transactionType() == ItemTransaction.TransactionType.TRANSFER)
                 .count());
         summary.put("confirmedTransfers", transactions.stream()
-                .filter(t -> t.getStatus() == ItemTransaction.TransactionStatus.CONFIRMED)
+                .filter(t -> t.status() == ItemTransaction.TransactionStatus.CONFIRMED)
                 .count());
         summary.put("rejectedTransfers", transactions.stream()
-                .filter(t -> t.getStatus() == ItemTransaction.TransactionStatus.REJECTED)
+                .filter(t -> t.status() == ItemTransaction.TransactionStatus.REJECTED)
                 .count());
         summary.put("pendingTransfers", transactions.stream()
-                .filter(t -> t.getStatus() == ItemTransaction.TransactionStatus.PENDING)
+                .filter(t -> t.status() == ItemTransaction.TransactionStatus.PENDING)
                 .count());
         
         trackingInfo.put("movementSummary", summary);
@@ -132,14 +141,14 @@ public class ItemTrackingService {
         // Office journey (chronological path)
         List<String> officeJourney = new ArrayList<>();
         if (purchase != null) {
-            officeJourney.add("Purchased by: " + purchase.getOffice().getName());
+            officeJourney.add("Purchased by: " + purchase.getOfficeName());
         }
-        for (ItemTransaction transaction : transactions) {
-            if (transaction.getStatus() == ItemTransaction.TransactionStatus.CONFIRMED) {
-                if (transaction.getFromOffice() != null && transaction.getToOffice() != null) {
-                    officeJourney.add(transaction.getFromOffice().getCode() + " → " + 
-                                     transaction.getToOffice().getCode() + 
-                                     " (" + transaction.getTransactionDate() + ")");
+        for (ItemTransactionView transaction : transactions) {
+            if (transaction.status() == ItemTransaction.TransactionStatus.CONFIRMED) {
+                if (transaction.fromOffice() != null && transaction.toOffice() != null) {
+                    officeJourney.add(transaction.fromOffice().code() + " → " + 
+                                     transaction.toOffice().code() + 
+                                     " (" + transaction.transactionDate() + ")");
                 }
             }
         }
@@ -149,6 +158,7 @@ public class ItemTrackingService {
         return trackingInfo;
     }
 
+    @Transactional(readOnly = true)
     public List<Map<String, Object>> trackMultipleItems(List<String> barcodes) {
         List<Map<String, Object>> results = new ArrayList<>();
         for (String barcode : barcodes) {
@@ -0,0 +1,280 @@
+package just.inventory.backend.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintenance of the range partitions of {@code item_transactions} (see changelog 012).
+ * <p>
+ * Every run makes sure the current month and the next {@code item-transactions.partitions.months-ahead}
+ * have a partition, and gives every month with rows parked in the default partition its own.
+ * Partitions are built detached and then attached, which leaves the other partitions open to
+ * readers and writers throughout.
+ * <p>
+ * A year is archived once it ended {@code item-transactions.archive.after-months} ago: its monthly
+ * partitions are replaced by one yearly partition, written in item-instance order so each
+ * instance's history sits on a few pages, packed without free space, optionally placed in
+ * {@code item-transactions.archive.tablespace} and frozen afterwards. It stays attached, so every
+ * query and repository method sees archived rows as before. Writes to the year wait while it is
+ * copied, and the whole table for the short swap at the end. Outside PostgreSQL, or before the
+ * table is partitioned, runs do nothing.
+ */
+@Service
+public class ItemTransactionPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(ItemTransactionPartitionService.class);
+
+    private static final String TABLE = "item_transactions";
+    private static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final Pattern MONTH_PARTITION = Pattern.compile(TABLE + "_p(\\d{4})_(\\d{2})");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${item-transactions.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${item-transactions.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${item-transactions.archive.after-months:3}")
+    private int archiveAfterMonths;
+
+    @Value("${item-transactions.archive.tablespace:}")
+    private String archiveTablespace;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${item-transactions.partitions.cron:0 15 2 * * *}")
+    public void scheduledMaintenance() {
+        if (enabled && isPartitioned()) {
+            try {
+                maintain(YearMonth.now());
+            } catch (RuntimeException e) {
+                // Must not fail the application at startup; the next run picks up where this one stopped
+                log.error("Partition maintenance of {} failed", TABLE, e);
+            }
+        }
+    }
+
+    /**
+     * Keeps maintenance from swapping partitions until the caller's transaction ends. Called by long
+     * transactions that read item_transactions in several statements, which could otherwise
+     * deadlock with an archive run. Callers share the lock, so they only wait for maintenance.
+     */
+    public void holdOffMaintenance() {
+        if (isPartitioned()) {
+            jdbcTemplate.queryForObject("select pg_advisory_xact_lock_shared(hashtext(?))", Object.class,
+                    TABLE + " partitions");
+        }
+    }
+
+    /**
+     * Creates the partitions missing around {@code now} and archives the years closed by then.
+     */
+    public void maintain(YearMonth now) {
+        TreeSet<YearMonth> months = new TreeSet<>(parkedMonths());
+        for (int i = 0; i <= monthsAhead; i++) {
+            months.add(now.plusMonths(i));
+        }
+        months.forEach(this::createMonth);
+
+        int openYear = now.minusMonths(archiveAfterMonths).getYear();
+        monthPartitionsByYear().keySet().stream()
+                .filter(year -> year < openYear)
+                .forEach(this::archiveYear);
+    }
+
+    private boolean isPartitioned() {
+        String url = dataSourceProperties.determineUrl();
+        if (url == null || !url.startsWith("jdbc:postgresql:")) {
+            return false;
+        }
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists (select 1 from pg_partitioned_table where partrelid = to_regclass(?))",
+                Boolean.class, TABLE));
+    }
+
+    private void createMonth(YearMonth month) {
+        String partition = monthPartition(month);
+        LocalDate from = month.atDay(1);
+        LocalDate to = from.plusMonths(1);
+        Boolean created = transactionTemplate.execute(status -> {
+            lockMaintenance();
+            if (exists(partition)) {
+                return false;
+            }
+            // Rows of the month that went to the default partition move along
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN SHARE ROW EXCLUSIVE MODE");
+            jdbcTemplate.execute("CREATE TABLE " + partition
+                    + " (LIKE " + TABLE + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int moved = jdbcTemplate.update("INSERT INTO " + partition
+                    + " SELECT * FROM " + DEFAULT_PARTITION + " WHERE " + range(from, to));
+            jdbcTemplate.execute("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range(from, to));
+            if (moved > 0) {
+                jdbcTemplate.execute("ANALYZE " + partition);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + partition
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            return true;
+        });
+        if (Boolean.TRUE.equals(created)) {
+            log.info("Created partition {}", partition);
+        }
+    }
+
+    private void archiveYear(int year) {
+        String archive = TABLE + "_y" + year;
+        LocalDate from = LocalDate.of(year, 1, 1);
+        LocalDate to = from.plusYears(1);
+        long started = System.nanoTime();
+        Integer rows = transactionTemplate.execute(status -> {
+            lockMaintenance();
+            List<String> months = monthPartitionsByYear().getOrDefault(year, List.of());
+            if (months.isEmpty() || exists(archive)) {
+                return null;
+            }
+            // The year's rows must not change between the copy and the swap
+            for (String month : months) {
+                jdbcTemplate.execute("LOCK TABLE " + month + " IN SHARE MODE");
+            }
+            jdbcTemplate.execute("LOCK TABLE " + DEFAULT_PARTITION + " IN SHARE ROW EXCLUSIVE MODE");
+            if (!archiveTablespace.isBlank()) {
+                // The archive table and its indexes
+                jdbcTemplate.execute("SET LOCAL default_tablespace = " + quoteIdentifier(archiveTablespace));
+            }
+
+            jdbcTemplate.execute("CREATE TABLE " + archive + " (LIKE " + TABLE
+                    + " INCLUDING DEFAULTS INCLUDING CONSTRAINTS) WITH (fillfactor = 100)");
+            int copied = jdbcTemplate.update("INSERT INTO " + archive + " SELECT * FROM " + TABLE
+                    + " WHERE " + range(from, to) + " ORDER BY item_instance_id, transaction_date, id");
+            // Lets the attach below skip scanning the rows for the partition bound
+            jdbcTemplate.execute("ALTER TABLE " + archive + " ADD CONSTRAINT " + archive + "_range CHECK ("
+                    + range(from, to) + ")");
+            copyIndexesAndKeys(archive);
+            // Without statistics the planner would take the new partition for empty once attached
+            jdbcTemplate.execute("ANALYZE " + archive);
+
+            for (String month : months) {
+                jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + month);
+                jdbcTemplate.execute("DROP TABLE " + month);
+            }
+            jdbcTemplate.execute("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range(from, to));
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " ATTACH PARTITION " + archive
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            jdbcTemplate.execute("ALTER TABLE " + archive + " DROP CONSTRAINT " + archive + "_range");
+            return copied;
+        });
+        if (rows == null) {
+            return;
+        }
+        // Closed rows are never updated again; freezing spares later vacuums a full pass
+        jdbcTemplate.execute("VACUUM (FREEZE) " + archive);
+        log.info("Archived {} transactions of {} into {} in {} ms", rows, year, archive,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Gives {@code table} the parent's primary key, indexes and foreign keys, so attaching it adopts
+     * them instead of building and validating them while the parent is locked.
+     */
+    private void copyIndexesAndKeys(String table) {
+        for (String primaryKey : jdbcTemplate.queryForList(
+                "select pg_get_constraintdef(oid) from pg_constraint where conrelid = to_regclass(?) and contype = 'p'",
+                String.class, TABLE)) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD " + primaryKey);
+        }
+        for (String index : jdbcTemplate.queryForList(
+                "select pg_get_indexdef(i.indexrelid) from pg_index i where i.indrelid = to_regclass(?) "
+                        + "and not exists (select 1 from pg_constraint c where c.conindid = i.indexrelid)",
+                String.class, TABLE)) {
+            // Same definition under a name PostgreSQL picks
+            jdbcTemplate.execute(index.replaceFirst("^CREATE (UNIQUE )?INDEX \\S+ ON ONLY \\S+",
+                    "CREATE $1INDEX ON " + table));
+        }
+        for (Map<String, Object> foreignKey : jdbcTemplate.queryForList(
+                "select conname, pg_get_constraintdef(oid) as definition from pg_constraint "
+                        + "where conrelid = to_regclass(?) and contype = 'f'", TABLE)) {
+            // Validated separately, which does not block writes to the referenced tables
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD CONSTRAINT " + foreignKey.get("conname")
+                    + " " + foreignKey.get("definition") + " NOT VALID");
+            jdbcTemplate.execute("ALTER TABLE " + table + " VALIDATE CONSTRAINT " + foreignKey.get("conname"));
+        }
+    }
+
+    /** Months with rows in the default partition, which belong in a partition of their own. */
+    private List<YearMonth> parkedMonths() {
+        return jdbcTemplate.queryForList(
+                "select distinct to_char(transaction_date, 'YYYY-MM') from " + DEFAULT_PARTITION, String.class)
+                .stream()
+                .map(YearMonth::parse)
+                .toList();
+    }
+
+    private Map<Integer, List<String>> monthPartitionsByYear() {
+        Map<Integer, List<String>> byYear = new TreeMap<>();
+        for (String partition : partitions()) {
+            Matcher matcher = MONTH_PARTITION.matcher(partition);
+            if (matcher.matches()) {
+                byYear.computeIfAbsent(Integer.parseInt(matcher.group(1)), year -> new ArrayList<>())
+                        .add(partition);
+            }
+        }
+        return byYear;
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+                        + "where i.inhparent = to_regclass(?) order by c.relname",
+                String.class, TABLE);
+    }
+
+    private boolean exists(String table) {
+        return jdbcTemplate.queryForObject("select to_regclass(?) is not null", Boolean.class, table);
+    }
+
+    /**
+     * Serializes maintenance across instances sharing the database, and against
+     * {@link #holdOffMaintenance()}, until the transaction ends.
+     */
+    private void lockMaintenance() {
+        jdbcTemplate.queryForObject("select pg_advisory_xact_lock(hashtext(?))", Object.class, TABLE + " partitions");
+    }
+
+    private static String monthPartition(YearMonth month) {
+        return String.format("%s_p%04d_%02d", TABLE, month.getYear(), month.getMonthValue());
+    }
+
+    private static String range(LocalDate from, LocalDate to) {
+        return "transaction_date >= '" + from + "' AND transaction_date < '" + to + "'";
+    }
+
+    private static String quoteIdentifier(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+}
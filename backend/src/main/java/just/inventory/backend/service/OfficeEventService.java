@@ -0,0 +1,277 @@
+package just.inventory.backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import just.inventory.backend.dto.OfficeEvent;
+import just.inventory.backend.model.Office;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes {@link OfficeEvent}s to the offices they concern over Server-Sent Events, so clients
+ * learn about new pending distributions and requests without polling the list endpoints.
+ * <p>
+ * The distribution and request services publish events inside their transactions; they are
+ * only fanned out after commit, so a subscriber never refetches before the change is visible
+ * and a rolled back change is never announced. Streams are kept per office in memory on the
+ * instance the client connected to; the instance that committed a change also sends the event
+ * over the {@link CacheInvalidationBus}, and every other instance writes it to its own streams.
+ * An instance whose bus connection was interrupted closes its streams instead, since events may
+ * have been missed, and their clients reconnect and refetch. Each stream gets a comment every {@code events.sse.heartbeat} to keep proxies from closing it, and is
+ * closed after {@code events.sse.timeout}, after which the client reconnects.
+ * <p>
+ * Neither the committing thread nor the scheduler writes to a stream: events are queued per
+ * stream and written by the {@code eventExecutor}, one writer per stream at a time, so a client
+ * that stops reading only holds up its own stream. A stream with
+ * {@code events.sse.max-queued-events} events still unwritten is closed, and its client
+ * reconnects and refetches.
+ */
+@Service
+public class OfficeEventService {
+
+    private static final Logger log = LoggerFactory.getLogger(OfficeEventService.class);
+
+    private static final String BUS_PREFIX = "office-event";
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    @Qualifier("eventExecutor")
+    private TaskExecutor eventExecutor;
+
+    @Value("${events.sse.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${events.sse.max-subscribers:2000}")
+    private int maxSubscribers;
+
+    @Value("${events.sse.max-queued-events:32}")
+    private int maxQueuedEvents;
+
+    private final Map<Long, Set<Stream>> subscribers = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+
+    public OfficeEventService(MeterRegistry registry) {
+        Gauge.builder("inventory.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("Open office event streams")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void subscribeToBus() {
+        cacheInvalidationBus.subscribe(BUS_PREFIX, value -> deliver(decode(value)), this::completeAll);
+    }
+
+    /** Announces a change to each of the given offices once the current transaction commits. */
+    public void publish(String type, Long referenceId, int count, Office... offices) {
+        Set<Long> officeIds = new HashSet<>();
+        for (Office office : offices) {
+            if (office != null && office.getId() != null && officeIds.add(office.getId())) {
+                eventPublisher.publishEvent(new OfficeEvent(type, office.getId(), referenceId, count));
+            }
+        }
+    }
+
+    /** Opens an event stream for an office; it starts with a {@code connected} event. */
+    public SseEmitter subscribe(Long officeId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many open event streams");
+        }
+        Stream stream = new Stream(officeId, newEmitter(), maxQueuedEvents);
+        subscribers.computeIfAbsent(officeId, id -> ConcurrentHashMap.newKeySet()).add(stream);
+        stream.emitter.onCompletion(() -> ended(stream));
+        stream.emitter.onTimeout(() -> close(stream));
+        stream.emitter.onError(error -> ended(stream));
+        enqueue(stream, SseEmitter.event().name("connected").data(officeId));
+        return stream.emitter;
+    }
+
+    SseEmitter newEmitter() {
+        return new SseEmitter(timeout.toMillis());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOfficeEvent(OfficeEvent event) {
+        cacheInvalidationBus.publish(BUS_PREFIX, encode(event));
+        deliver(event);
+    }
+
+    private void deliver(OfficeEvent event) {
+        Set<Stream> streams = subscribers.get(event.officeId());
+        if (streams == null) {
+            return;
+        }
+        for (Stream stream : streams) {
+            enqueue(stream, SseEmitter.event().name(event.type()).data(event));
+        }
+    }
+
+    @Scheduled(fixedRateString = "${events.sse.heartbeat:25s}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(streams -> streams.forEach(stream ->
+                enqueue(stream, SseEmitter.event().comment("heartbeat"))));
+    }
+
+    /**
+     * Ends every stream: as shutdown starts, so open streams do not hold up a graceful shutdown,
+     * and after a gap in the bus, so clients refetch what they may have missed.
+     */
+    @EventListener(ContextClosedEvent.class)
+    public void completeAll() {
+        subscribers.values().forEach(streams -> streams.forEach(this::close));
+    }
+
+    // type,officeId,referenceId,count; types are dotted names without commas
+    private static String encode(OfficeEvent event) {
+        return event.type() + ',' + event.officeId() + ','
+                + (event.referenceId() == null ? "" : event.referenceId()) + ',' + event.count();
+    }
+
+    private static OfficeEvent decode(String value) {
+        String[] fields = value.split(",", -1);
+        return new OfficeEvent(fields[0], Long.valueOf(fields[1]),
+                fields[2].isEmpty() ? null : Long.valueOf(fields[2]), Integer.parseInt(fields[3]));
+    }
+
+    private void enqueue(Stream stream, SseEmitter.SseEventBuilder event) {
+        if (stream.closed) {
+            return;
+        }
+        if (!stream.queue.offer(event)) {
+            log.info("Closing event stream of office {}: {} events not yet written", stream.officeId,
+                    stream.queue.size());
+            close(stream);
+            return;
+        }
+        schedule(stream);
+    }
+
+    /** Closes the stream now if nobody is writing to it, otherwise once its writer is done. */
+    private void close(Stream stream) {
+        remove(stream);
+        stream.closed = true;
+        if (stream.writing.compareAndSet(false, true)) {
+            stream.queue.clear();
+            complete(stream);
+        }
+    }
+
+    private void schedule(Stream stream) {
+        if (!stream.writing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            eventExecutor.execute(() -> write(stream));
+        } catch (TaskRejectedException e) {
+            log.info("Closing event stream of office {}: event writers are saturated", stream.officeId);
+            remove(stream);
+            stream.closed = true;
+            stream.queue.clear();
+            complete(stream);
+        }
+    }
+
+    /**
+     * Writes the stream's queued events, or completes it once closed. Only the thread that set
+     * {@code writing} touches the emitter, and the flag stays set once the stream is completed.
+     */
+    private void write(Stream stream) {
+        do {
+            SseEmitter.SseEventBuilder event;
+            while (!stream.closed && (event = stream.queue.poll()) != null) {
+                send(stream, event);
+            }
+            if (stream.closed) {
+                stream.queue.clear();
+                complete(stream);
+                return;
+            }
+            stream.writing.set(false);
+        } while ((stream.closed || !stream.queue.isEmpty()) && stream.writing.compareAndSet(false, true));
+    }
+
+    private void send(Stream stream, SseEmitter.SseEventBuilder event) {
+        try {
+            stream.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // The client went away
+            log.debug("Dropping event stream of office {}: {}", stream.officeId, e.getMessage());
+            remove(stream);
+            stream.failure = e;
+            stream.closed = true;
+        }
+    }
+
+    private void complete(Stream stream) {
+        if (stream.ended) {
+            return;
+        }
+        if (stream.failure != null) {
+            stream.emitter.completeWithError(stream.failure);
+        } else {
+            stream.emitter.complete();
+        }
+    }
+
+    /** The emitter completed, timed out into completion or failed; nothing more can be written. */
+    private void ended(Stream stream) {
+        stream.ended = true;
+        stream.closed = true;
+        remove(stream);
+    }
+
+    private void remove(Stream stream) {
+        Set<Stream> streams = subscribers.get(stream.officeId);
+        if (streams != null && streams.remove(stream)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private static final class Stream {
+
+        private final Long officeId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<SseEmitter.SseEventBuilder> queue;
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private volatile boolean closed;
+        private volatile boolean ended;
+        private volatile Throwable failure;
+
+        private Stream(Long officeId, SseEmitter emitter, int capacity) {
+            this.officeId = officeId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -1,16 +1,30 @@
 package just.inventory.backend.service;
 
+import io.micrometer.core.annotation.Timed;
+import just.inventory.backend.dto.PurchaseSuggestionLine;
+import just.inventory.backend.dto.PurchasedInstance;
 import just.inventory.backend.model.*;
 import just.inventory.backend.repository.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class PurchaseService {
 
+    // A purchase line's recency weight is max(0.35, 1 - age in days / 180); it reaches the
+    // 0.35 floor after 117 days (see PurchaseRepository#findPurchaseSuggestions)
+    private static final int RECENCY_WINDOW_DAYS = 117;
+
     @Autowired
     private PurchaseRepository purchaseRepository;
 
@@ -29,7 +43,14 @@ public class PurchaseService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+
+    @Autowired
+    private DashboardService dashboardService;
+
     @Transactional
+    @Timed(InventoryMetrics.PURCHASES)
     public Purchase createPurchase(Purchase purchase) {
         // Fetch and set relationships
         if (purchase.getOffice() != null && purchase.getOffice().getId() != null) {
@@ -58,6 +79,7 @@ public class PurchaseService {
         }
         
         // Process each purchase item
+        long unitsReceived = 0;
         for (PurchaseItem purchaseItem : purchase.getItems()) {
             // Fetch and set item
             if (purchaseItem.getItem() != null && purchaseItem.getItem().getId() != null) {
@@ -88,11 +110,32 @@ public class PurchaseService {
                 ItemInstance savedInstance = itemInstanceRepository.save(instance);
                 createdInstances.add(savedInstance);
             }
+            unitsReceived += createdInstances.size();
+            dashboardService.itemsChanged(inventory, purchaseItem.getItem().getId(),
+                    ItemInstance.ItemStatus.AVAILABLE, createdInstances.size());
+
+            // Keep the running totals behind purchase suggestions current
+            purchaseRepository.addToItemStats(savedPurchase.getOffice().getId(), purchaseItem.getItem().getId(),
+                    purchaseItem.getQuantity(), savedPurchase.getPurchasedDate());
         }
-        
+
+        dashboardService.purchaseRecorded(savedPurchase.getOffice().getId());
+        inventoryMetrics.unitsPurchased(unitsReceived);
         return savedPurchase;
     }
 
+    /**
+     * Recomputes the office's running purchase totals from its purchases, for when they were
+     * changed outside {@link #createPurchase}, e.g. by hand in the database. Purchases of every
+     * office wait for the rebuild to finish. Returns the number of items counted.
+     */
+    @Transactional
+    public int rebuildItemStats(Long officeId) {
+        purchaseRepository.lockItemStats();
+        purchaseRepository.deleteItemStats(officeId);
+        return purchaseRepository.insertItemStats(officeId);
+    }
+
     public List<Purchase> getAllPurchases() {
         return purchaseRepository.findAll();
     }
@@ -105,16 +148,55 @@ public class PurchaseService {
     public List<Purchase> getPurchasesByOffice(Long officeId) {
         return purchaseRepository.findByOfficeId(officeId);
     }
+
+    /**
+     * The office's most frequently, heavily and recently purchased items, as candidates for its
+     * next requisition.
+     */
+    public List<PurchaseSuggestionLine> getPurchaseSuggestions(Long officeId, int limit) {
+        return getPurchaseSuggestions(officeId, LocalDateTime.now(), limit);
+    }
+
+    List<PurchaseSuggestionLine> getPurchaseSuggestions(Long officeId, LocalDateTime now, int limit) {
+        return purchaseRepository.findPurchaseSuggestions(officeId, now, now.minusDays(RECENCY_WINDOW_DAYS), limit);
+    }
     
     /**
-     * Get item instances for a specific purchase item
-     * This queries instances by item, office and purchase date
+     * Instances created by the lines of {@code purchases}, keyed by {@link #lineKey}. An instance
+     * belongs to a line when it is owned by the purchase's office, is of the line's item and
+     * carries the purchase's date. One query for the whole list.
+     */
+    public Map<List<Object>, List<PurchasedInstance>> getPurchasedInstances(Collection<Purchase> purchases) {
+        if (purchases.isEmpty()) {
+            return Map.of();
+        }
+        Set<Long> officeIds = new HashSet<>();
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (Purchase purchase : purchases) {
+            officeIds.add(purchase.getOffice().getId());
+            LocalDateTime purchasedDate = purchase.getPurchasedDate();
+            from = from == null || purchasedDate.isBefore(from) ? purchasedDate : from;
+            to = to == null || purchasedDate.isAfter(to) ? purchasedDate : to;
+        }
+        // Stored timestamps are rounded to microseconds; whole seconds keep the edges in range
+        return itemInstanceRepository.findPurchasedInstances(officeIds, from.truncatedTo(ChronoUnit.SECONDS),
+                        to.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1)).stream()
+                .collect(Collectors.groupingBy(
+                        instance -> List.of(instance.getOfficeId(), instance.getItemId(),
+                                storedTimestamp(instance.getPurchaseDate()))));
+    }
+
+    /** Key of a purchase line in {@link #getPurchasedInstances}. */
+    public static List<Object> lineKey(Purchase purchase, PurchaseItem line) {
+        return List.of(purchase.getOffice().getId(), line.getItem().getId(), storedTimestamp(purchase.getPurchasedDate()));
+    }
+
+    /**
+     * {@code timestamp} as PostgreSQL stores it: rounded to the microsecond, like the JDBC driver
+     * does when binding it. A purchase just saved still holds the nanosecond value it was created with.
      */
-    public List<ItemInstance> getItemInstancesForPurchase(Long itemId, Long officeId, Purchase purchase) {
-        return itemInstanceRepository.findByItemIdAndOwnerOfficeId(itemId, officeId)
-                .stream()
-                .filter(instance -> instance.getPurchaseDate() != null && 
-                        instance.getPurchaseDate().equals(purchase.getPurchasedDate()))
-                .collect(java.util.stream.Collectors.toList());
+    private static LocalDateTime storedTimestamp(LocalDateTime timestamp) {
+        return timestamp.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
     }
-}
\ No newline at end of file
+}
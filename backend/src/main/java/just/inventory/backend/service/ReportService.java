@@ -0,0 +1,174 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.config.ReplicaRouting;
+import just.inventory.backend.dto.MovementLine;
+import just.inventory.backend.dto.PurchaseSpendLine;
+import just.inventory.backend.dto.ReportResult;
+import just.inventory.backend.dto.TurnaroundLine;
+import just.inventory.backend.dto.ValuationLine;
+import just.inventory.backend.model.Category;
+import just.inventory.backend.model.Item;
+import just.inventory.backend.model.ItemInstance;
+import just.inventory.backend.model.ItemRequest;
+import just.inventory.backend.model.ItemTransaction;
+import just.inventory.backend.model.Purchase;
+import just.inventory.backend.model.PurchaseItem;
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.repository.ItemRequestRepository;
+import just.inventory.backend.repository.ItemTransactionRepository;
+import just.inventory.backend.repository.PurchaseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Office reports aggregated in the database: inventory valuation, movement volume, purchase
+ * spend and request turnaround over an optional date range, bucketed by a {@code date_trunc}
+ * granularity where the report is a time series.
+ * <p>
+ * Results are cached per report, office, range and granularity together with the
+ * {@link TableVersions} of the tables they read. A committed write to any of those tables
+ * changes the version, so the next read recomputes the report instead of serving the old rows;
+ * stale entries are simply pushed out by the size bound. Like the ETags, this sees writes made
+ * through any instance's Hibernate session factory, those of other instances shortly after.
+ */
+@Service
+public class ReportService {
+
+    public static final Class<?>[] VALUATION_READS = {ItemInstance.class, Item.class, Category.class};
+    public static final Class<?>[] MOVEMENT_READS = {ItemTransaction.class};
+    public static final Class<?>[] SPEND_READS = {Purchase.class, PurchaseItem.class};
+    public static final Class<?>[] TURNAROUND_READS = {ItemRequest.class};
+
+    private static final Set<String> GRANULARITIES = Set.of("day", "week", "month", "quarter", "year");
+
+    // Bounds for open range ends: outside any real data, inside PostgreSQL's timestamp range
+    private static final LocalDateTime OPEN_FROM = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime OPEN_TO = LocalDateTime.of(9999, 1, 1, 0, 0);
+
+    @Autowired
+    private ItemInstanceRepository itemInstanceRepository;
+
+    @Autowired
+    private ItemTransactionRepository itemTransactionRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+
+    @Autowired
+    private TableVersions tableVersions;
+
+    @Autowired
+    private ReplicaRouting replicaRouting;
+
+    @Value("${reports.cache.max-entries:1000}")
+    private int maxEntries;
+
+    private final Map<ReportKey, CachedReport> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ReportKey, CachedReport> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    @Transactional(readOnly = true)
+    public ReportResult<ValuationLine> getInventoryValuation(Long officeId, LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return cached("inventory-valuation", officeId, from, to, null, VALUATION_READS,
+                () -> itemInstanceRepository.findValuation(officeId, start(from), end(to)));
+    }
+
+    @Transactional(readOnly = true)
+    public ReportResult<MovementLine> getMovementVolume(Long officeId, LocalDate from, LocalDate to,
+                                                        String granularity) {
+        checkRange(from, to);
+        String unit = granularity(granularity);
+        return cached("movements", officeId, from, to, unit, MOVEMENT_READS,
+                () -> itemTransactionRepository.findMovementVolume(officeId, start(from), end(to), unit));
+    }
+
+    @Transactional(readOnly = true)
+    public ReportResult<PurchaseSpendLine> getPurchaseSpend(Long officeId, LocalDate from, LocalDate to,
+                                                            String granularity) {
+        checkRange(from, to);
+        String unit = granularity(granularity);
+        return cached("purchase-spend", officeId, from, to, unit, SPEND_READS,
+                () -> purchaseRepository.findSpend(officeId, start(from), end(to), unit));
+    }
+
+    @Transactional(readOnly = true)
+    public ReportResult<TurnaroundLine> getRequestTurnaround(Long officeId, LocalDate from, LocalDate to,
+                                                             String granularity) {
+        checkRange(from, to);
+        String unit = granularity(granularity);
+        return cached("request-turnaround", officeId, from, to, unit, TURNAROUND_READS,
+                () -> itemRequestRepository.findTurnaround(officeId, start(from), end(to), unit));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ReportResult<T> cached(String report, Long officeId, LocalDate from, LocalDate to,
+                                       String granularity, Class<?>[] tables, Supplier<List<T>> query) {
+        ReportKey key = new ReportKey(report, officeId, from, to, granularity);
+        // Taken before querying: a write committing meanwhile files the new rows under the old
+        // version, which costs one more recomputation but never serves stale rows
+        String version = tableVersions.etag(null, tables);
+        CachedReport hit;
+        synchronized (cache) {
+            hit = cache.get(key);
+        }
+        if (hit != null && hit.version().equals(version)) {
+            return (ReportResult<T>) hit.result();
+        }
+        ReportResult<T> result = new ReportResult<>(report, officeId, from, to, granularity,
+                LocalDateTime.now(), List.copyOf(replicaRouting.readVersioned(query, tables)));
+        synchronized (cache) {
+            cache.put(key, new CachedReport(version, result));
+        }
+        return result;
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "from must not be after to");
+        }
+    }
+
+    private static String granularity(String granularity) {
+        String unit = granularity == null ? "month" : granularity.trim().toLowerCase(Locale.ROOT);
+        if (!GRANULARITIES.contains(unit)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "granularity must be one of day, week, month, quarter, year");
+        }
+        return unit;
+    }
+
+    private static LocalDateTime start(LocalDate from) {
+        return from == null ? OPEN_FROM : from.atStartOfDay();
+    }
+
+    // Ranges are inclusive of their last day
+    private static LocalDateTime end(LocalDate to) {
+        return to == null ? OPEN_TO : to.plusDays(1).atStartOfDay();
+    }
+
+    private record ReportKey(String report, Long officeId, LocalDate from, LocalDate to, String granularity) {
+    }
+
+    private record CachedReport(String version, ReportResult<?> result) {
+    }
+}
@@ -0,0 +1,92 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.RequisitionSuggestionJobResponse;
+import just.inventory.backend.dto.RequisitionSuggestionResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of suggestion requests submitted in poll mode.
+ * Jobs are held in memory and dropped once they have been finished for longer than the retention window.
+ */
+@Service
+public class RequisitionSuggestionJobService {
+
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+    public static final String STATUS_FAILED = "FAILED";
+
+    @Value("${ai.requisition.job-retention:15m}")
+    private Duration jobRetention;
+
+    private final Map<String, SuggestionJob> jobs = new ConcurrentHashMap<>();
+
+    public RequisitionSuggestionJobResponse submit(String username, CompletableFuture<RequisitionSuggestionResponse> future) {
+        evictExpiredJobs();
+
+        String jobId = UUID.randomUUID().toString();
+        SuggestionJob job = new SuggestionJob(username, future);
+        jobs.put(jobId, job);
+        future.whenComplete((result, error) -> job.finishedAtNanos = System.nanoTime());
+
+        return toResponse(jobId, job);
+    }
+
+    public Optional<RequisitionSuggestionJobResponse> getJob(String jobId, String username) {
+        SuggestionJob job = jobs.get(jobId);
+        if (job == null || !job.username.equals(username)) {
+            return Optional.empty();
+        }
+        return Optional.of(toResponse(jobId, job));
+    }
+
+    private RequisitionSuggestionJobResponse toResponse(String jobId, SuggestionJob job) {
+        RequisitionSuggestionJobResponse response = new RequisitionSuggestionJobResponse();
+        response.setJobId(jobId);
+
+        if (!job.future.isDone()) {
+            response.setStatus(STATUS_PENDING);
+            return response;
+        }
+
+        try {
+            response.setResult(job.future.join());
+            response.setStatus(STATUS_COMPLETED);
+        } catch (CompletionException e) {
+            response.setStatus(STATUS_FAILED);
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            if (cause instanceof ResponseStatusException statusException && statusException.getReason() != null) {
+                response.setError(statusException.getReason());
+            } else {
+                response.setError(cause.getMessage() == null ? "Failed to fetch requisition suggestions" : cause.getMessage());
+            }
+        }
+        return response;
+    }
+
+    private void evictExpiredJobs() {
+        long now = System.nanoTime();
+        long retentionNanos = jobRetention.toNanos();
+        jobs.values().removeIf(job -> job.finishedAtNanos != 0 && now - job.finishedAtNanos > retentionNanos);
+    }
+
+    private static class SuggestionJob {
+        private final String username;
+        private final CompletableFuture<RequisitionSuggestionResponse> future;
+        private volatile long finishedAtNanos;
+
+        private SuggestionJob(String username, CompletableFuture<RequisitionSuggestionResponse> future) {
+            this.username = username;
+            this.future = future;
+        }
+    }
+}
@@ -2,142 +2,383 @@ package just.inventory.backend.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import just.inventory.backend.dto.CatalogItemName;
+import just.inventory.backend.dto.DemandForecastLine;
+import just.inventory.backend.dto.ItemDemandStats;
+import just.inventory.backend.dto.ItemStockCount;
+import just.inventory.backend.dto.RecentRequestLine;
 import just.inventory.backend.dto.RequisitionSuggestionResponse;
-import just.inventory.backend.model.Item;
-import just.inventory.backend.model.ItemInstance;
-import just.inventory.backend.model.ItemRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.web.server.ResponseStatusException;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
 public class RequisitionSuggestionService {
 
+    // Minimum trigram similarity for matching a model-provided name to a catalog item
+    private static final double FUZZY_MATCH_THRESHOLD = 0.5;
+
     @Autowired
     private ObjectMapper objectMapper;
 
-    @Value("${ai.requisition.enabled:true}")
-    private boolean aiEnabled;
+    @Autowired
+    private GeminiClient geminiClient;
+
+    @Autowired
+    private GeminiCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private InventoryMetrics inventoryMetrics;
+
+    @Autowired
+    @Qualifier("suggestionExecutor")
+    private TaskExecutor suggestionExecutor;
 
     /**
-     * Gemini REST endpoint — the API key is appended as a query parameter.
-     * Default model: gemini-2.0-flash (fast and cost-effective).
-     * Override via application.properties: ai.requisition.model=gemini-1.5-pro
+     * How long a normalized Gemini answer is reused for an identical prompt.
+     * The prompt embeds stock and request history, so any data change produces a new key.
      */
-    @Value("${ai.requisition.model:gemini-2.0-flash}")
-    private String aiModel;
+    @Value("${ai.requisition.cache-ttl:10m}")
+    private Duration cacheTtl;
+
+    @Value("${ai.requisition.cache-max-entries:500}")
+    private int cacheMaxEntries;
 
     /**
-     * Injected from the secret stored in the environment / secret manager.
-     * In Spring Boot, expose the secret as the env-var GEMINI_API_KEY and add
-     *   ai.requisition.api-key=${GEMINI_API_KEY}
-     * to application.properties (or application.yml).
+     * Longest a synchronous caller waits for Gemini before getting the deterministic fallback.
+     * The model call keeps running in the background and still fills the cache. Poll-mode jobs
+     * are not bound by it.
      */
-    @Value("${ai.requisition.api-key:}")
-    private String geminiApiKey;
+    @Value("${ai.requisition.latency-budget:4s}")
+    private Duration latencyBudget;
+
+    private final Map<String, CachedSuggestion> responseCache = new ConcurrentHashMap<>();
+
+    private final Map<String, CompletableFuture<RequisitionSuggestionResponse>> inFlight = new ConcurrentHashMap<>();
 
     // -----------------------------------------------------------------------
-    // Public entry point
+    // Public entry points
     // -----------------------------------------------------------------------
 
-    public RequisitionSuggestionResponse suggest(
+    /**
+     * Suggestions from the precomputed demand forecasts (or request history when an office
+     * has none yet) without contacting the AI provider.
+     */
+    public RequisitionSuggestionResponse suggestWithoutAi(
+            List<ItemStockCount> availableStock,
+            List<DemandForecastLine> forecasts,
+            List<ItemDemandStats> demandStats
+    ) {
+        return buildFallbackSuggestions(availableStock, forecasts, demandStats, null);
+    }
+
+    /**
+     * Suggestions from Gemini, falling back to {@link #suggestWithoutAi} when the provider is not
+     * configured or unavailable. Never blocks the caller on the model call, and waits for it as long
+     * as it takes, which suits poll mode. Identical prompts share one cached answer, and concurrent
+     * identical prompts share one in-flight Gemini request.
+     */
+    public CompletableFuture<RequisitionSuggestionResponse> suggestAsync(
             String requestingOfficeName,
             String parentOfficeName,
             String reason,
-            List<ItemInstance> availableInstances,
-            List<ItemRequest> recentRequests,
-            List<Item> catalogItems
+            List<ItemStockCount> availableStock,
+            List<DemandForecastLine> forecasts,
+            List<ItemDemandStats> demandStats,
+            List<RecentRequestLine> recentRequests,
+            List<CatalogItemName> catalogItems
     ) {
-        if (!aiEnabled || geminiApiKey == null || geminiApiKey.isBlank()) {
-            return buildFallbackSuggestions(availableInstances, recentRequests, catalogItems,
-                    "AI unavailable; returned deterministic recommendations from request and stock history.");
+        return suggest(requestingOfficeName, parentOfficeName, reason, availableStock, forecasts,
+                demandStats, recentRequests, catalogItems, false);
+    }
+
+    /**
+     * Same as {@link #suggestAsync}, but completes with the deterministic fallback once the model
+     * call exceeds {@code ai.requisition.latency-budget}. For callers holding a request thread.
+     */
+    public CompletableFuture<RequisitionSuggestionResponse> suggestWithinBudget(
+            String requestingOfficeName,
+            String parentOfficeName,
+            String reason,
+            List<ItemStockCount> availableStock,
+            List<DemandForecastLine> forecasts,
+            List<ItemDemandStats> demandStats,
+            List<RecentRequestLine> recentRequests,
+            List<CatalogItemName> catalogItems
+    ) {
+        return suggest(requestingOfficeName, parentOfficeName, reason, availableStock, forecasts,
+                demandStats, recentRequests, catalogItems, true);
+    }
+
+    private CompletableFuture<RequisitionSuggestionResponse> suggest(
+            String requestingOfficeName,
+            String parentOfficeName,
+            String reason,
+            List<ItemStockCount> availableStock,
+            List<DemandForecastLine> forecasts,
+            List<ItemDemandStats> demandStats,
+            List<RecentRequestLine> recentRequests,
+            List<CatalogItemName> catalogItems,
+            boolean withinBudget
+    ) {
+        if (!geminiClient.isConfigured()) {
+            return CompletableFuture.completedFuture(
+                    buildFallbackSuggestions(availableStock, forecasts, demandStats,
+                            "AI unavailable; returned deterministic recommendations from demand forecasts and stock."));
         }
 
         String prompt = buildPrompt(requestingOfficeName, parentOfficeName, reason,
-                availableInstances, recentRequests);
-        try {
-            String modelContent = callGemini(prompt);
-            RequisitionSuggestionResponse aiResponse = normalizeSuggestions(modelContent, catalogItems);
-            if (aiResponse.getSuggestions() == null || aiResponse.getSuggestions().isEmpty()) {
-                return buildFallbackSuggestions(availableInstances, recentRequests, catalogItems,
-                        "AI returned no catalog matches; using deterministic fallback recommendations.");
+                availableStock, forecasts, recentRequests);
+
+        CompletableFuture<RequisitionSuggestionResponse> aiFuture = fetchAiSuggestions(prompt, catalogItems);
+        if (withinBudget && !aiFuture.isDone() && !latencyBudget.isZero() && !latencyBudget.isNegative()) {
+            // Time out a copy so the shared in-flight call is left running for the cache
+            aiFuture = aiFuture.copy().orTimeout(latencyBudget.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        return aiFuture.handle((aiResponse, error) -> {
+            if (error == null) {
+                if (aiResponse.getSuggestions() == null || aiResponse.getSuggestions().isEmpty()) {
+                    return buildFallbackSuggestions(availableStock, forecasts, demandStats,
+                            "AI returned no catalog matches; using deterministic fallback recommendations.");
+                }
+                return aiResponse;
             }
-            return aiResponse;
-        } catch (ResponseStatusException e) {
-            if (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS
+
+            if (unwrap(error) instanceof TimeoutException) {
+                return buildFallbackSuggestions(availableStock, forecasts, demandStats,
+                        "AI response exceeded the latency budget; using deterministic fallback recommendations.");
+            }
+
+            RuntimeException cause = asRuntimeException(error);
+            if (cause instanceof ResponseStatusException e
+                    && (e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS
                     || e.getStatusCode() == HttpStatus.BAD_GATEWAY
-                    || e.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE) {
-                return buildFallbackSuggestions(availableInstances, recentRequests, catalogItems,
+                    || e.getStatusCode() == HttpStatus.SERVICE_UNAVAILABLE)) {
+                return buildFallbackSuggestions(availableStock, forecasts, demandStats,
                         "AI service unavailable; using deterministic fallback recommendations.");
             }
+            throw cause;
+        });
+    }
+
+    // -----------------------------------------------------------------------
+    // Cache + single-flight around the Gemini call
+    // -----------------------------------------------------------------------
+
+    private CompletableFuture<RequisitionSuggestionResponse> fetchAiSuggestions(String prompt, List<CatalogItemName> catalogItems) {
+        String key = promptKey(prompt);
+
+        CachedSuggestion cached = responseCache.get(key);
+        if (cached != null) {
+            if (!cached.isExpired()) {
+                inventoryMetrics.suggestionSource("cache");
+                return CompletableFuture.completedFuture(cached.response());
+            }
+            responseCache.remove(key, cached);
+        }
+
+        CompletableFuture<RequisitionSuggestionResponse> existing = inFlight.get(key);
+        if (existing != null) {
+            inventoryMetrics.suggestionSource("coalesced");
+            return existing;
+        }
+
+        GeminiCircuitBreaker.Permit permit = circuitBreaker.tryAcquirePermission();
+        if (permit == null) {
+            inventoryMetrics.suggestionSource("breaker_open");
+            return CompletableFuture.failedFuture(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Gemini circuit is open"));
+        }
+
+        CompletableFuture<RequisitionSuggestionResponse> created = new CompletableFuture<>();
+        existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            // Lost the race to another caller; the permit was not used
+            circuitBreaker.releasePermission(permit);
+            inventoryMetrics.suggestionSource("coalesced");
+            return existing;
+        }
+
+        try {
+            suggestionExecutor.execute(() -> {
+                try {
+                    String modelContent = callProvider(prompt, permit);
+                    RequisitionSuggestionResponse response = normalizeSuggestions(modelContent, catalogItems);
+                    if (response.getSuggestions() != null && !response.getSuggestions().isEmpty()) {
+                        cacheResponse(key, response);
+                    }
+                    created.complete(response);
+                } catch (Throwable t) {
+                    created.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(key, created);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Executor saturated: let the caller degrade to the fallback path
+            circuitBreaker.releasePermission(permit);
+            inventoryMetrics.suggestionSource("saturated");
+            inFlight.remove(key, created);
+            created.completeExceptionally(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Suggestion executor is saturated", e));
+        }
+        return created;
+    }
+
+    private String callProvider(String prompt, GeminiCircuitBreaker.Permit permit) {
+        inventoryMetrics.suggestionSource("provider");
+        long started = System.nanoTime();
+        try {
+            String content = geminiClient.generate(prompt);
+            long latency = System.nanoTime() - started;
+            circuitBreaker.onSuccess(permit, latency);
+            inventoryMetrics.geminiCall(latency, "success");
+            return content;
+        } catch (RuntimeException e) {
+            long latency = System.nanoTime() - started;
+            circuitBreaker.onFailure(permit, latency);
+            inventoryMetrics.geminiCall(latency, "failure");
             throw e;
         }
     }
 
+    public Map<String, Object> getProviderHealth() {
+        Map<String, Object> health = new LinkedHashMap<>(circuitBreaker.snapshot());
+        health.put("configured", geminiClient.isConfigured());
+        health.put("latencyBudgetMs", latencyBudget.toMillis());
+        health.put("cachedResponses", responseCache.size());
+        health.put("inFlightCalls", inFlight.size());
+        return health;
+    }
+
+    private void cacheResponse(String key, RequisitionSuggestionResponse response) {
+        if (responseCache.size() >= cacheMaxEntries) {
+            responseCache.values().removeIf(CachedSuggestion::isExpired);
+            if (responseCache.size() >= cacheMaxEntries) {
+                responseCache.clear();
+            }
+        }
+        responseCache.put(key, new CachedSuggestion(response, System.nanoTime() + cacheTtl.toNanos()));
+    }
+
+    private String promptKey(String prompt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(geminiClient.getModel().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(prompt.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private Throwable unwrap(Throwable error) {
+        Throwable cause = error;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private RuntimeException asRuntimeException(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Failed to fetch Gemini suggestions", cause);
+    }
+
+    private record CachedSuggestion(RequisitionSuggestionResponse response, long expiresAtNanos) {
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+
     // -----------------------------------------------------------------------
     // Fallback (deterministic)
     // -----------------------------------------------------------------------
 
     private RequisitionSuggestionResponse buildFallbackSuggestions(
-            List<ItemInstance> availableInstances,
-            List<ItemRequest> recentRequests,
-            List<Item> catalogItems,
+            List<ItemStockCount> availableStock,
+            List<DemandForecastLine> forecasts,
+            List<ItemDemandStats> demandStats,
             String warning
     ) {
-        Map<Long, Long> availableCountByItemId = availableInstances.stream()
-                .filter(instance -> instance.getItem() != null)
-                .filter(instance -> instance.getStatus() == ItemInstance.ItemStatus.AVAILABLE)
-                .collect(Collectors.groupingBy(instance -> instance.getItem().getId(), Collectors.counting()));
-
-        Map<Long, Double> requestedQuantityByItemId = recentRequests.stream()
-                .filter(request -> request.getItem() != null)
-                .collect(Collectors.groupingBy(
-                        request -> request.getItem().getId(),
-                        Collectors.summingDouble(ItemRequest::getRequestedQuantity)
-                ));
-
-        Map<Long, Long> requestCountByItemId = recentRequests.stream()
-                .filter(request -> request.getItem() != null)
-                .collect(Collectors.groupingBy(
-                        request -> request.getItem().getId(),
-                        Collectors.counting()
-                ));
-
-        Map<Long, Item> catalogById = catalogItems.stream()
-                .collect(Collectors.toMap(Item::getId, item -> item, (a, b) -> a));
-
-        List<RequisitionSuggestionResponse.SuggestionLine> suggestions = requestedQuantityByItemId.entrySet().stream()
-                .filter(entry -> availableCountByItemId.getOrDefault(entry.getKey(), 0L) > 0)
-                .map(entry -> {
-                    Long itemId = entry.getKey();
-                    Item item = catalogById.get(itemId);
-                    if (item == null) return null;
-
-                    long requestCount = requestCountByItemId.getOrDefault(itemId, 0L);
-                    double totalRequested = entry.getValue();
+        Map<Long, ItemStockCount> stockByItemId = availableStock.stream()
+                .collect(Collectors.toMap(ItemStockCount::getItemId, stock -> stock, (a, b) -> a));
+
+        // Forecasts arrive largest first; suggest what the source office can actually supply
+        List<RequisitionSuggestionResponse.SuggestionLine> forecastSuggestions = forecasts.stream()
+                .map(forecast -> {
+                    ItemStockCount stock = stockByItemId.get(forecast.getItemId());
+                    if (stock == null || stock.getAvailableCount() == null || stock.getAvailableCount() <= 0) return null;
+
+                    long expected = Math.round(forecast.getForecastQuantity());
+                    if (expected <= 0) return null;
+
+                    RequisitionSuggestionResponse.SuggestionLine line = new RequisitionSuggestionResponse.SuggestionLine();
+                    line.setItemId(forecast.getItemId());
+                    line.setItemName(stock.getItemName());
+                    line.setQuantity((int) Math.min(expected, stock.getAvailableCount()));
+                    line.setRationale(String.format(Locale.ROOT,
+                            "Forecast demand of %.1f this month from %d months of history.",
+                            forecast.getForecastQuantity(), forecast.getObservedMonths()));
+                    return line;
+                })
+                .filter(line -> line != null)
+                .limit(5)
+                .toList();
+
+        if (!forecastSuggestions.isEmpty()) {
+            RequisitionSuggestionResponse response = new RequisitionSuggestionResponse();
+            response.setSummary("Recommendations generated from forecast demand and available stock.");
+            response.setSource("forecast");
+            response.setWarning(warning);
+            response.setSuggestions(forecastSuggestions);
+            return response;
+        }
+
+        List<RequisitionSuggestionResponse.SuggestionLine> suggestions = demandStats.stream()
+                .map(demand -> {
+                    ItemStockCount stock = stockByItemId.get(demand.getItemId());
+                    if (stock == null || stock.getAvailableCount() == null || stock.getAvailableCount() <= 0) return null;
+
+                    long requestCount = Optional.ofNullable(demand.getRequestCount()).orElse(0L);
+                    double totalRequested = Optional.ofNullable(demand.getTotalRequested()).orElse(0.0);
                     int quantity = (int) Math.max(1, Math.round(totalRequested / Math.max(1L, requestCount)));
 
                     RequisitionSuggestionResponse.SuggestionLine line = new RequisitionSuggestionResponse.SuggestionLine();
-                    line.setItemId(itemId);
-                    line.setItemName(item.getName());
+                    line.setItemId(demand.getItemId());
+                    line.setItemName(stock.getItemName());
                     line.setQuantity(quantity);
                     line.setRationale("Requested " + requestCount + " times recently; suggested from average demand and available stock.");
                     return line;
@@ -148,19 +389,16 @@ public class RequisitionSuggestionService {
                 .toList();
 
         if (suggestions.isEmpty()) {
-            suggestions = availableCountByItemId.entrySet().stream()
-                    .map(entry -> {
-                        Item item = catalogById.get(entry.getKey());
-                        if (item == null) return null;
-
+            suggestions = availableStock.stream()
+                    .filter(stock -> stock.getAvailableCount() != null && stock.getAvailableCount() > 0)
+                    .map(stock -> {
                         RequisitionSuggestionResponse.SuggestionLine line = new RequisitionSuggestionResponse.SuggestionLine();
-                        line.setItemId(entry.getKey());
-                        line.setItemName(item.getName());
+                        line.setItemId(stock.getItemId());
+                        line.setItemName(stock.getItemName());
                         line.setQuantity(1);
                         line.setRationale("Suggested from currently available stock.");
                         return line;
                     })
-                    .filter(line -> line != null)
                     .limit(5)
                     .toList();
         }
@@ -181,21 +419,17 @@ public class RequisitionSuggestionService {
             String requestingOfficeName,
             String parentOfficeName,
             String reason,
-            List<ItemInstance> availableInstances,
-            List<ItemRequest> recentRequests
+            List<ItemStockCount> availableStock,
+            List<DemandForecastLine> forecasts,
+            List<RecentRequestLine> recentRequests
     ) {
-        Map<String, Long> availableByItem = availableInstances.stream()
-                .filter(i -> i.getStatus() == ItemInstance.ItemStatus.AVAILABLE)
-                .collect(Collectors.groupingBy(i -> i.getItem().getName(), Collectors.counting()));
-
-        List<Map.Entry<String, Long>> topAvailable = availableByItem.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+        // availableStock arrives sorted by count, largest first
+        List<ItemStockCount> topAvailable = availableStock.stream()
                 .limit(40)
                 .toList();
 
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
         String recentRequestLines = recentRequests.stream()
-                .sorted(Comparator.comparing(ItemRequest::getRequestedDate).reversed())
                 .limit(15)
                 .map(r -> {
                     String requestedDate = r.getRequestedDate() == null
@@ -204,7 +438,7 @@ public class RequisitionSuggestionService {
                     return String.format(Locale.ROOT,
                             "- %s | item=%s | requested=%.0f | approved=%s | status=%s | reason=%s",
                             requestedDate,
-                            r.getItem().getName(),
+                            r.getItemName(),
                             r.getRequestedQuantity(),
                             r.getApprovedQuantity() == null ? "n/a" : String.format(Locale.ROOT, "%.0f", r.getApprovedQuantity()),
                             r.getStatus().name(),
@@ -213,7 +447,12 @@ public class RequisitionSuggestionService {
                 .collect(Collectors.joining("\n"));
 
         String availableLines = topAvailable.stream()
-                .map(e -> "- " + e.getKey() + " => " + e.getValue() + " available")
+                .map(stock -> "- " + stock.getItemName() + " => " + stock.getAvailableCount() + " available")
+                .collect(Collectors.joining("\n"));
+
+        String forecastLines = forecasts.stream()
+                .limit(15)
+                .map(f -> String.format(Locale.ROOT, "- %s => %.1f expected this month", f.getItemName(), f.getForecastQuantity()))
                 .collect(Collectors.joining("\n"));
 
         return """
@@ -231,11 +470,14 @@ public class RequisitionSuggestionService {
                 Recent requisitions from requesting office:
                 %s
 
+                Statistical demand forecast for requesting office:
+                %s
+
                 Rules:
                 - Suggest up to 5 items.
                 - Quantities must be positive integers.
                 - Use only item names found in stock list.
-                - Prioritize items that seem repeatedly requested or aligned with the reason.
+                - Prioritize items that seem repeatedly requested, have a high forecast, or align with the reason.
                 - Keep rationale short and practical.
 
                 Return STRICT JSON only — no markdown, no code fences — with this shape:
@@ -254,149 +496,21 @@ public class RequisitionSuggestionService {
                 parentOfficeName,
                 reason == null || reason.isBlank() ? "(not provided)" : reason,
                 availableLines.isBlank() ? "- no available stock records" : availableLines,
-                recentRequestLines.isBlank() ? "- no recent requests" : recentRequestLines
+                recentRequestLines.isBlank() ? "- no recent requests" : recentRequestLines,
+                forecastLines.isBlank() ? "- no forecast yet" : forecastLines
         );
     }
 
-    // -----------------------------------------------------------------------
-    // Gemini REST call
-    // Endpoint: POST https://generativelanguage.googleapis.com/v1beta/models/{model}:generateContent?key={apiKey}
-    // -----------------------------------------------------------------------
-
-    private String callGemini(String prompt) {
-        try {
-            /*
-             * Gemini request body:
-             * {
-             *   "system_instruction": { "parts": [{ "text": "..." }] },
-             *   "contents": [{ "parts": [{ "text": "..." }] }],
-             *   "generationConfig": { "temperature": 0.2, "responseMimeType": "application/json" }
-             * }
-             *
-             * responseMimeType = "application/json" tells Gemini to return pure JSON —
-             * no markdown fences. Supported on gemini-1.5-* and gemini-2.0-*.
-             */
-            Map<String, Object> systemInstruction = Map.of(
-                    "parts", List.of(Map.of("text", "You return only valid JSON. Do not wrap output in markdown code fences."))
-            );
-
-            Map<String, Object> userContent = Map.of(
-                    "parts", List.of(Map.of("text", prompt))
-            );
-
-            Map<String, Object> generationConfig = new HashMap<>();
-            generationConfig.put("temperature", 0.2);
-            generationConfig.put("responseMimeType", "application/json");
-
-            Map<String, Object> body = new HashMap<>();
-            body.put("system_instruction", systemInstruction);
-            body.put("contents", List.of(userContent));
-            body.put("generationConfig", generationConfig);
-
-            String payload = objectMapper.writeValueAsString(body);
-
-            String url = String.format(
-                    "https://generativelanguage.googleapis.com/v1beta/models/%s:generateContent?key=%s",
-                    aiModel, geminiApiKey
-            );
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Content-Type", "application/json")
-                    .timeout(Duration.ofSeconds(35))
-                    .POST(HttpRequest.BodyPublishers.ofString(payload))
-                    .build();
-
-            HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(10))
-                    .build();
-
-            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() >= 400) {
-                String providerMessage = extractProviderErrorMessage(response.body());
-                String reason = "Gemini API error " + response.statusCode();
-                if (!providerMessage.isBlank()) {
-                    reason += ": " + providerMessage;
-                }
-
-                // 429 → quota / rate limit
-                if (response.statusCode() == 429) {
-                    throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, reason);
-                }
-
-                // 400 with INVALID_API_KEY or similar → treat as service-unavailable so fallback kicks in
-                if (response.statusCode() == 400 || response.statusCode() == 403) {
-                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
-                            "Gemini API key or request invalid (" + response.statusCode() + "). " + providerMessage);
-                }
-
-                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, reason);
-            }
-
-            /*
-             * Gemini success response shape:
-             * {
-             *   "candidates": [{
-             *     "content": {
-             *       "parts": [{ "text": "..." }]
-             *     }
-             *   }]
-             * }
-             */
-            JsonNode root = objectMapper.readTree(response.body());
-            JsonNode textNode = root
-                    .path("candidates").path(0)
-                    .path("content").path("parts").path(0)
-                    .path("text");
-
-            String content = textNode.asText("").trim();
-            if (content.isBlank()) {
-                throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
-                        "Gemini returned empty content");
-            }
-            return content;
-
-        } catch (ResponseStatusException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new ResponseStatusException(HttpStatus.BAD_GATEWAY,
-                    "Failed to fetch Gemini suggestions", e);
-        }
-    }
-
-    // -----------------------------------------------------------------------
-    // Error message extractor (handles Gemini error envelope too)
-    // -----------------------------------------------------------------------
-
-    private String extractProviderErrorMessage(String responseBody) {
-        if (responseBody == null || responseBody.isBlank()) return "";
-        try {
-            JsonNode root = objectMapper.readTree(responseBody);
-
-            // Gemini error shape: { "error": { "message": "..." } }
-            String message = root.path("error").path("message").asText("").trim();
-            if (!message.isBlank()) return message;
-
-            message = root.path("message").asText("").trim();
-            if (!message.isBlank()) return message;
-        } catch (Exception ignored) {
-            // fall through to raw snippet
-        }
-        String compact = responseBody.replaceAll("\\s+", " ").trim();
-        return compact.length() > 200 ? compact.substring(0, 200) + "..." : compact;
-    }
-
     // -----------------------------------------------------------------------
     // Response normalizer (unchanged logic)
     // -----------------------------------------------------------------------
 
-    private RequisitionSuggestionResponse normalizeSuggestions(String modelContent, List<Item> catalogItems) {
+    private RequisitionSuggestionResponse normalizeSuggestions(String modelContent, List<CatalogItemName> catalogItems) {
         try {
             String jsonText = extractJson(modelContent);
             JsonNode root = objectMapper.readTree(jsonText);
 
-            Map<String, Item> itemByName = catalogItems.stream()
+            Map<String, CatalogItemName> itemByName = catalogItems.stream()
                     .collect(Collectors.toMap(
                             i -> i.getName().toLowerCase(Locale.ROOT).trim(),
                             i -> i,
@@ -405,12 +519,23 @@ public class RequisitionSuggestionService {
                     ));
 
             List<RequisitionSuggestionResponse.SuggestionLine> lines = new ArrayList<>();
+            Map<CatalogItemName, Set<String>> catalogTrigrams = null;
             for (JsonNode n : root.path("suggestions")) {
                 String itemName = n.path("itemName").asText("").trim();
                 int quantity = Math.max(0, n.path("quantity").asInt(0));
                 if (itemName.isBlank() || quantity <= 0) continue;
 
-                Item matched = itemByName.get(itemName.toLowerCase(Locale.ROOT));
+                CatalogItemName matched = itemByName.get(itemName.toLowerCase(Locale.ROOT));
+                if (matched == null) {
+                    // Models often pluralise or slightly misspell catalog names
+                    if (catalogTrigrams == null) {
+                        catalogTrigrams = new LinkedHashMap<>();
+                        for (CatalogItemName item : itemByName.values()) {
+                            catalogTrigrams.put(item, trigrams(item.getName()));
+                        }
+                    }
+                    matched = closestCatalogItem(itemName, catalogTrigrams);
+                }
                 if (matched == null) continue;
 
                 RequisitionSuggestionResponse.SuggestionLine line = new RequisitionSuggestionResponse.SuggestionLine();
@@ -435,6 +560,41 @@ public class RequisitionSuggestionService {
         }
     }
 
+    /**
+     * Catalog item whose name shares the most trigrams with {@code name}
+     * (same measure as PostgreSQL pg_trgm similarity), if it is close enough.
+     */
+    private CatalogItemName closestCatalogItem(String name, Map<CatalogItemName, Set<String>> catalogTrigrams) {
+        Set<String> wanted = trigrams(name);
+        if (wanted.isEmpty()) return null;
+
+        CatalogItemName best = null;
+        double bestSimilarity = FUZZY_MATCH_THRESHOLD;
+        for (Map.Entry<CatalogItemName, Set<String>> entry : catalogTrigrams.entrySet()) {
+            Set<String> candidate = entry.getValue();
+            if (candidate.isEmpty()) continue;
+            long shared = wanted.stream().filter(candidate::contains).count();
+            double similarity = shared / (double) (wanted.size() + candidate.size() - shared);
+            if (similarity >= bestSimilarity) {
+                best = entry.getKey();
+                bestSimilarity = similarity;
+            }
+        }
+        return best;
+    }
+
+    private static Set<String> trigrams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{M}\\p{N}]+")) {
+            if (word.isEmpty()) continue;
+            String padded = "  " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
     private String extractJson(String text) {
         String trimmed = text.trim();
         // Strip markdown code fences if model ignores the responseMimeType hint
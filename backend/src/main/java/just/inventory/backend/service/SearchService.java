@@ -0,0 +1,129 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.ItemInstanceSearchHit;
+import just.inventory.backend.dto.ItemSearchHit;
+import just.inventory.backend.dto.SearchPage;
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Server-side catalog and instance search backed by the PostgreSQL full-text and
+ * trigram indexes from changelogs 008 and 015. Each search runs in a transaction that first sets
+ * the pg_trgm word similarity threshold its typo-tolerant matches use.
+ */
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    // Deepest result reachable by paging; keeps every search query bounded
+    public static final int MAX_RESULT_DEPTH = 1000;
+
+    // pg_trgm word similarity needed for a typo-tolerant match ("lapotp" vs "HP Laptop" is 0.43)
+    private static final double MIN_WORD_SIMILARITY = 0.4;
+
+    private final ItemRepository itemRepository;
+    private final ItemInstanceRepository itemInstanceRepository;
+
+    @Transactional(readOnly = true)
+    public SearchPage<ItemSearchHit> searchItems(String query, int page, int size) {
+        String normalized = normalize(query);
+        String tsQuery = toPrefixTsQuery(normalized);
+        int limit = pageSize(size);
+        int offset = offset(page, limit);
+        if (tsQuery.isEmpty()) {
+            return toPage(normalized, page, limit, List.of());
+        }
+
+        itemRepository.setWordSimilarityThreshold(MIN_WORD_SIMILARITY);
+        List<ItemSearchHit> hits = itemRepository.search(
+                normalized, tsQuery, toContainsPattern(normalized), offset, limit + 1);
+        return toPage(normalized, page, limit, hits);
+    }
+
+    /**
+     * @param officeId restrict to instances owned by this office, or null for all offices
+     */
+    @Transactional(readOnly = true)
+    public SearchPage<ItemInstanceSearchHit> searchInstances(String query, Long officeId, int page, int size) {
+        String normalized = normalize(query);
+        String tsQuery = toPrefixTsQuery(normalized);
+        int limit = pageSize(size);
+        int offset = offset(page, limit);
+        if (tsQuery.isEmpty()) {
+            return toPage(normalized, page, limit, List.of());
+        }
+
+        itemRepository.setWordSimilarityThreshold(MIN_WORD_SIMILARITY);
+        List<ItemInstanceSearchHit> hits = itemInstanceRepository.search(
+                normalized, tsQuery, toContainsPattern(normalized), toPrefixPattern(normalized),
+                officeId, offset + limit + 1, offset, limit + 1);
+        return toPage(normalized, page, limit, hits);
+    }
+
+    private <T> SearchPage<T> toPage(String query, int page, int limit, List<T> hits) {
+        SearchPage<T> result = new SearchPage<>();
+        result.setQuery(query);
+        result.setPage(page);
+        result.setSize(limit);
+        // One extra row was fetched to learn whether another page exists
+        result.setHasNext(hits.size() > limit);
+        result.setResults(hits.size() > limit ? hits.subList(0, limit) : hits);
+        return result;
+    }
+
+    private int pageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private int offset(int page, int limit) {
+        if (page < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Page must not be negative");
+        }
+        long offset = (long) page * limit;
+        if (offset + limit > MAX_RESULT_DEPTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Search results are limited to the first " + MAX_RESULT_DEPTH + " matches; refine the query");
+        }
+        return (int) offset;
+    }
+
+    private String normalize(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * "dell lap" becomes "dell:* &amp; lap:*" so partially typed words still match.
+     * Letters, combining marks (Bangla vowel signs) and digits are kept; everything else separates words.
+     */
+    private String toPrefixTsQuery(String query) {
+        return Arrays.stream(query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{M}\\p{N}]+"))
+                .filter(token -> !token.isBlank())
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    private String toContainsPattern(String query) {
+        return "%" + escapeLike(query) + "%";
+    }
+
+    // Matched against upper(barcode) / upper(serial_number)
+    private String toPrefixPattern(String query) {
+        return escapeLike(query.toUpperCase(Locale.ROOT)) + "%";
+    }
+
+    private String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
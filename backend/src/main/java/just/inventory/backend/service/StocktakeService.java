@@ -0,0 +1,362 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.InstanceBarcode;
+import just.inventory.backend.dto.InstanceOwner;
+import just.inventory.backend.dto.OfficeRef;
+import just.inventory.backend.dto.StocktakeLine;
+import just.inventory.backend.dto.StocktakeReconciliation;
+import just.inventory.backend.dto.StocktakeScanResult;
+import just.inventory.backend.dto.StocktakeSessionView;
+import just.inventory.backend.dto.UserRef;
+import just.inventory.backend.model.ItemInstance.ItemStatus;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.model.StocktakeSession;
+import just.inventory.backend.model.StocktakeSession.StocktakeStatus;
+import just.inventory.backend.model.User;
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.repository.ItemTransactionRepository;
+import just.inventory.backend.repository.OfficeRepository;
+import just.inventory.backend.repository.StocktakeSessionRepository;
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Physical audits (stocktakes) of an office.
+ * <p>
+ * Opening a session records the instances the office should have on hand as a Roaring bitmap of
+ * instance ids. Scanned barcodes go to a log with one row per session and instance, so repeated
+ * scans are dropped and uploads can be retried. Reconciling folds the scans logged since the last
+ * fold into the session's scanned bitmap, then splits expected and scanned instances with set
+ * operations, which take milliseconds even for offices holding hundreds of thousands of instances.
+ * Confirmed movements since the session opened tell instances that left the office during the
+ * count from missing ones.
+ * <p>
+ * Scans lock their session for share, folds lock it for update: a fold waits for the scans in
+ * flight, so every scan id up to the one it folds through has committed.
+ */
+@Service
+public class StocktakeService {
+
+    private static final Logger log = LoggerFactory.getLogger(StocktakeService.class);
+
+    /** Instances recorded as lost or disposed are not expected on the shelves. */
+    private static final Set<ItemStatus> EXPECTED_STATUSES =
+            EnumSet.complementOf(EnumSet.of(ItemStatus.LOST, ItemStatus.DISPOSED));
+
+    @Autowired
+    private StocktakeSessionRepository sessionRepository;
+
+    @Autowired
+    private ItemInstanceRepository itemInstanceRepository;
+
+    @Autowired
+    private ItemTransactionRepository itemTransactionRepository;
+
+    @Autowired
+    private OfficeRepository officeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${stocktake.scan-batch-size:2000}")
+    private int scanBatchSize;
+
+    @Value("${stocktake.unknown-barcodes-listed:100}")
+    private int unknownBarcodesListed;
+
+    @Transactional
+    public StocktakeSessionView open(Long officeId, User user) {
+        Office office = officeRepository.findById(officeId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Office not found"));
+        if (sessionRepository.existsByOfficeIdAndStatus(officeId, StocktakeStatus.OPEN)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A stocktake is already open for this office");
+        }
+
+        StocktakeSession session = new StocktakeSession();
+        session.setOffice(office);
+        session.setStatus(StocktakeStatus.OPEN);
+        session.setOpenedBy(user);
+        // Before reading the holdings, so movements confirmed meanwhile fall inside the session
+        session.setOpenedAt(LocalDateTime.now());
+        Roaring64NavigableMap expected = new Roaring64NavigableMap();
+        itemInstanceRepository.findIdsByOwnerOfficeAndStatusIn(officeId, EXPECTED_STATUSES).forEach(expected::addLong);
+        session.setExpectedCount((int) expected.getLongCardinality());
+        session.setExpectedIds(serialize(expected));
+        try {
+            sessionRepository.saveAndFlush(session);
+        } catch (DataIntegrityViolationException e) {
+            // Another session for the office was opened concurrently
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "A stocktake is already open for this office");
+        }
+        log.info("Opened stocktake {} of office {} expecting {} instances", session.getId(), officeId,
+                session.getExpectedCount());
+        return toView(session, 0, 0);
+    }
+
+    /** Office of the session, for access checks. */
+    @Transactional
+    public Long getOfficeId(Long sessionId) {
+        return findSession(sessionId).getOffice().getId();
+    }
+
+    @Transactional(readOnly = true)
+    public StocktakeSessionView getSession(Long sessionId) {
+        StocktakeSession session = findSession(sessionId);
+        return toView(session, sessionRepository.countScans(sessionId), sessionRepository.countUnknownBarcodes(sessionId));
+    }
+
+    @Transactional(readOnly = true)
+    public List<StocktakeSessionView> getSessions(Long officeId) {
+        return sessionRepository.findByOfficeIdOrderByOpenedAtDesc(officeId).stream()
+                .map(session -> toView(session, sessionRepository.countScans(session.getId()),
+                        sessionRepository.countUnknownBarcodes(session.getId())))
+                .toList();
+    }
+
+    /** Records one upload of scanned barcodes in one transaction. */
+    public StocktakeScanResult scan(Long sessionId, List<String> barcodes, User user) {
+        List<String> received = new ArrayList<>(barcodes.size());
+        for (String barcode : barcodes) {
+            if (barcode != null && !barcode.isBlank()) {
+                received.add(barcode.trim());
+            }
+        }
+        return transactionTemplate.execute(status -> scanBatch(sessionId, received, user));
+    }
+
+    /**
+     * Records a stream of scanned barcodes, one per line, in batches of {@code stocktake.scan-batch-size}
+     * that commit one by one. If the upload fails halfway, the batches before stay recorded, and
+     * uploading the whole stream again only adds the rest.
+     */
+    public StocktakeScanResult scan(Long sessionId, BufferedReader lines, User user) throws IOException {
+        StocktakeScanResult total = new StocktakeScanResult(sessionId, 0, 0, 0, 0, List.of());
+        List<String> batch = new ArrayList<>(scanBatchSize);
+        String line;
+        while ((line = lines.readLine()) != null) {
+            if (!line.isBlank()) {
+                batch.add(line.trim());
+            }
+            if (batch.size() == scanBatchSize) {
+                total = add(total, scan(sessionId, batch, user));
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty() || total.received() == 0) {
+            total = add(total, scan(sessionId, batch, user));
+        }
+        return total;
+    }
+
+    @Transactional
+    public StocktakeReconciliation reconcile(Long sessionId, int limit) {
+        StocktakeSession session = sessionRepository.findByIdForUpdate(sessionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Stocktake not found"));
+        Long officeId = session.getOffice().getId();
+        LocalDateTime reconciledAt = session.getClosedAt() != null ? session.getClosedAt() : LocalDateTime.now();
+        Roaring64NavigableMap scanned = foldScans(session);
+        Roaring64NavigableMap expected = deserialize(session.getExpectedIds());
+        List<InstanceOwner> movements =
+                itemTransactionRepository.findLastConfirmedOwners(officeId, session.getOpenedAt(), reconciledAt);
+
+        long started = System.nanoTime();
+        Roaring64NavigableMap arrived = new Roaring64NavigableMap();
+        Roaring64NavigableMap left = new Roaring64NavigableMap();
+        for (InstanceOwner movement : movements) {
+            (officeId.equals(movement.getOfficeId()) ? arrived : left).addLong(movement.getInstanceId());
+        }
+        long found = Roaring64NavigableMap.andCardinality(expected, scanned);
+        Roaring64NavigableMap missing = Roaring64NavigableMap.andNot(expected, scanned);
+        Roaring64NavigableMap movedOut = Roaring64NavigableMap.and(missing, left);
+        missing.andNot(movedOut);
+
+        Roaring64NavigableMap extra = Roaring64NavigableMap.andNot(scanned, expected);
+        Roaring64NavigableMap unexpected = Roaring64NavigableMap.and(extra, arrived);
+        Roaring64NavigableMap misplaced = Roaring64NavigableMap.and(extra, left);
+        // Scanned instances that did not move in or out during the session belong where they are owned now
+        Roaring64NavigableMap unmoved = Roaring64NavigableMap.andNot(extra, Roaring64NavigableMap.or(arrived, left));
+        long computeNanos = System.nanoTime() - started;
+
+        if (!unmoved.isEmpty()) {
+            List<InstanceOwner> owners = itemInstanceRepository.findOwners(toArray(unmoved, Integer.MAX_VALUE));
+            started = System.nanoTime();
+            for (InstanceOwner owner : owners) {
+                (officeId.equals(owner.getOfficeId()) ? unexpected : misplaced).addLong(owner.getInstanceId());
+            }
+            computeNanos += System.nanoTime() - started;
+        }
+
+        return new StocktakeReconciliation(session.getId(), officeId, session.getStatus(), session.getOpenedAt(),
+                reconciledAt, session.getExpectedCount(), scanned.getLongCardinality(), found,
+                missing.getLongCardinality(), movedOut.getLongCardinality(),
+                unexpected.getLongCardinality(), misplaced.getLongCardinality(),
+                sessionRepository.countUnknownBarcodes(sessionId),
+                lines(missing, limit), lines(unexpected, limit), lines(misplaced, limit),
+                sessionRepository.findUnknownBarcodes(sessionId, limit),
+                computeNanos / 1e6);
+    }
+
+    /** Stops accepting scans; the reconciliation stays as of the closing time from then on. */
+    @Transactional
+    public StocktakeSessionView close(Long sessionId, User user) {
+        StocktakeSession session = sessionRepository.findByIdForUpdate(sessionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Stocktake not found"));
+        if (session.getStatus() != StocktakeStatus.OPEN) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Stocktake is already closed");
+        }
+        foldScans(session);
+        session.setStatus(StocktakeStatus.CLOSED);
+        session.setClosedBy(user);
+        session.setClosedAt(LocalDateTime.now());
+        log.info("Closed stocktake {} of office {} with {} of {} expected instances scanned", sessionId,
+                session.getOffice().getId(), session.getScannedCount(), session.getExpectedCount());
+        return toView(session, session.getScannedCount(), sessionRepository.countUnknownBarcodes(sessionId));
+    }
+
+    private StocktakeScanResult scanBatch(Long sessionId, List<String> barcodes, User user) {
+        StocktakeSession session = sessionRepository.findByIdForScan(sessionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Stocktake not found"));
+        if (session.getStatus() != StocktakeStatus.OPEN) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "Stocktake is closed");
+        }
+        if (barcodes.isEmpty()) {
+            return new StocktakeScanResult(sessionId, 0, 0, 0, 0, List.of());
+        }
+
+        String[] distinct = barcodes.stream().distinct().toArray(String[]::new);
+        List<InstanceBarcode> matches = itemInstanceRepository.findByBarcodeIn(distinct);
+        Set<String> known = new HashSet<>();
+        Long[] instanceIds = new Long[matches.size()];
+        for (int i = 0; i < instanceIds.length; i++) {
+            known.add(matches.get(i).getBarcode());
+            instanceIds[i] = matches.get(i).getInstanceId();
+        }
+        List<String> unknown = new ArrayList<>();
+        for (String barcode : distinct) {
+            if (!known.contains(barcode)) {
+                unknown.add(barcode);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        int newlyScanned = instanceIds.length == 0 ? 0
+                : sessionRepository.insertScans(sessionId, instanceIds, user.getId(), now);
+        if (!unknown.isEmpty()) {
+            sessionRepository.insertUnknownBarcodes(sessionId, unknown.toArray(String[]::new), user.getId(), now);
+        }
+        int knownReceived = (int) barcodes.stream().filter(known::contains).count();
+        return new StocktakeScanResult(sessionId, barcodes.size(), newlyScanned, knownReceived - newlyScanned,
+                unknown.size(), unknown.subList(0, Math.min(unknown.size(), unknownBarcodesListed)));
+    }
+
+    /**
+     * Adds the scans logged since the last fold to the session's scanned bitmap and returns it. The
+     * session must be locked for update.
+     */
+    private Roaring64NavigableMap foldScans(StocktakeSession session) {
+        Roaring64NavigableMap scanned = session.getScannedIds() != null
+                ? deserialize(session.getScannedIds()) : new Roaring64NavigableMap();
+        long after = session.getScannedThrough();
+        long through = sessionRepository.findLastScanId(session.getId()).orElse(after);
+        if (through > after) {
+            sessionRepository.findScannedInstanceIds(session.getId(), after, through).forEach(scanned::addLong);
+            session.setScannedIds(serialize(scanned));
+            session.setScannedCount((int) scanned.getLongCardinality());
+            session.setScannedThrough(through);
+        }
+        return scanned;
+    }
+
+    private List<StocktakeLine> lines(Roaring64NavigableMap instances, int limit) {
+        return instances.isEmpty() || limit <= 0 ? List.of()
+                : itemInstanceRepository.findStocktakeLines(toArray(instances, limit));
+    }
+
+    private StocktakeScanResult add(StocktakeScanResult total, StocktakeScanResult batch) {
+        List<String> unknown = total.unknownBarcodes();
+        if (unknown.size() < unknownBarcodesListed && !batch.unknownBarcodes().isEmpty()) {
+            unknown = new ArrayList<>(unknown);
+            unknown.addAll(batch.unknownBarcodes().subList(0,
+                    Math.min(batch.unknownBarcodes().size(), unknownBarcodesListed - unknown.size())));
+        }
+        return new StocktakeScanResult(total.sessionId(), total.received() + batch.received(),
+                total.newlyScanned() + batch.newlyScanned(), total.alreadyScanned() + batch.alreadyScanned(),
+                total.unknownCount() + batch.unknownCount(), unknown);
+    }
+
+    private StocktakeSession findSession(Long sessionId) {
+        return sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Stocktake not found"));
+    }
+
+    private static StocktakeSessionView toView(StocktakeSession session, long scannedCount, long unknownBarcodeCount) {
+        Office office = session.getOffice();
+        return new StocktakeSessionView(session.getId(),
+                OfficeRef.of(office.getId(), office.getName(), office.getCode()),
+                session.getStatus(), userRef(session.getOpenedBy()), session.getOpenedAt(),
+                userRef(session.getClosedBy()), session.getClosedAt(),
+                session.getExpectedCount(), scannedCount, unknownBarcodeCount);
+    }
+
+    private static UserRef userRef(User user) {
+        return user == null ? null
+                : UserRef.of(user.getId(), user.getUsername(), user.getFullName(), user.getAvatarUrl());
+    }
+
+    /** The first {@code limit} ids of the bitmap, ascending. */
+    private static Long[] toArray(Roaring64NavigableMap instances, int limit) {
+        Long[] ids = new Long[(int) Math.min(instances.getLongCardinality(), limit)];
+        LongIterator iterator = instances.getLongIterator();
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = iterator.next();
+        }
+        return ids;
+    }
+
+    // Portable format, shared with the Roaring implementations of other languages
+
+    static byte[] serialize(Roaring64NavigableMap bitmap) {
+        bitmap.runOptimize();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) bitmap.serializedSizeInBytes());
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            bitmap.serializePortable(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static Roaring64NavigableMap deserialize(byte[] bytes) {
+        Roaring64NavigableMap bitmap = new Roaring64NavigableMap();
+        try {
+            bitmap.deserializePortable(new DataInputStream(new ByteArrayInputStream(bytes)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bitmap;
+    }
+}
@@ -0,0 +1,84 @@
+package just.inventory.backend.service;
+
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-entity change counters behind the catalog and inventory ETags. Every committed insert,
+ * update or delete of an entity bumps its counter (see {@code TableVersionConfig}), so a tag
+ * built from the counters of the tables a response reads changes whenever that response could.
+ * <p>
+ * The counters live in this process and start over on restart; the random epoch in each tag keeps
+ * tags from before a restart, or from another instance, from matching. Each bump is also sent over
+ * the {@link CacheInvalidationBus}, and bumps from other instances are applied here, so a tag or
+ * cached report goes stale on every instance shortly after a write on any of them.
+ */
+@Component
+public class TableVersions {
+
+    private static final String BUS_PREFIX = "table";
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+    private final Map<String, Long> changedAt = new ConcurrentHashMap<>();
+
+    private final CacheInvalidationBus bus;
+
+    public TableVersions(CacheInvalidationBus bus) {
+        this.bus = bus;
+        // A missed bump could let a stale tag match, so after a gap every table counts as changed
+        bus.subscribe(BUS_PREFIX, this::bump, () -> versions.keySet().forEach(this::bump));
+    }
+
+    /** Records a committed write on this instance and announces it to the others. */
+    public void bump(Class<?> entityType) {
+        bump(entityType.getName());
+        bus.publish(BUS_PREFIX, entityType.getName());
+    }
+
+    public long version(Class<?> entityType) {
+        return counter(entityType.getName()).get();
+    }
+
+    /** Whether any of the given tables had a committed write within the last {@code window}. */
+    public boolean changedWithin(Duration window, Class<?>... entityTypes) {
+        long now = System.nanoTime();
+        for (Class<?> entityType : entityTypes) {
+            Long at = changedAt.get(entityType.getName());
+            if (at != null && now - at < window.toNanos()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A weak ETag over the given tables' versions: the same data may go out gzipped or not, so the
+     * bytes differ while the tag holds. {@code scope} distinguishes responses that share a URL but
+     * not their content, such as "my office" endpoints; pass {@code null} otherwise.
+     */
+    public String etag(Object scope, Class<?>... entityTypes) {
+        StringBuilder tag = new StringBuilder("W/\"").append(epoch);
+        for (Class<?> entityType : entityTypes) {
+            tag.append('.').append(version(entityType));
+        }
+        if (scope != null) {
+            tag.append('-').append(scope);
+        }
+        return tag.append('"').toString();
+    }
+
+    private void bump(String entityName) {
+        counter(entityName).incrementAndGet();
+        changedAt.put(entityName, System.nanoTime());
+    }
+
+    private AtomicLong counter(String entityName) {
+        return versions.computeIfAbsent(entityName, name -> new AtomicLong());
+    }
+}
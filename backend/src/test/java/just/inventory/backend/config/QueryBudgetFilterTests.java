@@ -0,0 +1,78 @@
+package just.inventory.backend.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@link QueryBudgetFilter} with {@code fail-on-exceed} on, against a handler that runs as many
+ * "statements" as it is asked to.
+ */
+class QueryBudgetFilterTests {
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.standaloneSetup(new StatementsController())
+                .addFilters(new QueryBudgetFilter(true, true, 3))
+                .build();
+    }
+
+    @Test
+    void requestWithinBudgetPassesWithCountHeaders() throws Exception {
+        mvc.perform(get("/class-budget").param("statements", "4"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("ran 4"))
+                .andExpect(header().string("X-Query-Count", "4"))
+                .andExpect(header().string("X-Query-Budget", "4"))
+                .andExpect(header().string("X-Query-Repeated", "1"));
+    }
+
+    @Test
+    void requestOverBudgetFails() throws Exception {
+        mvc.perform(get("/class-budget").param("statements", "5"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(content().string("Query budget exceeded: 5 queries, budget 4"))
+                .andExpect(header().string("X-Query-Count", "5"));
+    }
+
+    @Test
+    void methodBudgetOverridesTheClassBudget() throws Exception {
+        mvc.perform(get("/method-budget").param("statements", "2"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(header().string("X-Query-Budget", "1"));
+    }
+
+    @RestController
+    @QueryBudget(4)
+    static class StatementsController {
+
+        @GetMapping("/class-budget")
+        String classBudget(@RequestParam int statements) {
+            return run(statements);
+        }
+
+        @GetMapping("/method-budget")
+        @QueryBudget(1)
+        String methodBudget(@RequestParam int statements) {
+            return run(statements);
+        }
+
+        private static String run(int statements) {
+            for (int i = 0; i < statements; i++) {
+                QueryStatistics.current().record("select * from items where id = " + i);
+            }
+            return "ran " + statements;
+        }
+    }
+}
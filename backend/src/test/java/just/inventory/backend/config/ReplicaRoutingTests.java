@@ -0,0 +1,114 @@
+package just.inventory.backend.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.Cookie;
+import just.inventory.backend.service.CacheInvalidationBus;
+import just.inventory.backend.service.TableVersions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Read-your-writes across instances: a write committed through one instance must keep the user's
+ * following reads off the replica on another instance, which never saw the write.
+ */
+class ReplicaRoutingTests {
+
+    private ReplicaRouting writingInstance;
+    private ReplicaRouting readingInstance;
+
+    @BeforeEach
+    void setUp() {
+        writingInstance = routing();
+        readingInstance = routing();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken("clerk", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void writeOnOneInstanceKeepsReadsOnTheOtherOnThePrimary() {
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        inRequest(new MockHttpServletRequest(), writeResponse);
+        writingInstance.afterCommit(writeTransaction(), null);
+
+        Cookie sticky = writeResponse.getCookie(ReplicaRouting.STICKY_COOKIE);
+        assertThat(sticky).isNotNull();
+        assertThat(sticky.getMaxAge()).isEqualTo(5);
+        assertThat(writeResponse.getHeader(HttpHeaders.SET_COOKIE)).contains("HttpOnly");
+
+        MockHttpServletRequest nextRead = new MockHttpServletRequest();
+        nextRead.setCookies(new Cookie(sticky.getName(), sticky.getValue()));
+        inRequest(nextRead, new MockHttpServletResponse());
+        assertThat(readingInstance.useReplica()).isFalse();
+
+        // Requests without the cookie are not held back
+        inRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+        assertThat(readingInstance.useReplica()).isTrue();
+    }
+
+    @Test
+    void expiredCookieReadsFromTheReplica() {
+        MockHttpServletRequest read = new MockHttpServletRequest();
+        read.setCookies(new Cookie(ReplicaRouting.STICKY_COOKIE, Long.toString(System.currentTimeMillis() - 1)));
+        inRequest(read, new MockHttpServletResponse());
+
+        assertThat(readingInstance.useReplica()).isTrue();
+    }
+
+    @Test
+    void readOnlyTransactionSetsNoCookie() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        inRequest(new MockHttpServletRequest(), response);
+        TransactionExecution transaction = mock(TransactionExecution.class);
+        when(transaction.isNewTransaction()).thenReturn(true);
+        when(transaction.isReadOnly()).thenReturn(true);
+
+        writingInstance.afterCommit(transaction, null);
+
+        assertThat(response.getCookie(ReplicaRouting.STICKY_COOKIE)).isNull();
+    }
+
+    private static ReplicaRouting routing() {
+        ReplicaRouting routing = new ReplicaRouting(new TableVersions(new CacheInvalidationBus()), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(routing, "maxLag", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(routing, "lagCheckInterval", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(routing, "stickyWindow", Duration.ofSeconds(5));
+        // A replica within its lag limit, without checking it
+        ReflectionTestUtils.setField(routing, "replica", mock(DataSource.class));
+        ReflectionTestUtils.setField(routing, "replicaUsable", true);
+        return routing;
+    }
+
+    private static TransactionExecution writeTransaction() {
+        TransactionExecution transaction = mock(TransactionExecution.class);
+        when(transaction.isNewTransaction()).thenReturn(true);
+        return transaction;
+    }
+
+    private static void inRequest(MockHttpServletRequest request, MockHttpServletResponse response) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+    }
+}
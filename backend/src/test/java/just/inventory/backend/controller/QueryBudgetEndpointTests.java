@@ -0,0 +1,182 @@
+package just.inventory.backend.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The endpoints that build a response per row (tracking history, purchase responses, user
+ * summaries) against their {@code @QueryBudget}, with {@code query-budget.fail-on-exceed} on so an
+ * N+1 turns into a 500. Runs against the database in {@code TEST_DATABASE_URL} (see
+ * {@link TestApplication}) in a throwaway office with its own admin, users and purchase; the more
+ * rows the database already holds, the more an N+1 would cost.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class QueryBudgetEndpointTests {
+
+    private static final int OFFICE_USERS = 20;
+
+    private static ConfigurableApplicationContext app;
+    private static JdbcTemplate jdbc;
+    private static ObjectMapper objectMapper;
+    private static final HttpClient http = HttpClient.newHttpClient();
+
+    private static String suffix;
+    private static Long officeId;
+    private static Long categoryId;
+    private static Long itemId;
+    private static Long userId;
+    private static String token;
+
+    @BeforeAll
+    static void startAndLogIn() throws Exception {
+        app = TestApplication.start("--query-budget.enabled=true", "--query-budget.headers=true",
+                "--query-budget.fail-on-exceed=true");
+        jdbc = app.getBean(JdbcTemplate.class);
+        objectMapper = app.getBean(ObjectMapper.class);
+
+        // Seed data takes explicit ids without advancing the identity sequences, and the
+        // endpoints under test insert users, purchases and instances themselves
+        for (String table : List.of("offices", "categories", "items", "users", "purchases", "purchase_items", "item_instances")) {
+            jdbc.queryForList("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "greatest(coalesce(max(id), 0), 1)) from " + table);
+        }
+
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        officeId = jdbc.queryForObject("insert into offices (name, code, type, is_active) " +
+                "values (?, ?, 'office', true) returning id", Long.class, "budget-test-" + suffix, "BT" + suffix);
+        categoryId = jdbc.queryForObject("insert into categories (name) values (?) returning id", Long.class,
+                "budget-test-" + suffix);
+        itemId = jdbc.queryForObject("insert into items (name, category_id) values (?, ?) returning id", Long.class,
+                "budget-test-" + suffix, categoryId);
+        String password = app.getBean(PasswordEncoder.class).encode("password123");
+        for (int i = 0; i <= OFFICE_USERS; i++) {
+            String role = i == 0 ? "ADMIN" : "USER";
+            Long id = jdbc.queryForObject("insert into users (username, password, email, full_name, " +
+                    "is_active, role_id, office_id) values (?, ?, ?, ?, true, " +
+                    "(select id from roles where name = ?), ?) returning id", Long.class,
+                    "budget." + suffix + "." + i, password, "budget." + suffix + "." + i + "@test",
+                    "Budget User " + i, role, officeId);
+            if (i == 1) {
+                userId = id;
+            }
+        }
+
+        HttpResponse<String> login = send(HttpRequest.newBuilder(uri("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(json(Map.of("username", "budget." + suffix + ".0", "password", "password123"))));
+        assertThat(login.statusCode()).isEqualTo(200);
+        token = objectMapper.readTree(login.body()).get("token").asText();
+    }
+
+    @AfterAll
+    static void cleanUpAndStop() {
+        if (app == null) {
+            return;
+        }
+        if (officeId != null) {
+            jdbc.update("delete from item_transactions where item_instance_id in " +
+                    "(select id from item_instances where owner_office_id = ?)", officeId);
+            jdbc.update("delete from item_instances where owner_office_id = ?", officeId);
+            jdbc.update("delete from purchase_items where purchase_id in (select id from purchases where office_id = ?)", officeId);
+            jdbc.update("delete from purchases where office_id = ?", officeId);
+            jdbc.update("delete from office_item_purchase_stats where office_id = ?", officeId);
+            jdbc.update("delete from office_item_counts where office_id = ?", officeId);
+            jdbc.update("delete from office_activity_counts where office_id = ?", officeId);
+            jdbc.update("delete from users where office_id = ?", officeId);
+            jdbc.update("delete from inventories where office_id = ?", officeId);
+            jdbc.update("delete from offices where id = ?", officeId);
+        }
+        if (itemId != null) {
+            jdbc.update("delete from items where id = ?", itemId);
+        }
+        if (categoryId != null) {
+            jdbc.update("delete from categories where id = ?", categoryId);
+        }
+        app.close();
+    }
+
+    @Test
+    void purchaseAndTrackingEndpointsStayWithinBudget() throws Exception {
+        HttpResponse<String> created = send(authorized("/api/purchases")
+                .header("Content-Type", "application/json")
+                .POST(json(Map.of("supplier", "Budget Supplier", "items",
+                        new Object[]{Map.of("itemId", itemId, "quantity", 3, "unitPrice", 10)}))));
+        assertThat(created.statusCode()).isEqualTo(201);
+        JsonNode purchase = objectMapper.readTree(created.body());
+        String barcode = purchase.get("items").get(0).get("itemBarcodes").get(0).asText();
+
+        assertWithinBudget(get("/api/purchases"));
+        assertWithinBudget(get("/api/purchases/" + purchase.get("id").asLong()));
+        assertWithinBudget(get("/api/purchases/office/" + officeId));
+        HttpResponse<String> tracked = assertWithinBudget(get("/api/tracking/barcode/" + barcode));
+        assertThat(objectMapper.readTree(tracked.body()).get("purchaseInformation").get("supplier").asText())
+                .isEqualTo("Budget Supplier");
+    }
+
+    @Test
+    void userSummaryEndpointsStayWithinBudget() throws Exception {
+        assertWithinBudget(get("/api/users/admins"));
+        HttpResponse<String> users = assertWithinBudget(get("/api/users/office-users"));
+        assertThat(objectMapper.readTree(users.body()).size()).isEqualTo(OFFICE_USERS);
+
+        assertWithinBudget(patch("/api/users/" + userId + "/deactivate"));
+        assertWithinBudget(patch("/api/users/" + userId + "/activate"));
+        assertWithinBudget(send(authorized("/api/users/office-users")
+                .header("Content-Type", "application/json")
+                .POST(json(Map.of("username", "budget." + suffix + ".new", "password", "password123",
+                        "email", "budget." + suffix + ".new@test", "fullName", "Budget New User")))));
+    }
+
+    private static HttpResponse<String> assertWithinBudget(HttpResponse<String> response) {
+        assertThat(response.statusCode())
+                .as("%s %s", response.request().uri(), response.body())
+                .isBetween(200, 299);
+        String count = response.headers().firstValue("X-Query-Count").orElseThrow();
+        String budget = response.headers().firstValue("X-Query-Budget").orElseThrow();
+        assertThat(Integer.parseInt(count)).isLessThanOrEqualTo(Integer.parseInt(budget));
+        return response;
+    }
+
+    private static HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return send(authorized(path).GET());
+    }
+
+    private static HttpResponse<String> patch(String path) throws IOException, InterruptedException {
+        return send(authorized(path).method("PATCH", HttpRequest.BodyPublishers.noBody()));
+    }
+
+    private static HttpRequest.Builder authorized(String path) {
+        return HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token);
+    }
+
+    private static HttpRequest.BodyPublisher json(Object body) throws IOException {
+        return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body));
+    }
+
+    private static URI uri(String path) {
+        return URI.create(TestApplication.baseUrl(app) + path);
+    }
+
+    private static HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
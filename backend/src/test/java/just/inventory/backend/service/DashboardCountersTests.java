@@ -0,0 +1,167 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.model.Inventory;
+import just.inventory.backend.model.ItemInstance;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The running dashboard counters against PostgreSQL: concurrent transactions that touch the same
+ * counters in opposite order must both commit, and a rebuild must recount what was changed around
+ * the services. Needs a PostgreSQL database it may write to (see
+ * {@link TestApplication}); the offices and item it creates are removed afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class DashboardCountersTests {
+
+    private static ConfigurableApplicationContext app;
+    private static JdbcTemplate jdbc;
+    private static TransactionTemplate transaction;
+    private static DashboardService dashboardService;
+
+    private Long officeA;
+    private Long officeB;
+    private Long itemId;
+
+    @BeforeAll
+    static void start() {
+        app = TestApplication.start();
+        jdbc = app.getBean(JdbcTemplate.class);
+        transaction = new TransactionTemplate(app.getBean(PlatformTransactionManager.class));
+        dashboardService = app.getBean(DashboardService.class);
+        // Seed data takes explicit ids without advancing the identity sequences
+        for (String table : new String[]{"offices", "inventories", "items", "item_instances"}) {
+            jdbc.queryForList("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "greatest(coalesce(max(id), 0), 1)) from " + table);
+        }
+    }
+
+    @AfterAll
+    static void stop() {
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    @BeforeEach
+    void createOfficesAndItem() {
+        String name = "counter-test-" + UUID.randomUUID().toString().substring(0, 8);
+        officeA = jdbc.queryForObject("insert into offices (name, type, is_active) values (?, 'office', true) returning id",
+                Long.class, name + "-a");
+        officeB = jdbc.queryForObject("insert into offices (name, type, is_active) values (?, 'office', true) returning id",
+                Long.class, name + "-b");
+        itemId = jdbc.queryForObject("insert into items (name) values (?) returning id", Long.class, name);
+    }
+
+    @AfterEach
+    void deleteOfficesAndItem() {
+        jdbc.update("delete from item_instances where item_id = ?", itemId);
+        jdbc.update("delete from inventories where office_id in (?, ?)", officeA, officeB);
+        jdbc.update("delete from office_item_counts where office_id in (?, ?)", officeA, officeB);
+        jdbc.update("delete from office_activity_counts where office_id in (?, ?)", officeA, officeB);
+        jdbc.update("delete from items where id = ?", itemId);
+        jdbc.update("delete from offices where id in (?, ?)", officeA, officeB);
+    }
+
+    @Test
+    void transactionsCountingInOppositeOrderBothCommit() throws Exception {
+        // Each transaction reports one change, waits for the other to do the same, then reports a
+        // change to the counter the other reported first. Written as they came, that is a deadlock.
+        CyclicBarrier bothReported = new CyclicBarrier(2);
+        CompletableFuture<Void> first = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            dashboardService.itemsChanged(inventory(officeA), itemId, ItemInstance.ItemStatus.IN_USE, 1);
+            await(bothReported);
+            dashboardService.itemsChanged(inventory(officeB), itemId, ItemInstance.ItemStatus.AVAILABLE, 1);
+        }));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> transaction.executeWithoutResult(status -> {
+            dashboardService.itemsChanged(inventory(officeB), itemId, ItemInstance.ItemStatus.AVAILABLE, 1);
+            await(bothReported);
+            dashboardService.itemsChanged(inventory(officeA), itemId, ItemInstance.ItemStatus.IN_USE, 1);
+        }));
+
+        CompletableFuture.allOf(first, second).get(30, TimeUnit.SECONDS);
+
+        assertThat(itemCount(officeA, "IN_USE")).isEqualTo(2);
+        assertThat(itemCount(officeB, "AVAILABLE")).isEqualTo(2);
+    }
+
+    @Test
+    void deltasOfOneTransactionAreSummed() {
+        transaction.executeWithoutResult(status -> {
+            dashboardService.itemsChanged(inventory(officeA), itemId, ItemInstance.ItemStatus.AVAILABLE, 3);
+            dashboardService.itemsChanged(inventory(officeA), itemId, ItemInstance.ItemStatus.AVAILABLE, -3);
+            dashboardService.itemsChanged(inventory(officeA), itemId, ItemInstance.ItemStatus.IN_USE, 2);
+        });
+
+        // A zero net change writes no row at all
+        assertThat(jdbc.queryForObject("select count(*) from office_item_counts where office_id = ? and status = 'AVAILABLE'",
+                Long.class, officeA)).isZero();
+        assertThat(itemCount(officeA, "IN_USE")).isEqualTo(2);
+    }
+
+    @Test
+    void rebuildRecountsInstancesWrittenAroundTheServices() {
+        Long inventoryId = jdbc.queryForObject("insert into inventories (office_id) values (?) returning id",
+                Long.class, officeA);
+        String[] statuses = {"AVAILABLE", "AVAILABLE", "IN_USE"};
+        for (int i = 0; i < statuses.length; i++) {
+            jdbc.update("insert into item_instances (item_id, barcode, inventory_id, owner_office_id, status, created_at) " +
+                    "values (?, ?, ?, ?, ?, now())", itemId, "DC-" + itemId + "-" + i, inventoryId, officeA, statuses[i]);
+        }
+        // Drifted counters, and one of another office that must stay
+        jdbc.update("insert into office_item_counts (office_id, item_id, status, item_count) values (?, ?, 'BROKEN', 4)",
+                officeA, itemId);
+        jdbc.update("insert into office_activity_counts (office_id, counter, counter_value) values (?, 'purchases', 9)",
+                officeA);
+        jdbc.update("insert into office_activity_counts (office_id, counter, counter_value) values (?, 'purchases', 9)",
+                officeB);
+
+        assertThat(dashboardService.rebuildCounters(officeA)).isEqualTo(2);
+
+        assertThat(jdbc.queryForList("select status || '=' || item_count from office_item_counts where office_id = ?",
+                String.class, officeA)).containsExactlyInAnyOrder("AVAILABLE=2", "IN_USE=1");
+        assertThat(jdbc.queryForObject("select count(*) from office_activity_counts where office_id = ?",
+                Long.class, officeA)).isZero();
+        assertThat(dashboardService.getSnapshot(officeA).totalItems()).isEqualTo(3);
+        assertThat(jdbc.queryForObject("select counter_value from office_activity_counts where office_id = ?",
+                Long.class, officeB)).isEqualTo(9);
+    }
+
+    private long itemCount(Long officeId, String status) {
+        return jdbc.queryForObject("select item_count from office_item_counts " +
+                "where office_id = ? and item_id = ? and status = ?", Long.class, officeId, itemId, status);
+    }
+
+    private static Inventory inventory(Long officeId) {
+        Office office = new Office();
+        office.setId(officeId);
+        Inventory inventory = new Inventory();
+        inventory.setOffice(office);
+        return inventory;
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
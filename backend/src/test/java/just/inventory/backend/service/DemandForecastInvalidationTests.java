@@ -0,0 +1,136 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.DemandForecastLine;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application instances on one database: a forecast recompute on one, or a gap in the cache
+ * bus, must clear the other's forecast snapshot. Needs a PostgreSQL database it may write to (see
+ * {@link TestApplication}); each test cleans up after itself, but a recompute replaces every
+ * stored forecast.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class DemandForecastInvalidationTests {
+
+    private static final Duration PROPAGATION_TIMEOUT = Duration.ofSeconds(10);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static JdbcTemplate jdbc;
+
+    private Long officeId;
+    private Long itemId;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        jdbc = nodeA.getBean(JdbcTemplate.class);
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @BeforeEach
+    void createOfficeAndItem() {
+        String name = "forecast-test-" + UUID.randomUUID();
+        // Seed data takes explicit ids without advancing the identity sequences
+        officeId = jdbc.queryForObject("insert into offices (id, name, type, is_active) " +
+                "select coalesce(max(id), 0) + 1, ?, 'office', true from offices returning id", Long.class, name);
+        itemId = jdbc.queryForObject("insert into items (id, name) " +
+                "select coalesce(max(id), 0) + 1, ? from items returning id", Long.class, name);
+        // Start from the table as it is now, whatever an earlier test left cached
+        ReflectionTestUtils.setField(nodeA.getBean(DemandForecastService.class), "snapshot", null);
+        ReflectionTestUtils.setField(nodeB.getBean(DemandForecastService.class), "snapshot", null);
+    }
+
+    @AfterEach
+    void deleteOfficeAndItem() {
+        jdbc.update("delete from demand_forecasts where office_id = ?", officeId);
+        jdbc.update("delete from items where id = ?", itemId);
+        jdbc.update("delete from offices where id = ?", officeId);
+    }
+
+    @Test
+    void recomputeOnOneInstanceClearsTheOthersSnapshot() throws InterruptedException {
+        insertForecast();
+        assertThat(forecasts(nodeB)).hasSize(1);
+
+        // The test office has no demand history, so the recompute drops its forecast
+        nodeA.getBean(DemandForecastService.class).recomputeForecasts();
+
+        awaitNoForecasts(nodeB);
+    }
+
+    @Test
+    void busReconnectClearsTheSnapshot() throws InterruptedException {
+        insertForecast();
+        assertThat(forecasts(nodeB)).hasSize(1);
+
+        // A change nobody announced stays invisible until the snapshot is dropped
+        jdbc.update("delete from demand_forecasts where office_id = ?", officeId);
+        assertThat(forecasts(nodeB)).hasSize(1);
+
+        terminateBusConnection(nodeB);
+
+        awaitNoForecasts(nodeB);
+    }
+
+    /** Kills only the given node's listener; other applications may share the database. */
+    private void terminateBusConnection(ConfigurableApplicationContext node) throws InterruptedException {
+        String applicationName = node.getBean(CacheInvalidationBus.class).applicationName();
+        String terminate = "select pg_terminate_backend(pid) from pg_stat_activity where application_name = ?";
+        long deadline = System.nanoTime() + PROPAGATION_TIMEOUT.toNanos();
+        List<Boolean> terminated = jdbc.queryForList(terminate, Boolean.class, applicationName);
+        // The listener connects in the background after startup
+        while (terminated.isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+            terminated = jdbc.queryForList(terminate, Boolean.class, applicationName);
+        }
+        assertThat(terminated).containsExactly(true);
+    }
+
+    private void insertForecast() {
+        jdbc.update("insert into demand_forecasts (office_id, item_id, forecast_month, forecast_quantity, " +
+                "smoothed_level, smoothed_trend, seasonal_effect, observed_months, computed_at) " +
+                "values (?, ?, date_trunc('month', now()), 5, 5, 0, 0, 12, now())", officeId, itemId);
+    }
+
+    private List<DemandForecastLine> forecasts(ConfigurableApplicationContext node) {
+        return node.getBean(DemandForecastService.class).getForecastsForOffice(officeId);
+    }
+
+    private void awaitNoForecasts(ConfigurableApplicationContext node) throws InterruptedException {
+        long deadline = System.nanoTime() + PROPAGATION_TIMEOUT.toNanos();
+        while (!forecasts(node).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(forecasts(node)).isEmpty();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return TestApplication.start("--cache-bus.poll-interval=50ms");
+    }
+}
@@ -0,0 +1,119 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.model.ItemInstance;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The files {@link ExportFileWriter} produces: CSV quoting, escaping of text a spreadsheet would
+ * evaluate, the byte order mark, and XLSX exports continuing on further sheets.
+ */
+class ExportFileWriterTests {
+
+    private static final List<String> HEADERS = List.of("Name", "Quantity", "Date");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void csvStartsWithAByteOrderMarkAndTheHeaders() throws IOException {
+        Path file = directory.resolve("export.csv.gz");
+        try (ExportFileWriter writer = ExportFileWriter.open(ExportService.FORMAT_CSV, file, HEADERS)) {
+            writer.finish();
+        }
+
+        byte[] bytes = gunzip(file);
+        assertThat(bytes).startsWith(0xEF, 0xBB, 0xBF);
+        assertThat(new String(bytes, StandardCharsets.UTF_8)).isEqualTo("\uFEFFName,Quantity,Date\r\n");
+    }
+
+    @Test
+    void csvQuotesOnlyTextThatNeedsIt() throws IOException {
+        String csv = csv(
+                new Object[]{"plain", "a,b", "say \"hi\"", "two\nlines", "cr\rhere", "কাগজ"},
+                new Object[]{null, 1.50, 3L, LocalDateTime.of(2026, 3, 2, 9, 5), ItemInstance.ItemStatus.IN_USE, ""});
+
+        assertThat(csv).isEqualTo("\uFEFFName,Quantity,Date\r\n" +
+                "plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",\"cr\rhere\",কাগজ\r\n" +
+                ",1.5,3,2026-03-02T09:05:00,IN_USE,\r\n");
+    }
+
+    @Test
+    void csvKeepsFormulasInTextFromBeingEvaluated() throws IOException {
+        String csv = csv(new Object[]{"=HYPERLINK(\"x\")", "+1", "-2", "@SUM(A1)", "\tcmd", "\rcmd", " =spaced", "a=b"},
+                new Object[]{-2L, -2.5});
+
+        assertThat(csv).isEqualTo("\uFEFFName,Quantity,Date\r\n" +
+                "\"'=HYPERLINK(\"\"x\"\")\",\"'+1\",\"'-2\",\"'@SUM(A1)\",\"'\tcmd\",\"'\rcmd\", =spaced,a=b\r\n" +
+                // Numbers are written as numbers, sign included
+                "-2,-2.5\r\n");
+    }
+
+    @Test
+    void xlsxContinuesOnANewSheetWithItsOwnHeaders() throws IOException {
+        Path file = directory.resolve("export.xlsx");
+        LocalDateTime purchased = LocalDateTime.of(2026, 3, 2, 9, 5);
+        try (ExportFileWriter writer = new ExportFileWriter.XlsxWriter(file, HEADERS, 3)) {
+            for (int i = 1; i <= 5; i++) {
+                writer.writeRow(new Object[]{"item " + i, i, purchased});
+            }
+            writer.writeRow(new Object[]{"=1+1", null, null});
+            writer.finish();
+        }
+
+        try (InputStream in = Files.newInputStream(file); XSSFWorkbook workbook = new XSSFWorkbook(in)) {
+            assertThat(workbook.getNumberOfSheets()).isEqualTo(3);
+            List<String> names = new ArrayList<>();
+            for (Sheet sheet : workbook) {
+                names.add(sheet.getSheetName());
+                Row header = sheet.getRow(0);
+                assertThat(header.getCell(0).getStringCellValue()).isEqualTo("Name");
+                assertThat(workbook.getFontAt(header.getCell(0).getCellStyle().getFontIndex()).getBold()).isTrue();
+                assertThat(sheet.getLastRowNum()).isEqualTo(2);
+            }
+            assertThat(names).containsExactly("Export 1", "Export 2", "Export 3");
+
+            Row fifth = workbook.getSheetAt(2).getRow(1);
+            assertThat(fifth.getCell(0).getStringCellValue()).isEqualTo("item 5");
+            assertThat(fifth.getCell(1).getNumericCellValue()).isEqualTo(5.0);
+            assertThat(fifth.getCell(2).getLocalDateTimeCellValue()).isEqualTo(purchased);
+            assertThat(fifth.getCell(2).getCellStyle().getDataFormatString()).isEqualTo("yyyy-mm-dd hh:mm");
+            // Text stays text: a cell written as a string is never evaluated
+            Row last = workbook.getSheetAt(2).getRow(2);
+            assertThat(last.getCell(0).getStringCellValue()).isEqualTo("=1+1");
+            assertThat(last.getCell(1)).isNull();
+        }
+    }
+
+    private String csv(Object[]... rows) throws IOException {
+        Path file = directory.resolve("export.csv.gz");
+        try (ExportFileWriter writer = ExportFileWriter.open(ExportService.FORMAT_CSV, file, HEADERS)) {
+            for (Object[] row : rows) {
+                writer.writeRow(row);
+            }
+            writer.finish();
+        }
+        return new String(gunzip(file), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            return in.readAllBytes();
+        }
+    }
+}
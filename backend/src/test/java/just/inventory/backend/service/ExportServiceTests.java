@@ -0,0 +1,160 @@
+package just.inventory.backend.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import just.inventory.backend.dto.ExportJobResponse;
+import just.inventory.backend.dto.ExportRequest;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.query.SelectionQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cancelling an export while it scrolls: the scroll must stop, the transaction end and no file be
+ * left behind, and a finished export's file must go when it is cancelled. Rows come from a stubbed
+ * {@link StatelessSession}, so the export can be held mid-scroll.
+ */
+class ExportServiceTests {
+
+    private static final String USER = "exporter";
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    @TempDir
+    Path directory;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final StatelessSession session = mock(StatelessSession.class);
+    private final Transaction transaction = mock(Transaction.class);
+    @SuppressWarnings("unchecked")
+    private final ScrollableResults<Object[]> results = mock(ScrollableResults.class);
+    private ExportService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() throws IOException {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        SessionFactory sessionFactory = mock(SessionFactory.class);
+        when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+        when(sessionFactory.openStatelessSession()).thenReturn(session);
+        when(session.getTransaction()).thenReturn(transaction);
+
+        SelectionQuery<Long> count = mock(SelectionQuery.class, RETURNS_SELF);
+        when(count.getSingleResult()).thenReturn(1_000_000L);
+        when(session.createSelectionQuery(anyString(), eq(Long.class))).thenReturn(count);
+        SelectionQuery<Object[]> rows = mock(SelectionQuery.class, RETURNS_SELF);
+        when(rows.scroll(ScrollMode.FORWARD_ONLY)).thenReturn(results);
+        when(session.createSelectionQuery(anyString(), eq(Object[].class))).thenReturn(rows);
+        when(results.get()).thenReturn(new Object[]{"row"});
+
+        service = new ExportService();
+        ReflectionTestUtils.setField(service, "entityManagerFactory", entityManagerFactory);
+        ReflectionTestUtils.setField(service, "exportExecutor", (TaskExecutor) executor::execute);
+        ReflectionTestUtils.setField(service, "directoryName", directory.toString());
+        ReflectionTestUtils.setField(service, "retention", Duration.ofHours(1));
+        service.prepareDirectory();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void cancelStopsARunningExportAndLeavesNoFile() throws Exception {
+        // Three rows, then the scroll waits in the driver until the job has been cancelled
+        CountDownLatch scrolling = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicInteger fetched = new AtomicInteger();
+        when(results.next()).thenAnswer(invocation -> {
+            if (fetched.incrementAndGet() == 4) {
+                scrolling.countDown();
+                cancelled.await(WAIT.toSeconds(), TimeUnit.SECONDS);
+            }
+            // Enough to tell an export that stopped from one that ran to the end
+            return fetched.get() < 10_000;
+        });
+
+        ExportJobResponse job = service.submit(USER, 1L, request("csv"));
+        assertThat(scrolling.await(WAIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+        assertThat(fileNames()).containsExactly(job.getJobId() + ".csv.gz.part");
+
+        assertThat(service.cancel(job.getJobId(), USER)).isTrue();
+        cancelled.countDown();
+        finishQueuedJobs();
+
+        // The row fetched while cancelling is the last one
+        assertThat(fetched.get()).isEqualTo(4);
+        verify(results).close();
+        verify(transaction).rollback();
+        verify(session).close();
+        assertThat(fileNames()).isEmpty();
+        assertThat(service.getJob(job.getJobId(), USER)).isEmpty();
+        assertThat(service.getFile(job.getJobId(), USER)).isEmpty();
+    }
+
+    @Test
+    void cancellingACompletedExportDeletesItsFile() throws Exception {
+        AtomicInteger fetched = new AtomicInteger();
+        when(results.next()).thenAnswer(invocation -> fetched.incrementAndGet() <= 3);
+
+        ExportJobResponse job = service.submit(USER, 1L, request("xlsx"));
+        finishQueuedJobs();
+        ExportJobResponse completed = service.getJob(job.getJobId(), USER).orElseThrow();
+        assertThat(completed.getStatus()).isEqualTo(ExportService.STATUS_COMPLETED);
+        assertThat(completed.getRowsWritten()).isEqualTo(3);
+        Path file = service.getFile(job.getJobId(), USER).orElseThrow().path();
+        assertThat(file).exists();
+        // Someone else's job is not theirs to cancel
+        assertThat(service.cancel(job.getJobId(), "someone-else")).isFalse();
+
+        assertThat(service.cancel(job.getJobId(), USER)).isTrue();
+
+        assertThat(file).doesNotExist();
+        assertThat(fileNames()).isEmpty();
+    }
+
+    private void finishQueuedJobs() throws InterruptedException {
+        executor.shutdown();
+        assertThat(executor.awaitTermination(WAIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).toList();
+        }
+    }
+
+    private static ExportRequest request(String format) {
+        ExportRequest request = new ExportRequest();
+        request.setType("inventory");
+        request.setFormat(format);
+        return request;
+    }
+}
@@ -0,0 +1,149 @@
+package just.inventory.backend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GeminiCircuitBreakerTests {
+
+    private static final long FAST = Duration.ofMillis(50).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    private GeminiCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new GeminiCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "windowSize", 4);
+        ReflectionTestUtils.setField(breaker, "minimumCalls", 3);
+        ReflectionTestUtils.setField(breaker, "failureRateThreshold", 0.5);
+        ReflectionTestUtils.setField(breaker, "slowCallThreshold", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(breaker, "slowCallRateThreshold", 0.8);
+        ReflectionTestUtils.setField(breaker, "openDuration", Duration.ofMillis(200));
+    }
+
+    @Test
+    void staysClosedUntilMinimumCalls() {
+        call(false, FAST);
+        call(true, FAST);
+
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void opensOnFailureRateAndRejectsCalls() {
+        call(true, FAST);
+        call(false, FAST);
+        call(true, FAST);
+
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+        assertThat(breaker.getRejectedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    void opensOnSlowCallRate() {
+        call(false, SLOW);
+        call(false, SLOW);
+        call(false, SLOW);
+
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpenAdmitsOneProbeThatClosesOnSuccess() throws InterruptedException {
+        open();
+        Thread.sleep(250);
+
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.HALF_OPEN);
+        GeminiCircuitBreaker.Permit probe = breaker.tryAcquirePermission();
+        assertThat(probe).isNotNull();
+        assertThat(breaker.tryAcquirePermission()).isNull();
+
+        breaker.onSuccess(probe, FAST);
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+    }
+
+    @Test
+    void failedProbeReopens() throws InterruptedException {
+        open();
+        Thread.sleep(250);
+
+        GeminiCircuitBreaker.Permit probe = breaker.tryAcquirePermission();
+        assertThat(probe).isNotNull();
+        breaker.onFailure(probe, FAST);
+
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+    }
+
+    @Test
+    void releasedProbeLetsTheNextCallerProbe() throws InterruptedException {
+        open();
+        Thread.sleep(250);
+
+        GeminiCircuitBreaker.Permit probe = breaker.tryAcquirePermission();
+        assertThat(probe).isNotNull();
+        breaker.releasePermission(probe);
+
+        assertThat(breaker.tryAcquirePermission()).isNotNull();
+    }
+
+    @Test
+    void callAdmittedBeforeOpeningDoesNotDecideTheProbe() throws InterruptedException {
+        GeminiCircuitBreaker.Permit straggler = breaker.tryAcquirePermission();
+        open();
+        Thread.sleep(250);
+        GeminiCircuitBreaker.Permit probe = breaker.tryAcquirePermission();
+        assertThat(probe).isNotNull();
+
+        // Returns while the probe is still out: neither closes the circuit nor frees the probe slot
+        breaker.onSuccess(straggler, FAST);
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.HALF_OPEN);
+        breaker.releasePermission(straggler);
+        assertThat(breaker.tryAcquirePermission()).isNull();
+
+        breaker.onFailure(probe, FAST);
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void probeOfAnEarlierHalfOpenPeriodIsIgnored() throws InterruptedException {
+        open();
+        Thread.sleep(250);
+        GeminiCircuitBreaker.Permit firstProbe = breaker.tryAcquirePermission();
+        breaker.onFailure(firstProbe, FAST);
+        Thread.sleep(250);
+        GeminiCircuitBreaker.Permit secondProbe = breaker.tryAcquirePermission();
+        assertThat(secondProbe).isNotNull();
+
+        // The first probe reporting again must not close the circuit on the second one's behalf
+        breaker.onSuccess(firstProbe, FAST);
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.HALF_OPEN);
+
+        breaker.onSuccess(secondProbe, FAST);
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.CLOSED);
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            call(true, FAST);
+        }
+        assertThat(breaker.getState()).isEqualTo(GeminiCircuitBreaker.State.OPEN);
+    }
+
+    private void call(boolean failed, long latencyNanos) {
+        GeminiCircuitBreaker.Permit permit = breaker.tryAcquirePermission();
+        assertThat(permit).isNotNull();
+        if (failed) {
+            breaker.onFailure(permit, latencyNanos);
+        } else {
+            breaker.onSuccess(permit, latencyNanos);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.InventoryAsOf;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * As-of inventories against PostgreSQL, compared with a replay of the whole movement history in
+ * SQL at many points in time: inside snapshot windows, at the snapshots, at the very moments
+ * movements were confirmed, and after the latest snapshot.
+ * <p>
+ * The history is set in 2001, before anything else in the database, so the service's snapshots
+ * cover it. Snapshots are derived data; the test drops all of them first, because later ones
+ * would make the service skip its boundaries, and drops its own afterwards. Needs a PostgreSQL
+ * database it may write to (see {@link TestApplication}).
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class InventoryAsOfReplayTests {
+
+    private static final Duration INTERVAL = Duration.ofDays(10);
+    // A snapshot boundary: whole intervals from the service's origin, 2000-01-01
+    private static final LocalDateTime T0 = LocalDateTime.of(2000, 1, 1, 0, 0).plus(INTERVAL.multipliedBy(40));
+
+    private static ConfigurableApplicationContext app;
+    private static JdbcTemplate jdbc;
+    private static InventoryAsOfService service;
+
+    private static final Map<String, Long> offices = new LinkedHashMap<>();
+    private static final Map<String, Long> inventories = new HashMap<>();
+    private static final List<Long> instanceIds = new ArrayList<>();
+    private static final TreeSet<LocalDateTime> confirmations = new TreeSet<>();
+    private static Long itemId;
+    private static Long userId;
+
+    @BeforeAll
+    static void start() {
+        app = TestApplication.start("--as-of.snapshots.enabled=false", "--as-of.snapshots.interval=10d",
+                "--as-of.snapshots.settle-time=1h");
+        jdbc = app.getBean(JdbcTemplate.class);
+        service = app.getBean(InventoryAsOfService.class);
+
+        for (String table : new String[]{"offices", "inventories", "items", "item_instances"}) {
+            jdbc.queryForList("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "greatest(coalesce(max(id), 0), 1)) from " + table);
+        }
+        assertThat(jdbc.queryForObject("select count(*) from item_instances where created_at <= ?", Long.class,
+                T0.plusDays(40))).as("instances older than the test's history").isZero();
+        jdbc.update("delete from inventory_snapshots");
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        for (String office : new String[]{"X", "Y", "Z"}) {
+            Long id = jdbc.queryForObject("insert into offices (name, type, is_active) values (?, 'office', true) returning id",
+                    Long.class, "as-of-test-" + office + "-" + suffix);
+            offices.put(office, id);
+            inventories.put(office, jdbc.queryForObject("insert into inventories (office_id) values (?) returning id",
+                    Long.class, id));
+        }
+        itemId = jdbc.queryForObject("insert into items (name) values (?) returning id", Long.class, "as-of-test-" + suffix);
+        userId = jdbc.queryForObject("select min(id) from users", Long.class);
+
+        // Never moves
+        instance("X", 1);
+        // Moved out and back in within one window
+        instance("X", 2, move("X", "Y", 3), move("Y", "X", 4));
+        // Created, then moved in the same window
+        instance("X", 12, move("X", "Y", 12.5));
+        // Moves across windows and snapshots, the second time exactly at a boundary
+        instance("Y", 5, move("Y", "X", 15), move("X", "Z", 30));
+        // Created after the latest snapshot, moved in and out of X there
+        instance("Z", 31, move("Z", "X", 32), move("X", "Y", 33));
+        // A movement that was never confirmed does not count
+        instance("X", 22, new Move("X", "Y", 23, false));
+        // Moved early in the first window, then twice within a later one
+        instance("Z", 0.5, move("Z", "Y", 0.75), move("Y", "X", 21), move("X", "Y", 21.5));
+
+        // Boundaries at T0 + 0, 10, 20 and 30 days; T0 + 40 days has not settled yet
+        assertThat(service.takeDueSnapshots(T0.plusDays(40).plusMinutes(30))).isEqualTo(4);
+    }
+
+    @AfterAll
+    static void cleanUpAndStop() {
+        if (jdbc != null && itemId != null) {
+            jdbc.update("delete from inventory_snapshots where taken_at < ?", T0.plusDays(50));
+            jdbc.update("delete from item_transactions where item_instance_id in (select id from item_instances where item_id = ?)",
+                    itemId);
+            jdbc.update("delete from item_instances where item_id = ?", itemId);
+            jdbc.update("delete from items where id = ?", itemId);
+            for (Long officeId : offices.values()) {
+                jdbc.update("delete from inventories where office_id = ?", officeId);
+                jdbc.update("delete from offices where id = ?", officeId);
+            }
+        }
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    @Test
+    void matchesAFullReplayThroughoutTheHistory() {
+        List<LocalDateTime> times = new ArrayList<>();
+        for (LocalDateTime time = T0; !time.isAfter(T0.plusDays(36)); time = time.plusHours(6)) {
+            times.add(time);
+        }
+        for (LocalDateTime confirmed : confirmations) {
+            times.add(confirmed.minusNanos(1000));
+            times.add(confirmed);
+        }
+        for (LocalDateTime asOf : times) {
+            for (Map.Entry<String, Long> office : offices.entrySet()) {
+                assertThat(heldIds(service.getInventoryAsOf(office.getValue(), asOf)))
+                        .as("office %s at %s", office.getKey(), asOf)
+                        .containsExactlyElementsOf(fullReplay(office.getValue(), asOf));
+            }
+        }
+    }
+
+    @Test
+    void startsFromTheSnapshotBeforeAndReplaysOnlyItsWindow() {
+        Long x = offices.get("X");
+
+        InventoryAsOf inWindow = service.getInventoryAsOf(x, T0.plusDays(13));
+        assertThat(inWindow.snapshotTakenAt()).isEqualTo(T0.plusDays(10));
+        // Created on day 12 and moved on day 12.5, nothing else
+        assertThat(inWindow.replayedInstances()).isEqualTo(2);
+
+        InventoryAsOf afterLatest = service.getInventoryAsOf(x, T0.plusDays(32).plusHours(1));
+        assertThat(afterLatest.snapshotTakenAt()).isEqualTo(T0.plusDays(30));
+        assertThat(heldIds(afterLatest)).contains(instanceIds.get(4));
+
+        assertThat(service.getInventoryAsOf(x, T0.minusDays(1)).instanceCount()).isZero();
+    }
+
+    /** Where each of the test's instances was at {@code asOf}, from the whole movement history. */
+    private static List<Long> fullReplay(Long officeId, LocalDateTime asOf) {
+        return jdbc.queryForList("select i.id from item_instances i " +
+                "where i.item_id = ? and i.created_at <= ? and coalesce(" +
+                "  (select t.to_office_id from item_transactions t where t.item_instance_id = i.id " +
+                "     and t.status = 'CONFIRMED' and t.confirmed_date <= ? order by t.confirmed_date desc, t.id desc limit 1), " +
+                "  (select t.from_office_id from item_transactions t where t.item_instance_id = i.id " +
+                "     and t.status = 'CONFIRMED' order by t.confirmed_date, t.id limit 1), " +
+                "  i.owner_office_id) = ? " +
+                "order by i.id", Long.class, itemId, Timestamp.valueOf(asOf), Timestamp.valueOf(asOf), officeId);
+    }
+
+    private static List<Long> heldIds(InventoryAsOf inventory) {
+        return inventory.items().stream()
+                .filter(holding -> holding.itemId().equals(itemId))
+                .flatMap(holding -> holding.instances().stream())
+                .map(InventoryAsOf.HeldInstance::id)
+                .sorted()
+                .toList();
+    }
+
+    private static Move move(String from, String to, double day) {
+        return new Move(from, to, day, true);
+    }
+
+    /** An instance created in {@code office} on {@code day}, owned by its last confirmed destination. */
+    private static void instance(String office, double day, Move... moves) {
+        String owner = office;
+        for (Move move : moves) {
+            if (move.confirmed()) {
+                owner = move.to();
+            }
+        }
+        Long id = jdbc.queryForObject("insert into item_instances (item_id, barcode, inventory_id, owner_office_id, " +
+                "status, created_at) values (?, ?, ?, ?, 'AVAILABLE', ?) returning id", Long.class,
+                itemId, "AS-OF-" + itemId + "-" + instanceIds.size(), inventories.get(owner), offices.get(owner),
+                Timestamp.valueOf(at(day)));
+        instanceIds.add(id);
+        for (Move move : moves) {
+            LocalDateTime confirmed = at(move.day());
+            // Created an hour before it was confirmed
+            jdbc.update("insert into item_transactions (item_instance_id, from_office_id, to_office_id, user_id, " +
+                    "transaction_type, quantity, transaction_date, status, confirmed_date) " +
+                    "values (?, ?, ?, ?, 'TRANSFER', 1, ?, ?, ?)", id, offices.get(move.from()), offices.get(move.to()),
+                    userId, Timestamp.valueOf(confirmed.minusHours(1)), move.confirmed() ? "CONFIRMED" : "PENDING",
+                    move.confirmed() ? Timestamp.valueOf(confirmed) : null);
+            if (move.confirmed()) {
+                confirmations.add(confirmed);
+            }
+        }
+    }
+
+    private static LocalDateTime at(double day) {
+        return T0.plusMinutes(Math.round(day * 24 * 60));
+    }
+
+    private record Move(String from, String to, double day, boolean confirmed) {
+    }
+}
@@ -0,0 +1,239 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.InstanceOwner;
+import just.inventory.backend.dto.InventoryAsOf;
+import just.inventory.backend.model.InventorySnapshot;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.repository.InventorySnapshotRepository;
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.repository.ItemTransactionRepository;
+import just.inventory.backend.repository.OfficeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * {@link InventoryAsOfService} against stubbed repositories: the snapshot id encoding, how a query
+ * combines a snapshot with the instances created and moved since, and which boundaries are due.
+ * The database-backed comparison with a full replay is {@link InventoryAsOfReplayTests}.
+ */
+class InventoryAsOfServiceTests {
+
+    private static final long OFFICE = 5L;
+    private static final long OTHER_OFFICE = 9L;
+    // The service's boundary origin; boundaries are whole intervals from it
+    private static final LocalDateTime ORIGIN = LocalDateTime.of(2000, 1, 1, 0, 0);
+    private static final Duration INTERVAL = Duration.ofDays(10);
+
+    private final InventorySnapshotRepository snapshotRepository = mock(InventorySnapshotRepository.class);
+    private final ItemInstanceRepository itemInstanceRepository = mock(ItemInstanceRepository.class);
+    private final ItemTransactionRepository itemTransactionRepository = mock(ItemTransactionRepository.class);
+    private final OfficeRepository officeRepository = mock(OfficeRepository.class);
+    private final List<InventorySnapshot> saved = new ArrayList<>();
+    private InventoryAsOfService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new InventoryAsOfService();
+        ReflectionTestUtils.setField(service, "snapshotRepository", snapshotRepository);
+        ReflectionTestUtils.setField(service, "itemInstanceRepository", itemInstanceRepository);
+        ReflectionTestUtils.setField(service, "itemTransactionRepository", itemTransactionRepository);
+        ReflectionTestUtils.setField(service, "officeRepository", officeRepository);
+        ReflectionTestUtils.setField(service, "partitionService", mock(ItemTransactionPartitionService.class));
+        ReflectionTestUtils.setField(service, "transactionTemplate", new TransactionTemplate() {
+            @Override
+            public <T> T execute(TransactionCallback<T> action) {
+                return action.doInTransaction(new SimpleTransactionStatus());
+            }
+        });
+        ReflectionTestUtils.setField(service, "interval", INTERVAL);
+        ReflectionTestUtils.setField(service, "settleTime", Duration.ofHours(1));
+
+        when(officeRepository.existsById(OFFICE)).thenReturn(true);
+        when(snapshotRepository.saveAll(any())).thenAnswer(invocation -> {
+            Iterable<InventorySnapshot> snapshots = invocation.getArgument(0);
+            snapshots.forEach(saved::add);
+            return snapshots;
+        });
+    }
+
+    @Test
+    void idsSurviveTheVarintEncoding() {
+        long[][] cases = {
+                {},
+                {1},
+                {127, 128, 255, 256},
+                {1, 129, 16_513, 2_113_665},
+                {42, 1L << 35, (1L << 35) + 1, Long.MAX_VALUE}
+        };
+        for (long[] ids : cases) {
+            assertThat(InventoryAsOfService.decode(InventoryAsOfService.encode(ids), ids.length)).containsExactly(ids);
+        }
+    }
+
+    @Test
+    void gapsTakeOneByteUpTo127() {
+        // Gaps 1, 127, 128 and 16384: one, one, two and three bytes
+        byte[] encoded = InventoryAsOfService.encode(new long[]{1, 128, 256, 16_640});
+
+        assertThat(encoded).hasSize(7);
+        assertThat(InventoryAsOfService.encode(new long[]{10, 11, 12, 13})).hasSize(4);
+    }
+
+    @Test
+    void queryReplaysCreatedAndMovedInstancesOverTheSnapshot() {
+        LocalDateTime takenAt = ORIGIN.plusDays(10);
+        LocalDateTime asOf = takenAt.plusDays(4);
+        when(snapshotRepository.findFirstByOfficeIdAndTakenAtLessThanEqualOrderByTakenAtDesc(OFFICE, asOf))
+                .thenReturn(Optional.of(snapshot(takenAt, new long[]{1, 2, 3}, new long[0])));
+        // The next snapshot lists 4 and 6 as created here; only 4 was created by asOf
+        when(snapshotRepository.findFirstByOfficeIdAndTakenAtGreaterThanOrderByTakenAt(OFFICE, takenAt))
+                .thenReturn(Optional.of(snapshot(takenAt.plus(INTERVAL), new long[]{1, 3, 6, 7}, new long[]{4, 6})));
+        when(itemInstanceRepository.findIdsCreatedUpTo(new Long[]{4L, 6L}, asOf)).thenReturn(List.of(4L));
+        when(itemTransactionRepository.findLastConfirmedOwners(OFFICE, takenAt, asOf)).thenReturn(List.of(
+                owner(2, OTHER_OFFICE),   // held at the snapshot, moved out
+                owner(7, OFFICE),         // moved in
+                owner(4, OTHER_OFFICE),   // created here, then moved out
+                owner(3, OFFICE)));       // moved out and back in within the window
+
+        InventoryAsOf result = service.getInventoryAsOf(OFFICE, asOf);
+
+        assertThat(heldIds()).containsExactly(1L, 3L, 7L);
+        assertThat(result.snapshotTakenAt()).isEqualTo(takenAt);
+        assertThat(result.instanceCount()).isEqualTo(3);
+        assertThat(result.replayedInstances()).isEqualTo(5);
+        verify(itemInstanceRepository, never()).findIdsCreatedInOffice(any(), any(), any());
+    }
+
+    @Test
+    void queryAfterTheLatestSnapshotLooksUpCreatedInstances() {
+        LocalDateTime takenAt = ORIGIN.plusDays(10);
+        LocalDateTime asOf = takenAt.plusDays(4);
+        when(snapshotRepository.findFirstByOfficeIdAndTakenAtLessThanEqualOrderByTakenAtDesc(OFFICE, asOf))
+                .thenReturn(Optional.of(snapshot(takenAt, new long[]{1}, new long[0])));
+        when(snapshotRepository.findFirstByOfficeIdAndTakenAtGreaterThanOrderByTakenAt(OFFICE, takenAt))
+                .thenReturn(Optional.empty());
+        when(itemInstanceRepository.findIdsCreatedInOffice(OFFICE, takenAt, asOf)).thenReturn(List.of(8L));
+        when(itemTransactionRepository.findLastConfirmedOwners(OFFICE, takenAt, asOf)).thenReturn(List.of());
+
+        service.getInventoryAsOf(OFFICE, asOf);
+
+        assertThat(heldIds()).containsExactly(1L, 8L);
+        verify(itemInstanceRepository, never()).findIdsCreatedUpTo(any(), any());
+    }
+
+    @Test
+    void queryWithoutSnapshotReplaysEverything() {
+        LocalDateTime asOf = ORIGIN.plusDays(3);
+        when(snapshotRepository.findFirstByOfficeIdAndTakenAtLessThanEqualOrderByTakenAtDesc(OFFICE, asOf))
+                .thenReturn(Optional.empty());
+        when(snapshotRepository.findFirstByOfficeIdAndTakenAtGreaterThanOrderByTakenAt(eq(OFFICE), any()))
+                .thenReturn(Optional.empty());
+        when(itemInstanceRepository.findIdsCreatedInOffice(eq(OFFICE), any(), eq(asOf))).thenReturn(List.of(2L, 3L));
+        when(itemTransactionRepository.findLastConfirmedOwners(eq(OFFICE), any(), eq(asOf)))
+                .thenReturn(List.of(owner(3, OTHER_OFFICE)));
+
+        InventoryAsOf result = service.getInventoryAsOf(OFFICE, asOf);
+
+        assertThat(heldIds()).containsExactly(2L);
+        assertThat(result.snapshotTakenAt()).isNull();
+    }
+
+    @Test
+    void firstSnapshotsStartAtTheBoundaryBeforeTheFirstInstance() {
+        givenOneOffice();
+        when(snapshotRepository.findLatestTakenAt()).thenReturn(Optional.empty());
+        when(itemInstanceRepository.findEarliestCreatedAt()).thenReturn(Optional.of(ORIGIN.plusDays(25).plusHours(3)));
+
+        assertThat(service.takeDueSnapshots(ORIGIN.plusDays(50).plusMinutes(30))).isEqualTo(3);
+
+        // Day 50 has not settled yet
+        assertThat(saved).extracting(InventorySnapshot::getTakenAt)
+                .containsExactly(ORIGIN.plusDays(20), ORIGIN.plusDays(30), ORIGIN.plusDays(40));
+    }
+
+    @Test
+    void boundaryIsDueOnceItHasSettled() {
+        givenOneOffice();
+        when(snapshotRepository.findLatestTakenAt()).thenReturn(Optional.of(ORIGIN.plusDays(40)));
+
+        assertThat(service.takeDueSnapshots(ORIGIN.plusDays(50).plusHours(1).minusSeconds(1))).isZero();
+        assertThat(service.takeDueSnapshots(ORIGIN.plusDays(50).plusHours(1))).isEqualTo(1);
+        assertThat(saved).extracting(InventorySnapshot::getTakenAt).containsExactly(ORIGIN.plusDays(50));
+    }
+
+    @Test
+    void boundariesBeforeTheOriginRoundDown() {
+        givenOneOffice();
+        when(snapshotRepository.findLatestTakenAt()).thenReturn(Optional.empty());
+        when(itemInstanceRepository.findEarliestCreatedAt()).thenReturn(Optional.of(ORIGIN.minusDays(5)));
+
+        assertThat(service.takeDueSnapshots(ORIGIN.plusDays(2))).isEqualTo(2);
+        assertThat(saved).extracting(InventorySnapshot::getTakenAt).containsExactly(ORIGIN.minusDays(10), ORIGIN);
+    }
+
+    @Test
+    void withoutInstancesOnlyTheLatestBoundaryIsTaken() {
+        givenOneOffice();
+        when(snapshotRepository.findLatestTakenAt()).thenReturn(Optional.empty());
+        when(itemInstanceRepository.findEarliestCreatedAt()).thenReturn(Optional.empty());
+
+        assertThat(service.takeDueSnapshots(ORIGIN.plusDays(35))).isEqualTo(1);
+        assertThat(saved).extracting(InventorySnapshot::getTakenAt).containsExactly(ORIGIN.plusDays(30));
+    }
+
+    private void givenOneOffice() {
+        Office office = new Office();
+        office.setId(OFFICE);
+        when(officeRepository.findAll()).thenReturn(List.of(office));
+        when(snapshotRepository.findByTakenAt(any())).thenReturn(List.of());
+    }
+
+    private List<Long> heldIds() {
+        ArgumentCaptor<Long[]> ids = ArgumentCaptor.forClass(Long[].class);
+        verify(itemInstanceRepository).findAsOfInstances(ids.capture());
+        return List.of(ids.getValue());
+    }
+
+    private static InventorySnapshot snapshot(LocalDateTime takenAt, long[] instanceIds, long[] createdIds) {
+        InventorySnapshot snapshot = new InventorySnapshot();
+        snapshot.setTakenAt(takenAt);
+        snapshot.setInstanceCount(instanceIds.length);
+        snapshot.setInstanceIds(InventoryAsOfService.encode(instanceIds));
+        snapshot.setCreatedCount(createdIds.length);
+        snapshot.setCreatedIds(InventoryAsOfService.encode(createdIds));
+        return snapshot;
+    }
+
+    private static InstanceOwner owner(long instanceId, long officeId) {
+        return new InstanceOwner() {
+            @Override
+            public Long getInstanceId() {
+                return instanceId;
+            }
+
+            @Override
+            public Long getOfficeId() {
+                return officeId;
+            }
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.model.ItemTransaction;
+import just.inventory.backend.repository.ItemTransactionRepository;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partition maintenance of {@code item_transactions} against PostgreSQL: months parked in the
+ * default partition get their own, and a closed year is swapped for one archive partition without
+ * losing or duplicating a row. The rows are set in 1999, before anything else in the database; the
+ * rows and the partitions the test creates are removed afterwards. Needs a PostgreSQL database it
+ * may write to (see {@link TestApplication}).
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class ItemTransactionPartitionTests {
+
+    private static final String TABLE = "item_transactions";
+
+    private static ConfigurableApplicationContext app;
+    private static JdbcTemplate jdbc;
+    private static ItemTransactionPartitionService service;
+
+    private static List<String> partitionsBefore;
+    private static Long officeId;
+    private static Long itemId;
+    private static Long instanceId;
+    private static Long userId;
+
+    @BeforeAll
+    static void start() {
+        app = TestApplication.start();
+        jdbc = app.getBean(JdbcTemplate.class);
+        service = app.getBean(ItemTransactionPartitionService.class);
+        // Seed data takes explicit ids without advancing the identity sequences
+        for (String table : new String[]{"offices", "inventories", "items", "item_instances", "users"}) {
+            jdbc.queryForList("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "greatest(coalesce(max(id), 0), 1)) from " + table);
+        }
+        partitionsBefore = partitions();
+        assertThat(partitionsBefore).noneMatch(partition -> partition.matches(TABLE + "_(p1999_\\d\\d|y1999)"));
+
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        officeId = jdbc.queryForObject("insert into offices (name, type, is_active) values (?, 'office', true) returning id",
+                Long.class, "partition-test-" + suffix);
+        Long inventoryId = jdbc.queryForObject("insert into inventories (office_id) values (?) returning id",
+                Long.class, officeId);
+        itemId = jdbc.queryForObject("insert into items (name) values (?) returning id", Long.class,
+                "partition-test-" + suffix);
+        instanceId = jdbc.queryForObject("insert into item_instances (item_id, barcode, inventory_id, owner_office_id, " +
+                "status, created_at) values (?, ?, ?, ?, 'AVAILABLE', now()) returning id",
+                Long.class, itemId, "PT-" + suffix, inventoryId, officeId);
+        userId = jdbc.queryForObject("insert into users (username, password, email, full_name, is_active, role_id, office_id) " +
+                "values (?, 'x', ?, 'Partition Clerk', true, (select id from roles where name = 'ADMIN'), ?) returning id",
+                Long.class, "partition." + suffix, "partition." + suffix + "@test", officeId);
+    }
+
+    @AfterAll
+    static void cleanUpAndStop() {
+        if (jdbc != null && officeId != null) {
+            jdbc.update("delete from " + TABLE + " where item_instance_id = ?", instanceId);
+            List<String> created = new ArrayList<>(partitions());
+            created.removeAll(partitionsBefore);
+            for (String partition : created) {
+                jdbc.execute("alter table " + TABLE + " detach partition " + partition);
+                jdbc.execute("drop table " + partition);
+            }
+            jdbc.update("delete from users where id = ?", userId);
+            jdbc.update("delete from item_instances where id = ?", instanceId);
+            jdbc.update("delete from items where id = ?", itemId);
+            jdbc.update("delete from inventories where office_id = ?", officeId);
+            jdbc.update("delete from offices where id = ?", officeId);
+        }
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    @Test
+    void parkedMonthsGetPartitionsAndAClosedYearIsArchived() {
+        for (int i = 0; i < 3; i++) {
+            insertTransaction(LocalDateTime.of(1999, 3, 10 + i, 12, 0));
+        }
+        Long julyId = insertTransaction(LocalDateTime.of(1999, 7, 20, 12, 0));
+        insertTransaction(LocalDateTime.of(1999, 7, 31, 23, 59, 59));
+        insertTransaction(LocalDateTime.of(2000, 1, 1, 0, 0));
+        assertThat(rows(TABLE + "_default")).isEqualTo(6);
+
+        // January 2000 and three months ahead; 1999 is not closed yet
+        service.maintain(YearMonth.of(2000, 1));
+        assertThat(rows(TABLE + "_default")).isZero();
+        assertThat(rows(TABLE + "_p1999_03")).isEqualTo(3);
+        assertThat(rows(TABLE + "_p1999_07")).isEqualTo(2);
+        assertThat(rows(TABLE + "_p2000_01")).isEqualTo(1);
+        assertThat(partitions()).contains(TABLE + "_p2000_02", TABLE + "_p2000_03", TABLE + "_p2000_04")
+                .doesNotContain(TABLE + "_y1999");
+
+        // Three months after 1999 ended it is archived, and a second run changes nothing
+        service.maintain(YearMonth.of(2000, 4));
+        service.maintain(YearMonth.of(2000, 4));
+        assertThat(partitions()).contains(TABLE + "_y1999", TABLE + "_p2000_01")
+                .noneMatch(partition -> partition.startsWith(TABLE + "_p1999_"));
+        assertThat(rows(TABLE + "_y1999")).isEqualTo(5);
+        assertThat(rows(TABLE + "_p2000_01")).isEqualTo(1);
+        assertThat(rows(TABLE)).isEqualTo(6);
+        // The archive carries the primary key, indexes and foreign keys of the monthly partitions
+        assertThat(indexCount(TABLE + "_y1999")).isEqualTo(indexCount(TABLE + "_p2000_01"));
+        assertThat(foreignKeyCount(TABLE + "_y1999")).isEqualTo(foreignKeyCount(TABLE + "_p2000_01"));
+
+        // Archived rows stay where every lookup finds them, by id alone as well
+        ItemTransaction july = app.getBean(ItemTransactionRepository.class).findById(julyId).orElseThrow();
+        assertThat(july.getTransactionDate()).isEqualTo(LocalDateTime.of(1999, 7, 20, 12, 0));
+    }
+
+    private static Long insertTransaction(LocalDateTime date) {
+        return jdbc.queryForObject("insert into " + TABLE + " (item_instance_id, to_office_id, user_id, transaction_type, " +
+                "status, quantity, transaction_date, confirmed_date) " +
+                "values (?, ?, ?, 'TRANSFER', 'CONFIRMED', 1, ?, ?) returning id",
+                Long.class, instanceId, officeId, userId, date, date);
+    }
+
+    private static long rows(String table) {
+        return jdbc.queryForObject("select count(*) from " + table + " where item_instance_id = ?", Long.class, instanceId);
+    }
+
+    private static long indexCount(String table) {
+        return jdbc.queryForObject("select count(*) from pg_index where indrelid = to_regclass(?)", Long.class, table);
+    }
+
+    private static long foreignKeyCount(String table) {
+        return jdbc.queryForObject("select count(*) from pg_constraint where conrelid = to_regclass(?) and contype = 'f'",
+                Long.class, table);
+    }
+
+    private static List<String> partitions() {
+        return jdbc.queryForList("select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid " +
+                "where i.inhparent = to_regclass(?) order by c.relname", String.class, TABLE);
+    }
+}
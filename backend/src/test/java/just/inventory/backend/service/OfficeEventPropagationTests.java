@@ -0,0 +1,153 @@
+package just.inventory.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application instances on one database: a request created through one instance must reach
+ * the parent office's event stream open on the other. Needs a PostgreSQL database it may write to
+ * (see {@link TestApplication}); the offices, users and request it creates are removed afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class OfficeEventPropagationTests {
+
+    private static final Duration PROPAGATION_TIMEOUT = Duration.ofSeconds(10);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static JdbcTemplate jdbc;
+    private static ObjectMapper objectMapper;
+    private static final HttpClient http = HttpClient.newHttpClient();
+
+    private static String suffix;
+    private static Long requestingOfficeId;
+    private static Long parentOfficeId;
+    private static Long categoryId;
+    private static Long itemId;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        jdbc = nodeA.getBean(JdbcTemplate.class);
+        objectMapper = nodeA.getBean(ObjectMapper.class);
+
+        // Seed data takes explicit ids without advancing the identity sequences
+        for (String table : new String[]{"offices", "categories", "items", "users", "item_requests"}) {
+            jdbc.queryForList("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "greatest(coalesce(max(id), 0), 1)) from " + table);
+        }
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        requestingOfficeId = insertOffice("requesting");
+        parentOfficeId = insertOffice("parent");
+        categoryId = jdbc.queryForObject("insert into categories (name) values (?) returning id", Long.class,
+                "event-test-" + suffix);
+        itemId = jdbc.queryForObject("insert into items (name, category_id) values (?, ?) returning id", Long.class,
+                "event-test-" + suffix, categoryId);
+        String password = nodeA.getBean(PasswordEncoder.class).encode("password123");
+        for (Long officeId : new Long[]{requestingOfficeId, parentOfficeId}) {
+            jdbc.update("insert into users (username, password, email, full_name, is_active, role_id, office_id) " +
+                    "values (?, ?, ?, 'Event Admin', true, (select id from roles where name = 'ADMIN'), ?)",
+                    username(officeId), password, username(officeId) + "@test", officeId);
+        }
+    }
+
+    @AfterAll
+    static void cleanUpAndStopNodes() {
+        if (jdbc != null && requestingOfficeId != null) {
+            jdbc.update("delete from item_requests where requesting_office_id = ?", requestingOfficeId);
+            jdbc.update("delete from office_activity_counts where office_id in (?, ?)", requestingOfficeId, parentOfficeId);
+            jdbc.update("delete from users where office_id in (?, ?)", requestingOfficeId, parentOfficeId);
+            jdbc.update("delete from items where id = ?", itemId);
+            jdbc.update("delete from categories where id = ?", categoryId);
+            jdbc.update("delete from offices where id in (?, ?)", requestingOfficeId, parentOfficeId);
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void requestCreatedOnOneInstanceReachesAStreamOnTheOther() throws Exception {
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        CompletableFuture<HttpResponse<Stream<String>>> stream = http.sendAsync(
+                HttpRequest.newBuilder(URI.create(TestApplication.baseUrl(nodeB) + "/api/events/stream"))
+                        .header("Authorization", "Bearer " + logIn(nodeB, parentOfficeId))
+                        .GET().build(),
+                HttpResponse.BodyHandlers.ofLines());
+        stream.thenAccept(response -> response.body()
+                .filter(line -> line.startsWith("event:"))
+                .forEach(line -> events.add(line.substring("event:".length()))));
+        try {
+            assertThat(events.poll(PROPAGATION_TIMEOUT.toSeconds(), TimeUnit.SECONDS)).isEqualTo("connected");
+
+            HttpResponse<String> created = http.send(
+                    HttpRequest.newBuilder(URI.create(TestApplication.baseUrl(nodeA) + "/api/item-requests"))
+                            .header("Authorization", "Bearer " + logIn(nodeA, requestingOfficeId))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of(
+                                    "item", Map.of("id", itemId),
+                                    "parentOffice", Map.of("id", parentOfficeId),
+                                    "requestedQuantity", 2,
+                                    "reason", "event propagation test"))))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            assertThat(created.statusCode()).as(created.body()).isEqualTo(201);
+
+            assertThat(events.poll(PROPAGATION_TIMEOUT.toSeconds(), TimeUnit.SECONDS)).isEqualTo("requests.incoming");
+        } finally {
+            stream.cancel(true);
+        }
+    }
+
+    private static Long insertOffice(String role) {
+        return jdbc.queryForObject("insert into offices (name, code, type, is_active) " +
+                "values (?, ?, 'office', true) returning id", Long.class,
+                "event-test-" + role + "-" + suffix, "EV" + role.charAt(0) + suffix);
+    }
+
+    private static String username(Long officeId) {
+        return "event." + suffix + "." + officeId;
+    }
+
+    private static String logIn(ConfigurableApplicationContext node, Long officeId) throws Exception {
+        HttpResponse<String> login = http.send(
+                HttpRequest.newBuilder(URI.create(TestApplication.baseUrl(node) + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                                Map.of("username", username(officeId), "password", "password123"))))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(login.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(login.body()).get("token").asText();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return TestApplication.start("--cache-bus.poll-interval=50ms");
+    }
+}
@@ -0,0 +1,159 @@
+package just.inventory.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import just.inventory.backend.dto.OfficeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fan-out of {@link OfficeEventService} with a client that stops reading: the publishing thread
+ * must not wait for it, the other streams must still get their events, and the stalled stream
+ * must be closed once it falls {@code max-queued-events} behind.
+ */
+class OfficeEventServiceTests {
+
+    private static final long OFFICE = 7L;
+    private static final Duration WAIT = Duration.ofSeconds(5);
+
+    private final Deque<RecordingEmitter> emitters = new ArrayDeque<>();
+    private ThreadPoolTaskExecutor executor;
+    private OfficeEventService service;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(100);
+        executor.initialize();
+
+        service = new OfficeEventService(new SimpleMeterRegistry()) {
+            @Override
+            SseEmitter newEmitter() {
+                return emitters.removeFirst();
+            }
+        };
+        // Not started, so it sends nothing
+        ReflectionTestUtils.setField(service, "cacheInvalidationBus", new CacheInvalidationBus());
+        ReflectionTestUtils.setField(service, "eventExecutor", executor);
+        ReflectionTestUtils.setField(service, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(service, "maxSubscribers", 10);
+        ReflectionTestUtils.setField(service, "maxQueuedEvents", 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void stalledStreamHoldsUpNeitherThePublisherNorOtherStreams() throws InterruptedException {
+        RecordingEmitter stalled = new RecordingEmitter(true);
+        RecordingEmitter healthy = new RecordingEmitter(false);
+        emitters.add(stalled);
+        emitters.add(healthy);
+        service.subscribe(OFFICE);
+        service.subscribe(OFFICE);
+        assertThat(stalled.sendStarted.await(WAIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+
+        long started = System.nanoTime();
+        service.onOfficeEvent(new OfficeEvent(OfficeEvent.REQUESTS_INCOMING, OFFICE, 1L, 1));
+        service.sendHeartbeats();
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(1));
+
+        // connected, the event and the heartbeat
+        assertThat(healthy.sent.await(WAIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+        assertThat(healthy.completed).isFalse();
+        assertThat(subscriberCount()).isEqualTo(2);
+
+        // The stalled stream's writer is still in its first send; the fifth queued event overflows.
+        // The healthy stream catches up after each heartbeat, so only the stalled one can overflow.
+        for (int i = 1; i <= 5; i++) {
+            service.sendHeartbeats();
+            int expected = 3 + i;
+            await(() -> healthy.sendCount == expected);
+        }
+        assertThat(subscriberCount()).isEqualTo(1);
+        assertThat(stalled.completed).isFalse();
+
+        stalled.release.countDown();
+        assertThat(stalled.completion.await(WAIT.toSeconds(), TimeUnit.SECONDS)).isTrue();
+        assertThat(stalled.sendCount).isEqualTo(1);
+        assertThat(healthy.completed).isFalse();
+    }
+
+    @Test
+    void idleStreamIsClosedAtOnce() {
+        RecordingEmitter emitter = new RecordingEmitter(false);
+        emitters.add(emitter);
+        service.subscribe(OFFICE);
+        await(() -> emitter.sendCount == 1);
+
+        service.completeAll();
+
+        assertThat(emitter.completed).isTrue();
+        assertThat(subscriberCount()).isZero();
+    }
+
+    private int subscriberCount() {
+        return ((AtomicInteger) ReflectionTestUtils.getField(service, "subscriberCount")).get();
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + WAIT.toNanos();
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    /** Counts what it is sent; a stalled one blocks in its first send until released. */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final boolean stall;
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final CountDownLatch sent = new CountDownLatch(3);
+        private final CountDownLatch completion = new CountDownLatch(1);
+        private volatile int sendCount;
+        private volatile boolean completed;
+
+        private RecordingEmitter(boolean stall) {
+            this.stall = stall;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sendStarted.countDown();
+            if (stall) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sendCount++;
+            sent.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            completion.countDown();
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.PurchaseSuggestionLine;
+import just.inventory.backend.model.Item;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.model.Purchase;
+import just.inventory.backend.model.PurchaseItem;
+import just.inventory.backend.model.User;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Purchase suggestions against PostgreSQL: the ranking read from the running totals must match the
+ * formula the requisition page used to apply to the whole purchase history, on both sides of the
+ * 117-day recency edge and where quantities round, and a rebuild must recount purchases written
+ * around {@link PurchaseService#createPurchase}. Needs a PostgreSQL database it may write to (see
+ * {@link TestApplication}); the rows it creates are removed afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class PurchaseSuggestionsTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    private static ConfigurableApplicationContext app;
+    private static JdbcTemplate jdbc;
+    private static PurchaseService purchaseService;
+
+    private String suffix;
+    private Long officeId;
+    private Long userId;
+    private final List<Long> itemIds = new ArrayList<>();
+    private final List<Line> history = new ArrayList<>();
+
+    @BeforeAll
+    static void start() {
+        app = TestApplication.start();
+        jdbc = app.getBean(JdbcTemplate.class);
+        purchaseService = app.getBean(PurchaseService.class);
+        // Seed data takes explicit ids without advancing the identity sequences
+        for (String table : new String[]{"offices", "inventories", "items", "item_instances", "users",
+                "purchases", "purchase_items"}) {
+            jdbc.queryForList("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "greatest(coalesce(max(id), 0), 1)) from " + table);
+        }
+    }
+
+    @AfterAll
+    static void stop() {
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    @BeforeEach
+    void createOfficeAndBuyer() {
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        officeId = jdbc.queryForObject("insert into offices (name, code, type, is_active) values (?, ?, 'office', true) " +
+                "returning id", Long.class, "suggestion-test-" + suffix, "PS" + suffix);
+        userId = jdbc.queryForObject("insert into users (username, password, email, full_name, is_active, role_id, office_id) " +
+                "values (?, 'x', ?, 'Suggestion Buyer', true, (select id from roles where name = 'ADMIN'), ?) returning id",
+                Long.class, "suggestion." + suffix, "suggestion." + suffix + "@test", officeId);
+    }
+
+    @AfterEach
+    void deleteOffice() {
+        jdbc.update("delete from office_item_purchase_stats where office_id = ?", officeId);
+        jdbc.update("delete from purchase_items where purchase_id in (select id from purchases where office_id = ?)", officeId);
+        jdbc.update("delete from purchases where office_id = ?", officeId);
+        jdbc.update("delete from item_instances where owner_office_id = ?", officeId);
+        jdbc.update("delete from office_item_counts where office_id = ?", officeId);
+        jdbc.update("delete from office_activity_counts where office_id = ?", officeId);
+        jdbc.update("delete from inventories where office_id = ?", officeId);
+        jdbc.update("delete from users where id = ?", userId);
+        for (Long itemId : itemIds) {
+            jdbc.update("delete from items where id = ?", itemId);
+        }
+        jdbc.update("delete from offices where id = ?", officeId);
+    }
+
+    @Test
+    void rankingMatchesTheFormulaOverTheWholeHistory() {
+        Duration recencyEdge = Duration.ofDays(117);
+        // Lines just inside, at and just outside the window where the weight reaches its floor
+        buy(item(), recencyEdge.minusMinutes(1), 4, recencyEdge.plusMinutes(1), 6);
+        buy(item(), recencyEdge, 12);
+        buy(item(), recencyEdge.minusSeconds(1), 3, recencyEdge.plusSeconds(1), 3, Duration.ofDays(400), 3);
+        // One recent line among old ones, and a bought-ahead date that must not weigh above 1
+        buy(item(), Duration.ZERO, 1, Duration.ofDays(30), 2, Duration.ofDays(200), 3);
+        buy(item(), Duration.ofDays(-1), 2, Duration.ofDays(60), 2);
+        // Averages scaled onto and around a half: 10 * 1.15, 2 * 1.0525, 0.3 raised to 1
+        buy(item(), Duration.ZERO, 10, Duration.ZERO, 10);
+        buy(item(), Duration.ofDays(250), 2, Duration.ofDays(300), 2);
+        buy(item(), Duration.ofDays(5), 0.4, Duration.ofDays(6), 0.2);
+        buy(item(), Duration.ofDays(90), 7, Duration.ofDays(100), 4);
+        // Neither bought twice nor 10 units: never suggested
+        buy(item(), Duration.ofDays(1), 9);
+
+        assertThat(purchaseService.getPurchaseSuggestions(officeId, NOW, 20)).isEmpty();
+        assertThat(purchaseService.rebuildItemStats(officeId)).isEqualTo(itemIds.size());
+
+        for (int limit : new int[]{20, 4}) {
+            List<PurchaseSuggestionLine> actual = purchaseService.getPurchaseSuggestions(officeId, NOW, limit);
+            List<Suggestion> expected = formerFormula(limit);
+            assertThat(actual).extracting(PurchaseSuggestionLine::getItemId)
+                    .containsExactlyElementsOf(expected.stream().map(Suggestion::itemId).toList());
+            for (int i = 0; i < expected.size(); i++) {
+                Suggestion suggestion = expected.get(i);
+                PurchaseSuggestionLine line = actual.get(i);
+                assertThat(line.getQuantity()).as("quantity of item %d", suggestion.itemId()).isEqualTo(suggestion.quantity());
+                assertThat(line.getPurchaseCount()).isEqualTo(suggestion.purchaseCount());
+                assertThat(line.getTotalQuantity()).isEqualTo(suggestion.totalQuantity());
+                assertThat(line.getScore()).as("score of item %d", suggestion.itemId())
+                        .isCloseTo(suggestion.score(), within(1e-9));
+            }
+        }
+    }
+
+    @Test
+    void rebuildRecountsPurchasesWrittenAroundTheService() {
+        Long itemId = item();
+        jdbc.update("insert into inventories (office_id) values (?)", officeId);
+        purchaseService.createPurchase(purchase(itemId, 2));
+        purchaseService.createPurchase(purchase(itemId, 3));
+        Map<String, Object> running = stats(itemId);
+        assertThat(running).containsEntry("line_count", 2L).containsEntry("total_quantity", 5.0);
+
+        // Rebuilding what the service kept changes nothing
+        assertThat(purchaseService.rebuildItemStats(officeId)).isEqualTo(1);
+        assertThat(stats(itemId)).isEqualTo(running);
+
+        // An older purchase entered in the database: counted, without moving the last purchase date
+        buy(itemId, Duration.ofDays(30), 4);
+        assertThat(stats(itemId)).isEqualTo(running);
+        purchaseService.rebuildItemStats(officeId);
+        assertThat(stats(itemId))
+                .containsEntry("line_count", 3L)
+                .containsEntry("total_quantity", 9.0)
+                .containsEntry("last_purchased_at", running.get("last_purchased_at"));
+    }
+
+    private Long item() {
+        Long itemId = jdbc.queryForObject("insert into items (name) values (?) returning id", Long.class,
+                "suggestion-test-" + suffix + "-" + itemIds.size());
+        itemIds.add(itemId);
+        return itemId;
+    }
+
+    /** Enters one purchase per line, {@code age} before {@link #NOW}, straight into the database. */
+    private void buy(Long itemId, Object... agesAndQuantities) {
+        for (int i = 0; i < agesAndQuantities.length; i += 2) {
+            LocalDateTime purchasedAt = NOW.minus((Duration) agesAndQuantities[i]);
+            double quantity = ((Number) agesAndQuantities[i + 1]).doubleValue();
+            Long purchaseId = jdbc.queryForObject("insert into purchases (purchased_by_user_id, office_id, purchased_date) " +
+                    "values (?, ?, ?) returning id", Long.class, userId, officeId, purchasedAt);
+            jdbc.update("insert into purchase_items (purchase_id, item_id, quantity, unit_price) values (?, ?, ?, 1)",
+                    purchaseId, itemId, quantity);
+            history.add(new Line(itemId, quantity, purchasedAt));
+        }
+    }
+
+    private Purchase purchase(Long itemId, double quantity) {
+        Purchase purchase = new Purchase();
+        Office office = new Office();
+        office.setId(officeId);
+        purchase.setOffice(office);
+        User user = new User();
+        user.setId(userId);
+        purchase.setPurchasedBy(user);
+        Item item = new Item();
+        item.setId(itemId);
+        PurchaseItem line = new PurchaseItem();
+        line.setItem(item);
+        line.setQuantity(quantity);
+        line.setUnitPrice(1.0);
+        line.setPurchase(purchase);
+        purchase.getItems().add(line);
+        return purchase;
+    }
+
+    private Map<String, Object> stats(Long itemId) {
+        return jdbc.queryForMap("select line_count, total_quantity, last_purchased_at from office_item_purchase_stats " +
+                "where office_id = ? and item_id = ?", officeId, itemId);
+    }
+
+    /**
+     * buildSuggestiveRequisition of the requisition page before the ranking moved to the server,
+     * over every purchase line entered: each line weighs max(0.35, 1 - age in days / 180).
+     */
+    private List<Suggestion> formerFormula(int limit) {
+        record Stats(long purchaseCount, double totalQuantity, double weightedQuantity, double lastRecencyWeight) {
+        }
+        Map<Long, Stats> statsByItem = new LinkedHashMap<>();
+        for (Line line : history) {
+            double ageDays = Math.max(0, Duration.between(line.purchasedAt(), NOW).toMillis() / (double) Duration.ofDays(1).toMillis());
+            double recencyWeight = Math.max(0.35, 1 - ageDays / 180);
+            Stats current = statsByItem.getOrDefault(line.itemId(), new Stats(0, 0, 0, 0));
+            statsByItem.put(line.itemId(), new Stats(current.purchaseCount() + 1,
+                    current.totalQuantity() + line.quantity(),
+                    current.weightedQuantity() + line.quantity() * recencyWeight,
+                    Math.max(current.lastRecencyWeight(), recencyWeight)));
+        }
+        return statsByItem.entrySet().stream()
+                .filter(entry -> entry.getValue().purchaseCount() >= 2 || entry.getValue().totalQuantity() >= 10)
+                .map(entry -> {
+                    Stats stat = entry.getValue();
+                    double averageQuantity = stat.totalQuantity() / stat.purchaseCount();
+                    double score = stat.weightedQuantity() * 2 + stat.purchaseCount() * 1.5 + stat.lastRecencyWeight();
+                    // JavaScript's Math.round, like Java's, rounds halves up
+                    long quantity = Math.max(1, Math.round(averageQuantity * (1 + stat.lastRecencyWeight() * 0.15)));
+                    return new Suggestion(entry.getKey(), quantity, stat.purchaseCount(), stat.totalQuantity(), score);
+                })
+                .sorted(Comparator.comparingDouble(Suggestion::score).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private record Line(Long itemId, double quantity, LocalDateTime purchasedAt) {
+    }
+
+    private record Suggestion(Long itemId, long quantity, long purchaseCount, double totalQuantity, double score) {
+    }
+}
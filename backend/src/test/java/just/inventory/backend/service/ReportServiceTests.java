@@ -0,0 +1,208 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.MovementLine;
+import just.inventory.backend.dto.ReportResult;
+import just.inventory.backend.dto.TurnaroundLine;
+import just.inventory.backend.model.Category;
+import just.inventory.backend.repository.CategoryRepository;
+import just.inventory.backend.repository.ItemRequestRepository;
+import just.inventory.backend.repository.ItemTransactionRepository;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Movement volume and request turnaround against PostgreSQL, over a history set in 2002, and the
+ * report cache: a repeated report is served from it until a table the report reads is written.
+ * Needs a PostgreSQL database it may write to (see {@link TestApplication}); the rows it creates
+ * are removed afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class ReportServiceTests {
+
+    private static final LocalDate FROM = LocalDate.of(2002, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2002, 3, 31);
+
+    private static ConfigurableApplicationContext app;
+    private static JdbcTemplate jdbc;
+    private static TransactionTemplate transaction;
+    private static ReportService reportService;
+
+    private static String suffix;
+    private static Long officeId;
+    private static Long otherOfficeId;
+    private static Long itemId;
+    private static Long instanceId;
+    private static Long userId;
+    private static Long februaryTransferId;
+    private static Long undecidedRequestId;
+
+    @BeforeAll
+    static void start() {
+        app = TestApplication.start();
+        jdbc = app.getBean(JdbcTemplate.class);
+        transaction = new TransactionTemplate(app.getBean(PlatformTransactionManager.class));
+        reportService = app.getBean(ReportService.class);
+        // Seed data takes explicit ids without advancing the identity sequences
+        for (String table : new String[]{"offices", "inventories", "categories", "items", "item_instances", "users",
+                "item_requests"}) {
+            jdbc.queryForList("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "greatest(coalesce(max(id), 0), 1)) from " + table);
+        }
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        officeId = jdbc.queryForObject("insert into offices (name, type, is_active) values (?, 'office', true) returning id",
+                Long.class, "report-test-" + suffix);
+        otherOfficeId = jdbc.queryForObject("insert into offices (name, type, is_active) values (?, 'office', true) " +
+                "returning id", Long.class, "report-test-other-" + suffix);
+        Long inventoryId = jdbc.queryForObject("insert into inventories (office_id) values (?) returning id",
+                Long.class, officeId);
+        itemId = jdbc.queryForObject("insert into items (name) values (?) returning id", Long.class, "report-test-" + suffix);
+        instanceId = jdbc.queryForObject("insert into item_instances (item_id, barcode, inventory_id, owner_office_id, " +
+                "status, created_at) values (?, ?, ?, ?, 'AVAILABLE', now()) returning id",
+                Long.class, itemId, "RT-" + suffix, inventoryId, officeId);
+        userId = jdbc.queryForObject("insert into users (username, password, email, full_name, is_active, role_id, office_id) " +
+                "values (?, 'x', ?, 'Report Clerk', true, (select id from roles where name = 'ADMIN'), ?) returning id",
+                Long.class, "report." + suffix, "report." + suffix + "@test", officeId);
+
+        movement("TRANSFER", otherOfficeId, officeId, 2, LocalDateTime.of(2002, 1, 10, 9, 0));
+        movement("TRANSFER", otherOfficeId, officeId, 3, LocalDateTime.of(2002, 1, 20, 9, 0));
+        movement("TRANSFER", officeId, otherOfficeId, 1, LocalDateTime.of(2002, 1, 25, 9, 0));
+        februaryTransferId = movement("TRANSFER", otherOfficeId, officeId, 4, LocalDateTime.of(2002, 2, 5, 9, 0));
+        // Within the office: counted as coming in
+        movement("DISTRIBUTION", officeId, officeId, 5, LocalDateTime.of(2002, 2, 6, 9, 0));
+        // The last moment of the last day is in the range, the next day is not
+        movement("TRANSFER", officeId, otherOfficeId, 2, LocalDateTime.of(2002, 3, 31, 23, 59, 59));
+        movement("TRANSFER", otherOfficeId, officeId, 100, LocalDateTime.of(2002, 4, 1, 0, 0));
+        // Within another office: neither end is this one
+        movement("TRANSFER", otherOfficeId, otherOfficeId, 50, LocalDateTime.of(2002, 1, 11, 9, 0));
+
+        LocalDateTime january = LocalDateTime.of(2002, 1, 10, 0, 0);
+        request(officeId, otherOfficeId, january, january.plusHours(2), null, january.plusHours(10));
+        request(officeId, otherOfficeId, january.plusDays(5), null, january.plusDays(5).plusHours(4), null);
+        undecidedRequestId = request(officeId, otherOfficeId, january.plusDays(10), null, null, null);
+        LocalDateTime february = LocalDateTime.of(2002, 2, 1, 0, 0);
+        request(otherOfficeId, officeId, february, february.plusHours(1), null, february.plusHours(3));
+    }
+
+    @AfterAll
+    static void cleanUpAndStop() {
+        if (jdbc != null && officeId != null) {
+            jdbc.update("delete from item_transactions where item_instance_id = ?", instanceId);
+            jdbc.update("delete from item_requests where item_id = ?", itemId);
+            jdbc.update("delete from categories where name = ?", "report-test-" + suffix);
+            jdbc.update("delete from users where id = ?", userId);
+            jdbc.update("delete from item_instances where id = ?", instanceId);
+            jdbc.update("delete from items where id = ?", itemId);
+            jdbc.update("delete from inventories where office_id = ?", officeId);
+            jdbc.update("delete from offices where id in (?, ?)", officeId, otherOfficeId);
+        }
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    @Test
+    void movementVolumeIsCountedPerPeriodTypeAndDirection() {
+        ReportResult<MovementLine> report = reportService.getMovementVolume(officeId, FROM, TO, "month");
+
+        assertThat(report.rows())
+                .extracting(line -> line.getPeriod().toLocalDate(), MovementLine::getTransactionType,
+                        MovementLine::getDirection, MovementLine::getTransactionCount, MovementLine::getQuantity,
+                        MovementLine::getCumulativeQuantity)
+                .containsExactly(
+                        tuple(LocalDate.of(2002, 1, 1), "TRANSFER", "IN", 2L, 5.0, 5.0),
+                        tuple(LocalDate.of(2002, 1, 1), "TRANSFER", "OUT", 1L, 1.0, 1.0),
+                        tuple(LocalDate.of(2002, 2, 1), "DISTRIBUTION", "IN", 1L, 5.0, 5.0),
+                        tuple(LocalDate.of(2002, 2, 1), "TRANSFER", "IN", 1L, 4.0, 9.0),
+                        tuple(LocalDate.of(2002, 3, 1), "TRANSFER", "OUT", 1L, 2.0, 3.0));
+        assertThat(reportService.getMovementVolume(officeId, FROM, TO, "quarter").rows())
+                .extracting(MovementLine::getDirection, MovementLine::getQuantity)
+                .containsExactly(tuple("IN", 5.0), tuple("IN", 9.0), tuple("OUT", 3.0));
+    }
+
+    @Test
+    void turnaroundIsMeasuredFromTheRequestToEachStep() {
+        ReportResult<TurnaroundLine> report = reportService.getRequestTurnaround(officeId, FROM, TO, "month");
+
+        assertThat(report.rows())
+                .extracting(line -> line.getPeriod().toLocalDate(), TurnaroundLine::getSide,
+                        TurnaroundLine::getRequestCount, TurnaroundLine::getDecidedCount, TurnaroundLine::getFulfilledCount)
+                .containsExactly(
+                        tuple(LocalDate.of(2002, 1, 1), "SENT", 3L, 2L, 1L),
+                        tuple(LocalDate.of(2002, 2, 1), "RECEIVED", 1L, 1L, 1L));
+        TurnaroundLine sent = report.rows().get(0);
+        // Approved after 2 hours, rejected after 4; fulfilled after 10
+        assertThat(sent.getAvgHoursToDecision()).isEqualTo(3.0);
+        assertThat(sent.getMedianHoursToDecision()).isEqualTo(3.0);
+        assertThat(sent.getAvgHoursToFulfilment()).isEqualTo(10.0);
+        assertThat(sent.getP90HoursToFulfilment()).isEqualTo(10.0);
+        TurnaroundLine received = report.rows().get(1);
+        assertThat(received.getMedianHoursToDecision()).isEqualTo(1.0);
+        assertThat(received.getMedianHoursToFulfilment()).isEqualTo(3.0);
+    }
+
+    @Test
+    void cachedReportsLastUntilATableTheyReadIsWritten() {
+        ReportResult<MovementLine> movements = reportService.getMovementVolume(officeId, FROM, TO, "week");
+        ReportResult<TurnaroundLine> turnaround = reportService.getRequestTurnaround(officeId, FROM, TO, "week");
+        assertThat(reportService.getMovementVolume(officeId, FROM, TO, "week")).isSameAs(movements);
+
+        // A table neither report reads
+        transaction.executeWithoutResult(status -> {
+            Category category = new Category();
+            category.setName("report-test-" + suffix);
+            app.getBean(CategoryRepository.class).save(category);
+        });
+        assertThat(reportService.getMovementVolume(officeId, FROM, TO, "week")).isSameAs(movements);
+        assertThat(reportService.getRequestTurnaround(officeId, FROM, TO, "week")).isSameAs(turnaround);
+
+        // A transfer corrected from 4 to 6: the movement report is recomputed, the turnaround is not
+        transaction.executeWithoutResult(status -> app.getBean(ItemTransactionRepository.class)
+                .findById(februaryTransferId).orElseThrow().setQuantity(6.0));
+        ReportResult<MovementLine> recomputed = reportService.getMovementVolume(officeId, FROM, TO, "week");
+        assertThat(recomputed).isNotSameAs(movements);
+        assertThat(recomputed.rows().stream().mapToDouble(MovementLine::getQuantity).sum())
+                .isEqualTo(movements.rows().stream().mapToDouble(MovementLine::getQuantity).sum() + 2);
+        assertThat(reportService.getRequestTurnaround(officeId, FROM, TO, "week")).isSameAs(turnaround);
+
+        transaction.executeWithoutResult(status -> app.getBean(ItemRequestRepository.class)
+                .findById(undecidedRequestId).orElseThrow().setFulfilledDate(LocalDateTime.of(2002, 1, 21, 0, 0)));
+        ReportResult<TurnaroundLine> refreshed = reportService.getRequestTurnaround(officeId, FROM, TO, "week");
+        assertThat(refreshed.rows().stream().mapToLong(TurnaroundLine::getFulfilledCount).sum())
+                .isEqualTo(turnaround.rows().stream().mapToLong(TurnaroundLine::getFulfilledCount).sum() + 1);
+
+        // Restores what the other tests read
+        transaction.executeWithoutResult(status -> {
+            app.getBean(ItemTransactionRepository.class).findById(februaryTransferId).orElseThrow().setQuantity(4.0);
+            app.getBean(ItemRequestRepository.class).findById(undecidedRequestId).orElseThrow().setFulfilledDate(null);
+        });
+    }
+
+    private static Long movement(String type, Long fromOfficeId, Long toOfficeId, double quantity, LocalDateTime date) {
+        return jdbc.queryForObject("insert into item_transactions (item_instance_id, from_office_id, to_office_id, user_id, " +
+                "transaction_type, status, quantity, transaction_date, confirmed_date) " +
+                "values (?, ?, ?, ?, ?, 'CONFIRMED', ?, ?, ?) returning id",
+                Long.class, instanceId, fromOfficeId, toOfficeId, userId, type, quantity, date, date);
+    }
+
+    private static Long request(Long requestingOfficeId, Long parentOfficeId, LocalDateTime requested,
+                                LocalDateTime approved, LocalDateTime rejected, LocalDateTime fulfilled) {
+        return jdbc.queryForObject("insert into item_requests (item_id, requesting_office_id, parent_office_id, " +
+                "requested_by_user_id, requested_quantity, status, requested_date, approved_date, rejected_date, " +
+                "fulfilled_date) values (?, ?, ?, ?, 1, 'PENDING', ?, ?, ?, ?) returning id",
+                Long.class, itemId, requestingOfficeId, parentOfficeId, userId, requested, approved, rejected, fulfilled);
+    }
+}
@@ -0,0 +1,145 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.config.AsyncConfig;
+import just.inventory.backend.dto.CatalogItemName;
+import just.inventory.backend.dto.ItemStockCount;
+import just.inventory.backend.dto.RequisitionSuggestionResponse;
+import just.inventory.backend.support.StubGeminiServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static just.inventory.backend.service.RequisitionSuggestionServiceTests.LAPTOP_ANSWER;
+import static just.inventory.backend.service.RequisitionSuggestionServiceTests.catalogItem;
+import static just.inventory.backend.service.RequisitionSuggestionServiceTests.stockCount;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Latency budget and circuit breaker of {@link RequisitionSuggestionService} against a
+ * {@link StubGeminiServer} that answers slowly or with 429s.
+ */
+@SpringBootTest(classes = {
+        RequisitionSuggestionService.class, GeminiClient.class, GeminiCircuitBreaker.class,
+        InventoryMetrics.class, AsyncConfig.class, RequisitionSuggestionServiceTests.Beans.class
+}, properties = {
+        "ai.requisition.enabled=true",
+        "ai.requisition.api-key=test-key",
+        "ai.requisition.latency-budget=300ms",
+        "ai.requisition.breaker.window-size=4",
+        "ai.requisition.breaker.minimum-calls=3",
+        "ai.requisition.breaker.open-duration=500ms"
+})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class RequisitionSuggestionProviderHealthTests {
+
+    static final StubGeminiServer stub = startStub();
+
+    @Autowired
+    private RequisitionSuggestionService service;
+
+    @Autowired
+    private GeminiCircuitBreaker circuitBreaker;
+
+    @DynamicPropertySource
+    static void providerUrl(DynamicPropertyRegistry registry) {
+        registry.add("ai.requisition.api-url", stub::getApiUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void slowProviderFallsBackWithinBudgetAndStillWarmsTheCache() {
+        stub.respondWith(LAPTOP_ANSWER).delay(Duration.ofSeconds(1));
+        int callsBefore = stub.getCalls();
+
+        long started = System.nanoTime();
+        RequisitionSuggestionResponse waited = service.suggestWithinBudget("Requesting Office", "Source Office",
+                "slow", stock(), List.of(), List.of(), List.of(), catalog()).join();
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertThat(waited.getSource()).isEqualTo("fallback");
+        assertThat(waited.getWarning()).contains("latency budget");
+        assertThat(waitedMillis).isLessThan(900);
+
+        // Poll mode is not bound by the budget and joins the call still in flight
+        RequisitionSuggestionResponse polled = suggestAsync("slow").join();
+        assertThat(polled.getSource()).isEqualTo("gemini");
+        assertThat(stub.getCalls() - callsBefore).isEqualTo(1);
+
+        RequisitionSuggestionResponse cached = service.suggestWithinBudget("Requesting Office", "Source Office",
+                "slow", stock(), List.of(), List.of(), List.of(), catalog()).join();
+        assertThat(cached.getSource()).isEqualTo("gemini");
+        assertThat(stub.getCalls() - callsBefore).isEqualTo(1);
+    }
+
+    @Test
+    void pollModeWaitsLongerThanTheBudget() {
+        stub.respondWith(LAPTOP_ANSWER).delay(Duration.ofMillis(800));
+
+        RequisitionSuggestionResponse polled = suggestAsync("poll").join();
+
+        assertThat(polled.getSource()).isEqualTo("gemini");
+    }
+
+    @Test
+    void rateLimitedProviderOpensTheBreakerUntilAProbeSucceeds() throws InterruptedException {
+        stub.failWith(429).delay(Duration.ZERO);
+        int callsBefore = stub.getCalls();
+
+        for (int i = 0; i < 3; i++) {
+            RequisitionSuggestionResponse response = suggestAsync("rate limited " + i).join();
+            assertThat(response.getSource()).isEqualTo("fallback");
+            assertThat(response.getWarning()).contains("AI service unavailable");
+        }
+        assertThat(stub.getCalls() - callsBefore).isEqualTo(3);
+        assertThat(circuitBreaker.getState()).isEqualTo(GeminiCircuitBreaker.State.OPEN);
+
+        // Open: answered from the fallback without reaching the provider
+        assertThat(suggestAsync("rate limited 3").join().getSource()).isEqualTo("fallback");
+        assertThat(stub.getCalls() - callsBefore).isEqualTo(3);
+        assertThat(circuitBreaker.getRejectedCalls()).isEqualTo(1);
+
+        Thread.sleep(600);
+        stub.respondWith(LAPTOP_ANSWER);
+        assertThat(circuitBreaker.getState()).isEqualTo(GeminiCircuitBreaker.State.HALF_OPEN);
+
+        assertThat(suggestAsync("recovered").join().getSource()).isEqualTo("gemini");
+        assertThat(circuitBreaker.getState()).isEqualTo(GeminiCircuitBreaker.State.CLOSED);
+        assertThat(stub.getCalls() - callsBefore).isEqualTo(4);
+    }
+
+    private CompletableFuture<RequisitionSuggestionResponse> suggestAsync(String reason) {
+        return service.suggestAsync("Requesting Office", "Source Office", reason,
+                stock(), List.of(), List.of(), List.of(), catalog());
+    }
+
+    private static List<ItemStockCount> stock() {
+        return List.of(stockCount(1L, "Laptop", 10L));
+    }
+
+    private static List<CatalogItemName> catalog() {
+        return List.of(catalogItem(1L, "Laptop"));
+    }
+
+    private static StubGeminiServer startStub() {
+        try {
+            return new StubGeminiServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
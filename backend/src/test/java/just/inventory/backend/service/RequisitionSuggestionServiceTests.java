@@ -0,0 +1,142 @@
+package just.inventory.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import just.inventory.backend.config.AsyncConfig;
+import just.inventory.backend.dto.CatalogItemName;
+import just.inventory.backend.dto.ItemStockCount;
+import just.inventory.backend.dto.RequisitionSuggestionResponse;
+import just.inventory.backend.support.StubGeminiServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Cache and single-flight of {@link RequisitionSuggestionService} against {@link StubGeminiServer}.
+ */
+@SpringBootTest(classes = {
+        RequisitionSuggestionService.class, GeminiClient.class, GeminiCircuitBreaker.class,
+        InventoryMetrics.class, AsyncConfig.class, RequisitionSuggestionServiceTests.Beans.class
+}, properties = {
+        "ai.requisition.enabled=true",
+        "ai.requisition.api-key=test-key",
+        "ai.requisition.latency-budget=0s"
+})
+class RequisitionSuggestionServiceTests {
+
+    static final String LAPTOP_ANSWER =
+            "{\"summary\":\"stub\",\"suggestions\":[{\"itemName\":\"Laptop\",\"quantity\":2,\"rationale\":\"r\"}]}";
+
+    static final StubGeminiServer stub = startStub();
+
+    @Autowired
+    private RequisitionSuggestionService service;
+
+    @DynamicPropertySource
+    static void providerUrl(DynamicPropertyRegistry registry) {
+        registry.add("ai.requisition.api-url", stub::getApiUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.close();
+    }
+
+    @Test
+    void concurrentIdenticalPromptsShareOneProviderCall() {
+        stub.respondWith(LAPTOP_ANSWER).delay(Duration.ofMillis(300));
+        int callsBefore = stub.getCalls();
+
+        List<CompletableFuture<RequisitionSuggestionResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(suggest("single-flight"));
+        }
+
+        for (CompletableFuture<RequisitionSuggestionResponse> future : futures) {
+            RequisitionSuggestionResponse response = future.join();
+            assertThat(response.getSource()).isEqualTo("gemini");
+            assertThat(response.getSuggestions()).extracting(RequisitionSuggestionResponse.SuggestionLine::getItemId)
+                    .containsExactly(1L);
+        }
+        assertThat(stub.getCalls() - callsBefore).isEqualTo(1);
+    }
+
+    @Test
+    void repeatedPromptIsServedFromCache() {
+        stub.respondWith(LAPTOP_ANSWER).delay(Duration.ZERO);
+        int callsBefore = stub.getCalls();
+
+        RequisitionSuggestionResponse first = suggest("cached").join();
+        RequisitionSuggestionResponse second = suggest("cached").join();
+
+        assertThat(second).isSameAs(first);
+        assertThat(stub.getCalls() - callsBefore).isEqualTo(1);
+    }
+
+    @Test
+    void differentReasonsAreDifferentPrompts() {
+        stub.respondWith(LAPTOP_ANSWER).delay(Duration.ZERO);
+        int callsBefore = stub.getCalls();
+
+        suggest("reason one").join();
+        suggest("reason two").join();
+
+        assertThat(stub.getCalls() - callsBefore).isEqualTo(2);
+    }
+
+    private CompletableFuture<RequisitionSuggestionResponse> suggest(String reason) {
+        return service.suggestAsync("Requesting Office", "Source Office", reason,
+                List.of(stockCount(1L, "Laptop", 10L)), List.of(), List.of(), List.of(),
+                List.of(catalogItem(1L, "Laptop")));
+    }
+
+    static final SpelAwareProxyProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    static ItemStockCount stockCount(Long itemId, String itemName, Long available) {
+        return PROJECTIONS.createProjection(ItemStockCount.class,
+                Map.of("itemId", itemId, "itemName", itemName, "availableCount", available));
+    }
+
+    static CatalogItemName catalogItem(Long id, String name) {
+        return PROJECTIONS.createProjection(CatalogItemName.class, Map.of("id", id, "name", name));
+    }
+
+    private static StubGeminiServer startStub() {
+        try {
+            return new StubGeminiServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @TestConfiguration
+    static class Beans {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
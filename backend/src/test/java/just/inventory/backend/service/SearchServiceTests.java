@@ -0,0 +1,152 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.ItemInstanceSearchHit;
+import just.inventory.backend.dto.ItemSearchHit;
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.repository.ItemRepository;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Catalog and instance search against PostgreSQL: typo-tolerant matches on item, category and
+ * office names, and plans that reach them through the trigram indexes rather than a scan. Needs a
+ * PostgreSQL database it may write to (see {@link TestApplication}); the rows it creates are
+ * removed afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class SearchServiceTests {
+
+    private static ConfigurableApplicationContext app;
+    private static JdbcTemplate jdbc;
+    private static SearchService searchService;
+
+    private static String suffix;
+    private static Long officeId;
+    private static Long inventoryId;
+    private static Long categoryId;
+    private static Long namedItemId;
+    private static Long categorizedItemId;
+    private static Long instanceId;
+
+    @BeforeAll
+    static void start() {
+        app = TestApplication.start();
+        jdbc = app.getBean(JdbcTemplate.class);
+        searchService = app.getBean(SearchService.class);
+
+        // Seed data takes explicit ids without advancing the identity sequences
+        for (String table : new String[]{"offices", "inventories", "categories", "items", "item_instances"}) {
+            jdbc.queryForList("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "greatest(coalesce(max(id), 0), 1)) from " + table);
+        }
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        officeId = jdbc.queryForObject("insert into offices (name, name_bn, code, type, is_active) " +
+                "values (?, ?, ?, 'office', true) returning id", Long.class,
+                "Vexillology Office " + suffix, "ভেক্সিলোলজি দপ্তর " + suffix, "SR" + suffix);
+        inventoryId = jdbc.queryForObject("insert into inventories (office_id) values (?) returning id", Long.class, officeId);
+        categoryId = jdbc.queryForObject("insert into categories (name) values (?) returning id", Long.class,
+                "Quixotry " + suffix);
+        namedItemId = jdbc.queryForObject("insert into items (name) values (?) returning id", Long.class,
+                "Zorblax Projector " + suffix);
+        categorizedItemId = jdbc.queryForObject("insert into items (name, category_id) values (?, ?) returning id",
+                Long.class, "Plain Shelf " + suffix, categoryId);
+        instanceId = jdbc.queryForObject("insert into item_instances (item_id, barcode, inventory_id, owner_office_id, " +
+                "status, created_at) values (?, ?, ?, ?, 'AVAILABLE', now()) returning id",
+                Long.class, categorizedItemId, "SR-" + suffix, inventoryId, officeId);
+    }
+
+    @AfterAll
+    static void cleanUpAndStop() {
+        if (jdbc != null && officeId != null) {
+            jdbc.update("delete from item_instances where id = ?", instanceId);
+            jdbc.update("delete from items where id in (?, ?)", namedItemId, categorizedItemId);
+            jdbc.update("delete from categories where id = ?", categoryId);
+            jdbc.update("delete from inventories where id = ?", inventoryId);
+            jdbc.update("delete from offices where id = ?", officeId);
+        }
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    @Test
+    void misspelledItemNameMatches() {
+        assertThat(searchService.searchItems("Zorblaxx", 0, 20).getResults())
+                .extracting(ItemSearchHit::getId)
+                .contains(namedItemId);
+    }
+
+    @Test
+    void itemsOfMisspelledCategoryMatch() {
+        assertThat(searchService.searchItems("Quixotri", 0, 20).getResults())
+                .extracting(ItemSearchHit::getId)
+                .contains(categorizedItemId)
+                .doesNotContain(namedItemId);
+    }
+
+    @Test
+    void instancesOfMisspelledOfficeMatch() {
+        assertThat(searchService.searchInstances("Vexilology", null, 0, 20).getResults())
+                .extracting(ItemInstanceSearchHit::getId)
+                .contains(instanceId);
+        assertThat(searchService.searchInstances("ভেক্সিলোলজি", null, 0, 20).getResults())
+                .extracting(ItemInstanceSearchHit::getId)
+                .contains(instanceId);
+    }
+
+    @Test
+    void itemSearchReachesNamesThroughTrigramIndexes() throws Exception {
+        String plan = explain(ItemRepository.class.getMethod("search", String.class, String.class, String.class,
+                int.class, int.class), Map.of("query", "Zorblaxx", "tsQuery", "zorblaxx:*", "pattern", "%Zorblaxx%",
+                "offset", 0, "limit", 21));
+
+        assertThat(plan).contains("idx_items_name_trgm", "idx_categories_name_trgm");
+    }
+
+    @Test
+    void instanceSearchReachesOfficesThroughIndexes() throws Exception {
+        String plan = explain(ItemInstanceRepository.class.getMethod("search", String.class, String.class,
+                String.class, String.class, Long.class, int.class, int.class, int.class),
+                Map.of("query", "Vexilology", "tsQuery", "vexilology:*", "pattern", "%Vexilology%",
+                        "prefixPattern", "VEXILOLOGY%", "window", 21, "offset", 0, "limit", 21));
+
+        assertThat(plan).contains("idx_items_name_trgm", "idx_offices_name_trgm", "idx_offices_name_bn_trgm",
+                "idx_offices_code_upper");
+    }
+
+    /**
+     * The plan of a repository method's native query with sequential and plain index scans
+     * discouraged. On a small test database that is the only way to see whether the indexes can
+     * serve a condition at all: bitmap scans are all that is left, and a condition they cannot
+     * serve still falls back to a scan.
+     */
+    private static String explain(Method method, Map<String, Object> arguments) {
+        String sql = method.getAnnotation(Query.class).value();
+        Map<String, Object> parameters = new HashMap<>(arguments);
+        parameters.putIfAbsent("officeId", null);
+        return new TransactionTemplate(app.getBean(PlatformTransactionManager.class)).execute(status -> {
+            jdbc.queryForList("select set_config('enable_seqscan', 'off', true)");
+            jdbc.queryForList("select set_config('enable_indexscan', 'off', true)");
+            jdbc.queryForList("select set_config('pg_trgm.word_similarity_threshold', '0.4', true)");
+            List<String> lines = new NamedParameterJdbcTemplate(jdbc).queryForList("explain " + sql, parameters, String.class);
+            return String.join("\n", lines);
+        });
+    }
+}
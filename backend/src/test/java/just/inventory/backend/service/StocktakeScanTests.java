@@ -0,0 +1,186 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.StocktakeReconciliation;
+import just.inventory.backend.dto.StocktakeScanResult;
+import just.inventory.backend.model.User;
+import just.inventory.backend.repository.UserRepository;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Stocktake scans against PostgreSQL: repeated barcodes and retried uploads count each instance
+ * once, an interrupted stream resumes where it stopped, and a closed session takes no more scans.
+ * Needs a PostgreSQL database it may write to (see {@link TestApplication}); the rows it creates
+ * are removed afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class StocktakeScanTests {
+
+    private static ConfigurableApplicationContext app;
+    private static JdbcTemplate jdbc;
+    private static StocktakeService service;
+
+    private String prefix;
+    private Long officeId;
+    private Long itemId;
+    private User user;
+
+    @BeforeAll
+    static void start() {
+        app = TestApplication.start("--stocktake.scan-batch-size=2");
+        jdbc = app.getBean(JdbcTemplate.class);
+        service = app.getBean(StocktakeService.class);
+        // Seed data takes explicit ids without advancing the identity sequences
+        for (String table : new String[]{"offices", "inventories", "items", "item_instances", "users"}) {
+            jdbc.queryForList("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "greatest(coalesce(max(id), 0), 1)) from " + table);
+        }
+    }
+
+    @AfterAll
+    static void stop() {
+        if (app != null) {
+            app.close();
+        }
+    }
+
+    @BeforeEach
+    void createOfficeWithThreeInstances() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        prefix = "ST-" + suffix + "-";
+        officeId = jdbc.queryForObject("insert into offices (name, type, is_active) values (?, 'office', true) returning id",
+                Long.class, "stocktake-test-" + suffix);
+        Long inventoryId = jdbc.queryForObject("insert into inventories (office_id) values (?) returning id",
+                Long.class, officeId);
+        itemId = jdbc.queryForObject("insert into items (name) values (?) returning id", Long.class,
+                "stocktake-test-" + suffix);
+        for (int i = 1; i <= 3; i++) {
+            jdbc.update("insert into item_instances (item_id, barcode, inventory_id, owner_office_id, status, created_at) " +
+                    "values (?, ?, ?, ?, 'AVAILABLE', now())", itemId, prefix + i, inventoryId, officeId);
+        }
+        Long userId = jdbc.queryForObject("insert into users (username, password, email, full_name, is_active, role_id, office_id) " +
+                "values (?, 'x', ?, 'Stocktake Clerk', true, (select id from roles where name = 'ADMIN'), ?) returning id",
+                Long.class, "stocktake." + suffix, "stocktake." + suffix + "@test", officeId);
+        user = app.getBean(UserRepository.class).findById(userId).orElseThrow();
+    }
+
+    @AfterEach
+    void deleteOffice() {
+        jdbc.update("delete from stocktake_scans where session_id in (select id from stocktake_sessions where office_id = ?)",
+                officeId);
+        jdbc.update("delete from stocktake_unknown_barcodes where session_id in " +
+                "(select id from stocktake_sessions where office_id = ?)", officeId);
+        jdbc.update("delete from stocktake_sessions where office_id = ?", officeId);
+        jdbc.update("delete from users where office_id = ?", officeId);
+        jdbc.update("delete from item_instances where item_id = ?", itemId);
+        jdbc.update("delete from items where id = ?", itemId);
+        jdbc.update("delete from inventories where office_id = ?", officeId);
+        jdbc.update("delete from offices where id = ?", officeId);
+    }
+
+    @Test
+    void repeatedAndRetriedScansCountEachInstanceOnce() {
+        Long sessionId = service.open(officeId, user).id();
+        List<String> upload = List.of(prefix + 1, prefix + 2, prefix + 1, " ", prefix + "unknown");
+
+        StocktakeScanResult first = service.scan(sessionId, upload, user);
+        assertThat(first.received()).isEqualTo(4);
+        assertThat(first.newlyScanned()).isEqualTo(2);
+        assertThat(first.alreadyScanned()).isEqualTo(1);
+        assertThat(first.unknownBarcodes()).containsExactly(prefix + "unknown");
+
+        // The same upload again, as after a lost response
+        StocktakeScanResult retried = service.scan(sessionId, upload, user);
+        assertThat(retried.newlyScanned()).isZero();
+        assertThat(retried.alreadyScanned()).isEqualTo(3);
+
+        StocktakeReconciliation reconciliation = service.reconcile(sessionId, 10);
+        assertThat(reconciliation.scannedCount()).isEqualTo(2);
+        assertThat(reconciliation.foundCount()).isEqualTo(2);
+        assertThat(reconciliation.missingCount()).isEqualTo(1);
+        assertThat(reconciliation.unknownBarcodeCount()).isEqualTo(1);
+    }
+
+    @Test
+    void interruptedStreamResumesWhereItStopped() throws IOException {
+        Long sessionId = service.open(officeId, user).id();
+        String stream = prefix + 1 + "\n" + prefix + 2 + "\n" + prefix + 3 + "\n" + prefix + "unknown\n";
+
+        // The connection drops after the third line: the first batch of two has committed
+        int cut = stream.indexOf(prefix + "unknown");
+        assertThatThrownBy(() -> service.scan(sessionId, new BufferedReader(failingAfter(stream.substring(0, cut))), user))
+                .isInstanceOf(IOException.class);
+        assertThat(service.getSession(sessionId).scannedCount()).isEqualTo(2);
+
+        StocktakeScanResult resumed = service.scan(sessionId, new BufferedReader(new StringReader(stream)), user);
+        assertThat(resumed.received()).isEqualTo(4);
+        assertThat(resumed.newlyScanned()).isEqualTo(1);
+        assertThat(resumed.alreadyScanned()).isEqualTo(2);
+        assertThat(resumed.unknownCount()).isEqualTo(1);
+        assertThat(service.reconcile(sessionId, 10).foundCount()).isEqualTo(3);
+    }
+
+    @Test
+    void closedSessionRejectsScans() {
+        Long sessionId = service.open(officeId, user).id();
+        service.scan(sessionId, List.of(prefix + 1), user);
+        service.close(sessionId, user);
+
+        assertThatThrownBy(() -> service.scan(sessionId, List.of(prefix + 2), user))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThatThrownBy(() -> service.scan(sessionId, new BufferedReader(new StringReader(prefix + 2)), user))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+        assertThatThrownBy(() -> service.close(sessionId, user))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+
+        StocktakeReconciliation reconciliation = service.reconcile(sessionId, 10);
+        assertThat(reconciliation.reconciledAt()).isEqualTo(service.getSession(sessionId).closedAt());
+        assertThat(reconciliation.foundCount()).isEqualTo(1);
+        assertThat(reconciliation.missingCount()).isEqualTo(2);
+        // A new session can open once the old one is closed
+        assertThat(service.open(officeId, user).expectedCount()).isEqualTo(3);
+    }
+
+    /** Reads {@code text}, then fails like a dropped connection. */
+    private static Reader failingAfter(String text) {
+        return new Reader() {
+            private final StringReader delegate = new StringReader(text);
+
+            @Override
+            public int read(char[] buffer, int offset, int length) throws IOException {
+                int read = delegate.read(buffer, offset, length);
+                if (read < 0) {
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+                delegate.close();
+            }
+        };
+    }
+}
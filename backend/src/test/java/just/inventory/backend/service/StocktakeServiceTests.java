@@ -0,0 +1,159 @@
+package just.inventory.backend.service;
+
+import just.inventory.backend.dto.InstanceOwner;
+import just.inventory.backend.dto.StocktakeReconciliation;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.model.StocktakeSession;
+import just.inventory.backend.model.StocktakeSession.StocktakeStatus;
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.repository.ItemTransactionRepository;
+import just.inventory.backend.repository.StocktakeSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * How {@link StocktakeService#reconcile} splits expected and scanned instances, against stubbed
+ * repositories. Scanning and closing against the database are {@link StocktakeScanTests}.
+ */
+class StocktakeServiceTests {
+
+    private static final long SESSION = 3L;
+    private static final long OFFICE = 5L;
+    private static final long OTHER_OFFICE = 9L;
+    private static final LocalDateTime OPENED_AT = LocalDateTime.of(2026, 3, 2, 9, 0);
+
+    private final StocktakeSessionRepository sessionRepository = mock(StocktakeSessionRepository.class);
+    private final ItemInstanceRepository itemInstanceRepository = mock(ItemInstanceRepository.class);
+    private final ItemTransactionRepository itemTransactionRepository = mock(ItemTransactionRepository.class);
+    private StocktakeService service;
+    private StocktakeSession session;
+
+    @BeforeEach
+    void setUp() {
+        service = new StocktakeService();
+        ReflectionTestUtils.setField(service, "sessionRepository", sessionRepository);
+        ReflectionTestUtils.setField(service, "itemInstanceRepository", itemInstanceRepository);
+        ReflectionTestUtils.setField(service, "itemTransactionRepository", itemTransactionRepository);
+
+        Office office = new Office();
+        office.setId(OFFICE);
+        session = new StocktakeSession();
+        session.setId(SESSION);
+        session.setOffice(office);
+        session.setStatus(StocktakeStatus.OPEN);
+        session.setOpenedAt(OPENED_AT);
+        when(sessionRepository.findByIdForUpdate(SESSION)).thenReturn(Optional.of(session));
+    }
+
+    @Test
+    void splitsExpectedAndScannedInstances() {
+        expect(1, 2, 3, 4, 5, 6);
+        logScans(0, 10, 1, 2, 7, 8, 9, 10);
+        when(itemTransactionRepository.findLastConfirmedOwners(eq(OFFICE), eq(OPENED_AT), any())).thenReturn(List.of(
+                owner(2, OTHER_OFFICE),   // scanned before it left: still found
+                owner(3, OTHER_OFFICE),   // left unscanned: moved out
+                owner(7, OFFICE),         // arrived during the count: unexpected
+                owner(8, OTHER_OFFICE))); // passed through and left: misplaced
+        // Not expected and never moved during the session: the current owner decides
+        when(itemInstanceRepository.findOwners(new Long[]{9L, 10L}))
+                .thenReturn(List.of(owner(9, OFFICE), owner(10, OTHER_OFFICE)));
+
+        StocktakeReconciliation result = service.reconcile(SESSION, 50);
+
+        assertThat(result.expectedCount()).isEqualTo(6);
+        assertThat(result.scannedCount()).isEqualTo(6);
+        assertThat(result.foundCount()).isEqualTo(2);
+        assertThat(result.missingCount()).isEqualTo(3);
+        assertThat(result.movedOutCount()).isEqualTo(1);
+        assertThat(result.unexpectedCount()).isEqualTo(2);
+        assertThat(result.misplacedCount()).isEqualTo(2);
+        // Every expected instance lands in exactly one of found, missing and moved out, every
+        // scanned one in one of found, unexpected and misplaced
+        assertThat(result.foundCount() + result.missingCount() + result.movedOutCount()).isEqualTo(result.expectedCount());
+        assertThat(result.foundCount() + result.unexpectedCount() + result.misplacedCount()).isEqualTo(result.scannedCount());
+
+        ArgumentCaptor<Long[]> lines = ArgumentCaptor.forClass(Long[].class);
+        verify(itemInstanceRepository, times(3)).findStocktakeLines(lines.capture());
+        assertThat(lines.getAllValues()).containsExactly(new Long[]{4L, 5L, 6L}, new Long[]{7L, 9L}, new Long[]{8L, 10L});
+    }
+
+    @Test
+    void foldsOnlyTheScansLoggedSinceTheLastFold() {
+        expect(1, 2);
+        session.setScannedIds(StocktakeService.serialize(Roaring64NavigableMap.bitmapOf(1)));
+        session.setScannedCount(1);
+        session.setScannedThrough(5L);
+        logScans(5, 7, 2);
+        when(itemTransactionRepository.findLastConfirmedOwners(eq(OFFICE), eq(OPENED_AT), any())).thenReturn(List.of());
+
+        StocktakeReconciliation result = service.reconcile(SESSION, 50);
+
+        assertThat(result.foundCount()).isEqualTo(2);
+        assertThat(session.getScannedThrough()).isEqualTo(7L);
+        assertThat(session.getScannedCount()).isEqualTo(2);
+        assertThat(StocktakeService.deserialize(session.getScannedIds()).toArray()).containsExactly(1L, 2L);
+        verify(itemInstanceRepository, never()).findOwners(any());
+    }
+
+    @Test
+    void closedSessionReconcilesAsOfItsClosingTime() {
+        LocalDateTime closedAt = OPENED_AT.plusHours(3);
+        session.setStatus(StocktakeStatus.CLOSED);
+        session.setClosedAt(closedAt);
+        expect(1);
+        when(sessionRepository.findLastScanId(SESSION)).thenReturn(Optional.empty());
+        when(itemTransactionRepository.findLastConfirmedOwners(OFFICE, OPENED_AT, closedAt)).thenReturn(List.of());
+
+        StocktakeReconciliation result = service.reconcile(SESSION, 0);
+
+        assertThat(result.reconciledAt()).isEqualTo(closedAt);
+        assertThat(result.missingCount()).isEqualTo(1);
+        // A limit of 0 asks for counts only
+        assertThat(result.missing()).isEmpty();
+        verify(itemInstanceRepository, never()).findStocktakeLines(any());
+        verify(sessionRepository, never()).findScannedInstanceIds(anyLong(), anyLong(), anyLong());
+    }
+
+    private void expect(long... ids) {
+        session.setExpectedCount(ids.length);
+        session.setExpectedIds(StocktakeService.serialize(Roaring64NavigableMap.bitmapOf(ids)));
+    }
+
+    private void logScans(long after, long through, long... instanceIds) {
+        when(sessionRepository.findLastScanId(SESSION)).thenReturn(Optional.of(through));
+        when(sessionRepository.findScannedInstanceIds(SESSION, after, through))
+                .thenReturn(Arrays.stream(instanceIds).boxed().toList());
+    }
+
+    private static InstanceOwner owner(long instanceId, long officeId) {
+        return new InstanceOwner() {
+            @Override
+            public Long getInstanceId() {
+                return instanceId;
+            }
+
+            @Override
+            public Long getOfficeId() {
+                return officeId;
+            }
+        };
+    }
+}
@@ -0,0 +1,238 @@
+package just.inventory.backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import just.inventory.backend.dto.ReportResult;
+import just.inventory.backend.dto.ValuationLine;
+import just.inventory.backend.model.Category;
+import just.inventory.backend.model.Item;
+import just.inventory.backend.model.ItemInstance;
+import just.inventory.backend.model.Office;
+import just.inventory.backend.model.Unit;
+import just.inventory.backend.model.User;
+import just.inventory.backend.repository.CategoryRepository;
+import just.inventory.backend.repository.InventoryRepository;
+import just.inventory.backend.repository.ItemInstanceRepository;
+import just.inventory.backend.repository.ItemRepository;
+import just.inventory.backend.repository.OfficeRepository;
+import just.inventory.backend.repository.UnitRepository;
+import just.inventory.backend.repository.UserRepository;
+import just.inventory.backend.support.TestApplication;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two application instances on one database: a committed write on one must make the other's
+ * {@link TableVersions}, and with them its ETags and cached reports, go stale within the bus bound
+ * of about two poll intervals plus a round trip. Needs a PostgreSQL database it may write to (see
+ * {@link TestApplication}); the rows it creates are removed afterwards.
+ */
+@EnabledIfEnvironmentVariable(named = "TEST_DATABASE_URL", matches = ".+")
+class TableVersionPropagationTests {
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+    // Two poll intervals plus a round trip, with room for a busy CI machine
+    private static final Duration STALENESS_BOUND = Duration.ofSeconds(2);
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+    private static JdbcTemplate jdbc;
+    private static TransactionTemplate transactionA;
+    private static final HttpClient http = HttpClient.newHttpClient();
+
+    private static String suffix;
+    private static Long officeId;
+    private static Long inventoryId;
+    private static Long categoryId;
+    private static Long unitId;
+    private static Long itemId;
+    private static Long userId;
+    private static Long instanceId;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode();
+        nodeB = startNode();
+        jdbc = nodeA.getBean(JdbcTemplate.class);
+        transactionA = new TransactionTemplate(nodeA.getBean(PlatformTransactionManager.class));
+
+        // Seed data takes explicit ids without advancing the identity sequences
+        for (String table : new String[]{"offices", "inventories", "categories", "units", "items", "users", "item_instances"}) {
+            jdbc.queryForList("select setval(pg_get_serial_sequence('" + table + "', 'id'), " +
+                    "greatest(coalesce(max(id), 0), 1)) from " + table);
+        }
+        suffix = UUID.randomUUID().toString().substring(0, 8);
+        String name = "version-test-" + suffix;
+        officeId = jdbc.queryForObject("insert into offices (name, code, type, is_active) " +
+                "values (?, ?, 'office', true) returning id", Long.class, name, "VT" + suffix);
+        inventoryId = jdbc.queryForObject("insert into inventories (office_id) values (?) returning id", Long.class, officeId);
+        categoryId = jdbc.queryForObject("insert into categories (name) values (?) returning id", Long.class, name);
+        unitId = jdbc.queryForObject("insert into units (name) values (?) returning id", Long.class, name);
+        itemId = jdbc.queryForObject("insert into items (name, category_id, unit_id) values (?, ?, ?) returning id",
+                Long.class, name, categoryId, unitId);
+        userId = jdbc.queryForObject("insert into users (username, password, email, full_name, is_active, role_id, office_id) " +
+                "values (?, ?, ?, 'Version Admin', true, (select id from roles where name = 'ADMIN'), ?) returning id",
+                Long.class, "version." + suffix, nodeA.getBean(PasswordEncoder.class).encode("password123"),
+                "version." + suffix + "@test", officeId);
+        instanceId = insertInstance("VT-" + suffix + "-1");
+    }
+
+    @AfterAll
+    static void cleanUpAndStopNodes() {
+        if (jdbc != null && officeId != null) {
+            jdbc.update("delete from item_instances where owner_office_id = ?", officeId);
+            jdbc.update("delete from office_item_counts where office_id = ?", officeId);
+            jdbc.update("delete from users where office_id = ?", officeId);
+            jdbc.update("delete from items where id = ?", itemId);
+            jdbc.update("delete from units where id = ?", unitId);
+            jdbc.update("delete from categories where name like ?", "version-test-" + suffix + "%");
+            jdbc.update("delete from inventories where id = ?", inventoryId);
+            jdbc.update("delete from offices where id = ?", officeId);
+        }
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void writeOnOneInstanceBumpsEveryCatalogTableOnTheOther() {
+        Map<Class<?>, Runnable> updates = new LinkedHashMap<>();
+        updates.put(Item.class, () -> find(ItemRepository.class, itemId).setDescription(suffix));
+        updates.put(Category.class, () -> find(CategoryRepository.class, categoryId).setDescription(suffix));
+        updates.put(Unit.class, () -> find(UnitRepository.class, unitId).setDescription(suffix));
+        updates.put(Office.class, () -> find(OfficeRepository.class, officeId).setDescription(suffix));
+        updates.put(User.class, () -> find(UserRepository.class, userId).setFullName("Version Admin " + suffix));
+        updates.put(ItemInstance.class, () -> find(ItemInstanceRepository.class, instanceId).setRemarks(suffix));
+
+        TableVersions versionsB = nodeB.getBean(TableVersions.class);
+        updates.forEach((table, update) -> {
+            long before = versionsB.version(table);
+            transactionA.executeWithoutResult(status -> update.run());
+            awaitWithinBound(() -> versionsB.version(table) > before, table.getSimpleName());
+        });
+    }
+
+    @Test
+    void categoryWrittenOnOneInstanceChangesTheOthersEtag() throws Exception {
+        String token = logIn(nodeB);
+        HttpResponse<String> first = getCategories(token, null);
+        assertThat(first.statusCode()).isEqualTo(200);
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertThat(getCategories(token, etag).statusCode()).isEqualTo(304);
+
+        String created = "version-test-" + suffix + "-created";
+        transactionA.executeWithoutResult(status -> {
+            Category category = new Category();
+            category.setName(created);
+            nodeA.getBean(CategoryRepository.class).save(category);
+        });
+
+        awaitWithinBound(() -> getCategories(token, etag).statusCode() == 200, "categories ETag");
+        HttpResponse<String> changed = getCategories(token, etag);
+        assertThat(changed.headers().firstValue("ETag")).isPresent().get().isNotEqualTo(etag);
+        assertThat(changed.body()).contains(created);
+    }
+
+    @Test
+    void instanceWrittenOnOneInstanceRefreshesTheOthersCachedReport() {
+        ReportService reportsB = nodeB.getBean(ReportService.class);
+        long before = instanceCount(reportsB.getInventoryValuation(officeId, null, null));
+        // Served from the cache until a version changes
+        assertThat(reportsB.getInventoryValuation(officeId, null, null))
+                .isSameAs(reportsB.getInventoryValuation(officeId, null, null));
+
+        transactionA.executeWithoutResult(status -> {
+            ItemInstance instance = new ItemInstance();
+            instance.setItem(nodeA.getBean(ItemRepository.class).getReferenceById(itemId));
+            instance.setInventory(nodeA.getBean(InventoryRepository.class).getReferenceById(inventoryId));
+            instance.setOwnerOffice(nodeA.getBean(OfficeRepository.class).getReferenceById(officeId));
+            instance.setBarcode("VT-" + suffix + "-2");
+            instance.setPurchasePrice(10.0);
+            nodeA.getBean(ItemInstanceRepository.class).save(instance);
+        });
+
+        awaitWithinBound(() -> instanceCount(reportsB.getInventoryValuation(officeId, null, null)) == before + 1,
+                "valuation report");
+    }
+
+    private static <T> T find(Class<? extends JpaRepository<T, Long>> repository,
+                              Long id) {
+        return nodeA.getBean(repository).findById(id).orElseThrow();
+    }
+
+    private static long instanceCount(ReportResult<ValuationLine> report) {
+        return report.rows().stream().mapToLong(ValuationLine::getInstanceCount).sum();
+    }
+
+    private static Long insertInstance(String barcode) {
+        return jdbc.queryForObject("insert into item_instances (item_id, barcode, inventory_id, owner_office_id, " +
+                "status, purchase_price, created_at) values (?, ?, ?, ?, 'AVAILABLE', 10, now()) returning id",
+                Long.class, itemId, barcode, inventoryId, officeId);
+    }
+
+    private static void awaitWithinBound(BooleanSupplier condition, String what) {
+        long started = System.nanoTime();
+        while (!condition.getAsBoolean()) {
+            Duration waited = Duration.ofNanos(System.nanoTime() - started);
+            assertThat(waited).as("%s still stale", what).isLessThan(STALENESS_BOUND);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static HttpResponse<String> getCategories(String token, String ifNoneMatch) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(TestApplication.baseUrl(nodeB) + "/api/categories"))
+                .header("Authorization", "Bearer " + token);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        try {
+            return http.send(request.GET().build(), HttpResponse.BodyHandlers.ofString());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String logIn(ConfigurableApplicationContext node) throws Exception {
+        ObjectMapper objectMapper = node.getBean(ObjectMapper.class);
+        HttpResponse<String> login = http.send(
+                HttpRequest.newBuilder(URI.create(TestApplication.baseUrl(node) + "/api/auth/login"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(
+                                Map.of("username", "version." + suffix, "password", "password123"))))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertThat(login.statusCode()).isEqualTo(200);
+        return objectMapper.readTree(login.body()).get("token").asText();
+    }
+
+    private static ConfigurableApplicationContext startNode() {
+        return TestApplication.start("--cache-bus.poll-interval=" + POLL_INTERVAL.toMillis() + "ms");
+    }
+}
@@ -0,0 +1,96 @@
+package just.inventory.backend.support;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the Gemini generateContent API on a free loopback port. Point
+ * {@code ai.requisition.api-url} at {@link #getApiUrl()}; every call answers with the configured
+ * model text, after the configured delay, or with the configured error status.
+ */
+public class StubGeminiServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    private volatile String modelText = "{\"summary\":\"stub\",\"suggestions\":[]}";
+    private volatile Duration delay = Duration.ZERO;
+    private volatile int status = 200;
+
+    public StubGeminiServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/v1beta/models/", this::handle);
+        // Delayed answers must not hold up the calls behind them
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String getApiUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/v1beta";
+    }
+
+    /** Text of the model's answer, normally the suggestion JSON. */
+    public StubGeminiServer respondWith(String modelText) {
+        this.modelText = modelText;
+        this.status = 200;
+        return this;
+    }
+
+    /** Answers every call with {@code status} and a Gemini error envelope, e.g. 429 for a quota error. */
+    public StubGeminiServer failWith(int status) {
+        this.status = status;
+        return this;
+    }
+
+    public StubGeminiServer delay(Duration delay) {
+        this.delay = delay;
+        return this;
+    }
+
+    /** Calls received so far, answered or not. */
+    public int getCalls() {
+        return calls.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        calls.incrementAndGet();
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            Thread.sleep(delay.toMillis());
+
+            Object body = status == 200
+                    ? Map.of("candidates", List.of(Map.of("content", Map.of("parts", List.of(Map.of("text", modelText))))))
+                    : Map.of("error", Map.of("code", status, "message", "Stub error " + status));
+            byte[] bytes = MAPPER.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package just.inventory.backend.support;
+
+import just.inventory.backend.BackendApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Base64;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Starts the whole backend on free ports against the PostgreSQL database given as
+ * {@code TEST_DATABASE_URL} (with {@code TEST_DATABASE_USERNAME} / {@code TEST_DATABASE_PASSWORD},
+ * default {@code postgres} and no password). Tests using it are enabled by that variable.
+ */
+public final class TestApplication {
+
+    private TestApplication() {
+    }
+
+    /** A running instance; {@code args} are extra {@code --property=value} arguments. */
+    public static ConfigurableApplicationContext start(String... args) {
+        String[] common = {
+                "--spring.datasource.url=" + System.getenv("TEST_DATABASE_URL"),
+                "--spring.datasource.username=" + Objects.requireNonNullElse(System.getenv("TEST_DATABASE_USERNAME"), "postgres"),
+                "--spring.datasource.password=" + Objects.requireNonNullElse(System.getenv("TEST_DATABASE_PASSWORD"), ""),
+                "--jwt.secret=" + Base64.getEncoder().encodeToString(new byte[48]),
+                "--server.port=0",
+                "--management.server.port=0",
+                "--forecast.enabled=false"
+        };
+        return new SpringApplicationBuilder(BackendApplication.class)
+                .run(Stream.concat(Stream.of(common), Stream.of(args)).toArray(String[]::new));
+    }
+
+    /** Base url of the instance's API port. */
+    public static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+}
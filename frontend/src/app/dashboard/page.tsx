@@ -18,31 +18,14 @@ import {
   Clock,
 } from "lucide-react";
 
-import { useMyOfficeInventorySummary } from "@/services/inventoryService";
-import { usePurchases } from "@/services/purchaseService";
-import { useItemRequests } from "@/services/itemRequestService";
-import { useMyOfficeTransactionHistory } from "@/services/inventoryService";
-
-interface InventorySummary {
-  officeId: number;
-  totalItems: number;
-  items: Array<{
-    itemName: string;
-    itemId: number;
-    quantity: number;
-    statusBreakdown: Record<string, number>;
-  }>;
-  overallStatusBreakdown: Record<string, number>;
-}
+import { useDashboardSnapshot } from "@/services/dashboardService";
 
 export default function DashboardPage() {
   const router = useRouter();
   const { user } = useAuth();
 
-  const { data: inventorySummary, isLoading: isLoadingInventory } = useMyOfficeInventorySummary();
-  const { data: purchases = [], isLoading: isLoadingPurchases } = usePurchases();
-  const { data: itemRequests = [], isLoading: isLoadingRequests } = useItemRequests();
-  const { data: transactions = [], isLoading: isLoadingTransactions } = useMyOfficeTransactionHistory();
+  // One request for all metrics and recent activity of the user's office
+  const { data: snapshot, isLoading } = useDashboardSnapshot();
 
   if (!user) {
     return (
@@ -62,17 +45,15 @@ export default function DashboardPage() {
     );
   }
 
-  const summary = inventorySummary as InventorySummary | undefined;
-
-  // Calculate metrics
-  const totalItems = summary?.totalItems || 0;
-  const availableItems = summary?.overallStatusBreakdown?.AVAILABLE || 0;
-  const inUseItems = summary?.overallStatusBreakdown?.IN_USE || 0;
-  const damagedItems = summary?.overallStatusBreakdown?.DAMAGED || 0;
-  const pendingRequests = itemRequests.filter(r => r.status === 'PENDING').length;
-  const recentPurchases = purchases.slice(0, 5);
-  const recentRequests = itemRequests.slice(0, 5);
-  const recentTransactions = transactions.slice(0, 5);
+  const totalItems = snapshot?.totalItems || 0;
+  const availableItems = snapshot?.itemsByStatus?.AVAILABLE || 0;
+  const inUseItems = snapshot?.itemsByStatus?.IN_USE || 0;
+  const damagedItems = snapshot?.itemsByStatus?.DAMAGED || 0;
+  const pendingRequests = snapshot?.sentRequests?.PENDING || 0;
+  const recentPurchases = snapshot?.recentPurchases || [];
+  const recentRequests = snapshot?.recentRequests || [];
+  const recentTransactions = snapshot?.recentTransactions || [];
+  const topItems = [...(snapshot?.items || [])].sort((a, b) => b.quantity - a.quantity).slice(0, 5);
 
   return (
     <PageLayout
@@ -92,7 +73,7 @@ export default function DashboardPage() {
                 <Package className="h-3 w-3 sm:h-4 sm:w-4 text-muted-foreground flex-shrink-0" />
               </CardHeader>
               <CardContent className="p-4 sm:p-6 pt-0">
-                {isLoadingInventory ? (
+                {isLoading ? (
                   <Skeleton className="h-8 w-16" />
                 ) : (
                   <div className="text-xl sm:text-2xl font-bold">{totalItems}</div>
@@ -109,7 +90,7 @@ export default function DashboardPage() {
                 <CheckCircle className="h-3 w-3 sm:h-4 sm:w-4 text-green-600 flex-shrink-0" />
               </CardHeader>
               <CardContent className="p-4 sm:p-6 pt-0">
-                {isLoadingInventory ? (
+                {isLoading ? (
                   <Skeleton className="h-8 w-16" />
                 ) : (
                   <div className="text-xl sm:text-2xl font-bold text-green-600">{availableItems}</div>
@@ -126,7 +107,7 @@ export default function DashboardPage() {
                 <Clock className="h-3 w-3 sm:h-4 sm:w-4 text-blue-600 flex-shrink-0" />
               </CardHeader>
               <CardContent className="p-4 sm:p-6 pt-0">
-                {isLoadingInventory ? (
+                {isLoading ? (
                   <Skeleton className="h-8 w-16" />
                 ) : (
                   <div className="text-xl sm:text-2xl font-bold text-blue-600">{inUseItems}</div>
@@ -143,7 +124,7 @@ export default function DashboardPage() {
                 <AlertCircle className="h-3 w-3 sm:h-4 sm:w-4 text-orange-600 flex-shrink-0" />
               </CardHeader>
               <CardContent className="p-4 sm:p-6 pt-0">
-                {isLoadingRequests ? (
+                {isLoading ? (
                   <Skeleton className="h-8 w-16" />
                 ) : (
                   <div className="text-xl sm:text-2xl font-bold text-orange-600">{pendingRequests}</div>
@@ -164,7 +145,7 @@ export default function DashboardPage() {
                 <CardDescription className="text-xs sm:text-sm">Breakdown of items by status</CardDescription>
               </CardHeader>
               <CardContent className="p-4 sm:p-6 pt-0">
-                {isLoadingInventory ? (
+                {isLoading ? (
                   <div className="space-y-2">
                     <Skeleton className="h-4 w-full" />
                     <Skeleton className="h-4 w-3/4" />
@@ -205,7 +186,7 @@ export default function DashboardPage() {
                 <CardDescription className="text-xs sm:text-sm">Latest item acquisitions</CardDescription>
               </CardHeader>
               <CardContent className="p-4 sm:p-6 pt-0">
-                {isLoadingPurchases ? (
+                {isLoading ? (
                   <div className="space-y-3">
                     <Skeleton className="h-4 w-full" />
                     <Skeleton className="h-4 w-3/4" />
@@ -224,7 +205,7 @@ export default function DashboardPage() {
                             {purchase.supplier} - {purchase.totalItems} item{purchase.totalItems !== 1 ? 's' : ''}
                           </p>
                           <p className="text-xs text-muted-foreground truncate">
-                            {purchase.items.map(item => item.item.name).join(', ')}
+                            {purchase.itemNames}
                           </p>
                           <p className="text-xs text-muted-foreground">
                             Total: ৳{purchase.totalAmount.toFixed(2)}
@@ -252,7 +233,7 @@ export default function DashboardPage() {
                 <CardDescription className="text-xs sm:text-sm">Latest item requests</CardDescription>
               </CardHeader>
               <CardContent className="p-4 sm:p-6 pt-0">
-                {isLoadingRequests ? (
+                {isLoading ? (
                   <div className="space-y-3">
                     <Skeleton className="h-4 w-full" />
                     <Skeleton className="h-4 w-3/4" />
@@ -266,7 +247,7 @@ export default function DashboardPage() {
                         onClick={() => router.push('/requisitions')}
                       >
                         <div className="flex-1 min-w-0">
-                          <p className="text-xs sm:text-sm font-medium truncate">{request.item.name}</p>
+                          <p className="text-xs sm:text-sm font-medium truncate">{request.itemName}</p>
                           <p className="text-xs text-muted-foreground">
                             {request.requestedQuantity} units • {request.status}
                           </p>
@@ -297,7 +278,7 @@ export default function DashboardPage() {
                 <CardDescription className="text-xs sm:text-sm">Latest item movements</CardDescription>
               </CardHeader>
               <CardContent className="p-4 sm:p-6 pt-0">
-                {isLoadingTransactions ? (
+                {isLoading ? (
                   <div className="space-y-3">
                     <Skeleton className="h-4 w-full" />
                     <Skeleton className="h-4 w-3/4" />
@@ -305,8 +286,8 @@ export default function DashboardPage() {
                 ) : recentTransactions.length > 0 ? (
                   <div className="space-y-2 sm:space-y-3">
                     {recentTransactions.map((transaction) => {
-                      const isOutgoing = transaction.fromOffice?.id === summary?.officeId;
-                      const otherOffice = isOutgoing ? (transaction.toOffice?.name || 'Unknown') : (transaction.fromOffice?.name || 'Unknown');
+                      const isOutgoing = transaction.fromOfficeId === snapshot?.officeId;
+                      const otherOffice = isOutgoing ? (transaction.toOfficeName || 'Unknown') : (transaction.fromOfficeName || 'Unknown');
                       const direction = isOutgoing ? 'to' : 'from';
                       
                       return (
@@ -316,7 +297,7 @@ export default function DashboardPage() {
                           onClick={() => router.push('/inventory')}
                         >
                           <div className="flex-1 min-w-0">
-                            <p className="text-xs sm:text-sm font-medium truncate">{transaction.itemInstance?.item?.name || 'Unknown Item'}</p>
+                            <p className="text-xs sm:text-sm font-medium truncate">{transaction.itemName || 'Unknown Item'}</p>
                             <p className="text-xs text-muted-foreground truncate">
                               {transaction.transactionType} • {direction} {otherOffice}
                             </p>
@@ -336,7 +317,7 @@ export default function DashboardPage() {
           </div>
 
           {/* Top Items */}
-          {summary?.items && summary.items.length > 0 && (
+          {topItems.length > 0 && (
             <Card>
               <CardHeader className="p-4 sm:p-6">
                 <CardTitle className="text-base sm:text-lg">Top Items</CardTitle>
@@ -344,7 +325,7 @@ export default function DashboardPage() {
               </CardHeader>
               <CardContent className="p-4 sm:p-6 pt-0">
                 <div className="space-y-2 sm:space-y-3">
-                  {summary.items.slice(0, 5).map((item) => (
+                  {topItems.map((item) => (
                     <div key={item.itemId} className="flex flex-col sm:flex-row sm:items-center sm:justify-between gap-1.5 sm:gap-2 py-1">
                       <div className="flex-1 min-w-0">
                         <p className="text-xs sm:text-sm font-medium truncate">{item.itemName}</p>
@@ -1,5 +1,5 @@
 "use client";
-import { useState, useEffect } from "react";
+import { useState, useCallback, useMemo } from "react";
 import { useRouter } from "next/navigation";
 import { Fragment } from "react";
 
@@ -9,6 +9,7 @@ import {
 } from "@/components/page";
 
 import { PaginationGroup as Pagination } from "@/components/pagination";
+import { SearchInput } from "@/components/search";
 
 import {
   Table,
@@ -28,6 +29,7 @@ import {
   ItemTransaction 
 } from "@/services/inventoryService";
 import { Purchase, PurchaseItem } from "@/services/purchaseService";
+import { useInstanceSearch, SearchPage, ItemInstanceSearchHit } from "@/services/searchService";
 import { useAuth } from "@/contexts/AuthContext";
 import { Badge } from "@/components/ui/badge";
 import { Card, CardDescription, CardHeader, CardTitle } from "@/components/ui/card";
@@ -60,16 +62,15 @@ const RowActions = ({ item, onView, onPrintBarcode }: { item: ItemInstance, onVi
   </div>
 );
 
-// Helper function to search in nested object properties
-const searchInInventory = (items: ItemInstance[], query: string): ItemInstance[] => {
-  if (!query) return items;
-  const lowerQuery = query.toLowerCase();
-  return items.filter(instance => 
-    instance.barcode.toLowerCase().includes(lowerQuery) ||
-    instance.item.name.toLowerCase().includes(lowerQuery) ||
-    (instance.item.description?.toLowerCase().includes(lowerQuery) ?? false) ||
-    instance.ownerOffice.name.toLowerCase().includes(lowerQuery)
-  );
+// Largest page the search endpoint serves; inventory search shows the best matches only
+const SEARCH_LIMIT = 100;
+
+// Instances of the office in the order the server ranked them
+const rankedInstances = (items: ItemInstance[], hits: SearchPage<ItemInstanceSearchHit>): ItemInstance[] => {
+  const byId = new Map(items.map(instance => [instance.id, instance]));
+  return hits.results
+    .map(hit => byId.get(hit.id))
+    .filter((instance): instance is ItemInstance => instance !== undefined);
 };
 
 type GroupedItem = {
@@ -375,7 +376,9 @@ export default function InventoryPage() {
   const { data: transactions = EMPTY_ARRAY, isLoading: transactionsLoading, error: transactionsError } = useMyOfficeTransactionHistory();
   
   const [searchQuery, setSearchQuery] = useState("");
-  const [groupedData, setGroupedData] = useState<GroupedItem[]>([]);
+  const officeId = user?.officeId ? parseInt(user.officeId) : undefined;
+  const { data: searchResults, isFetching: searching, error: searchError } =
+    useInstanceSearch(searchQuery, officeId, 0, SEARCH_LIMIT);
   const [paginatedData, setPaginatedData] = useState<GroupedItem[]>([]);
   const [showBarcodeDialog, setShowBarcodeDialog] = useState(false);
   const [barcodeItems, setBarcodeItems] = useState<{ itemInstanceId: number; barcode: string; itemName: string; }[]>([]);
@@ -387,11 +390,13 @@ export default function InventoryPage() {
       (t.toOffice?.id === parseInt(user?.officeId || '0') || t.fromOffice?.id === parseInt(user?.officeId || '0'))
     ).length;
 
-  useEffect(() => {
-    const filtered = searchInInventory(items, searchQuery);
-    const grouped = groupItemsByName(filtered);
-    setGroupedData(grouped);
-  }, [items, searchQuery]);
+  const isSearching = searchQuery.length > 0;
+  const groupedData = useMemo(() => {
+    if (!isSearching) return groupItemsByName(items);
+    return searchResults ? groupItemsByName(rankedInstances(items, searchResults)) : [];
+  }, [items, isSearching, searchResults]);
+
+  const handleQueryChange = useCallback((query: string) => setSearchQuery(query), []);
 
   const handlePrintBarcode = (item: ItemInstance) => {
     setBarcodeItems([{
@@ -510,16 +515,29 @@ export default function InventoryPage() {
               <TabsContent value="current" className="space-y-3 sm:space-y-4">
 
                 <div className="mb-3 sm:mb-4">
-                  <input
-                    type="text"
-                    placeholder="Search inventory items..."
-                    className="border rounded px-3 py-2 w-full sm:w-64 text-sm sm:text-base"
-                    value={searchQuery}
-                    onChange={(e) => setSearchQuery(e.target.value)}
+                  <SearchInput
+                    config={{
+                      placeholder: "Search by item, barcode or serial number...",
+                      className: "border rounded px-3 py-2 w-full sm:w-64 text-sm sm:text-base",
+                    }}
+                    onQueryChange={handleQueryChange}
                   />
+                  {isSearching && searchResults?.hasNext && (
+                    <p className="mt-2 text-xs sm:text-sm text-muted-foreground">
+                      Showing the best {SEARCH_LIMIT} matches; refine the search to narrow them down.
+                    </p>
+                  )}
                 </div>
 
-                {groupedData.length === 0 ? (
+                {isSearching && searchError ? (
+                  <div className="flex items-center justify-center h-[30vh] text-red-600 text-sm sm:text-base">
+                    Search failed
+                  </div>
+                ) : isSearching && !searchResults && searching ? (
+                  <div className="flex items-center justify-center h-[30vh] text-sm sm:text-base">
+                    Searching...
+                  </div>
+                ) : groupedData.length === 0 ? (
                   <div className="flex items-center justify-center h-[30vh]">
                     <div className="text-center px-4">
                       <Package className="w-10 h-10 sm:w-12 sm:h-12 mx-auto mb-4 text-gray-400" />
@@ -1,5 +1,5 @@
 "use client";
-import { useState, useEffect } from "react";
+import { useState, useEffect, useCallback } from "react";
 import { useRouter } from "next/navigation";
 
 import {
@@ -8,8 +8,8 @@ import {
 } from "@/components/page";
 
 import { FilterGroup as Filter } from "@/components/filters";
-import { SearchGroup as Search } from "@/components/search";
-import { PaginationGroup as Pagination } from "@/components/pagination";
+import { SearchInput as Search } from "@/components/search";
+import { PaginationGroup as Pagination, ServerPaginationGroup as ServerPagination } from "@/components/pagination";
 import { ActionButton } from "@/components/actions";
 import { Button } from "@/components/ui/button";
 
@@ -25,6 +25,7 @@ import {
 import { Eye, Pencil, Trash2 } from "lucide-react";
 import { useTableActions } from "@/hooks/useTableActions";
 import { useItems, Item } from "@/services/itemService";
+import { useItemSearch, ItemSearchHit } from "@/services/searchService";
 import { useCategories } from "@/services/categoryService";
 import { useAuth } from "@/contexts/AuthContext";
 import { canCreateByRole } from "@/lib/permissions";
@@ -33,7 +34,6 @@ import { Card, CardHeader, CardTitle, CardDescription } from "@/components/ui/ca
 
 const searchConfig = {
   placeholder: "Search items...",
-  searchKeys: ["name", "description"],
 };
 
 const paginationConfig = {
@@ -44,6 +44,15 @@ const paginationConfig = {
 
 const EMPTY_ARRAY: any[] = [];
 
+// Search hits carry names only; the table reads them like catalog items
+const toItem = (hit: ItemSearchHit): Item => ({
+  id: hit.id,
+  name: hit.name,
+  description: hit.description,
+  category: hit.categoryName ? { id: 0, name: hit.categoryName } : undefined,
+  unit: hit.unitName ? { id: 0, name: hit.unitName } : undefined,
+});
+
 const Actions = () => {
   const router = useRouter();
   return (
@@ -135,13 +144,22 @@ export default function ItemsPage() {
   const { user } = useAuth();
   const router = useRouter();
   const [filteredData, setFilteredData] = useState<Item[]>([]);
-  const [searchedData, setSearchedData] = useState<Item[]>([]);
   const [paginatedData, setPaginatedData] = useState<Item[]>([]);
+  const [query, setQuery] = useState("");
+  const [searchPage, setSearchPage] = useState(0);
 
   const { data: items = EMPTY_ARRAY, isLoading, error } = useItems();
   const { data: categories = EMPTY_ARRAY } = useCategories();
+  // Matching and ranking happen on the server; the full list is only paged for browsing
+  const { data: searchResults, isFetching: searching, error: searchError } =
+    useItemSearch(query, searchPage, paginationConfig.itemsPerPage);
   const canCreate = canCreateByRole(user?.role);
 
+  const handleQueryChange = useCallback((newQuery: string) => {
+    setQuery(newQuery);
+    setSearchPage(0);
+  }, []);
+
   useEffect(() => {
     setFilteredData(items);
   }, [items]);
@@ -196,6 +214,19 @@ export default function ItemsPage() {
     );
   }
 
+  const isSearching = query.length > 0;
+
+  let body;
+  if (!isSearching) {
+    body = <Body data={paginatedData} />;
+  } else if (searchError) {
+    body = <div className="flex justify-center items-center h-48 sm:h-64 text-red-600 text-sm sm:text-base">Search failed</div>;
+  } else if (!searchResults && searching) {
+    body = <div className="flex justify-center items-center h-48 sm:h-64 text-sm sm:text-base">Searching...</div>;
+  } else {
+    body = <Body data={(searchResults?.results ?? EMPTY_ARRAY).map(toItem)} />;
+  }
+
   return (
     <PageLayout
       header={
@@ -204,28 +235,38 @@ export default function ItemsPage() {
           subtitle="Manage inventory items"
           searchbar={
             <Search
-              data={filteredData}
               config={searchConfig}
-              onSearchedData={setSearchedData}
+              onQueryChange={handleQueryChange}
             />
           }
           filters={
-            <Filter
-              data={items}
-              filters={filterConfigs}
-              onFilteredData={setFilteredData}
-            />
+            isSearching ? null : (
+              <Filter
+                data={items}
+                filters={filterConfigs}
+                onFilteredData={setFilteredData}
+              />
+            )
           }
           actions={canCreate ? <Actions /> : null}
         />
       }
-      body={<Body data={paginatedData} />}
+      body={body}
       footer={
-        <Pagination
-          data={searchedData}
-          config={paginationConfig}
-          onPaginatedData={setPaginatedData}
-        />
+        isSearching ? (
+          <ServerPagination
+            page={searchPage}
+            hasNext={searchResults?.hasNext ?? false}
+            count={searchResults?.results.length ?? 0}
+            onPageChange={setSearchPage}
+          />
+        ) : (
+          <Pagination
+            data={filteredData}
+            config={paginationConfig}
+            onPaginatedData={setPaginatedData}
+          />
+        )
       }
     />
   );
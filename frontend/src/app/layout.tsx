@@ -7,6 +7,7 @@ import Providers from "@/components/layout/Providers";
 import Header from "@/components/layout/Header";
 import Footer from "@/components/layout/Footer";
 import Sidebar from "@/components/layout/Sidebar";
+import OfficeEvents from "@/components/layout/OfficeEvents";
 import "./globals.css";
 
 const geistSans = Geist({
@@ -41,6 +42,7 @@ export default function RootLayout({
       <body className={`${geistSans.variable} ${geistMono.variable} antialiased`}>
         <Providers>
           <AuthProvider>
+            <OfficeEvents />
             {showLayout ? (
               <div className="flex h-screen overflow-hidden">
                 {/* Sidebar - Hidden on mobile, visible on desktop */}
@@ -33,11 +33,18 @@ import {
 } from "lucide-react";
 import {
   getMyOfficeInventory,
-  getMyOfficeInventorySummary,
   getMyOfficePurchases,
   getMyOfficeTransactionHistory,
 } from "@/services/inventoryService";
 import { getHistoryRequests } from "@/services/itemRequestService";
+import {
+  getInventoryValuation,
+  getMovementVolume,
+  getPurchaseSpend,
+  getRequestTurnaround,
+  ReportGranularity,
+} from "@/services/reportService";
+import { downloadExport, ExportFormat, ExportType, submitExport, waitForExport } from "@/services/exportService";
 
 interface ReportCard {
   id: string;
@@ -71,9 +78,9 @@ const availableReports: ReportCard[] = [
     category: "inventory",
   },
   {
-    id: "inventory-status-summary",
-    title: "Inventory Status Summary",
-    description: "Inventory totals and status counts",
+    id: "inventory-valuation",
+    title: "Inventory Valuation",
+    description: "Item counts and value by category and status",
     icon: <BarChart3 className="w-6 h-6 text-green-600" />,
     category: "inventory",
   },
@@ -84,6 +91,13 @@ const availableReports: ReportCard[] = [
     icon: <ArrowRightLeft className="w-6 h-6 text-cyan-600" />,
     category: "transactions",
   },
+  {
+    id: "movement-volume",
+    title: "Movement Volume",
+    description: "Items moved in and out of your office per period",
+    icon: <BarChart3 className="w-6 h-6 text-cyan-600" />,
+    category: "transactions",
+  },
   {
     id: "purchase-summary",
     title: "Purchase Summary",
@@ -91,6 +105,13 @@ const availableReports: ReportCard[] = [
     icon: <ShoppingCart className="w-6 h-6 text-green-600" />,
     category: "purchases",
   },
+  {
+    id: "purchase-spend",
+    title: "Purchase Spend",
+    description: "Spend per period with the running total",
+    icon: <BarChart3 className="w-6 h-6 text-green-600" />,
+    category: "purchases",
+  },
   {
     id: "requests-history",
     title: "Item Requests Report",
@@ -98,6 +119,29 @@ const availableReports: ReportCard[] = [
     icon: <FileText className="w-6 h-6 text-orange-600" />,
     category: "requests",
   },
+  {
+    id: "request-turnaround",
+    title: "Request Turnaround",
+    description: "How fast requests are decided and fulfilled",
+    icon: <BarChart3 className="w-6 h-6 text-orange-600" />,
+    category: "requests",
+  },
+];
+
+// Listing reports that can be exported in full by a server-side export job
+const serverExports: Record<string, ExportType> = {
+  "inventory-items": "inventory",
+  "transaction-history": "transactions",
+  "purchase-summary": "purchases",
+  "requests-history": "requests",
+};
+
+const granularities: { value: ReportGranularity; label: string }[] = [
+  { value: "day", label: "Day" },
+  { value: "week", label: "Week" },
+  { value: "month", label: "Month" },
+  { value: "quarter", label: "Quarter" },
+  { value: "year", label: "Year" },
 ];
 
 export default function ReportsPage() {
@@ -105,9 +149,12 @@ export default function ReportsPage() {
   const [selectedCategory, setSelectedCategory] = useState("all");
   const [startDate, setStartDate] = useState("");
   const [endDate, setEndDate] = useState("");
+  const [granularity, setGranularity] = useState<ReportGranularity>("month");
   const [searchQuery, setSearchQuery] = useState("");
   const [generatingReportId, setGeneratingReportId] = useState<string | null>(null);
   const [generatedReport, setGeneratedReport] = useState<GeneratedReport | null>(null);
+  const [exportingReportId, setExportingReportId] = useState<string | null>(null);
+  const [exportProgress, setExportProgress] = useState<string | null>(null);
 
   const formatDate = (value?: string) => {
     if (!value) return "-";
@@ -124,6 +171,11 @@ export default function ReportsPage() {
     })}`;
   };
 
+  const formatNumber = (value?: number | null, digits = 1) => {
+    if (typeof value !== "number") return "-";
+    return Number.isInteger(value) ? value : value.toFixed(digits);
+  };
+
   const isInDateRange = (value?: string) => {
     if (!value) return false;
     const reportDate = new Date(value);
@@ -196,28 +248,43 @@ export default function ReportsPage() {
             "Purchase Price": formatCurrency(item.purchasePrice),
           })),
         });
-      } else if (report.id === "inventory-status-summary") {
-        const summary = await getMyOfficeInventorySummary();
-        const statusRows = Object.entries(summary.itemsByStatus || {}).map(([status, count]) => ({
-          Metric: `Status - ${status}`,
-          Value: count,
-        }));
-        const categoryRows = Object.entries(summary.itemsByCategory || {}).map(([category, count]) => ({
-          Metric: `Category - ${category}`,
-          Value: count,
-        }));
+      } else if (report.id === "inventory-valuation") {
+        // Aggregated on the server; the range selects instances by purchase date
+        const valuation = await getInventoryValuation({ from: startDate, to: endDate });
+        const totalItems = valuation.rows.reduce((sum, row) => sum + row.instanceCount, 0);
+        const totalValue = valuation.rows.reduce((sum, row) => sum + row.totalValue, 0);
 
         setGeneratedReport({
           id: report.id,
           title: report.title,
-          columns: ["Metric", "Value"],
+          columns: ["Category", "Status", "Items", "Value", "Share"],
           rows: [
-            { Metric: "Total Items", Value: summary.totalItems },
-            { Metric: "Total Value", Value: formatCurrency(summary.totalValue) },
-            ...statusRows,
-            ...categoryRows,
+            ...valuation.rows.map((row) => ({
+              Category: row.categoryName ?? "-",
+              Status: row.status,
+              Items: row.instanceCount,
+              Value: formatCurrency(row.totalValue),
+              Share: typeof row.valueShare === "number" ? `${(row.valueShare * 100).toFixed(1)}%` : "-",
+            })),
+            { Category: "Total", Status: "-", Items: totalItems, Value: formatCurrency(totalValue), Share: "100%" },
           ],
         });
+      } else if (report.id === "movement-volume") {
+        const movements = await getMovementVolume({ from: startDate, to: endDate, granularity });
+
+        setGeneratedReport({
+          id: report.id,
+          title: report.title,
+          columns: ["Period", "Type", "Direction", "Transactions", "Quantity", "Cumulative Quantity"],
+          rows: movements.rows.map((row) => ({
+            Period: formatDate(row.period),
+            Type: row.transactionType,
+            Direction: row.direction,
+            Transactions: row.transactionCount,
+            Quantity: formatNumber(row.quantity, 2),
+            "Cumulative Quantity": formatNumber(row.cumulativeQuantity, 2),
+          })),
+        });
       } else if (report.id === "transaction-history") {
         const transactions = await getMyOfficeTransactionHistory();
         const filtered = (startDate || endDate)
@@ -267,6 +334,53 @@ export default function ReportsPage() {
             "Purchased By": purchase.purchasedBy?.fullName ?? purchase.purchasedBy?.username ?? "-",
           })),
         });
+      } else if (report.id === "purchase-spend") {
+        const spend = await getPurchaseSpend({ from: startDate, to: endDate, granularity });
+
+        setGeneratedReport({
+          id: report.id,
+          title: report.title,
+          columns: ["Period", "Purchases", "Suppliers", "Quantity", "Spend", "Cumulative Spend"],
+          rows: spend.rows.map((row) => ({
+            Period: formatDate(row.period),
+            Purchases: row.purchaseCount,
+            Suppliers: row.supplierCount,
+            Quantity: formatNumber(row.quantity, 2),
+            Spend: formatCurrency(row.spend),
+            "Cumulative Spend": formatCurrency(row.cumulativeSpend),
+          })),
+        });
+      } else if (report.id === "request-turnaround") {
+        const turnaround = await getRequestTurnaround({ from: startDate, to: endDate, granularity });
+
+        setGeneratedReport({
+          id: report.id,
+          title: report.title,
+          columns: [
+            "Period",
+            "Side",
+            "Requests",
+            "Decided",
+            "Fulfilled",
+            "Avg Hours to Decision",
+            "Median Hours to Decision",
+            "Avg Hours to Fulfil",
+            "Median Hours to Fulfil",
+            "P90 Hours to Fulfil",
+          ],
+          rows: turnaround.rows.map((row) => ({
+            Period: formatDate(row.period),
+            Side: row.side === "SENT" ? "Sent" : "Received",
+            Requests: row.requestCount,
+            Decided: row.decidedCount,
+            Fulfilled: row.fulfilledCount,
+            "Avg Hours to Decision": formatNumber(row.avgHoursToDecision),
+            "Median Hours to Decision": formatNumber(row.medianHoursToDecision),
+            "Avg Hours to Fulfil": formatNumber(row.avgHoursToFulfilment),
+            "Median Hours to Fulfil": formatNumber(row.medianHoursToFulfilment),
+            "P90 Hours to Fulfil": formatNumber(row.p90HoursToFulfilment),
+          })),
+        });
       } else if (report.id === "requests-history") {
         const requests = await getHistoryRequests();
         const filtered = (startDate || endDate)
@@ -308,7 +422,32 @@ export default function ReportsPage() {
     }
   };
 
+  const handleServerExport = async (reportId: string, format: ExportFormat) => {
+    try {
+      setExportingReportId(reportId);
+      setExportProgress("Queued");
+      const job = await submitExport({ type: serverExports[reportId], format, from: startDate, to: endDate });
+      const finished = await waitForExport(job.jobId, (current) => {
+        if (current.status === "RUNNING" && current.totalRows) {
+          setExportProgress(`${Math.floor((current.rowsWritten / current.totalRows) * 100)}%`);
+        }
+      });
+      await downloadExport(finished);
+      toast.success(`Exported ${finished.rowsWritten.toLocaleString()} rows`);
+    } catch (error) {
+      toast.error("Failed to export report. Please try again.");
+    } finally {
+      setExportingReportId(null);
+      setExportProgress(null);
+    }
+  };
+
   const handleExportCsv = (reportId: string) => {
+    if (serverExports[reportId]) {
+      void handleServerExport(reportId, "csv");
+      return;
+    }
+
     if (!generatedReport || generatedReport.id !== reportId) {
       toast.info("Generate this report first before exporting.");
       return;
@@ -357,7 +496,7 @@ export default function ReportsPage() {
               <CardDescription>Configure report parameters and date ranges</CardDescription>
             </CardHeader>
             <CardContent>
-              <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-4 gap-4">
+              <div className="grid grid-cols-1 md:grid-cols-2 lg:grid-cols-5 gap-4">
                 <div className="space-y-2">
                   <Label htmlFor="search">Search Reports</Label>
                   <Input
@@ -400,6 +539,24 @@ export default function ReportsPage() {
                     onChange={(e) => setEndDate(e.target.value)}
                   />
                 </div>
+                <div className="space-y-2">
+                  <Label htmlFor="granularity">Group By</Label>
+                  <Select
+                    value={granularity}
+                    onValueChange={(value) => setGranularity(value as ReportGranularity)}
+                  >
+                    <SelectTrigger id="granularity">
+                      <SelectValue placeholder="Select period" />
+                    </SelectTrigger>
+                    <SelectContent>
+                      {granularities.map((option) => (
+                        <SelectItem key={option.value} value={option.value}>
+                          {option.label}
+                        </SelectItem>
+                      ))}
+                    </SelectContent>
+                  </Select>
+                </div>
               </div>
             </CardContent>
           </Card>
@@ -436,10 +593,22 @@ export default function ReportsPage() {
                       variant="outline"
                       onClick={() => handleExportCsv(report.id)}
                       className="w-full"
+                      disabled={exportingReportId === report.id}
                     >
                       <Download className="w-4 h-4 mr-2" />
-                      Export CSV
+                      {exportingReportId === report.id ? `Exporting... ${exportProgress ?? ""}` : "Export CSV"}
                     </Button>
+                    {serverExports[report.id] && (
+                      <Button
+                        variant="outline"
+                        onClick={() => handleServerExport(report.id, "xlsx")}
+                        className="w-full"
+                        disabled={exportingReportId === report.id}
+                      >
+                        <Download className="w-4 h-4 mr-2" />
+                        Export XLSX
+                      </Button>
+                    )}
                   </div>
                 </CardContent>
               </Card>
@@ -17,10 +17,10 @@ import { toast } from "sonner";
 import { useIsMobile } from "@/hooks/use-mobile";
 import { useItems } from "@/services/itemService";
 import { useOffices, Office } from "@/services/officeService";
-import { usePurchases } from "@/services/purchaseService";
+import { usePurchaseSuggestions } from "@/services/purchaseService";
 import { useRequisitionForm } from "../hooks/useRequisitionForm";
 import { CreateRequestDialog } from "../components/CreateRequestDialog";
-import { buildSuggestiveRequisition, SuggestedRequisitionItem } from "../utils/suggestiveRequisition";
+import { toSuggestedRequisitionItems, SuggestedRequisitionItem } from "../utils/suggestiveRequisition";
 
 
 
@@ -28,7 +28,7 @@ export default function SuggestiveRequisitionPage() {
   const router = useRouter();
   const { user } = useAuth();
   const isMobile = useIsMobile();
-  const { data: purchases = [], isLoading: isLoadingPurchases, refetch } = usePurchases();
+  const { data: purchaseSuggestions = [], isLoading: isLoadingPurchases, refetch } = usePurchaseSuggestions(6);
   const { data: items = [] } = useItems();
   const { data: offices = [] } = useOffices();
 
@@ -53,17 +53,9 @@ export default function SuggestiveRequisitionPage() {
 
 
 
-  const myOfficePurchases = useMemo(() => {
-    if (!currentUserOfficeId) {
-      return [];
-    }
-
-    return purchases.filter((purchase) => purchase.office?.id === currentUserOfficeId);
-  }, [purchases, currentUserOfficeId]);
-
   const suggestions = useMemo<SuggestedRequisitionItem[]>(() => {
-    return buildSuggestiveRequisition(myOfficePurchases, items, 6);
-  }, [myOfficePurchases, items]);
+    return toSuggestedRequisitionItems(purchaseSuggestions);
+  }, [purchaseSuggestions]);
 
   if (!user) {
     return (
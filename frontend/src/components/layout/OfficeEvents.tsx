@@ -0,0 +1,11 @@
+"use client";
+
+import { useAuth } from "@/contexts/AuthContext";
+import { useOfficeEvents } from "@/services/officeEventService";
+
+// Subscribes the signed-in user's office to pushed updates; renders nothing
+export default function OfficeEvents() {
+  const { isAuthenticated, user } = useAuth();
+  useOfficeEvents(isAuthenticated && !!user?.officeId);
+  return null;
+}
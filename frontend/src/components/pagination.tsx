@@ -170,3 +170,56 @@ export function PaginationGroup<T = any>({
     </div>
   );
 }
+
+// Previous/next paging over server results that only report whether another page exists
+export function ServerPaginationGroup({
+  page,
+  hasNext,
+  count,
+  onPageChange,
+}: {
+  page: number;
+  hasNext: boolean;
+  count: number;
+  onPageChange: (page: number) => void;
+}) {
+  if (page === 0 && !hasNext) {
+    if (count === 0) {
+      return null;
+    }
+    return (
+      <div className="text-sm text-muted-foreground">
+        Results: {count}
+      </div>
+    );
+  }
+
+  return (
+    <div className="flex items-center justify-between">
+      <div className="text-sm text-muted-foreground">
+        Page {page + 1}
+      </div>
+      <Pagination>
+      <PaginationContent>
+        <PaginationItem>
+          <PaginationPrevious
+            onClick={() => page > 0 && onPageChange(page - 1)}
+            className={page === 0 ? "pointer-events-none opacity-50" : "cursor-pointer"}
+          />
+        </PaginationItem>
+        <PaginationItem>
+          <PaginationLink isActive className="cursor-default">
+            {page + 1}
+          </PaginationLink>
+        </PaginationItem>
+        <PaginationItem>
+          <PaginationNext
+            onClick={() => hasNext && onPageChange(page + 1)}
+            className={!hasNext ? "pointer-events-none opacity-50" : "cursor-pointer"}
+          />
+        </PaginationItem>
+      </PaginationContent>
+    </Pagination>
+    </div>
+  );
+}
@@ -48,3 +48,30 @@ export function SearchGroup<T = any>({
         />
     );
 }
+
+// Reports the typed query once the user pauses, for pages that search on the server
+export function SearchInput({
+    config,
+    onQueryChange,
+    delayMs = 250,
+}: {
+    config: Omit<SearchConfig, "searchKeys">;
+    onQueryChange: (query: string) => void;
+    delayMs?: number;
+}) {
+    const [searchQuery, setSearchQuery] = useState("");
+
+    useEffect(() => {
+        const timer = setTimeout(() => onQueryChange(searchQuery.trim()), delayMs);
+        return () => clearTimeout(timer);
+    }, [searchQuery, delayMs, onQueryChange]);
+
+    return (
+        <input
+            type="text"
+            placeholder={config.placeholder || "Search..."}
+            className={config.className || "border rounded px-3 py-2 w-full sm:w-64 text-sm sm:text-base placeholder:text-xs sm:placeholder:text-sm"}
+            onChange={(e) => setSearchQuery(e.target.value)}
+        />
+    );
+}
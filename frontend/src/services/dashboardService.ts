@@ -0,0 +1,69 @@
+import api from "@/lib/api";
+import { useQuery } from "@tanstack/react-query";
+
+export interface DashboardItemCounts {
+  itemId: number;
+  itemName: string;
+  quantity: number;
+  statusBreakdown: Record<string, number>;
+}
+
+export interface DashboardPurchaseLine {
+  id: number;
+  supplier: string;
+  purchasedDate: string;
+  totalItems: number;
+  totalAmount: number;
+  itemNames?: string | null;
+}
+
+export interface DashboardRequestLine {
+  id: number;
+  requestedDate: string;
+  itemName: string;
+  requestedQuantity: number;
+  status: string;
+}
+
+export interface DashboardTransactionLine {
+  id: number;
+  transactionDate: string;
+  transactionType: string;
+  status: string;
+  itemName?: string | null;
+  fromOfficeId?: number | null;
+  fromOfficeName?: string | null;
+  toOfficeId?: number | null;
+  toOfficeName?: string | null;
+}
+
+// Counts are keyed by status name
+export interface DashboardSnapshot {
+  officeId: number;
+  totalItems: number;
+  itemsByStatus: Record<string, number>;
+  items: DashboardItemCounts[];
+  sentRequests: Record<string, number>;
+  receivedRequests: Record<string, number>;
+  incomingTransactions: Record<string, number>;
+  outgoingTransactions: Record<string, number>;
+  purchaseCount: number;
+  recentPurchases: DashboardPurchaseLine[];
+  recentRequests: DashboardRequestLine[];
+  recentTransactions: DashboardTransactionLine[];
+  generatedAt: string;
+}
+
+// Get everything the dashboard shows for the current user's office
+export const getDashboardSnapshot = async (): Promise<DashboardSnapshot> => {
+  const response = await api.get("/dashboard/snapshot");
+  return response.data;
+};
+
+// React Query Hooks
+export const useDashboardSnapshot = () => {
+  return useQuery({
+    queryKey: ['dashboard', 'snapshot'],
+    queryFn: getDashboardSnapshot,
+  });
+};
@@ -0,0 +1,77 @@
+import api from "@/lib/api";
+
+export type ExportType = "inventory" | "transactions" | "requests" | "purchases";
+export type ExportFormat = "csv" | "xlsx";
+
+export interface ExportRequest {
+  type: ExportType;
+  format?: ExportFormat;
+  officeId?: number;
+  from?: string;
+  to?: string;
+}
+
+export interface ExportJob {
+  jobId: string;
+  type: ExportType;
+  format: ExportFormat;
+  officeId: number;
+  status: "PENDING" | "RUNNING" | "COMPLETED" | "FAILED" | "CANCELLED";
+  rowsWritten: number;
+  totalRows?: number | null;
+  error?: string | null;
+  fileName: string;
+  sizeBytes?: number | null;
+  downloadUrl?: string | null;
+  submittedAt: string;
+  finishedAt?: string | null;
+}
+
+// Start a background export; the file is written on the server
+export const submitExport = async (request: ExportRequest): Promise<ExportJob> => {
+  const response = await api.post("/exports", {
+    ...request,
+    from: request.from || undefined,
+    to: request.to || undefined,
+  });
+  return response.data;
+};
+
+export const getExportJob = async (jobId: string): Promise<ExportJob> => {
+  const response = await api.get(`/exports/${jobId}`);
+  return response.data;
+};
+
+export const cancelExport = async (jobId: string): Promise<void> => {
+  await api.delete(`/exports/${jobId}`);
+};
+
+// Poll until the export has finished, reporting progress on the way
+export const waitForExport = async (
+  jobId: string,
+  onProgress?: (job: ExportJob) => void,
+  intervalMs = 2000
+): Promise<ExportJob> => {
+  for (;;) {
+    const job = await getExportJob(jobId);
+    onProgress?.(job);
+    if (job.status === "COMPLETED") return job;
+    if (job.status === "FAILED" || job.status === "CANCELLED") {
+      throw new Error(job.error || `Export ${job.status.toLowerCase()}`);
+    }
+    await new Promise((resolve) => setTimeout(resolve, intervalMs));
+  }
+};
+
+// Save a completed export through the browser
+export const downloadExport = async (job: ExportJob): Promise<void> => {
+  const response = await api.get(`/exports/${job.jobId}/download`, { responseType: "blob" });
+  const url = URL.createObjectURL(response.data);
+  const link = document.createElement("a");
+  link.href = url;
+  link.setAttribute("download", job.fileName);
+  document.body.appendChild(link);
+  link.click();
+  document.body.removeChild(link);
+  URL.revokeObjectURL(url);
+};
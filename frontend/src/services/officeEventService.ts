@@ -0,0 +1,104 @@
+import api, { KEY } from "@/lib/api";
+import { QueryClient, useQueryClient } from "@tanstack/react-query";
+import { useEffect } from "react";
+
+export type OfficeEventType = "distributions.pending" | "requests.incoming" | "requests.updated";
+
+export interface OfficeEvent {
+  type: OfficeEventType;
+  officeId: number;
+  referenceId?: number | null;
+  count: number;
+}
+
+const RETRY_DELAY_MS = 2000;
+const MAX_RETRY_DELAY_MS = 30000;
+
+// Lists each event makes stale; they are refetched the next time they are shown
+const INVALIDATED_QUERIES: Record<OfficeEventType, string[][]> = {
+  "distributions.pending": [["distributions"], ["dashboard"]],
+  "requests.incoming": [["itemRequests"], ["dashboard"]],
+  "requests.updated": [["itemRequests"], ["dashboard"]],
+};
+
+const handleEvent = (queryClient: QueryClient, name: string) => {
+  const queryKeys = INVALIDATED_QUERIES[name as OfficeEventType];
+  queryKeys?.forEach((queryKey) => queryClient.invalidateQueries({ queryKey }));
+};
+
+// Reads the server-sent events of the current user's office. EventSource cannot send the
+// Authorization header, so the stream is read through fetch instead.
+const readEvents = async (signal: AbortSignal, onEvent: (name: string) => void) => {
+  const token = localStorage.getItem(KEY.auth_token);
+  const response = await fetch(`${api.defaults.baseURL}/events/stream`, {
+    headers: {
+      Accept: "text/event-stream",
+      ...(token ? { Authorization: `Bearer ${token}` } : {}),
+    },
+    credentials: "include",
+    signal,
+  });
+  if (!response.ok || !response.body) {
+    throw new Error(`Event stream failed with status ${response.status}`);
+  }
+
+  const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = "";
+  let eventName = "message";
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) return;
+    buffer += value;
+    const lines = buffer.split(/\r?\n/);
+    buffer = lines.pop() ?? "";
+    for (const line of lines) {
+      if (line === "") {
+        onEvent(eventName);
+        eventName = "message";
+      } else if (line.startsWith("event:")) {
+        eventName = line.slice(6).trim();
+      }
+    }
+  }
+};
+
+// Keeps the pending distribution and request lists fresh by invalidating them when the
+// server announces a change, reconnecting with backoff whenever the stream ends
+export const useOfficeEvents = (enabled: boolean) => {
+  const queryClient = useQueryClient();
+
+  useEffect(() => {
+    if (!enabled) return;
+    const controller = new AbortController();
+    let retryDelay = RETRY_DELAY_MS;
+    let retryTimer: ReturnType<typeof setTimeout> | undefined;
+    let reconnecting = false;
+
+    const connect = () => {
+      readEvents(controller.signal, (name) => {
+        if (name === "connected") {
+          retryDelay = RETRY_DELAY_MS;
+          // Events sent while the stream was down are lost, so refetch everything they cover
+          if (reconnecting) {
+            Object.keys(INVALIDATED_QUERIES).forEach((type) => handleEvent(queryClient, type));
+          }
+          reconnecting = true;
+          return;
+        }
+        handleEvent(queryClient, name);
+      })
+        .catch(() => undefined)
+        .finally(() => {
+          if (controller.signal.aborted) return;
+          retryTimer = setTimeout(connect, retryDelay);
+          retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MS);
+        });
+    };
+    connect();
+
+    return () => {
+      controller.abort();
+      clearTimeout(retryTimer);
+    };
+  }, [enabled, queryClient]);
+};
@@ -37,6 +37,17 @@ export interface Purchase {
   };
 }
 
+// Item the current user's office buys often, ranked by the server
+export interface PurchaseSuggestion {
+  itemId: number;
+  itemName: string;
+  quantity: number;
+  purchaseCount: number;
+  totalQuantity: number;
+  lastPurchasedAt?: string;
+  score: number;
+}
+
 export interface CreatePurchaseItemRequest {
   itemId: number;
   quantity: number;
@@ -75,6 +86,12 @@ export const getPurchasesByOffice = async (officeId: number): Promise<Purchase[]
   return response.data;
 };
 
+// Get requisition suggestions from the current user's office purchase history
+export const getPurchaseSuggestions = async (limit: number = 6): Promise<PurchaseSuggestion[]> => {
+  const response = await api.get("/purchases/suggestions", { params: { limit } });
+  return response.data;
+};
+
 // React Query Hooks
 export const usePurchases = () => {
   return useQuery({
@@ -99,6 +116,13 @@ export const usePurchasesByOffice = (officeId: number) => {
   });
 };
 
+export const usePurchaseSuggestions = (limit: number = 6) => {
+  return useQuery({
+    queryKey: ['purchases', 'suggestions', limit],
+    queryFn: () => getPurchaseSuggestions(limit),
+  });
+};
+
 export const useCreatePurchase = () => {
   const queryClient = useQueryClient();
   return useMutation({
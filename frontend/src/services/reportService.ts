@@ -0,0 +1,102 @@
+import api from "@/lib/api";
+
+export type ReportGranularity = "day" | "week" | "month" | "quarter" | "year";
+
+export interface ReportResult<T> {
+  report: string;
+  officeId: number;
+  from?: string | null;
+  to?: string | null;
+  granularity?: ReportGranularity | null;
+  generatedAt: string;
+  rows: T[];
+}
+
+export interface ValuationLine {
+  categoryName?: string | null;
+  status: string;
+  instanceCount: number;
+  totalValue: number;
+  valueShare?: number | null;
+}
+
+export interface MovementLine {
+  period: string;
+  transactionType: string;
+  direction: "IN" | "OUT";
+  transactionCount: number;
+  quantity: number;
+  cumulativeQuantity: number;
+}
+
+export interface PurchaseSpendLine {
+  period: string;
+  purchaseCount: number;
+  supplierCount: number;
+  quantity: number;
+  spend: number;
+  cumulativeSpend: number;
+}
+
+export interface TurnaroundLine {
+  period: string;
+  side: "SENT" | "RECEIVED";
+  requestCount: number;
+  decidedCount: number;
+  fulfilledCount: number;
+  avgHoursToDecision?: number | null;
+  medianHoursToDecision?: number | null;
+  avgHoursToFulfilment?: number | null;
+  medianHoursToFulfilment?: number | null;
+  p90HoursToFulfilment?: number | null;
+}
+
+// Date range (inclusive yyyy-mm-dd days, either end optional) and time bucket of a report;
+// officeId defaults to the current user's office on the server
+export interface ReportParams {
+  officeId?: number;
+  from?: string;
+  to?: string;
+  granularity?: ReportGranularity;
+}
+
+const params = ({ officeId, from, to, granularity }: ReportParams) => ({
+  officeId,
+  from: from || undefined,
+  to: to || undefined,
+  granularity,
+});
+
+// Inventory value per category and status, for instances bought within the range
+export const getInventoryValuation = async (
+  reportParams: ReportParams = {}
+): Promise<ReportResult<ValuationLine>> => {
+  const response = await api.get("/reports/inventory-valuation", {
+    params: params({ ...reportParams, granularity: undefined }),
+  });
+  return response.data;
+};
+
+// Transactions in and out of the office per period and type
+export const getMovementVolume = async (
+  reportParams: ReportParams = {}
+): Promise<ReportResult<MovementLine>> => {
+  const response = await api.get("/reports/movements", { params: params(reportParams) });
+  return response.data;
+};
+
+// Purchase spend per period with the running total
+export const getPurchaseSpend = async (
+  reportParams: ReportParams = {}
+): Promise<ReportResult<PurchaseSpendLine>> => {
+  const response = await api.get("/reports/purchase-spend", { params: params(reportParams) });
+  return response.data;
+};
+
+// Decision and fulfilment times of requests sent and received per period
+export const getRequestTurnaround = async (
+  reportParams: ReportParams = {}
+): Promise<ReportResult<TurnaroundLine>> => {
+  const response = await api.get("/reports/request-turnaround", { params: params(reportParams) });
+  return response.data;
+};
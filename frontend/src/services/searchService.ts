@@ -0,0 +1,66 @@
+import api from "@/lib/api";
+import { useQuery } from "@tanstack/react-query";
+
+export interface SearchPage<T> {
+  query: string;
+  page: number;
+  size: number;
+  hasNext: boolean;
+  results: T[];
+}
+
+export interface ItemSearchHit {
+  id: number;
+  name: string;
+  description?: string;
+  categoryName?: string;
+  unitName?: string;
+  score: number;
+}
+
+export interface ItemInstanceSearchHit {
+  id: number;
+  barcode: string;
+  serialNumber?: string;
+  status: string;
+  itemId: number;
+  itemName: string;
+  officeId: number;
+  officeName: string;
+  officeNameBn?: string;
+  score: number;
+}
+
+// Ranked, typo-tolerant catalog search
+export const searchItems = async (q: string, page = 0, size = 20): Promise<SearchPage<ItemSearchHit>> => {
+  const response = await api.get("/search/items", { params: { q, page, size } });
+  return response.data;
+};
+
+// Instance search by barcode, serial number, item or office name (non-admins: own office only)
+export const searchInstances = async (
+  q: string,
+  officeId?: number,
+  page = 0,
+  size = 20
+): Promise<SearchPage<ItemInstanceSearchHit>> => {
+  const response = await api.get("/search/instances", { params: { q, officeId, page, size } });
+  return response.data;
+};
+
+// React Query Hooks
+export const useItemSearch = (q: string, page = 0, size = 20) => {
+  return useQuery({
+    queryKey: ['search', 'items', q, page, size],
+    queryFn: () => searchItems(q, page, size),
+    enabled: q.trim().length > 0,
+  });
+};
+
+export const useInstanceSearch = (q: string, officeId?: number, page = 0, size = 20) => {
+  return useQuery({
+    queryKey: ['search', 'instances', q, officeId, page, size],
+    queryFn: () => searchInstances(q, officeId, page, size),
+    enabled: q.trim().length > 0,
+  });
+};